@@ -43,6 +43,7 @@ public class StartHandler extends CommandHandler {
         String host = CLIOptionsParser.parseOption("--host", args);
         boolean foreground = CLIOptionsParser.hasKey("--foreground", args);
         boolean forceNoInMemDB = CLIOptionsParser.hasKey("--no-in-mem-db", args);
+        boolean withCds = CLIOptionsParser.hasKey("--with-cds", args);
 
         List<String> commands = new ArrayList<>();
         if (OperatingSystem.getOS() == OperatingSystem.OS.WINDOWS) {
@@ -52,6 +53,9 @@ public class StartHandler extends CommandHandler {
             if (space != null) {
                 commands.add("-Xmx" + space + "M");
             }
+            if (withCds) {
+                addCdsOptions(commands, installationDir);
+            }
             commands.add("io.supertokens.Main");
             commands.add("\"" + installationDir + "\\\""); // so many quotes at the end cause installationDir also ends
             // in \
@@ -80,6 +84,9 @@ public class StartHandler extends CommandHandler {
             if (space != null) {
                 commands.add("-Xmx" + space + "M");
             }
+            if (withCds) {
+                addCdsOptions(commands, installationDir);
+            }
             commands.add("io.supertokens.Main");
             commands.add(installationDir);
             if (configPath != null) {
@@ -143,6 +150,19 @@ public class StartHandler extends CommandHandler {
         }
     }
 
+    // Uses the class data sharing archive at <installationDir>/core.jsa, so that the classes loaded during startup are
+    // mapped from it instead of being parsed and verified again. The archive is made by the cdsArchive gradle task,
+    // and if it does not exist or was made with a different JRE or jars, the JVM creates it again when this process
+    // exits.
+    private static void addCdsOptions(List<String> commands, String installationDir) {
+        if (OperatingSystem.getOS() == OperatingSystem.OS.WINDOWS) {
+            commands.add("-XX:SharedArchiveFile=\"" + installationDir + "core.jsa\"");
+        } else {
+            commands.add("-XX:SharedArchiveFile=" + installationDir + "core.jsa");
+        }
+        commands.add("-XX:+AutoCreateSharedArchive");
+    }
+
     @Override
     public String getShortDescription() {
         return "Start an instance of SuperTokens";
@@ -151,7 +171,7 @@ public class StartHandler extends CommandHandler {
     @Override
     public String getUsage() {
         return "supertokens start [--with-space=<amount in mb>] [--with-config=<config file path>]" + " "
-                + "[--port=<value>] " + "[--host=<value>] [--foreground]";
+                + "[--port=<value>] " + "[--host=<value>] [--foreground] [--with-cds]";
     }
 
     @Override
@@ -181,6 +201,9 @@ public class StartHandler extends CommandHandler {
                 new Option("--foreground", "Runs this instance of SuperTokens in the foreground (not as a daemon)"));
         options.add(
                 new Option("--with-temp-dir", "Uses the passed dir as temp dir, instead of the internal default."));
+        options.add(new Option("--with-cds",
+                "Uses a class data sharing archive to start faster. The archive is created on the first start if it "
+                        + "does not exist"));
         return options;
     }
 
@@ -2,12 +2,18 @@
 
 ST_INSTALL_LOC=$ST_INSTALL_LOC
 
+# use the class data sharing archive made by the cdsArchive gradle task, if there is one
+ST_CDS_OPTION=""
+if [ -f "${ST_INSTALL_LOC}cli.jsa" ]; then
+  ST_CDS_OPTION="-XX:SharedArchiveFile=${ST_INSTALL_LOC}cli.jsa"
+fi
+
 if [ -f /proc/1/cgroup ] && grep docker /proc/1/cgroup -qa; then
   trap 'kill -TERM $PID' TERM INT
-  "${ST_INSTALL_LOC}"jre/bin/java -classpath "${ST_INSTALL_LOC}cli/*" io.supertokens.cli.Main false "${ST_INSTALL_LOC}" $@ &
+  "${ST_INSTALL_LOC}"jre/bin/java $ST_CDS_OPTION -classpath "${ST_INSTALL_LOC}cli/*" io.supertokens.cli.Main false "${ST_INSTALL_LOC}" $@ &
   PID=$!
   wait $PID
   trap - TERM INT
 else
-  "${ST_INSTALL_LOC}"jre/bin/java -classpath "${ST_INSTALL_LOC}cli/*" io.supertokens.cli.Main false "${ST_INSTALL_LOC}" $@
+  "${ST_INSTALL_LOC}"jre/bin/java $ST_CDS_OPTION -classpath "${ST_INSTALL_LOC}cli/*" io.supertokens.cli.Main false "${ST_INSTALL_LOC}" $@
 fi
@@ -7,6 +7,7 @@ import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.auth0.jwt.interfaces.RSAKeyProvider;
 import com.google.gson.*;
+import io.supertokens.ActiveUsers;
 import io.supertokens.Main;
 import io.supertokens.ProcessState;
 import io.supertokens.cronjobs.Cronjobs;
@@ -19,8 +20,8 @@ import io.supertokens.featureflag.exceptions.NoLicenseKeyFoundException;
 import io.supertokens.httpRequest.HttpRequest;
 import io.supertokens.httpRequest.HttpResponseException;
 import io.supertokens.multitenancy.Multitenancy;
+import io.supertokens.oauth.OAuth;
 import io.supertokens.output.Logging;
-import io.supertokens.pluginInterface.ActiveUsersStorage;
 import io.supertokens.pluginInterface.KeyValueInfo;
 import io.supertokens.pluginInterface.STORAGE_TYPE;
 import io.supertokens.pluginInterface.Storage;
@@ -36,6 +37,7 @@ import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoun
 import io.supertokens.pluginInterface.oauth.OAuthStorage;
 import io.supertokens.pluginInterface.session.sqlStorage.SessionSQLStorage;
 import io.supertokens.storageLayer.StorageLayer;
+import io.supertokens.utils.CryptoPrimitives;
 import io.supertokens.utils.Utils;
 import io.supertokens.version.Version;
 import org.jetbrains.annotations.TestOnly;
@@ -52,10 +54,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class EEFeatureFlag implements io.supertokens.featureflag.EEFeatureFlagInterface {
     public static final int INTERVAL_BETWEEN_SERVER_SYNC = 3600 * 24; // 1 day (in seconds).
     private static final long INTERVAL_BETWEEN_DB_READS = (long) 1000 * 3600 * 4; // 4 hour (in millis).
+    private static final long INTERVAL_BETWEEN_DAILY_COUNTS_RECOMPUTE = (long) 1000 * 60; // 1 minute (in millis).
+    private static final int NUMBER_OF_DAYS_IN_DAILY_COUNTS = 31;
+    private static final long INTERVAL_BETWEEN_PAID_FEATURE_STATS_RECOMPUTE = (long) 1000 * 300; // 5 mins (in millis).
     public static final String REQUEST_ID = "licensecheck";
 
     public static final String FEATURE_FLAG_KEY_IN_DB = "FEATURE_FLAG";
@@ -90,12 +96,71 @@ public class EEFeatureFlag implements io.supertokens.featureflag.EEFeatureFlagIn
 
     private AppIdentifier appIdentifier;
 
+    // the 31 day MAU and M2M token histograms are cached per app so that frequent calls to getPaidFeatureStats
+    // (from the feature flag API and license checks) do not each run a fresh set of count queries.
+    private volatile CachedDailyCounts mausCache = null;
+    private volatile CachedDailyCounts m2mTokensCreatedCache = null;
+
+    // how long the daily counts and the paid feature stats snapshot are reused for. 0 means that they are always
+    // recomputed, which is the default while testing so that tests see their changes right away.
+    private long dailyCountsRecomputeInterval = Main.isTesting ? 0 : INTERVAL_BETWEEN_DAILY_COUNTS_RECOMPUTE;
+    private long paidFeatureStatsRecomputeInterval = Main.isTesting ? 0 :
+            INTERVAL_BETWEEN_PAID_FEATURE_STATS_RECOMPUTE;
+
+    // getPaidFeatureStats runs a few count queries per tenant of the app, and is polled by the dashboard and sent with
+    // every license check. So we keep the last result along with the version it was computed for. The version is
+    // bumped when the tenants, configs or enabled features of this app change, which forces a recompute, and
+    // otherwise the snapshot is reused for INTERVAL_BETWEEN_PAID_FEATURE_STATS_RECOMPUTE.
+    // The MAU and M2M token counts in a snapshot can come from the daily counts cache above, so they can be up to
+    // INTERVAL_BETWEEN_PAID_FEATURE_STATS_RECOMPUTE + INTERVAL_BETWEEN_DAILY_COUNTS_RECOMPUTE (6 mins) old.
+    private final AtomicLong paidFeatureStatsVersion = new AtomicLong(0);
+    private final Object paidFeatureStatsLock = new Object();
+    private volatile PaidFeatureStatsSnapshot paidFeatureStatsSnapshot = null;
+
+    private static class PaidFeatureStatsSnapshot {
+        final JsonObject stats;
+        final long version;
+        final long computedAt;
+
+        PaidFeatureStatsSnapshot(JsonObject stats, long version, long computedAt) {
+            this.stats = stats;
+            this.version = version;
+            this.computedAt = computedAt;
+        }
+    }
+
+    private static class CachedDailyCounts {
+        final int[] counts;
+        final long computedAt;
+
+        CachedDailyCounts(int[] counts, long computedAt) {
+            this.counts = counts;
+            this.computedAt = computedAt;
+        }
+
+        JsonArray toJsonArray() {
+            JsonArray result = new JsonArray();
+            for (int count : counts) {
+                result.add(new JsonPrimitive(count));
+            }
+            return result;
+        }
+    }
+
     @Override
     @TestOnly
     public void updateEnabledFeaturesValueReadFromDbTime(long newTime) {
         this.enabledFeaturesValueReadFromDbTime = newTime;
     }
 
+    @Override
+    @TestOnly
+    public void setStatsCacheIntervalsForTest(long dailyCountsRecomputeInterval,
+                                              long paidFeatureStatsRecomputeInterval) {
+        this.dailyCountsRecomputeInterval = dailyCountsRecomputeInterval;
+        this.paidFeatureStatsRecomputeInterval = paidFeatureStatsRecomputeInterval;
+    }
+
     @Override
     public void constructor(Main main, AppIdentifier appIdentifier) {
         this.main = main;
@@ -353,41 +418,70 @@ public class EEFeatureFlag implements io.supertokens.featureflag.EEFeatureFlagIn
     private JsonObject getOAuthStats() throws StorageQueryException, TenantOrAppNotFoundException {
         JsonObject result = new JsonObject();
 
-        OAuthStorage oAuthStorage = StorageUtils.getOAuthStorage(StorageLayer.getStorage(
-            this.appIdentifier.getAsPublicTenantIdentifier(), main));
+        Storage storage = StorageLayer.getStorage(this.appIdentifier.getAsPublicTenantIdentifier(), main);
+        OAuthStorage oAuthStorage = StorageUtils.getOAuthStorage(storage);
         
         result.addProperty("totalNumberOfClients", oAuthStorage.countTotalNumberOfOAuthClients(appIdentifier));
         result.addProperty("numberOfClientCredentialsOnlyClients", oAuthStorage.countTotalNumberOfClientCredentialsOnlyOAuthClients(appIdentifier));
         result.addProperty("numberOfM2MTokensAlive", oAuthStorage.countTotalNumberOfOAuthM2MTokensAlive(appIdentifier));
 
+        CachedDailyCounts tokensCreated = this.m2mTokensCreatedCache;
         long now = System.currentTimeMillis();
-        JsonArray tokensCreatedArray = new JsonArray();
-        for (int i = 1; i <= 31; i++) {
-            long timestamp = now - (i * 24 * 60 * 60 * 1000L);
-            int numberOfTokensCreated = oAuthStorage.countTotalNumberOfOAuthM2MTokensCreatedSince(this.appIdentifier, timestamp);
-            tokensCreatedArray.add(new JsonPrimitive(numberOfTokensCreated));
+        if (tokensCreated == null || now - tokensCreated.computedAt >= this.dailyCountsRecomputeInterval) {
+            tokensCreated = new CachedDailyCounts(OAuth.countTotalNumberOfM2MTokensCreatedSinceForEachDay(
+                    this.appIdentifier, storage, now, NUMBER_OF_DAYS_IN_DAILY_COUNTS), now);
+            this.m2mTokensCreatedCache = tokensCreated;
         }
-        result.add("numberOfM2MTokensCreated", tokensCreatedArray);
+        result.add("numberOfM2MTokensCreated", tokensCreated.toJsonArray());
 
         return result;
     }
 
     private JsonArray getMAUs() throws StorageQueryException, TenantOrAppNotFoundException {
-        JsonArray mauArr = new JsonArray();
+        CachedDailyCounts maus = this.mausCache;
         long now = System.currentTimeMillis();
-
-        for (int i = 1; i <= 31; i++) {
-            long timestamp = now - (i * 24 * 60 * 60 * 1000L);
-            ActiveUsersStorage activeUsersStorage = (ActiveUsersStorage) StorageLayer.getStorage(
-                    this.appIdentifier.getAsPublicTenantIdentifier(), main);
-            int mau = activeUsersStorage.countUsersActiveSince(this.appIdentifier, timestamp);
-            mauArr.add(new JsonPrimitive(mau));
+        if (maus == null || now - maus.computedAt >= this.dailyCountsRecomputeInterval) {
+            maus = new CachedDailyCounts(ActiveUsers.countUsersActiveSinceForEachDay(main, this.appIdentifier, now,
+                    NUMBER_OF_DAYS_IN_DAILY_COUNTS), now);
+            this.mausCache = maus;
         }
-        return mauArr;
+        return maus.toJsonArray();
+    }
+
+    @Override
+    public void invalidatePaidFeatureStats() {
+        this.paidFeatureStatsVersion.incrementAndGet();
+    }
+
+    private boolean isPaidFeatureStatsSnapshotUpToDate(PaidFeatureStatsSnapshot snapshot) {
+        return snapshot != null && snapshot.version == this.paidFeatureStatsVersion.get()
+                && System.currentTimeMillis() - snapshot.computedAt < this.paidFeatureStatsRecomputeInterval;
     }
 
     @Override
     public JsonObject getPaidFeatureStats() throws StorageQueryException, TenantOrAppNotFoundException {
+        PaidFeatureStatsSnapshot snapshot = this.paidFeatureStatsSnapshot;
+        if (isPaidFeatureStatsSnapshotUpToDate(snapshot)) {
+            return snapshot.stats.deepCopy();
+        }
+
+        // only one caller recomputes the stats, and the others that were waiting get the new snapshot.
+        synchronized (this.paidFeatureStatsLock) {
+            snapshot = this.paidFeatureStatsSnapshot;
+            if (isPaidFeatureStatsSnapshotUpToDate(snapshot)) {
+                return snapshot.stats.deepCopy();
+            }
+            // we read the version before computing so that a change that happens while we compute causes the
+            // next call to recompute again.
+            long version = this.paidFeatureStatsVersion.get();
+            long now = System.currentTimeMillis();
+            JsonObject stats = computePaidFeatureStats();
+            this.paidFeatureStatsSnapshot = new PaidFeatureStatsSnapshot(stats, version, now);
+            return stats.deepCopy();
+        }
+    }
+
+    private JsonObject computePaidFeatureStats() throws StorageQueryException, TenantOrAppNotFoundException {
         JsonObject usageStats = new JsonObject();
 
         if (StorageLayer.getStorage(this.appIdentifier.getAsPublicTenantIdentifier(), main).getType() !=
@@ -460,8 +554,13 @@ public class EEFeatureFlag implements io.supertokens.featureflag.EEFeatureFlagIn
             BigInteger modulus = new BigInteger(1, Base64.getUrlDecoder().decode(JWT_PUBLIC_KEY_N));
             BigInteger exponent = new BigInteger(1, Base64.getUrlDecoder().decode(JWT_PUBLIC_KEY_E));
 
-            RSAPublicKey publicKey = (RSAPublicKey) KeyFactory.getInstance("RSA")
-                    .generatePublic(new RSAPublicKeySpec(modulus, exponent));
+            RSAPublicKey publicKey;
+            KeyFactory keyFactory = CryptoPrimitives.keyFactory("RSA");
+            try {
+                publicKey = (RSAPublicKey) keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent));
+            } finally {
+                CryptoPrimitives.release(keyFactory);
+            }
             Algorithm verificationAlgorithm = Algorithm.RSA256(new RSAKeyProvider() {
                 @Override
                 public RSAPublicKey getPublicKeyById(String keyId) {
@@ -560,6 +659,7 @@ public class EEFeatureFlag implements io.supertokens.featureflag.EEFeatureFlagIn
                         new KeyValueInfo(json.toString()));
         this.enabledFeaturesValueReadFromDbTime = System.currentTimeMillis();
         this.enabledFeaturesFromDb = features;
+        this.invalidatePaidFeatureStats();
     }
 
     private EE_FEATURES[] getEnabledEEFeaturesFromDbOrCache()
@@ -29,7 +29,12 @@ public class EELicenseCheck extends CronTask {
 
     @Override
     protected void doTaskPerApp(AppIdentifier app) throws Exception {
-        FeatureFlag.getInstance(main, app).syncFeatureFlagWithLicenseKey();
+        FeatureFlag featureFlag = FeatureFlag.getInstanceIfLoaded(main, app);
+        if (featureFlag == null) {
+            // the features of this app are synced when it is loaded again
+            return;
+        }
+        featureFlag.syncFeatureFlagWithLicenseKey();
     }
 
     @Override
@@ -1,15 +1,17 @@
 package io.supertokens.ee.test;
 
+import com.google.gson.JsonObject;
 import io.supertokens.ProcessState;
 import io.supertokens.cronjobs.CronTaskTest;
 import io.supertokens.ee.EEFeatureFlag;
 import io.supertokens.ee.cronjobs.EELicenseCheck;
 import io.supertokens.featureflag.EE_FEATURES;
 import io.supertokens.featureflag.FeatureFlag;
+import io.supertokens.multitenancy.Multitenancy;
 import io.supertokens.pluginInterface.KeyValueInfo;
 import io.supertokens.pluginInterface.STORAGE_TYPE;
 import io.supertokens.pluginInterface.exceptions.StorageQueryException;
-import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
+import io.supertokens.pluginInterface.multitenancy.*;
 import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
 import io.supertokens.storageLayer.StorageLayer;
 import io.supertokens.version.Version;
@@ -32,6 +34,9 @@ public class CronjobTest {
         FeatureFlag.clearURLClassLoader();
     }
 
+    private static final String OPAQUE_KEY_WITH_MULTITENANCY_FEATURE = "ijaleljUd2kU9XXWLiqFYv5br8nutTxbyBqWypQdv2N-" +
+            "BocoNriPrnYQd0NXPm8rVkeEocN9ayq0B7c3Pv-BTBIhAZSclXMlgyfXtlwAOJk=9BfESEleW6LyTov47dXu";
+
 
     @Test
     public void cronjobUpdatesStatefulKey()
@@ -308,5 +313,43 @@ public class CronjobTest {
             Assert.assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
         }
     }
+
+    @Test
+    public void cronjobDoesNotLoadTheFeatureFlagOfAnUnusedApp() throws Exception {
+        String[] args = {"../../"};
+
+        Utils.setValueInConfig("lazy_app_resource_loading_enabled", "true");
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        Assert.assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        if (!StorageLayer.isInMemDb(process.getProcess())) {
+            FeatureFlag.getInstance(process.getProcess())
+                    .setLicenseKeyAndSyncFeatures(OPAQUE_KEY_WITH_MULTITENANCY_FEATURE);
+        }
+
+        AppIdentifier a1 = new AppIdentifier(null, "a1");
+        Multitenancy.addNewOrUpdateAppOrTenant(process.getProcess(), new TenantIdentifier(null, null, null),
+                new TenantConfig(a1.getAsPublicTenantIdentifier(), new EmailPasswordConfig(true),
+                        new ThirdPartyConfig(true, null), new PasswordlessConfig(true), null, null,
+                        new JsonObject()));
+        FeatureFlag.getInstance(process.getProcess(), a1);
+
+        // nothing has been used for 0ms
+        process.getProcess().getResourceDistributor().removeIdleAppResources(0);
+        Assert.assertNull(FeatureFlag.getInstanceIfLoaded(process.getProcess(), a1));
+
+        EELicenseCheck cronjob = (EELicenseCheck) process.getProcess().getResourceDistributor()
+                .getResource(new TenantIdentifier(null, null, null), EELicenseCheck.RESOURCE_KEY);
+        cronjob.run();
+
+        Assert.assertNull(FeatureFlag.getInstanceIfLoaded(process.getProcess(), a1));
+        Assert.assertNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.CRON_TASK_ERROR_LOGGING, 1000));
+
+        process.kill();
+        Assert.assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
 }
- 
\ No newline at end of file
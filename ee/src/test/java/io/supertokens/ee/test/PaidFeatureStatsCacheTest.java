@@ -0,0 +1,94 @@
+package io.supertokens.ee.test;
+
+import com.google.gson.JsonObject;
+import io.supertokens.ActiveUsers;
+import io.supertokens.Main;
+import io.supertokens.ProcessState;
+import io.supertokens.featureflag.EEFeatureFlagInterface;
+import io.supertokens.featureflag.FeatureFlag;
+import io.supertokens.pluginInterface.STORAGE_TYPE;
+import io.supertokens.storageLayer.StorageLayer;
+import org.junit.*;
+import org.junit.rules.TestRule;
+
+public class PaidFeatureStatsCacheTest {
+    @Rule
+    public TestRule watchman = Utils.getOnFailure();
+
+    @AfterClass
+    public static void afterTesting() {
+        Utils.afterTesting();
+    }
+
+    @Before
+    public void beforeEach() {
+        Utils.reset();
+        FeatureFlag.clearURLClassLoader();
+    }
+
+    private static int getMAUsInLastDay(Main main) throws Exception {
+        JsonObject stats = FeatureFlag.getInstance(main).getPaidFeatureStats();
+        return stats.getAsJsonArray("maus").get(0).getAsInt();
+    }
+
+    @Test
+    public void testStatsAreServedFromTheSnapshotUntilItExpires() throws Exception {
+        String[] args = {"../../"};
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        Assert.assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        EEFeatureFlagInterface eeFeatureFlag = FeatureFlag.getInstance(process.getProcess())
+                .getEeFeatureFlagInstance();
+        eeFeatureFlag.setStatsCacheIntervalsForTest(1000, 2000);
+
+        Assert.assertEquals(0, getMAUsInLastDay(process.getProcess()));
+
+        ActiveUsers.updateLastActive(process.getProcess(), "user1");
+
+        // the snapshot is reused
+        Assert.assertEquals(0, getMAUsInLastDay(process.getProcess()));
+
+        Thread.sleep(2500);
+
+        // both the snapshot and the daily counts it was made from have expired
+        Assert.assertEquals(1, getMAUsInLastDay(process.getProcess()));
+
+        process.kill();
+        Assert.assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void testSnapshotIsRecomputedWhenEnabledFeaturesChange() throws Exception {
+        String[] args = {"../../"};
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        Assert.assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        EEFeatureFlagInterface eeFeatureFlag = FeatureFlag.getInstance(process.getProcess())
+                .getEeFeatureFlagInstance();
+        // the snapshot is only reused for the daily counts' interval, so that a recompute sees the new count
+        eeFeatureFlag.setStatsCacheIntervalsForTest(0, 3600 * 1000);
+
+        Assert.assertEquals(0, getMAUsInLastDay(process.getProcess()));
+
+        ActiveUsers.updateLastActive(process.getProcess(), "user1");
+        Assert.assertEquals(0, getMAUsInLastDay(process.getProcess()));
+
+        FeatureFlag.getInstance(process.getProcess()).setLicenseKeyAndSyncFeatures(
+                EETest.STATELESS_LICENSE_KEY_WITH_TEST_FEATURE_NO_EXP);
+
+        Assert.assertEquals(1, getMAUsInLastDay(process.getProcess()));
+
+        process.kill();
+        Assert.assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ *    Copyright (c) 2024, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.benchmark;
+
+import io.supertokens.utils.CryptoPrimitives;
+import io.supertokens.utils.Utils;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+// Compares getting a new engine for every operation (as done before CryptoPrimitives) with reusing the thread local
+// engines, for the operations that run for every access and refresh token. Run with ./gradlew jmh
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CryptoPrimitivesBenchmark {
+
+    private byte[] content;
+    private byte[] signature;
+    private String publicKey;
+    private byte[] hmacKey;
+
+    @Setup
+    public void setup() throws Exception {
+        Utils.PubPriKey key = Utils.generateNewPubPriKey();
+        publicKey = key.publicKey;
+        String header = Utils.convertToBase64Url("{\"kid\":\"d-1\",\"typ\":\"JWT\",\"version\":\"5\",\"alg\":\"RS256\"}");
+        String payload = Utils.convertToBase64Url("{\"sessionHandle\":\"" + Utils.getUUID() + "\",\"sub\":\"" +
+                Utils.getUUID() + "\",\"exp\":1700000000,\"iat\":1700000000}");
+        content = (header + "." + payload).getBytes(StandardCharsets.UTF_8);
+        signature = Base64.getUrlDecoder().decode(
+                Utils.signWithPrivateKey(header + "." + payload, key.privateKey, true));
+        hmacKey = new byte[32];
+    }
+
+    @Benchmark
+    public byte[] sha256GetInstance() throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(content);
+    }
+
+    @Benchmark
+    public byte[] sha256Reused() throws Exception {
+        return CryptoPrimitives.messageDigest("SHA-256").digest(content);
+    }
+
+    @Benchmark
+    public byte[] hmacSHA256GetInstance() throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(hmacKey, "HmacSHA256"));
+        return mac.doFinal(content);
+    }
+
+    @Benchmark
+    public byte[] hmacSHA256Reused() throws Exception {
+        Mac mac = CryptoPrimitives.mac("HmacSHA256");
+        mac.init(new SecretKeySpec(hmacKey, "HmacSHA256"));
+        return mac.doFinal(content);
+    }
+
+    @Benchmark
+    public Cipher aesGcmCipherGetInstance() throws Exception {
+        return Cipher.getInstance("AES/GCM/NoPadding");
+    }
+
+    @Benchmark
+    public Cipher aesGcmCipherReused() throws Exception {
+        return CryptoPrimitives.cipher("AES/GCM/NoPadding");
+    }
+
+    @Benchmark
+    public boolean verifyRS256GetInstance() throws Exception {
+        Signature sign = Signature.getInstance("SHA256withRSA");
+        PublicKey pub = KeyFactory.getInstance("RSA")
+                .generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(publicKey)));
+        sign.initVerify(pub);
+        sign.update(content);
+        return sign.verify(signature);
+    }
+
+    @Benchmark
+    public boolean verifyRS256Reused() throws Exception {
+        Signature sign = CryptoPrimitives.signature("SHA256withRSA");
+        PublicKey pub = CryptoPrimitives.keyFactory("RSA")
+                .generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(publicKey)));
+        sign.initVerify(pub);
+        sign.update(content);
+        return sign.verify(signature);
+    }
+}
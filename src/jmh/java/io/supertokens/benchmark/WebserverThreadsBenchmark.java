@@ -0,0 +1,119 @@
+/*
+ *    Copyright (c) 2024, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.benchmark;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+// Compares the default connector (a pool of max_server_pool_size threads) with webserver_virtual_threads_enabled,
+// for requests that spend most of their time waiting on the db or another service. The connector is set up the same
+// way as in Webserver.start. Throughput is in ops/ms and SampleTime reports the p99 / p99.9 latencies.
+// Run with ./gradlew jmh
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(100)
+public class WebserverThreadsBenchmark {
+
+    // the default value of max_server_pool_size
+    private static final int MAX_SERVER_POOL_SIZE = 10;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    // time each request waits, as if for a db query
+    @Param({"5", "20"})
+    public long ioTimeMS;
+
+    private Tomcat tomcat;
+    private HttpClient client;
+    private HttpRequest request;
+
+    private static class IOBoundServlet extends HttpServlet {
+        private static final long serialVersionUID = 1L;
+        private final long ioTimeMS;
+
+        IOBoundServlet(long ioTimeMS) {
+            this.ioTimeMS = ioTimeMS;
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            try {
+                Thread.sleep(ioTimeMS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            resp.setStatus(200);
+            resp.setHeader("Content-Type", "application/json; charset=UTF-8");
+            resp.getWriter().println("{\"status\":\"OK\"}");
+        }
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(Files.createTempDirectory("webserver-threads-benchmark").toString());
+
+        Connector connector = new Connector();
+        if (threads.equals("virtual")) {
+            connector.setProperty("useVirtualThreads", "true");
+        } else {
+            connector.setProperty("maxThreads", MAX_SERVER_POOL_SIZE + "");
+        }
+        connector.setPort(0);
+        connector.setProperty("address", "localhost");
+        tomcat.setConnector(connector);
+
+        Context context = tomcat.addContext("", null);
+        Tomcat.addServlet(context, "io", new IOBoundServlet(ioTimeMS));
+        context.addServletMappingDecoded("/*", "io");
+        tomcat.start();
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + connector.getLocalPort() + "/hello"))
+                .GET().build();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+
+    @Benchmark
+    public int request() throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status code " + response.statusCode());
+        }
+        return response.body().length();
+    }
+}
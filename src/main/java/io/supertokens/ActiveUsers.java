@@ -7,6 +7,7 @@ import io.supertokens.pluginInterface.exceptions.StorageQueryException;
 import io.supertokens.pluginInterface.exceptions.StorageTransactionLogicException;
 import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
 import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
+import io.supertokens.storageLayer.ActiveUsersBatchStorage;
 import io.supertokens.storageLayer.StorageLayer;
 import org.jetbrains.annotations.TestOnly;
 
@@ -15,28 +16,43 @@ public class ActiveUsers {
     public static void updateLastActive(AppIdentifier appIdentifier, Main main, String userId)
             throws TenantOrAppNotFoundException {
         Storage storage = StorageLayer.getStorage(appIdentifier.getAsPublicTenantIdentifier(), main);
+        ActiveUsersBatchStorage activeUsersStorage = ActiveUsersBatchStorage.from(storage);
         try {
-            StorageUtils.getActiveUsersStorage(storage).updateLastActive(appIdentifier, userId);
+            if (activeUsersStorage.canUpdateLastActiveToGivenTime()) {
+                // the write is buffered and done in a batch later on (see ActiveUsersBuffer)
+                ActiveUsersBuffer.getInstance(main).add(appIdentifier, userId, System.currentTimeMillis());
+            } else {
+                // this storage always stores the time of the write, so we cannot delay it
+                activeUsersStorage.updateLastActive(appIdentifier, userId);
+            }
         } catch (StorageQueryException ignored) {
         }
     }
 
     @TestOnly
-    public static void updateLastActive(Main main, String userId) {
-        try {
-            ActiveUsers.updateLastActive(ResourceDistributor.getAppForTesting().toAppIdentifier(),
-                    main, userId);
-        } catch (TenantOrAppNotFoundException e) {
-            throw new IllegalStateException(e);
-        }
+    public static void updateLastActive(Main main, String userId) throws TenantOrAppNotFoundException {
+        ActiveUsers.updateLastActive(ResourceDistributor.getAppForTesting().toAppIdentifier(), main, userId);
     }
 
     public static int countUsersActiveSince(Main main, AppIdentifier appIdentifier, long time)
             throws StorageQueryException, TenantOrAppNotFoundException {
+        ActiveUsersBuffer.getInstance(main).flush(appIdentifier);
         Storage storage = StorageLayer.getStorage(appIdentifier.getAsPublicTenantIdentifier(), main);
         return StorageUtils.getActiveUsersStorage(storage).countUsersActiveSince(appIdentifier, time);
     }
 
+    /**
+     * Returns the number of users active in the last 1, 2, ..., numberOfDays days (in that order), relative to now.
+     * The storage is resolved only once, and storages that support it compute all the counts in a single query.
+     */
+    public static int[] countUsersActiveSinceForEachDay(Main main, AppIdentifier appIdentifier, long now,
+                                                        int numberOfDays)
+            throws StorageQueryException, TenantOrAppNotFoundException {
+        ActiveUsersBuffer.getInstance(main).flush(appIdentifier);
+        Storage storage = StorageLayer.getStorage(appIdentifier.getAsPublicTenantIdentifier(), main);
+        return ActiveUsersBatchStorage.from(storage).countUsersActiveSinceForEachDay(appIdentifier, now, numberOfDays);
+    }
+
     public static void updateLastActiveAfterLinking(Main main, AppIdentifier appIdentifier, String primaryUserId,
                                                     String recipeUserId)
             throws StorageQueryException, TenantOrAppNotFoundException, StorageTransactionLogicException {
@@ -44,6 +60,8 @@ public class ActiveUsers {
                 (ActiveUsersSQLStorage) StorageUtils.getActiveUsersStorage(
                         StorageLayer.getStorage(appIdentifier.getAsPublicTenantIdentifier(), main));
 
+        // a buffered update for the recipe user would otherwise recreate the row that we delete below
+        ActiveUsersBuffer.getInstance(main).discard(appIdentifier, recipeUserId);
         activeUsersStorage.startTransaction(con -> {
             activeUsersStorage.deleteUserActive_Transaction(con, appIdentifier, recipeUserId);
             return null;
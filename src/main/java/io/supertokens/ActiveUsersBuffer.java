@@ -0,0 +1,193 @@
+package io.supertokens;
+
+import io.supertokens.output.Logging;
+import io.supertokens.pluginInterface.Storage;
+import io.supertokens.pluginInterface.exceptions.StorageQueryException;
+import io.supertokens.pluginInterface.exceptions.StorageTransactionLogicException;
+import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
+import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
+import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
+import io.supertokens.storageLayer.ActiveUsersBatchStorage;
+import io.supertokens.storageLayer.StorageLayer;
+import org.jetbrains.annotations.TestOnly;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Session creation and refresh mark a user as active on every call, which means the same row in the active users
+// table gets rewritten many times a minute for heavy users. Instead, we collect the updates in memory per app
+// (keeping only the latest time per user) and write them in batches from the FlushActiveUsers cronjob, when an app
+// has too many pending updates, before counting active users, and on shutdown. This is only done for storages that
+// can store a given last active time (see ActiveUsersBatchStorage), since the others always store the time of the
+// write.
+public class ActiveUsersBuffer extends ResourceDistributor.SingletonResource {
+
+    private static final String RESOURCE_KEY = "io.supertokens.ActiveUsersBuffer";
+
+    public static final int MAX_PENDING_UPDATES_PER_APP = 1000;
+
+    private final Main main;
+
+    private final Map<AppIdentifier, Map<String, Long>> pendingUpdates = new ConcurrentHashMap<>();
+
+    // a flush takes the pending updates out of the map before writing them. This lock makes sure that a count
+    // query waits for an in progress flush of the same app to finish so that it sees those updates. These are locks
+    // and not monitors since a flush can happen on a request thread and writes to the db while holding it.
+    private final Map<AppIdentifier, ReentrantLock> flushLocks = new ConcurrentHashMap<>();
+
+    private ActiveUsersBuffer(Main main) {
+        this.main = main;
+    }
+
+    public static ActiveUsersBuffer getInstance(Main main) {
+        try {
+            return (ActiveUsersBuffer) main.getResourceDistributor()
+                    .getResource(new TenantIdentifier(null, null, null), RESOURCE_KEY);
+        } catch (TenantOrAppNotFoundException ignored) {
+            return (ActiveUsersBuffer) main.getResourceDistributor()
+                    .setResource(new TenantIdentifier(null, null, null), RESOURCE_KEY, new ActiveUsersBuffer(main));
+        }
+    }
+
+    public void add(AppIdentifier appIdentifier, String userId, long lastActiveTime)
+            throws StorageQueryException, TenantOrAppNotFoundException {
+        int[] numberOfPendingUpdates = new int[1];
+        pendingUpdates.compute(appIdentifier, (key, updates) -> {
+            if (updates == null) {
+                updates = new HashMap<>();
+            }
+            updates.merge(userId, lastActiveTime, Math::max);
+            numberOfPendingUpdates[0] = updates.size();
+            return updates;
+        });
+
+        if (numberOfPendingUpdates[0] >= MAX_PENDING_UPDATES_PER_APP) {
+            flush(appIdentifier);
+        }
+    }
+
+    // Drops the pending updates of the user. This waits for an in progress flush of the app to finish, so a
+    // row that is deleted after this returns is not recreated by updates that were buffered before.
+    public void discard(AppIdentifier appIdentifier, String userId) {
+        ReentrantLock lock = getFlushLock(appIdentifier);
+        lock.lock();
+        try {
+            discardWhileHoldingLock(appIdentifier, List.of(userId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs a deletion of users of the app while no flush of the app can run, and then drops the pending updates
+     * of the users that the deletion reports in deletedUserIds. Otherwise, a flush that is in progress or that
+     * runs right after the delete could write a buffered update and so recreate the active users row of a
+     * deleted user.
+     */
+    public <T> T deleteUsers(AppIdentifier appIdentifier, UsersDeletion<T> deletion)
+            throws StorageQueryException, StorageTransactionLogicException {
+        ReentrantLock lock = getFlushLock(appIdentifier);
+        lock.lock();
+        try {
+            List<String> deletedUserIds = new ArrayList<>();
+            T result = deletion.delete(deletedUserIds);
+            discardWhileHoldingLock(appIdentifier, deletedUserIds);
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Drops all the pending updates of an app that is being deleted
+    public void discardAll(AppIdentifier appIdentifier) {
+        ReentrantLock lock = getFlushLock(appIdentifier);
+        lock.lock();
+        try {
+            pendingUpdates.remove(appIdentifier);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void discardWhileHoldingLock(AppIdentifier appIdentifier, List<String> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        pendingUpdates.computeIfPresent(appIdentifier, (key, updates) -> {
+            for (String userId : userIds) {
+                updates.remove(userId);
+            }
+            return updates.isEmpty() ? null : updates;
+        });
+    }
+
+    private ReentrantLock getFlushLock(AppIdentifier appIdentifier) {
+        return flushLocks.computeIfAbsent(appIdentifier, key -> new ReentrantLock());
+    }
+
+    public void flush(AppIdentifier appIdentifier) throws StorageQueryException, TenantOrAppNotFoundException {
+        ReentrantLock lock = getFlushLock(appIdentifier);
+        lock.lock();
+        try {
+            Map<String, Long> updates = pendingUpdates.remove(appIdentifier);
+            if (updates == null || updates.isEmpty()) {
+                return;
+            }
+
+            try {
+                // Active users are always tracked on the public tenant, so we use the public tenant's storage
+                Storage storage = StorageLayer.getStorage(appIdentifier.getAsPublicTenantIdentifier(), main);
+                ActiveUsersBatchStorage.from(storage).updateLastActiveForUsers(appIdentifier, updates);
+            } catch (StorageQueryException e) {
+                // we put the updates back so that they are retried in the next flush. Writing some of them twice
+                // is fine since the updates are idempotent.
+                for (Map.Entry<String, Long> update : updates.entrySet()) {
+                    pendingUpdates.compute(appIdentifier, (key, pending) -> {
+                        if (pending == null) {
+                            pending = new HashMap<>();
+                        }
+                        pending.merge(update.getKey(), update.getValue(), Math::max);
+                        return pending;
+                    });
+                }
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void flushAll() {
+        List<AppIdentifier> apps = new ArrayList<>(pendingUpdates.keySet());
+        for (AppIdentifier app : apps) {
+            try {
+                flush(app);
+            } catch (TenantOrAppNotFoundException e) {
+                // the app was deleted, so there is nothing to update
+                pendingUpdates.remove(app);
+            } catch (StorageQueryException e) {
+                Logging.error(main, app.getAsPublicTenantIdentifier(), "Error while flushing active users", false,
+                        e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface UsersDeletion<T> {
+        T delete(List<String> deletedUserIds) throws StorageQueryException, StorageTransactionLogicException;
+    }
+
+    @TestOnly
+    public int getNumberOfPendingUpdates(AppIdentifier appIdentifier) {
+        int[] result = new int[1];
+        pendingUpdates.computeIfPresent(appIdentifier, (key, updates) -> {
+            result[0] = updates.size();
+            return updates;
+        });
+        return result[0];
+    }
+}
@@ -30,6 +30,9 @@ import io.supertokens.cronjobs.deleteExpiredPasswordResetTokens.DeleteExpiredPas
 import io.supertokens.cronjobs.deleteExpiredPasswordlessDevices.DeleteExpiredPasswordlessDevices;
 import io.supertokens.cronjobs.deleteExpiredSessions.DeleteExpiredSessions;
 import io.supertokens.cronjobs.deleteExpiredTotpTokens.DeleteExpiredTotpTokens;
+import io.supertokens.cronjobs.flushActiveUsers.FlushActiveUsers;
+import io.supertokens.cronjobs.preGenerateAccessTokenSigningKeys.PreGenerateAccessTokenSigningKeys;
+import io.supertokens.cronjobs.removeIdleAppResources.RemoveIdleAppResources;
 import io.supertokens.cronjobs.syncCoreConfigWithDb.SyncCoreConfigWithDb;
 import io.supertokens.cronjobs.telemetry.Telemetry;
 import io.supertokens.emailpassword.PasswordHashing;
@@ -58,7 +61,10 @@ import java.lang.reflect.Field;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public class Main {
@@ -99,6 +105,10 @@ public class Main {
 
     private boolean forceInMemoryDB = false;
 
+    // time taken by each phase of init, in the order they ran. Time spent waiting for tests to let init continue is
+    // not included.
+    private final Map<String, Long> startupPhaseTimesInMillis = Collections.synchronizedMap(new LinkedHashMap<>());
+
     public static void main(String[] args) {
         new Main().start(args);
     }
@@ -126,7 +136,9 @@ public class Main {
                     throw e;
                 }
                 ProcessState.getInstance(this).addState(ProcessState.PROCESS_STATE.STARTED, null);
-                putMainThreadToSleep();
+                if (!CLIOptions.get(this).isExitAfterStartup()) {
+                    putMainThreadToSleep();
+                }
 
                 ProcessState.getInstance(this).addState(ProcessState.PROCESS_STATE.SHUTTING_DOWN, null);
                 stopApp();
@@ -156,6 +168,8 @@ public class Main {
         // Handle kill signal gracefully
         handleKillSignalForWhenItHappens();
 
+        long phaseStartTime = System.currentTimeMillis();
+
         // loading configs for core from config.yaml file.
         try {
             Config.loadBaseConfig(this);
@@ -167,6 +181,7 @@ public class Main {
         Version.loadVersion(this, CLIOptions.get(this).getInstallationPath() + "version.yaml");
 
         Logging.info(this, TenantIdentifier.BASE_TENANT, "Completed config.yaml loading.", true);
+        phaseStartTime = startupPhaseCompleted("config", phaseStartTime);
 
         // loading storage layer
         try {
@@ -181,6 +196,7 @@ public class Main {
 
         // initialise cron job handler
         Cronjobs.init(this);
+        startupPhaseCompleted("pluginLoad", phaseStartTime);
 
         // initialise storage module
         synchronized (waitToInitStorageModuleLock) {
@@ -192,11 +208,13 @@ public class Main {
                 }
             }
         }
+        phaseStartTime = System.currentTimeMillis();
         try {
             StorageLayer.getBaseStorage(this).initStorage(true, List.of());
         } catch (DbInitException e) {
             throw new QuitProgramException(e);
         }
+        startupPhaseCompleted("storageInit", phaseStartTime);
 
         // enable ee features if license key is provided.
         synchronized (waitToEnableFeatureFlagLock) {
@@ -207,6 +225,7 @@ public class Main {
                 }
             }
         }
+        phaseStartTime = System.currentTimeMillis();
         MultitenancyHelper.init(this);
         FeatureFlag.initForBaseTenant(this, CLIOptions.get(this).getInstallationPath() + "ee/");
 
@@ -225,9 +244,11 @@ public class Main {
         } catch (InvalidConfigException e) {
             throw new QuitProgramException(e);
         }
+        phaseStartTime = startupPhaseCompleted("tenantLoad", phaseStartTime);
 
         // load feature flag for all loaded apps
         MultitenancyHelper.getInstance(this).loadFeatureFlag(new ArrayList<>());
+        phaseStartTime = startupPhaseCompleted("featureFlags", phaseStartTime);
 
         // init signing keys
         try {
@@ -235,6 +256,7 @@ public class Main {
         } catch (UnsupportedJWTSigningAlgorithmException e) {
             throw new QuitProgramException(e);
         }
+        phaseStartTime = startupPhaseCompleted("signingKeys", phaseStartTime);
 
         // starts removing old session cronjob
         List<List<TenantIdentifier>> uniqueUserPoolIdsTenants = StorageLayer.getTenantsWithUniqueUserPoolId(this);
@@ -266,6 +288,9 @@ public class Main {
         // starts DeleteExpiredAccessTokenSigningKeys cronjob if the access token signing keys can change
         Cronjobs.addCronjob(this, DeleteExpiredAccessTokenSigningKeys.init(this, uniqueUserPoolIdsTenants));
 
+        // creates the next access token signing key before request threads need it
+        Cronjobs.addCronjob(this, PreGenerateAccessTokenSigningKeys.init(this, uniqueUserPoolIdsTenants));
+
         // initializes ProcessBulkImportUsers cronjob to process bulk import users
         if(bulkMigrationCronEnabled) {
             Cronjobs.addCronjob(this, ProcessBulkImportUsers.init(this, uniqueUserPoolIdsTenants));
@@ -275,14 +300,26 @@ public class Main {
 
         Cronjobs.addCronjob(this, CleanUpWebauthNExpiredDataCron.init(this, uniqueUserPoolIdsTenants));
 
+        // writes the buffered last active times of users to the db
+        Cronjobs.addCronjob(this, FlushActiveUsers.init(this, uniqueUserPoolIdsTenants));
+
+        // removes the resources of apps that are not in use if they are created on first use
+        if (Config.getBaseConfig(this).getLazyAppResourceLoadingEnabled()) {
+            Cronjobs.addCronjob(this, RemoveIdleAppResources.init(this));
+        }
+
         // this is to ensure tenantInfos are in sync for the new cron job as well
         MultitenancyHelper.getInstance(this).refreshCronjobs();
 
         // creates password hashing pool
         PasswordHashing.init(this);
+        phaseStartTime = startupPhaseCompleted("cronjobs", phaseStartTime);
 
         // start web server to accept incoming traffic
         Webserver.getInstance(this).start();
+        startupPhaseCompleted("webserverStart", phaseStartTime);
+
+        logStartupPhaseTimes();
 
         // this is a sign to the controlling script that this process has started.
 
@@ -300,6 +337,34 @@ public class Main {
                 pid(), true);
     }
 
+    // returns the time at which the next phase starts
+    private long startupPhaseCompleted(String phase, long phaseStartTime) {
+        long now = System.currentTimeMillis();
+        startupPhaseTimesInMillis.put(phase, now - phaseStartTime);
+        return now;
+    }
+
+    private void logStartupPhaseTimes() {
+        StringBuilder message = new StringBuilder("Startup phase times:");
+        long total = 0;
+        synchronized (startupPhaseTimesInMillis) {
+            for (Map.Entry<String, Long> phase : startupPhaseTimesInMillis.entrySet()) {
+                message.append(" ").append(phase.getKey()).append("=").append(phase.getValue()).append("ms");
+                total += phase.getValue();
+            }
+        }
+        message.append(" total=").append(total).append("ms, since process start=")
+                .append(System.currentTimeMillis() - PROCESS_START_TIME).append("ms");
+        Logging.info(this, TenantIdentifier.BASE_TENANT, message.toString(), false);
+    }
+
+    @TestOnly
+    public Map<String, Long> getStartupPhaseTimesInMillis() {
+        synchronized (startupPhaseTimesInMillis) {
+            return new LinkedHashMap<>(startupPhaseTimesInMillis);
+        }
+    }
+
     @TestOnly
     public void setForceInMemoryDB() {
         if (Main.isTesting) {
@@ -445,6 +510,10 @@ public class Main {
             Logging.info(this, TenantIdentifier.BASE_TENANT, "Stopping SuperTokens...", true);
             Webserver.getInstance(this).stop();
             Cronjobs.shutdownAndAwaitTermination(this);
+            // no more requests or cronjobs can add to the buffer now, so we write what is left before closing
+            // the storage layer
+            ActiveUsersBuffer.getInstance(this).flushAll();
+            this.resourceDistributor.shutdownParallelTaskExecutor();
             StorageLayer.close(this);
             removeDotStartedFileForThisProcess();
             Logging.stopLogging(this);
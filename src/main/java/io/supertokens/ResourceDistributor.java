@@ -16,6 +16,7 @@
 
 package io.supertokens;
 
+import io.supertokens.config.Config;
 import io.supertokens.multitenancy.MultitenancyHelper;
 import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
 import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
@@ -27,20 +28,51 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 // the purpose of this class is to tie singleton classes to s specific main instance. So that
 // when the main instance dies, those singleton classes die too.
 
 public class ResourceDistributor {
-    private final Map<KeyClass, SingletonResource> resources = new HashMap<>(1);
+    // concurrent since the threads of runInParallel use it without the lock
+    private final Map<KeyClass, SingletonResource> resources = new ConcurrentHashMap<>(1);
+    // a lock instead of synchronized methods, since getResource can refresh tenants from the db while holding it.
+    // Blocking in a synchronized block pins the carrier thread of a virtual thread, and every request goes through
+    // here.
+    private final ReentrantLock lock = new ReentrantLock();
+    // true on the threads of runInParallel. The thread that started them holds the lock and waits for them to
+    // finish, so they must not wait for the lock themselves.
+    private final ThreadLocal<Boolean> isParallelTaskThread = ThreadLocal.withInitial(() -> false);
     private final Main main;
 
+    // used when lazy_app_resource_loading_enabled is true, see getOrCreateAppResource
+    private final Map<KeyClass, ReentrantLock> appResourceCreationLocks = new ConcurrentHashMap<>();
+    private final Map<KeyClass, Long> appResourceLastUsedTimes = new ConcurrentHashMap<>();
+    // incremented each time the resources with a key are reloaded (guarded by lock)
+    private long reloadCount = 0;
+    // used by runInParallel (guarded by lock)
+    private ThreadPoolExecutor parallelTaskExecutor = null;
+
     private static TenantIdentifier appUsedForTesting = TenantIdentifier.BASE_TENANT;
 
     public ResourceDistributor(Main main) {
         this.main = main;
     }
 
+    private void lock() {
+        if (!isParallelTaskThread.get()) {
+            lock.lock();
+        }
+    }
+
+    private void unlock() {
+        if (!isParallelTaskThread.get()) {
+            lock.unlock();
+        }
+    }
+
     @TestOnly
     public static void setAppForTesting(TenantIdentifier app) {
         appUsedForTesting = app;
@@ -51,17 +83,28 @@ public class ResourceDistributor {
         return appUsedForTesting;
     }
 
-    public synchronized SingletonResource getResource(AppIdentifier appIdentifier, @Nonnull String key)
+    public SingletonResource getResource(AppIdentifier appIdentifier, @Nonnull String key)
             throws TenantOrAppNotFoundException {
         return getResource(appIdentifier.getAsPublicTenantIdentifier(), key);
     }
 
-    public synchronized SingletonResource getResource(TenantIdentifier tenantIdentifier, @Nonnull String key)
+    public SingletonResource getResource(TenantIdentifier tenantIdentifier, @Nonnull String key)
+            throws TenantOrAppNotFoundException {
+        lock();
+        try {
+            return resources.get(findKey(tenantIdentifier, key));
+        } finally {
+            unlock();
+        }
+    }
+
+    // returns the key that the resource of the tenant is saved with. Must be called with the lock held.
+    private KeyClass findKey(TenantIdentifier tenantIdentifier, @Nonnull String key)
             throws TenantOrAppNotFoundException {
         // first we do exact match
-        SingletonResource resource = resources.get(new KeyClass(tenantIdentifier, key));
-        if (resource != null) {
-            return resource;
+        KeyClass exactKey = new KeyClass(tenantIdentifier, key);
+        if (resources.containsKey(exactKey)) {
+            return exactKey;
         }
 
         if (tenantIdentifier.equals(new TenantIdentifier(null, null, null))) {
@@ -70,12 +113,15 @@ public class ResourceDistributor {
             throw new TenantOrAppNotFoundException(tenantIdentifier);
         }
 
-        MultitenancyHelper.getInstance(main).refreshTenantsInCoreBasedOnChangesInCoreConfigOrIfTenantListChanged(true);
+        if (!isParallelTaskThread.get()) {
+            // the resources are already being reloaded by the thread that started this one
+            MultitenancyHelper.getInstance(main)
+                    .refreshTenantsInCoreBasedOnChangesInCoreConfigOrIfTenantListChanged(true);
+        }
 
         // we try again..
-        resource = resources.get(new KeyClass(tenantIdentifier, key));
-        if (resource != null) {
-            return resource;
+        if (resources.containsKey(exactKey)) {
+            return exactKey;
         }
 
         // then we see if the user has configured anything to do with connectionUriDomain, and if they have,
@@ -91,77 +137,242 @@ public class ResourceDistributor {
         // connectionUriDomain, and therefore we fallback on the case where connectionUriDomain is the base one.
         // This is useful when the base connectionuri can be localhost or 127.0.0.1 or anything else that's
         // not specifically configured by the dev.
-        resource = resources.get(new KeyClass(
-                new TenantIdentifier(null, tenantIdentifier.getAppId(), tenantIdentifier.getTenantId()), key));
-        if (resource != null) {
-            return resource;
+        KeyClass baseConnectionUriDomainKey = new KeyClass(
+                new TenantIdentifier(null, tenantIdentifier.getAppId(), tenantIdentifier.getTenantId()), key);
+        if (resources.containsKey(baseConnectionUriDomainKey)) {
+            return baseConnectionUriDomainKey;
         }
 
         throw new TenantOrAppNotFoundException(tenantIdentifier);
     }
 
+    public interface AppResourceCreator {
+        SingletonResource create(AppIdentifier appIdentifier) throws TenantOrAppNotFoundException;
+    }
+
+    /**
+     * Returns the resource of an app. If lazy_app_resource_loading_enabled is true, these resources are not created
+     * when tenants are loaded, so this creates it using creator if it does not exist yet. Only one thread creates
+     * the resource of an app at a time, and others wait for it. Resources created this way are removed by
+     * removeIdleAppResources once they are not used for a while.
+     */
+    public SingletonResource getOrCreateAppResource(AppIdentifier appIdentifier, @Nonnull String key,
+                                                    AppResourceCreator creator)
+            throws TenantOrAppNotFoundException {
+        if (!Config.getBaseConfig(main).getLazyAppResourceLoadingEnabled()) {
+            return getResource(appIdentifier, key);
+        }
+        return getOrCreateAppResource(appIdentifier, key, creator, true);
+    }
+
+    /**
+     * Same as getOrCreateAppResource, but for resources that are never created when tenants are loaded (like the
+     * API key usage counts). These are created on first use even if lazy_app_resource_loading_enabled is false, and
+     * are not removed by removeIdleAppResources.
+     */
+    public SingletonResource getOrCreateAppResourceOnFirstUse(AppIdentifier appIdentifier, @Nonnull String key,
+                                                              AppResourceCreator creator)
+            throws TenantOrAppNotFoundException {
+        return getOrCreateAppResource(appIdentifier, key, creator, false);
+    }
+
+    private SingletonResource getOrCreateAppResource(AppIdentifier appIdentifier, @Nonnull String key,
+                                                     AppResourceCreator creator, boolean removeWhenIdle)
+            throws TenantOrAppNotFoundException {
+        KeyClass resourceKey;
+        long reloadCountBeforeCreating;
+        lock();
+        try {
+            resourceKey = new KeyClass(appIdentifier, key);
+            SingletonResource resource = resources.get(resourceKey);
+            if (resource == null) {
+                // the config of every tenant is always loaded, so we use it to find which app this is
+                resourceKey = new KeyClass(
+                        findKey(appIdentifier.getAsPublicTenantIdentifier(), Config.RESOURCE_KEY)
+                                .getTenantIdentifier(), key);
+                resource = resources.get(resourceKey);
+            }
+            if (resource != null) {
+                if (removeWhenIdle) {
+                    markAppResourceAsUsed(resourceKey);
+                }
+                return resource;
+            }
+            reloadCountBeforeCreating = reloadCount;
+        } finally {
+            unlock();
+        }
+
+        // the resource is created without holding the lock since it may query the db
+        ReentrantLock creationLock = appResourceCreationLocks.computeIfAbsent(resourceKey,
+                k -> new ReentrantLock());
+        creationLock.lock();
+        try {
+            SingletonResource resource = resources.get(resourceKey);
+            if (resource != null) {
+                if (removeWhenIdle) {
+                    markAppResourceAsUsed(resourceKey);
+                }
+                return resource;
+            }
+
+            resource = creator.create(resourceKey.getTenantIdentifier().toAppIdentifier());
+
+            lock();
+            try {
+                if (resource == null) {
+                    return null;
+                }
+                if (!removeWhenIdle) {
+                    return setResource(resourceKey.getTenantIdentifier(), key, resource);
+                }
+                if (reloadCount != reloadCountBeforeCreating) {
+                    // the resources were reloaded while this was being created, so it may have been created with
+                    // the old config of the app. We use it for this call, and it is created again next time.
+                    return resource;
+                }
+                markAppResourceAsUsed(resourceKey);
+                return setResource(resourceKey.getTenantIdentifier(), key, resource);
+            } finally {
+                unlock();
+            }
+        } finally {
+            creationLock.unlock();
+        }
+    }
+
+    private void markAppResourceAsUsed(KeyClass key) {
+        long now = System.currentTimeMillis();
+        Long lastUsedTime = appResourceLastUsedTimes.get(key);
+        // this is called on every request, so we do not update it more than once a second
+        if (lastUsedTime == null || now - lastUsedTime > 1000) {
+            appResourceLastUsedTimes.put(key, now);
+        }
+    }
+
+    /**
+     * Removes the app resources created by getOrCreateAppResource that have not been used for idleTimeInMillis.
+     * Returns the number of resources removed.
+     */
+    public int removeIdleAppResources(long idleTimeInMillis) {
+        lock();
+        try {
+            long now = System.currentTimeMillis();
+            int removed = 0;
+            for (Map.Entry<KeyClass, Long> entry : new ArrayList<>(appResourceLastUsedTimes.entrySet())) {
+                KeyClass key = entry.getKey();
+                if (!resources.containsKey(key)) {
+                    // removed when the tenants were reloaded
+                    appResourceLastUsedTimes.remove(key);
+                    appResourceCreationLocks.remove(key);
+                } else if (now - entry.getValue() >= idleTimeInMillis) {
+                    resources.remove(key);
+                    appResourceLastUsedTimes.remove(key);
+                    appResourceCreationLocks.remove(key);
+                    removed++;
+                }
+            }
+            return removed;
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Returns the resource of the app if it is loaded, without creating it or refreshing the tenants. Used by tasks
+     * that only need to run for apps that are in use.
+     */
+    public SingletonResource getResourceIfLoaded(AppIdentifier appIdentifier, @Nonnull String key) {
+        return resources.get(new KeyClass(appIdentifier, key));
+    }
+
     @TestOnly
-    public synchronized SingletonResource getResource(@Nonnull String key) {
-        return resources.get(new KeyClass(appUsedForTesting, key));
+    public SingletonResource getResource(@Nonnull String key) {
+        lock();
+        try {
+            return resources.get(new KeyClass(appUsedForTesting, key));
+        } finally {
+            unlock();
+        }
     }
 
-    public synchronized SingletonResource setResource(TenantIdentifier tenantIdentifier,
-                                                      @Nonnull String key,
-                                                      SingletonResource resource) {
-        SingletonResource alreadyExists = resources.get(new KeyClass(tenantIdentifier, key));
-        if (alreadyExists != null) {
-            return alreadyExists;
+    public SingletonResource setResource(TenantIdentifier tenantIdentifier,
+                                         @Nonnull String key,
+                                         SingletonResource resource) {
+        lock();
+        try {
+            SingletonResource alreadyExists = resources.putIfAbsent(new KeyClass(tenantIdentifier, key), resource);
+            if (alreadyExists != null) {
+                return alreadyExists;
+            }
+            return resource;
+        } finally {
+            unlock();
         }
-        resources.put(new KeyClass(tenantIdentifier, key), resource);
-        return resource;
     }
 
-    public synchronized SingletonResource removeResource(TenantIdentifier tenantIdentifier,
-                                                         @Nonnull String key) {
-        SingletonResource singletonResource = resources.get(new KeyClass(tenantIdentifier, key));
-        if (singletonResource == null) {
-            return null;
+    public SingletonResource removeResource(TenantIdentifier tenantIdentifier,
+                                            @Nonnull String key) {
+        lock();
+        try {
+            SingletonResource singletonResource = resources.get(new KeyClass(tenantIdentifier, key));
+            if (singletonResource == null) {
+                return null;
+            }
+            resources.remove(new KeyClass(tenantIdentifier, key));
+            return singletonResource;
+        } finally {
+            unlock();
         }
-        resources.remove(new KeyClass(tenantIdentifier, key));
-        return singletonResource;
     }
 
-    public synchronized SingletonResource setResource(AppIdentifier appIdentifier,
-                                                      @Nonnull String key,
-                                                      SingletonResource resource) {
+    public SingletonResource setResource(AppIdentifier appIdentifier,
+                                         @Nonnull String key,
+                                         SingletonResource resource) {
         return setResource(appIdentifier.getAsPublicTenantIdentifier(), key, resource);
     }
 
-    public synchronized SingletonResource removeResource(AppIdentifier appIdentifier,
-                                                         @Nonnull String key) {
+    public SingletonResource removeResource(AppIdentifier appIdentifier,
+                                            @Nonnull String key) {
         return removeResource(appIdentifier.getAsPublicTenantIdentifier(), key);
     }
 
-    public synchronized void clearAllResourcesWithResourceKey(String inputKey) {
-        List<KeyClass> toRemove = new ArrayList<>();
-        resources.forEach((key, value) -> {
-            if (key.key.equals(inputKey)) {
-                toRemove.add(key);
+    public void clearAllResourcesWithResourceKey(String inputKey) {
+        lock();
+        try {
+            reloadCount++;
+            List<KeyClass> toRemove = new ArrayList<>();
+            resources.forEach((key, value) -> {
+                if (key.key.equals(inputKey)) {
+                    toRemove.add(key);
+                }
+            });
+            for (KeyClass keyClass : toRemove) {
+                resources.remove(keyClass);
             }
-        });
-        for (KeyClass keyClass : toRemove) {
-            resources.remove(keyClass);
+        } finally {
+            unlock();
         }
     }
 
-    public synchronized Map<KeyClass, SingletonResource> getAllResourcesWithResourceKey(String inputKey) {
-        Map<KeyClass, SingletonResource> result = new HashMap<>();
-        resources.forEach((key, value) -> {
-            if (key.key.equals(inputKey)) {
-                result.put(key, value);
-            }
-        });
-        return result;
+    public Map<KeyClass, SingletonResource> getAllResourcesWithResourceKey(String inputKey) {
+        lock();
+        try {
+            Map<KeyClass, SingletonResource> result = new HashMap<>();
+            resources.forEach((key, value) -> {
+                if (key.key.equals(inputKey)) {
+                    result.put(key, value);
+                }
+            });
+            return result;
+        } finally {
+            unlock();
+        }
     }
 
     @TestOnly
-    public synchronized SingletonResource setResource(@Nonnull String key,
-                                                      SingletonResource resource) {
+    public SingletonResource setResource(@Nonnull String key,
+                                         SingletonResource resource) {
         return setResource(appUsedForTesting, key, resource);
     }
 
@@ -169,16 +380,124 @@ public class ResourceDistributor {
         T performTask() throws FuncException;
     }
 
-    public synchronized <T> T withResourceDistributorLock(Func<T> func) throws FuncException {
-        return func.performTask();
+    public <T> T withResourceDistributorLock(Func<T> func) throws FuncException {
+        lock();
+        try {
+            return func.performTask();
+        } finally {
+            unlock();
+        }
     }
 
     public interface FuncWithReturn<T> {
         T performTask() throws FuncException;
     }
 
-    public synchronized <T> T withResourceDistributorLockWithReturn(FuncWithReturn<T> func) throws FuncException {
-        return func.performTask();
+    public <T> T withResourceDistributorLockWithReturn(FuncWithReturn<T> func) throws FuncException {
+        lock();
+        try {
+            return func.performTask();
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Runs the tasks on up to maxThreads threads while holding the lock, and returns their results in the same order.
+     * The tasks can use this resource distributor (to get the storage or config of a tenant, for example) without
+     * waiting for the lock, but should not assume that the resources being reloaded by the caller exist yet. If any
+     * task throws, the first such exception is thrown as it is once all of them have finished.
+     */
+    public <T> List<T> runInParallel(List<Func<T>> tasks, int maxThreads) throws FuncException {
+        lock();
+        try {
+            int numberOfThreads = Math.min(maxThreads, tasks.size());
+            if (numberOfThreads <= 1 || isParallelTaskThread.get()) {
+                List<T> results = new ArrayList<>(tasks.size());
+                for (Func<T> task : tasks) {
+                    results.add(task.performTask());
+                }
+                return results;
+            }
+
+            ExecutorService executor = getParallelTaskExecutor(maxThreads);
+            List<Future<T>> futures = new ArrayList<>(tasks.size());
+            try {
+                for (Func<T> task : tasks) {
+                    futures.add(executor.submit(task::performTask));
+                }
+                List<T> results = new ArrayList<>(tasks.size());
+                Throwable firstException = null;
+                for (Future<T> future : futures) {
+                    try {
+                        results.add(future.get());
+                    } catch (ExecutionException e) {
+                        results.add(null);
+                        if (firstException == null) {
+                            firstException = e.getCause();
+                        }
+                    }
+                }
+                // thrown as it would be if the tasks ran one by one, so that a RuntimeException (like a
+                // QuitProgramException) is not hidden inside a FuncException
+                if (firstException instanceof FuncException) {
+                    throw (FuncException) firstException;
+                }
+                if (firstException instanceof RuntimeException) {
+                    throw (RuntimeException) firstException;
+                }
+                if (firstException instanceof Error) {
+                    throw (Error) firstException;
+                }
+                return results;
+            } catch (InterruptedException e) {
+                for (Future<T> future : futures) {
+                    future.cancel(true);
+                }
+                Thread.currentThread().interrupt();
+                throw new FuncException(e);
+            }
+        } finally {
+            unlock();
+        }
+    }
+
+    // the threads are kept between calls, so that reloading the tenants does not start new threads each time. Must
+    // be called with the lock held.
+    private ExecutorService getParallelTaskExecutor(int numberOfThreads) {
+        if (parallelTaskExecutor == null) {
+            AtomicInteger threadNumber = new AtomicInteger(0);
+            parallelTaskExecutor = new ThreadPoolExecutor(numberOfThreads, numberOfThreads, 0L,
+                    TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(() -> {
+                    isParallelTaskThread.set(true);
+                    runnable.run();
+                }, "resource-loader-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else if (numberOfThreads > parallelTaskExecutor.getMaximumPoolSize()) {
+            // tenant_loading_threads was changed
+            parallelTaskExecutor.setMaximumPoolSize(numberOfThreads);
+            parallelTaskExecutor.setCorePoolSize(numberOfThreads);
+        } else if (numberOfThreads < parallelTaskExecutor.getMaximumPoolSize()) {
+            parallelTaskExecutor.setCorePoolSize(numberOfThreads);
+            parallelTaskExecutor.setMaximumPoolSize(numberOfThreads);
+        }
+        return parallelTaskExecutor;
+    }
+
+    // called when the core is stopped
+    public void shutdownParallelTaskExecutor() {
+        lock();
+        try {
+            if (parallelTaskExecutor != null) {
+                parallelTaskExecutor.shutdownNow();
+                parallelTaskExecutor = null;
+            }
+        } finally {
+            unlock();
+        }
     }
 
     public static class FuncException extends Exception {
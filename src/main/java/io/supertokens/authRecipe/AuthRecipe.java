@@ -16,6 +16,7 @@
 
 package io.supertokens.authRecipe;
 
+import io.supertokens.ActiveUsersBuffer;
 import io.supertokens.Main;
 import io.supertokens.ResourceDistributor;
 import io.supertokens.authRecipe.exception.*;
@@ -71,7 +72,8 @@ public class AuthRecipe {
             throws StorageQueryException, UnknownUserIdException, InputUserIdIsNotAPrimaryUserException {
         AuthRecipeSQLStorage authRecipeStorage = StorageUtils.getAuthRecipeStorage(storage);
         try {
-            UnlinkResult res = authRecipeStorage.startTransaction(con -> {
+            UnlinkResult res = ActiveUsersBuffer.getInstance(main).deleteUsers(appIdentifier,
+                    deletedUserIds -> authRecipeStorage.startTransaction(con -> {
                 AuthRecipeUserInfo primaryUser = authRecipeStorage.getPrimaryUserById_Transaction(appIdentifier, con,
                         recipeUserId);
                 if (primaryUser == null) {
@@ -100,7 +102,8 @@ public class AuthRecipe {
                         // The delete will also cause the automatic unlinking.
                         // We need to make sure that it only deletes sessions for recipeUserId and not other linked
                         // users who have their sessions for primaryUserId (that is equal to the recipeUserId)
-                        deleteUserHelper(con, appIdentifier, storage, recipeUserId, false, mappingResult);
+                        deleteUserHelper(con, appIdentifier, storage, recipeUserId, false, mappingResult,
+                                deletedUserIds);
                         return new UnlinkResult(mappingResult == null ? recipeUserId : mappingResult.externalUserId,
                                 true);
                     }
@@ -109,7 +112,7 @@ public class AuthRecipe {
                             recipeUserId);
                     return new UnlinkResult(mappingResult == null ? recipeUserId : mappingResult.externalUserId, false);
                 }
-            });
+            }));
             Session.revokeAllSessionsForUser(main, appIdentifier, storage, res.userId, false);
             return res.wasLinked;
         } catch (StorageTransactionLogicException e) {
@@ -1240,30 +1243,34 @@ public class AuthRecipe {
     }
 
     @TestOnly
-    public static void deleteUser(AppIdentifier appIdentifier, Storage storage, String userId,
+    public static void deleteUser(Main main, AppIdentifier appIdentifier, Storage storage, String userId,
                                   UserIdMapping userIdMapping)
             throws StorageQueryException, StorageTransactionLogicException {
-        deleteUser(appIdentifier, storage, userId, true, userIdMapping);
+        deleteUser(main, appIdentifier, storage, userId, true, userIdMapping);
     }
 
-    public static void deleteUser(AppIdentifier appIdentifier, Storage storage, String userId,
+    public static void deleteUser(Main main, AppIdentifier appIdentifier, Storage storage, String userId,
                                   boolean removeAllLinkedAccounts,
                                   UserIdMapping userIdMapping)
             throws StorageQueryException, StorageTransactionLogicException {
         AuthRecipeSQLStorage authRecipeStorage = StorageUtils.getAuthRecipeStorage(storage);
 
-        authRecipeStorage.startTransaction(con -> {
-            deleteUserHelper(con, appIdentifier, storage, userId, removeAllLinkedAccounts, userIdMapping);
+        // buffered active user updates of the deleted users must not recreate their rows after the delete
+        ActiveUsersBuffer.getInstance(main).deleteUsers(appIdentifier,
+                deletedUserIds -> authRecipeStorage.startTransaction(con -> {
+            deleteUserHelper(con, appIdentifier, storage, userId, removeAllLinkedAccounts, userIdMapping,
+                    deletedUserIds);
             authRecipeStorage.commitTransaction(con);
             return null;
-        });
+        }));
     }
 
     private static void deleteUserHelper(TransactionConnection con, AppIdentifier appIdentifier,
                                          Storage storage,
                                          String userId,
                                          boolean removeAllLinkedAccounts,
-                                         UserIdMapping userIdMapping)
+                                         UserIdMapping userIdMapping,
+                                         List<String> deletedUserIds)
             throws StorageQueryException {
         AuthRecipeSQLStorage authRecipeStorage = StorageUtils.getAuthRecipeStorage(storage);
 
@@ -1360,11 +1367,12 @@ public class AuthRecipe {
                     !userIdToDeleteForAuthRecipe.equals(userToDelete.getSupertokensUserId()));
 
             if (userIdToDeleteForNonAuthRecipeForRecipeUserId != null) {
-                deleteNonAuthRecipeUser(con, appIdentifier, storage, userIdToDeleteForNonAuthRecipeForRecipeUserId);
+                deleteNonAuthRecipeUser(con, appIdentifier, storage, userIdToDeleteForNonAuthRecipeForRecipeUserId,
+                        deletedUserIds);
             }
 
             if (primaryUserIdToDeleteNonAuthRecipe != null) {
-                deleteNonAuthRecipeUser(con, appIdentifier, storage, primaryUserIdToDeleteNonAuthRecipe);
+                deleteNonAuthRecipeUser(con, appIdentifier, storage, primaryUserIdToDeleteNonAuthRecipe, deletedUserIds);
 
                 // this is only done to also delete the user ID mapping in case it exists, since we do not delete in the
                 // previous call to deleteAuthRecipeUser above.
@@ -1381,7 +1389,8 @@ public class AuthRecipe {
                                         appIdentifier,
                                         storage,
                                         lM.getSupertokensUserId(), UserIdType.SUPERTOKENS);
-                deleteUserHelper(con, appIdentifier, storage, lM.getSupertokensUserId(), false, mappingResult);
+                deleteUserHelper(con, appIdentifier, storage, lM.getSupertokensUserId(), false, mappingResult,
+                        deletedUserIds);
             }
         }
     }
@@ -1394,7 +1403,7 @@ public class AuthRecipe {
         UserIdMapping mapping = io.supertokens.useridmapping.UserIdMapping.getUserIdMapping(appIdentifier,
                 storage, userId, UserIdType.ANY);
 
-        deleteUser(appIdentifier, storage, userId, removeAllLinkedAccounts, mapping);
+        deleteUser(main, appIdentifier, storage, userId, removeAllLinkedAccounts, mapping);
     }
 
     @TestOnly
@@ -1405,20 +1414,20 @@ public class AuthRecipe {
         UserIdMapping mapping = io.supertokens.useridmapping.UserIdMapping.getUserIdMapping(appIdentifier,
                 storage, userId, UserIdType.ANY);
 
-        deleteUser(appIdentifier, storage, userId, mapping);
+        deleteUser(main, appIdentifier, storage, userId, mapping);
     }
 
     @TestOnly
-    public static void deleteUser(AppIdentifier appIdentifier, Storage storage, String userId)
+    public static void deleteUser(Main main, AppIdentifier appIdentifier, Storage storage, String userId)
             throws StorageQueryException, StorageTransactionLogicException {
         UserIdMapping mapping = io.supertokens.useridmapping.UserIdMapping.getUserIdMapping(appIdentifier,
                 storage, userId, UserIdType.ANY);
 
-        deleteUser(appIdentifier, storage, userId, mapping);
+        deleteUser(main, appIdentifier, storage, userId, mapping);
     }
 
     private static void deleteNonAuthRecipeUser(TransactionConnection con, AppIdentifier appIdentifier,
-                                                Storage storage, String userId)
+                                                Storage storage, String userId, List<String> deletedUserIds)
             throws StorageQueryException {
         StorageUtils.getUserMetadataStorage(storage)
                 .deleteUserMetadata_Transaction(con, appIdentifier, userId);
@@ -1431,6 +1440,7 @@ public class AuthRecipe {
 
         StorageUtils.getActiveUsersStorage(storage)
                 .deleteUserActive_Transaction(con, appIdentifier, userId);
+        deletedUserIds.add(userId);
         StorageUtils.getTOTPStorage(storage)
                 .removeUser_Transaction(con, appIdentifier, userId);
     }
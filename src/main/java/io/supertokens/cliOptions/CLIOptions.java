@@ -33,6 +33,7 @@ public class CLIOptions extends ResourceDistributor.SingletonResource {
     private static final String TEST_MODE = "test_mode";
     private static final String FORCE_NO_IN_MEM_DB = "forceNoInMemDB=true";
     private static final String TEMP_DIR_LOCATION_KEY = "tempDirLocation=";
+    private static final String EXIT_AFTER_STARTUP = "exitAfterStartup=true";
     private final String installationPath;
     private final String configFilePath;
     private final Integer port;
@@ -43,6 +44,10 @@ public class CLIOptions extends ResourceDistributor.SingletonResource {
     // if this is true, then even in DEV mode, we will not use in memory db, even if there is an error in the plugin
     private final boolean forceNoInMemoryDB;
 
+    // if this is true, the process shuts down as soon as it has started. This is used for a training run that
+    // records the classes loaded during startup into a class data sharing archive.
+    private final boolean exitAfterStartup;
+
     private CLIOptions(String[] args) {
         checkIfArgsIsCorrect(args);
         String installationPath = args[0];
@@ -51,6 +56,7 @@ public class CLIOptions extends ResourceDistributor.SingletonResource {
         Integer portTemp = null;
         String hostTemp = null;
         boolean forceNoInMemoryDBTemp = false;
+        boolean exitAfterStartupTemp = false;
         for (int i = 1; i < args.length; i++) {
             String curr = args[i];
             if (curr.startsWith(CONFIG_FILE_KEY)) {
@@ -73,6 +79,8 @@ public class CLIOptions extends ResourceDistributor.SingletonResource {
                 hostTemp = curr.split(HOST_FILE_KEY)[1];
             } else if (curr.startsWith(FORCE_NO_IN_MEM_DB)) {
                 forceNoInMemoryDBTemp = true;
+            } else if (curr.equals(EXIT_AFTER_STARTUP)) {
+                exitAfterStartupTemp = true;
             } else if (curr.equals(TEST_MODE)) {
                 Main.isTesting = true;
             }
@@ -83,6 +91,7 @@ public class CLIOptions extends ResourceDistributor.SingletonResource {
         this.host = hostTemp;
         this.forceNoInMemoryDB = forceNoInMemoryDBTemp;
         this.tempDirLocation = tempDirLocationPath;
+        this.exitAfterStartup = exitAfterStartupTemp;
     }
 
     private static CLIOptions getInstance(Main main) {
@@ -141,4 +150,8 @@ public class CLIOptions extends ResourceDistributor.SingletonResource {
     public String getTempDirLocation() {
         return tempDirLocation;
     }
+
+    public boolean isExitAfterStartup() {
+        return this.exitAfterStartup;
+    }
 }
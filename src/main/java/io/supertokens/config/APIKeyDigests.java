@@ -0,0 +1,69 @@
+/*
+ *    Copyright (c) 2024, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.config;
+
+import io.supertokens.utils.Utils;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The SHA-256 digests of a set of API keys, so that checking a key from a request is one hash of it and a map lookup,
+ * instead of comparing it with every configured key. Comparing digests instead of the keys themselves also means
+ * that the time taken does not depend on how much of a configured key matches.
+ */
+public class APIKeyDigests {
+
+    // digest (hex) -> key id
+    private final Map<String, String> keyIdByDigest;
+
+    APIKeyDigests(String[] keys) {
+        Map<String, String> keyIdByDigest = new HashMap<>();
+        for (String key : keys) {
+            String digest = digest(key);
+            keyIdByDigest.put(digest, getKeyId(digest));
+        }
+        this.keyIdByDigest = Collections.unmodifiableMap(keyIdByDigest);
+    }
+
+    public static String digest(String key) {
+        try {
+            return Utils.hashSHA256(key);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // The key id is the first 8 hex chars of the key's SHA-256 digest. This identifies a key in the usage stats
+    // without exposing the key itself.
+    private static String getKeyId(String digest) {
+        return digest.substring(0, 8);
+    }
+
+    /**
+     * @return the id of the key with this digest, or null if it is not one of these keys
+     */
+    public String getKeyIdIfMatches(String digest) {
+        return keyIdByDigest.get(digest);
+    }
+
+    public Iterable<String> getKeyIds() {
+        return keyIdByDigest.values();
+    }
+}
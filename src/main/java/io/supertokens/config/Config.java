@@ -34,12 +34,19 @@ import io.supertokens.storageLayer.StorageLayer;
 import io.supertokens.utils.ConfigMapper;
 import org.jetbrains.annotations.TestOnly;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class Config extends ResourceDistributor.SingletonResource {
 
@@ -47,21 +54,22 @@ public class Config extends ResourceDistributor.SingletonResource {
     private final Main main;
     private final CoreConfig core;
 
-    private Config(Main main, String configFilePath) throws InvalidConfigException, IOException {
+    // the normalised json this config was created from, so that it can be reused if that does not change
+    private final JsonObject jsonConfig;
+    private final int jsonConfigHash;
+
+    private Config(Main main, JsonObject jsonConfig, boolean includeConfigFilePath)
+            throws IOException, InvalidConfigException {
         this.main = main;
-        final ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
-        Object configObj = mapper.readValue(new File(configFilePath), Object.class);
-        JsonObject jsonConfig = new GsonBuilder().serializeNulls().create().toJsonTree(configObj).getAsJsonObject();
         CoreConfig config = ConfigMapper.mapConfig(jsonConfig, CoreConfig.class);
-        config.normalizeAndValidate(main, true);
+        config.normalizeAndValidate(main, includeConfigFilePath);
         this.core = config;
+        this.jsonConfig = jsonConfig;
+        this.jsonConfigHash = jsonConfig.hashCode();
     }
 
     private Config(Main main, JsonObject jsonConfig) throws IOException, InvalidConfigException {
-        this.main = main;
-        CoreConfig config = ConfigMapper.mapConfig(jsonConfig, CoreConfig.class);
-        config.normalizeAndValidate(main, false);
-        this.core = config;
+        this(main, jsonConfig, false);
     }
 
     public static Config getInstance(TenantIdentifier tenantIdentifier, Main main)
@@ -73,7 +81,7 @@ public class Config extends ResourceDistributor.SingletonResource {
             throws InvalidConfigException, IOException {
         main.getResourceDistributor()
                 .setResource(new TenantIdentifier(null, null, null), RESOURCE_KEY,
-                        new Config(main, getConfigFilePath(main)));
+                        new Config(main, getBaseConfigAsJsonObject(main), true));
 
         // this function is only called for the base config since we only want one logging file(s) for all tenants
         try {
@@ -89,9 +97,72 @@ public class Config extends ResourceDistributor.SingletonResource {
         // we do not use the CoreConfig class here cause the actual config.yaml file may
         // contain other fields which the CoreConfig doesn't have, and we do not want to
         // omit them from the output json.
-        ObjectMapper yamlReader = new ObjectMapper(new YAMLFactory());
-        Object obj = yamlReader.readValue(new File(getConfigFilePath(main)), Object.class);
-        return new GsonBuilder().serializeNulls().create().toJsonTree(obj).getAsJsonObject();
+        return BaseConfigFile.getInstance(main).get(getConfigFilePath(main));
+    }
+
+    // Tenant refreshes need the base config several times, so instead of reading and parsing config.yaml each
+    // time, we keep the parsed file and only read it again if its last modified time or size has changed.
+    private static class BaseConfigFile extends ResourceDistributor.SingletonResource {
+
+        private static final String RESOURCE_KEY = "io.supertokens.config.Config.BaseConfigFile";
+
+        // replaced as a whole when the file changes, so that it can be read without holding a lock
+        private volatile Snapshot snapshot = null;
+        // held while the file is read again, so that only one thread does that. A ReentrantLock instead of
+        // synchronized so that a virtual thread waiting for it does not pin its carrier thread.
+        private final ReentrantLock reloadLock = new ReentrantLock();
+
+        private static class Snapshot {
+            private final String path;
+            private final FileTime lastModifiedTime;
+            private final long size;
+            private final JsonObject config;
+
+            private Snapshot(String path, FileTime lastModifiedTime, long size, JsonObject config) {
+                this.path = path;
+                this.lastModifiedTime = lastModifiedTime;
+                this.size = size;
+                this.config = config;
+            }
+
+            private boolean isOf(String path, BasicFileAttributes attributes) {
+                return this.path.equals(path) && this.lastModifiedTime.equals(attributes.lastModifiedTime())
+                        && this.size == attributes.size();
+            }
+        }
+
+        private static BaseConfigFile getInstance(Main main) {
+            try {
+                return (BaseConfigFile) main.getResourceDistributor()
+                        .getResource(new TenantIdentifier(null, null, null), RESOURCE_KEY);
+            } catch (TenantOrAppNotFoundException ignored) {
+                return (BaseConfigFile) main.getResourceDistributor()
+                        .setResource(new TenantIdentifier(null, null, null), RESOURCE_KEY, new BaseConfigFile());
+            }
+        }
+
+        private JsonObject get(String path) throws IOException {
+            // we read the attributes before the file so that a change made while reading it is seen next time
+            BasicFileAttributes attributes = Files.readAttributes(Paths.get(path), BasicFileAttributes.class);
+            Snapshot current = this.snapshot;
+            if (current == null || !current.isOf(path, attributes)) {
+                reloadLock.lock();
+                try {
+                    current = this.snapshot;
+                    if (current == null || !current.isOf(path, attributes)) {
+                        ObjectMapper yamlReader = new ObjectMapper(new YAMLFactory());
+                        Object obj = yamlReader.readValue(new File(path), Object.class);
+                        current = new Snapshot(path, attributes.lastModifiedTime(), attributes.size(),
+                                new GsonBuilder().serializeNulls().create().toJsonTree(obj).getAsJsonObject());
+                        this.snapshot = current;
+                    }
+                } finally {
+                    reloadLock.unlock();
+                }
+            }
+            // callers may modify the returned object
+            return current.config.deepCopy();
+        }
     }
 
     private static String getConfigFilePath(Main main) {
@@ -133,7 +204,8 @@ public class Config extends ResourceDistributor.SingletonResource {
                                 new ResourceDistributor.KeyClass(
                                         key.getTenantIdentifier(),
                                         RESOURCE_KEY));
-                        if (resource != null && !tenantsThatChanged.contains(key.getTenantIdentifier())) {
+                        if (resource != null && (!tenantsThatChanged.contains(key.getTenantIdentifier())
+                                || ((Config) resource).isCreatedFrom(normalisedConfigs.get(key)))) {
                             main.getResourceDistributor()
                                     .setResource(key.getTenantIdentifier(),
                                             RESOURCE_KEY,
@@ -155,6 +227,24 @@ public class Config extends ResourceDistributor.SingletonResource {
         }
     }
 
+    private boolean isCreatedFrom(JsonObject jsonConfig) {
+        return this.jsonConfigHash == jsonConfig.hashCode() && this.jsonConfig.equals(jsonConfig);
+    }
+
+    // Mapping and validating a config is costly, so if the tenant's loaded config was created from the same json,
+    // we use that instead. A config is only loaded after being validated, so it is valid for this json as well.
+    private static Config getExistingOrNewConfig(Main main,
+                                                 Map<ResourceDistributor.KeyClass,
+                                                         ResourceDistributor.SingletonResource> existingConfigs,
+                                                 ResourceDistributor.KeyClass key, JsonObject jsonConfig)
+            throws IOException, InvalidConfigException {
+        Config existing = (Config) existingConfigs.get(key);
+        if (existing != null && existing.isCreatedFrom(jsonConfig)) {
+            return existing;
+        }
+        return new Config(main, jsonConfig);
+    }
+
     // this function will check for conflicting configs across all tenants, including the base config.
     public static void assertAllTenantConfigsAreValid(Main main,
                                                       Map<ResourceDistributor.KeyClass, JsonObject> normalisedConfigs,
@@ -163,6 +253,9 @@ public class Config extends ResourceDistributor.SingletonResource {
         Map<String, Storage> userPoolToStorage = new HashMap<>();
         Map<String, Config> appIdToConfigMap = new HashMap<>();
         Map<String, String> userPoolIdToConnectionUriDomain = new HashMap<>();
+        // we do not use getInstance here since it refreshes the tenants when a config is not found
+        Map<ResourceDistributor.KeyClass, ResourceDistributor.SingletonResource> existingConfigs =
+                main.getResourceDistributor().getAllResourcesWithResourceKey(RESOURCE_KEY);
         for (ResourceDistributor.KeyClass key : normalisedConfigs.keySet()) {
             JsonObject currentConfig = normalisedConfigs.get(key);
             // this also checks for the validity of the config from the db's point
@@ -206,11 +299,11 @@ public class Config extends ResourceDistributor.SingletonResource {
                 // it creates a new Config object, and the constructor calls the validate function.
                 Config configForCurrentAppId = appIdToConfigMap.get(connectionUriAndAppId);
                 if (configForCurrentAppId == null) {
-                    configForCurrentAppId = new Config(main, currentConfig);
+                    configForCurrentAppId = getExistingOrNewConfig(main, existingConfigs, key, currentConfig);
                     appIdToConfigMap.put(connectionUriAndAppId, configForCurrentAppId);
                 } else {
                     configForCurrentAppId.core.assertThatConfigFromSameAppIdAreNotConflicting(
-                            new Config(main, currentConfig).core);
+                            getExistingOrNewConfig(main, existingConfigs, key, currentConfig).core);
                 }
             }
         }
@@ -225,73 +318,160 @@ public class Config extends ResourceDistributor.SingletonResource {
             TenantConfig[] tenants,
             JsonObject baseConfigJson) {
         Map<ResourceDistributor.KeyClass, JsonObject> result = new HashMap<>();
-        Map<ResourceDistributor.KeyClass, JsonObject> jsonConfigs = new HashMap<>();
+        Map<ResourceDistributor.KeyClass, JsonObject> jsonConfigs = getJsonConfigsOfTenants(tenants);
+
+        // The config of a tenant is its own config, falling back to the config of its app, then of its connection uri
+        // domain and finally the base config. Since many tenants share the same app and connection uri domain, we
+        // merge those layers once per app and connection uri domain, and only add the tenant's own config on top.
+        Map<TenantIdentifier, JsonObject> mergedConnectionUriDomainConfigs = new HashMap<>();
+        Map<TenantIdentifier, JsonObject> mergedAppConfigs = new HashMap<>();
 
-        for (TenantConfig tenant : tenants) {
-            jsonConfigs.put(
-                    new ResourceDistributor.KeyClass(tenant.tenantIdentifier, RESOURCE_KEY),
-                    tenant.coreConfig);
-        }
         for (TenantConfig tenant : tenants) {
             if (tenant.tenantIdentifier.equals(new TenantIdentifier(null, null, null))) {
                 // this refers to the base tenant's config which is in the config.yaml file.
                 continue;
             }
-            JsonObject finalJson = new JsonObject();
-
-            JsonObject fetchedConfig = jsonConfigs.get(
-                    new ResourceDistributor.KeyClass(tenant.tenantIdentifier, RESOURCE_KEY));
-            if (fetchedConfig != null) {
-                fetchedConfig.entrySet().forEach(stringJsonElementEntry -> {
-                    if (!finalJson.has(stringJsonElementEntry.getKey())) {
-                        finalJson.add(stringJsonElementEntry.getKey(), stringJsonElementEntry.getValue());
-                    }
-                });
-            }
 
-            fetchedConfig = jsonConfigs.get(
-                    new ResourceDistributor.KeyClass(
-                            new TenantIdentifier(tenant.tenantIdentifier.getConnectionUriDomain(),
-                                    tenant.tenantIdentifier.getAppId(), null),
-                            RESOURCE_KEY));
-            if (fetchedConfig != null) {
-                fetchedConfig.entrySet().forEach(stringJsonElementEntry -> {
-                    if (!finalJson.has(stringJsonElementEntry.getKey())) {
-                        finalJson.add(stringJsonElementEntry.getKey(), stringJsonElementEntry.getValue());
-                    }
-                });
+            result.put(new ResourceDistributor.KeyClass(tenant.tenantIdentifier, RESOURCE_KEY),
+                    getNormalisedConfig(tenant.tenantIdentifier, jsonConfigs, baseConfigJson,
+                            mergedConnectionUriDomainConfigs, mergedAppConfigs));
+        }
+
+        result.put(new ResourceDistributor.KeyClass(new TenantIdentifier(null, null, null), RESOURCE_KEY),
+                baseConfigJson);
+
+        return result;
+    }
+
+    private static Map<ResourceDistributor.KeyClass, JsonObject> getJsonConfigsOfTenants(TenantConfig[] tenants) {
+        Map<ResourceDistributor.KeyClass, JsonObject> jsonConfigs = new HashMap<>();
+        for (TenantConfig tenant : tenants) {
+            jsonConfigs.put(
+                    new ResourceDistributor.KeyClass(tenant.tenantIdentifier, RESOURCE_KEY),
+                    tenant.coreConfig);
+        }
+        return jsonConfigs;
+    }
+
+    private static JsonObject getNormalisedConfig(TenantIdentifier tenantIdentifier,
+                                                  Map<ResourceDistributor.KeyClass, JsonObject> jsonConfigs,
+                                                  JsonObject baseConfigJson,
+                                                  Map<TenantIdentifier, JsonObject> mergedConnectionUriDomainConfigs,
+                                                  Map<TenantIdentifier, JsonObject> mergedAppConfigs) {
+        // this is the base case config for SaaS users since they will all have a
+        // specific connection uri configured for them, and then can edit the
+        // config for all their apps via our SaaS dashboard.
+        JsonObject connectionUriDomainConfig = mergedConnectionUriDomainConfigs.computeIfAbsent(
+                new TenantIdentifier(tenantIdentifier.getConnectionUriDomain(), null, null),
+                connectionUriDomain -> mergeConfigLayer(
+                        jsonConfigs.get(new ResourceDistributor.KeyClass(connectionUriDomain, RESOURCE_KEY)),
+                        baseConfigJson));
+
+        JsonObject appConfig = mergedAppConfigs.computeIfAbsent(
+                new TenantIdentifier(tenantIdentifier.getConnectionUriDomain(), tenantIdentifier.getAppId(), null),
+                app -> mergeConfigLayer(
+                        jsonConfigs.get(new ResourceDistributor.KeyClass(app, RESOURCE_KEY)),
+                        connectionUriDomainConfig));
+
+        return mergeConfigLayer(
+                jsonConfigs.get(new ResourceDistributor.KeyClass(tenantIdentifier, RESOURCE_KEY)),
+                appConfig);
+    }
+
+    /**
+     * Keeps the normalised configs of the tenants between refreshes of the tenant list. The normalised config of a
+     * tenant only depends on the base config and on the configs of the tenant, its app and its connection uri domain,
+     * so it is only merged again when one of these has changed. The returned configs are shared with later calls, so
+     * callers must not modify them.
+     */
+    public static class NormalisedTenantConfigCache {
+        private JsonObject baseConfigJson = null;
+        private Map<ResourceDistributor.KeyClass, CachedConfig> cachedConfigs = new HashMap<>();
+        private Map<ResourceDistributor.KeyClass, JsonObject> lastNormalisedConfigs = null;
+
+        private static class CachedConfig {
+            private final JsonObject tenantJson;
+            private final JsonObject appJson;
+            private final JsonObject connectionUriDomainJson;
+            private final JsonObject normalisedConfig;
+
+            private CachedConfig(JsonObject tenantJson, JsonObject appJson, JsonObject connectionUriDomainJson,
+                                 JsonObject normalisedConfig) {
+                this.tenantJson = tenantJson;
+                this.appJson = appJson;
+                this.connectionUriDomainJson = connectionUriDomainJson;
+                this.normalisedConfig = normalisedConfig;
             }
+        }
 
-            // this is the base case config for SaaS users since they will all have a
-            // specific connection uri configured for them, and then can edit the
-            // config for all their apps via our SaaS dashboard.
-            fetchedConfig = jsonConfigs.get(
-                    new ResourceDistributor.KeyClass(
-                            new TenantIdentifier(tenant.tenantIdentifier.getConnectionUriDomain(),
-                                    null, null),
-                            RESOURCE_KEY));
-            if (fetchedConfig != null) {
-                fetchedConfig.entrySet().forEach(stringJsonElementEntry -> {
-                    if (!finalJson.has(stringJsonElementEntry.getKey())) {
-                        finalJson.add(stringJsonElementEntry.getKey(), stringJsonElementEntry.getValue());
-                    }
-                });
+        // returns the configs returned by the last call to getNormalisedConfigsForAllTenants, or null if that call
+        // used another base config
+        @Nullable
+        public Map<ResourceDistributor.KeyClass, JsonObject> getLastNormalisedConfigs(JsonObject baseConfigJson) {
+            return baseConfigJson.equals(this.baseConfigJson) ? lastNormalisedConfigs : null;
+        }
+
+        public Map<ResourceDistributor.KeyClass, JsonObject> getNormalisedConfigsForAllTenants(
+                TenantConfig[] tenants, JsonObject baseConfigJson) {
+            if (!baseConfigJson.equals(this.baseConfigJson)) {
+                // every tenant falls back on the base config
+                cachedConfigs = new HashMap<>();
+                this.baseConfigJson = baseConfigJson;
             }
 
-            baseConfigJson.entrySet().forEach(stringJsonElementEntry -> {
-                if (!finalJson.has(stringJsonElementEntry.getKey())) {
-                    finalJson.add(stringJsonElementEntry.getKey(), stringJsonElementEntry.getValue());
+            Map<ResourceDistributor.KeyClass, JsonObject> jsonConfigs = getJsonConfigsOfTenants(tenants);
+            Map<TenantIdentifier, JsonObject> mergedConnectionUriDomainConfigs = new HashMap<>();
+            Map<TenantIdentifier, JsonObject> mergedAppConfigs = new HashMap<>();
+            Map<ResourceDistributor.KeyClass, CachedConfig> newCachedConfigs = new HashMap<>();
+            Map<ResourceDistributor.KeyClass, JsonObject> result = new HashMap<>();
+
+            for (TenantConfig tenant : tenants) {
+                if (tenant.tenantIdentifier.equals(new TenantIdentifier(null, null, null))) {
+                    continue;
                 }
-            });
+                ResourceDistributor.KeyClass key = new ResourceDistributor.KeyClass(tenant.tenantIdentifier,
+                        RESOURCE_KEY);
+                JsonObject appJson = jsonConfigs.get(new ResourceDistributor.KeyClass(
+                        new TenantIdentifier(tenant.tenantIdentifier.getConnectionUriDomain(),
+                                tenant.tenantIdentifier.getAppId(), null), RESOURCE_KEY));
+                JsonObject connectionUriDomainJson = jsonConfigs.get(new ResourceDistributor.KeyClass(
+                        new TenantIdentifier(tenant.tenantIdentifier.getConnectionUriDomain(), null, null),
+                        RESOURCE_KEY));
+
+                CachedConfig cached = cachedConfigs.get(key);
+                if (cached == null || !Objects.equals(cached.tenantJson, tenant.coreConfig)
+                        || !Objects.equals(cached.appJson, appJson)
+                        || !Objects.equals(cached.connectionUriDomainJson, connectionUriDomainJson)) {
+                    cached = new CachedConfig(tenant.coreConfig, appJson, connectionUriDomainJson,
+                            getNormalisedConfig(tenant.tenantIdentifier, jsonConfigs, baseConfigJson,
+                                    mergedConnectionUriDomainConfigs, mergedAppConfigs));
+                }
+                newCachedConfigs.put(key, cached);
+                result.put(key, cached.normalisedConfig);
+            }
 
-            result.put(new ResourceDistributor.KeyClass(tenant.tenantIdentifier, RESOURCE_KEY),
-                    finalJson);
-        }
+            result.put(new ResourceDistributor.KeyClass(new TenantIdentifier(null, null, null), RESOURCE_KEY),
+                    baseConfigJson);
 
-        result.put(new ResourceDistributor.KeyClass(new TenantIdentifier(null, null, null), RESOURCE_KEY),
-                baseConfigJson);
+            // tenants that were removed are not kept
+            cachedConfigs = newCachedConfigs;
+            lastNormalisedConfigs = result;
+            return result;
+        }
+    }
 
-        return result;
+    // returns a new object with all the entries of layer, and the entries of lowerLayers whose key is not in layer
+    private static JsonObject mergeConfigLayer(@Nullable JsonObject layer, JsonObject lowerLayers) {
+        JsonObject merged = new JsonObject();
+        if (layer != null) {
+            layer.entrySet().forEach(entry -> merged.add(entry.getKey(), entry.getValue()));
+        }
+        lowerLayers.entrySet().forEach(entry -> {
+            if (!merged.has(entry.getKey())) {
+                merged.add(entry.getKey(), entry.getValue());
+            }
+        });
+        return merged;
     }
 
     public static CoreConfig getConfig(TenantIdentifier tenantIdentifier, Main main)
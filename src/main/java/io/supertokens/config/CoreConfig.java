@@ -31,6 +31,7 @@ import io.supertokens.pluginInterface.LOG_LEVEL;
 import io.supertokens.pluginInterface.exceptions.InvalidConfigException;
 import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
 import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
+import io.supertokens.signingkeys.JWTSigningKey;
 import io.supertokens.utils.SemVer;
 import io.supertokens.webserver.Utils;
 import io.supertokens.webserver.WebserverAPI;
@@ -93,6 +94,14 @@ public class CoreConfig {
     @ConfigDescription("Time in mins for how long a refresh token is valid for. [Default: 60 * 2400 (100 days)]")
     private double refresh_token_validity = 60 * 2400; // in mins
 
+    @NotConflictingInApp
+    @JsonProperty
+    @ConfigDescription(
+            "Set to true to create refresh tokens in the smaller binary (V3) format. Older core versions cannot read " +
+                    "these tokens, so only enable this once no older core version will handle requests for this app." +
+                    " Refresh tokens in this format are always accepted. (Default: false)")
+    private boolean binary_refresh_tokens_enabled = false;
+
     @IgnoreForAnnotationCheck
     @JsonProperty
     @ConfigDescription(
@@ -162,6 +171,16 @@ public class CoreConfig {
     @ConfigDescription("Time in hours for how frequently the dynamic signing key will change. [Default: 168 (1 week)]")
     private double access_token_dynamic_signing_key_update_interval = 168; // in hours
 
+    @NotConflictingInApp
+    @JsonProperty
+    @ConfigDescription(
+            "The algorithm used to sign access tokens. Values are \"RS256\" | \"ES256\". Access tokens created using " +
+                    "CDI<=2.18 are always signed using RS256, so this should only be changed if all backend SDKs use" +
+                    " a newer CDI version. If this is \"ES256\", an RS256 dynamic key is still kept for JWTs " +
+                    "created using a dynamic key. (Default: RS256)")
+    @EnumProperty({"RS256", "ES256"})
+    private String access_token_signing_key_algorithm = "RS256";
+
     @ConfigYamlOnly
     @JsonProperty
     @ConfigDescription("The port at which SuperTokens service runs. (Default: 3567)")
@@ -179,6 +198,85 @@ public class CoreConfig {
     @ConfigDescription("Sets the max thread pool size for incoming http server requests. (Default: 10)")
     private int max_server_pool_size = 10;
 
+    @ConfigYamlOnly
+    @JsonProperty
+    @ConfigDescription(
+            "Set to true to run each incoming http request on its own virtual thread instead of on a thread pool of " +
+                    "size max_server_pool_size, so that requests waiting on the database or on other services do " +
+                    "not limit how many requests can be processed at the same time. (Default: false)")
+    private boolean webserver_virtual_threads_enabled = false;
+
+    @ConfigYamlOnly
+    @JsonProperty
+    @ConfigDescription("Time in milliseconds for which an idle keep-alive connection is kept open. (Default: 60000)")
+    private int webserver_keep_alive_timeout = 60000;
+
+    @ConfigYamlOnly
+    @JsonProperty
+    @ConfigDescription(
+            "The max number of requests that can be sent on one keep-alive connection before it is closed. Set to -1 " +
+                    "for no limit. (Default: 100)")
+    private int webserver_max_keep_alive_requests = 100;
+
+    @ConfigYamlOnly
+    @JsonProperty
+    @ConfigDescription(
+            "The max number of connections that are accepted and kept open at the same time. After this, new " +
+                    "connections wait in the accept backlog. Set to -1 for no limit. (Default: 8192)")
+    private int webserver_max_connections = 8192;
+
+    @ConfigYamlOnly
+    @JsonProperty
+    @ConfigDescription(
+            "The max number of new connections that can wait in the accept backlog when " +
+                    "webserver_max_connections is reached. (Default: 100)")
+    private int webserver_accept_count = 100;
+
+    @ConfigYamlOnly
+    @JsonProperty
+    @ConfigDescription(
+            "The max number of requests that can wait for a thread when all max_server_pool_size threads are busy. " +
+                    "Requests beyond this are rejected. Set to -1 for no limit. Not used if " +
+                    "webserver_virtual_threads_enabled is true. (Default: -1)")
+    private int webserver_max_queued_requests = -1;
+
+    @ConfigYamlOnly
+    @JsonProperty
+    @ConfigDescription(
+            "Set to true to gzip responses for clients that accept it. Large responses of some APIs are gzipped " +
+                    "even if this is false. (Default: false)")
+    private boolean webserver_compression_enabled = false;
+
+    @ConfigYamlOnly
+    @JsonProperty
+    @ConfigDescription(
+            "Set to true to accept HTTP/2 without TLS (h2c), either using an HTTP/1.1 upgrade or with prior " +
+                    "knowledge. (Default: false)")
+    private boolean webserver_http2_enabled = false;
+
+    @ConfigYamlOnly
+    @JsonProperty
+    @ConfigDescription(
+            "The max number of threads used to create the storages, feature flags and signing keys of tenants in " +
+                    "parallel, when the core starts or loads changes to tenants. Set to 1 to load them one by one. " +
+                    "(Default: 8)")
+    private int tenant_loading_threads = 8;
+
+    @ConfigYamlOnly
+    @JsonProperty
+    @ConfigDescription(
+            "Set to true to create the feature flag and signing key resources of an app when it is first used, " +
+                    "instead of for all apps when the core starts or loads changes to tenants. They are removed " +
+                    "again once the app is not used for app_resource_idle_timeout. (Default: false)")
+    private boolean lazy_app_resource_loading_enabled = false;
+
+    @ConfigYamlOnly
+    @JsonProperty
+    @ConfigDescription(
+            "Time in milliseconds after which the resources of an app that is not used are removed, if " +
+                    "lazy_app_resource_loading_enabled is true. (Default: 3600000 (1 hour))")
+    private long app_resource_idle_timeout = 3600000;
+
     @NotConflictingInApp
     @JsonProperty
     @HideFromDashboard
@@ -364,6 +462,14 @@ public class CoreConfig {
     @IgnoreForAnnotationCheck
     private static boolean disableOAuthValidationForTest = false;
 
+    // digests of api_keys and supertokens_saas_secret, made the first time they are needed. A new CoreConfig object
+    // is created whenever the config changes, so these never need to be invalidated.
+    @IgnoreForAnnotationCheck
+    private transient volatile APIKeyDigests apiKeyDigests = null;
+
+    @IgnoreForAnnotationCheck
+    private transient volatile APIKeyDigests superTokensSaaSSecretDigest = null;
+
     @TestOnly
     public static void setDisableOAuthValidationForTest(boolean val) {
         if (!Main.isTesting) {
@@ -522,6 +628,10 @@ public class CoreConfig {
         return (long) (refresh_token_validity * 60 * 1000);
     }
 
+    public boolean getBinaryRefreshTokensEnabled() {
+        return binary_refresh_tokens_enabled;
+    }
+
     public long getPasswordResetTokenLifetime() {
         return password_reset_token_lifetime;
     }
@@ -565,6 +675,10 @@ public class CoreConfig {
         return access_token_signing_key_dynamic;
     }
 
+    public JWTSigningKey.SupportedAlgorithms getAccessTokenSigningKeyAlgorithm() {
+        return JWTSigningKey.SupportedAlgorithms.valueOf(access_token_signing_key_algorithm.toUpperCase());
+    }
+
     public long getAccessTokenDynamicSigningKeyUpdateIntervalInMillis() {
         return (long) (access_token_dynamic_signing_key_update_interval * 3600 * 1000);
     }
@@ -580,6 +694,27 @@ public class CoreConfig {
         return supertokens_saas_secret;
     }
 
+    public APIKeyDigests getAPIKeyDigests() {
+        if (api_keys == null) {
+            return null;
+        }
+        if (apiKeyDigests == null) {
+            // if two threads get here at the same time, they both create the same digests
+            apiKeyDigests = new APIKeyDigests(getAPIKeys());
+        }
+        return apiKeyDigests;
+    }
+
+    public APIKeyDigests getSuperTokensSaaSSecretDigest() {
+        if (supertokens_saas_secret == null) {
+            return null;
+        }
+        if (superTokensSaaSSecretDigest == null) {
+            superTokensSaaSSecretDigest = new APIKeyDigests(new String[]{supertokens_saas_secret});
+        }
+        return superTokensSaaSSecretDigest;
+    }
+
     public int getPort(Main main) {
         return port;
     }
@@ -592,6 +727,50 @@ public class CoreConfig {
         return max_server_pool_size;
     }
 
+    public boolean getWebserverVirtualThreadsEnabled() {
+        return webserver_virtual_threads_enabled;
+    }
+
+    public int getWebserverKeepAliveTimeout() {
+        return webserver_keep_alive_timeout;
+    }
+
+    public int getWebserverMaxKeepAliveRequests() {
+        return webserver_max_keep_alive_requests;
+    }
+
+    public int getWebserverMaxConnections() {
+        return webserver_max_connections;
+    }
+
+    public int getWebserverAcceptCount() {
+        return webserver_accept_count;
+    }
+
+    public int getWebserverMaxQueuedRequests() {
+        return webserver_max_queued_requests;
+    }
+
+    public boolean getWebserverCompressionEnabled() {
+        return webserver_compression_enabled;
+    }
+
+    public boolean getWebserverHttp2Enabled() {
+        return webserver_http2_enabled;
+    }
+
+    public int getTenantLoadingThreads() {
+        return tenant_loading_threads;
+    }
+
+    public boolean getLazyAppResourceLoadingEnabled() {
+        return lazy_app_resource_loading_enabled;
+    }
+
+    public long getAppResourceIdleTimeout() {
+        return app_resource_idle_timeout;
+    }
+
     public boolean getHttpsEnabled() {
         return webserver_https_enabled;
     }
@@ -684,6 +863,34 @@ public class CoreConfig {
                                     + " found here: " + getConfigFileLocation(main) : ""));
         }
 
+        if (webserver_keep_alive_timeout <= 0) {
+            throw new InvalidConfigException("'webserver_keep_alive_timeout' must be > 0");
+        }
+
+        if (webserver_max_keep_alive_requests != -1 && webserver_max_keep_alive_requests < 1) {
+            throw new InvalidConfigException("'webserver_max_keep_alive_requests' must be -1 or >= 1");
+        }
+
+        if (webserver_max_connections != -1 && webserver_max_connections < 1) {
+            throw new InvalidConfigException("'webserver_max_connections' must be -1 or >= 1");
+        }
+
+        if (webserver_accept_count < 1) {
+            throw new InvalidConfigException("'webserver_accept_count' must be >= 1");
+        }
+
+        if (webserver_max_queued_requests != -1 && webserver_max_queued_requests < 1) {
+            throw new InvalidConfigException("'webserver_max_queued_requests' must be -1 or >= 1");
+        }
+
+        if (tenant_loading_threads < 1) {
+            throw new InvalidConfigException("'tenant_loading_threads' must be >= 1");
+        }
+
+        if (app_resource_idle_timeout <= 0) {
+            throw new InvalidConfigException("'app_resource_idle_timeout' must be > 0");
+        }
+
         if (api_keys != null) {
             String[] keys = api_keys.split(",");
             for (int i = 0; i < keys.length; i++) {
@@ -725,6 +932,11 @@ public class CoreConfig {
             }
         }
 
+        if (!access_token_signing_key_algorithm.equalsIgnoreCase("RS256")
+                && !access_token_signing_key_algorithm.equalsIgnoreCase("ES256")) {
+            throw new InvalidConfigException("'access_token_signing_key_algorithm' must be one of 'RS256' or 'ES256'");
+        }
+
         if (!password_hashing_alg.equalsIgnoreCase("ARGON2") && !password_hashing_alg.equalsIgnoreCase("BCRYPT")) {
             throw new InvalidConfigException("'password_hashing_alg' must be one of 'ARGON2' or 'BCRYPT'");
         }
@@ -110,18 +110,7 @@ public abstract class CronTask extends ResourceDistributor.SingletonResource imp
                     }
                 }
 
-                for (AppIdentifier app : apps) {
-                    try {
-                        doTaskPerApp(app);
-                    } catch (Exception e) {
-                        ProcessState.getInstance(main).addState(ProcessState.PROCESS_STATE.CRON_TASK_ERROR_LOGGING, e);
-                        Logging.error(main, app.getAsPublicTenantIdentifier(),
-                                "Cronjob threw an exception: " + this.jobName, Main.isTesting, e);
-                        if (e instanceof QuitProgramException) {
-                            main.wakeUpMainThreadToShutdown();
-                        }
-                    }
-                }
+                doTaskForApps(copied, apps);
             } else {
                 // we create one thread per unique storage and run the query based on that.
                 ExecutorService service = Executors.newFixedThreadPool(copied.size());
@@ -210,6 +199,28 @@ public abstract class CronTask extends ResourceDistributor.SingletonResource imp
 
     }
 
+    // called once per run for cronjobs that are per app. tenantsInfo is the same 2d list as the one in this class
+    // (copied at the start of the run), and can be used to work on the apps per user pool. By default, this runs
+    // doTaskPerApp for each app, one after the other.
+    protected void doTaskForApps(List<List<TenantIdentifier>> tenantsInfo, List<AppIdentifier> apps) {
+        for (AppIdentifier app : apps) {
+            try {
+                doTaskPerApp(app);
+            } catch (Exception e) {
+                handleExceptionForApp(app, e);
+            }
+        }
+    }
+
+    protected void handleExceptionForApp(AppIdentifier app, Exception e) {
+        ProcessState.getInstance(main).addState(ProcessState.PROCESS_STATE.CRON_TASK_ERROR_LOGGING, e);
+        Logging.error(main, app.getAsPublicTenantIdentifier(),
+                "Cronjob threw an exception: " + this.jobName, Main.isTesting, e);
+        if (e instanceof QuitProgramException) {
+            main.wakeUpMainThreadToShutdown();
+        }
+    }
+
     protected void doTaskPerTenant(TenantIdentifier tenant) throws Exception {
 
     }
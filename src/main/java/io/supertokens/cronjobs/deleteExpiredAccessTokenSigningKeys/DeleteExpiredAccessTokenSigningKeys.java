@@ -54,7 +54,12 @@ public class DeleteExpiredAccessTokenSigningKeys extends CronTask {
 
     @Override
     protected void doTaskPerApp(AppIdentifier app) throws Exception {
-        AccessTokenSigningKey.getInstance(app, main).cleanExpiredAccessTokenSigningKeys();
+        AccessTokenSigningKey accessTokenSigningKey = AccessTokenSigningKey.getInstanceIfLoaded(app, main);
+        if (accessTokenSigningKey == null) {
+            // the expired keys of this app are removed once it is used again
+            return;
+        }
+        accessTokenSigningKey.cleanExpiredAccessTokenSigningKeys();
     }
 
     @Override
@@ -0,0 +1,87 @@
+/*
+ *    Copyright (c) 2026, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.cronjobs.preGenerateAccessTokenSigningKeys;
+
+import io.supertokens.Main;
+import io.supertokens.cronjobs.CronTask;
+import io.supertokens.cronjobs.CronTaskTest;
+import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
+import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
+import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
+import io.supertokens.signingkeys.SigningKeys;
+import org.jetbrains.annotations.TestOnly;
+
+import java.util.List;
+
+public class PreGenerateAccessTokenSigningKeys extends CronTask {
+
+    public static final String RESOURCE_KEY = "io.supertokens.cronjobs.preGenerateAccessTokenSigningKeys" +
+            ".PreGenerateAccessTokenSigningKeys";
+
+    private PreGenerateAccessTokenSigningKeys(Main main, List<List<TenantIdentifier>> tenantsInfo) {
+        super("PreGenerateAccessTokenSigningKeys", main, tenantsInfo, true);
+    }
+
+    public static PreGenerateAccessTokenSigningKeys init(Main main, List<List<TenantIdentifier>> tenantsInfo) {
+        return (PreGenerateAccessTokenSigningKeys) main.getResourceDistributor()
+                .setResource(new TenantIdentifier(null, null, null), RESOURCE_KEY,
+                        new PreGenerateAccessTokenSigningKeys(main, tenantsInfo));
+    }
+
+    @TestOnly
+    public static PreGenerateAccessTokenSigningKeys getInstance(Main main) {
+        try {
+            return (PreGenerateAccessTokenSigningKeys) main.getResourceDistributor()
+                    .getResource(new TenantIdentifier(null, null, null), RESOURCE_KEY);
+        } catch (TenantOrAppNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    protected void doTaskPerApp(AppIdentifier app) throws Exception {
+        // We create the next key if it would be needed before the run after the next one, so that a single
+        // delayed or failed run does not make a request thread generate it.
+        SigningKeys signingKeys = SigningKeys.getInstanceIfLoaded(app, main);
+        if (signingKeys == null) {
+            // the app is not in use, so no request thread is waiting for its next key
+            return;
+        }
+        signingKeys.preGenerateNextDynamicKey(2L * getIntervalTimeSeconds() * 1000);
+    }
+
+    @Override
+    public int getIntervalTimeSeconds() {
+        if (Main.isTesting) {
+            Integer interval = CronTaskTest.getInstance(main).getIntervalInSeconds(RESOURCE_KEY);
+            if (interval != null) {
+                return interval;
+            }
+        }
+        // Every 5 minutes.
+        return 5 * 60;
+    }
+
+    @Override
+    public int getInitialWaitTimeSeconds() {
+        if (!Main.isTesting) {
+            return getIntervalTimeSeconds();
+        } else {
+            return 0;
+        }
+    }
+}
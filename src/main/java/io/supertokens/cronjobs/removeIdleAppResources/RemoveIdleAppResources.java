@@ -0,0 +1,82 @@
+/*
+ *    Copyright (c) 2024, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.cronjobs.removeIdleAppResources;
+
+import io.supertokens.Main;
+import io.supertokens.config.Config;
+import io.supertokens.cronjobs.CronTask;
+import io.supertokens.cronjobs.CronTaskTest;
+import io.supertokens.output.Logging;
+import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
+import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
+import org.jetbrains.annotations.TestOnly;
+
+// Removes the feature flag and signing key resources of apps that have not been used for app_resource_idle_timeout,
+// when lazy_app_resource_loading_enabled is true. They are created again when the app is next used.
+public class RemoveIdleAppResources extends CronTask {
+
+    public static final String RESOURCE_KEY =
+            "io.supertokens.cronjobs.removeIdleAppResources.RemoveIdleAppResources";
+
+    private RemoveIdleAppResources(Main main) {
+        super("RemoveIdleAppResources", main, TenantIdentifier.BASE_TENANT);
+    }
+
+    public static RemoveIdleAppResources init(Main main) {
+        return (RemoveIdleAppResources) main.getResourceDistributor()
+                .setResource(TenantIdentifier.BASE_TENANT, RESOURCE_KEY,
+                        new RemoveIdleAppResources(main));
+    }
+
+    @TestOnly
+    public static RemoveIdleAppResources getInstance(Main main) {
+        try {
+            return (RemoveIdleAppResources) main.getResourceDistributor()
+                    .getResource(TenantIdentifier.BASE_TENANT, RESOURCE_KEY);
+        } catch (TenantOrAppNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public int getIntervalTimeSeconds() {
+        if (Main.isTesting) {
+            Integer interval = CronTaskTest.getInstance(main).getIntervalInSeconds(RESOURCE_KEY);
+            if (interval != null) {
+                return interval;
+            }
+        }
+        return 60;
+    }
+
+    @Override
+    public int getInitialWaitTimeSeconds() {
+        if (Main.isTesting) {
+            return 0;
+        }
+        return 60;
+    }
+
+    @Override
+    protected void doTaskForTargetTenant(TenantIdentifier targetTenant) throws Exception {
+        int removed = main.getResourceDistributor()
+                .removeIdleAppResources(Config.getBaseConfig(main).getAppResourceIdleTimeout());
+        if (removed > 0) {
+            Logging.debug(main, TenantIdentifier.BASE_TENANT, "Removed " + removed + " idle app resources");
+        }
+    }
+}
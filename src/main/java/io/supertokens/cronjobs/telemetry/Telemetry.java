@@ -19,6 +19,7 @@ package io.supertokens.cronjobs.telemetry;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import io.supertokens.ActiveUsers;
 import io.supertokens.Main;
 import io.supertokens.ProcessState;
 import io.supertokens.authRecipe.AuthRecipe;
@@ -29,7 +30,7 @@ import io.supertokens.dashboard.Dashboard;
 import io.supertokens.httpRequest.HttpRequest;
 import io.supertokens.httpRequest.HttpRequestMocking;
 import io.supertokens.multitenancy.Multitenancy;
-import io.supertokens.pluginInterface.ActiveUsersStorage;
+import io.supertokens.output.Logging;
 import io.supertokens.pluginInterface.KeyValueInfo;
 import io.supertokens.pluginInterface.STORAGE_TYPE;
 import io.supertokens.pluginInterface.Storage;
@@ -43,7 +44,11 @@ import io.supertokens.utils.Utils;
 import io.supertokens.version.Version;
 import org.jetbrains.annotations.TestOnly;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
 
 public class Telemetry extends CronTask {
 
@@ -53,8 +58,29 @@ public class Telemetry extends CronTask {
 
     public static final String RESOURCE_KEY = "io.supertokens.cronjobs.telemetry.Telemetry";
 
+    private static final int MAX_PARALLEL_TELEMETRY_REQUESTS = 10;
+
+    // a request is retried up to 6 times with 10 second timeouts, so this leaves enough time for all the requests of a
+    // run unless the server is down, in which case we do not want to hold up the cronjob thread for long.
+    private static final long MAX_WAIT_FOR_TELEMETRY_REQUESTS_IN_MILLIS = 5 * 60 * 1000;
+
+    // used by every run of this cronjob. The threads are daemon threads that exit once idle for a minute, so nothing
+    // is left running between the (daily) runs and this does not need to be shut down.
+    private final ThreadPoolExecutor sender;
+
+    private volatile long lastRunDurationInMillis = -1;
+
+    private volatile Map<AppIdentifier, Long> lastRunTimeTakenPerAppInMillis = new HashMap<>();
+
     private Telemetry(Main main, List<List<TenantIdentifier>> tenants) {
         super("Telemetry", main, tenants, true);
+        this.sender = new ThreadPoolExecutor(MAX_PARALLEL_TELEMETRY_REQUESTS, MAX_PARALLEL_TELEMETRY_REQUESTS, 60,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "telemetry-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sender.allowCoreThreadTimeOut(true);
     }
 
     @TestOnly
@@ -74,13 +100,102 @@ public class Telemetry extends CronTask {
     }
 
     @Override
-    protected void doTaskPerApp(AppIdentifier app) throws Exception {
+    protected void doTaskForApps(List<List<TenantIdentifier>> tenantsInfo, List<AppIdentifier> apps) {
+        long runStartTime = System.currentTimeMillis();
+
+        // we resolve the storage of each user pool once for all the apps, instead of calling
+        // StorageLayer.getStoragesForApp (which goes through all the loaded storages) for each app.
+        Map<AppIdentifier, List<Storage>> storagesForApps = new HashMap<>();
+        for (List<TenantIdentifier> tenantsInUserPool : tenantsInfo) {
+            Storage storage;
+            try {
+                storage = StorageLayer.getStorage(tenantsInUserPool.get(0), main);
+            } catch (TenantOrAppNotFoundException e) {
+                // the tenant was deleted after this run started
+                continue;
+            }
+            for (TenantIdentifier tenant : tenantsInUserPool) {
+                List<Storage> storages = storagesForApps.computeIfAbsent(tenant.toAppIdentifier(),
+                        k -> new ArrayList<>());
+                if (!storages.contains(storage)) {
+                    storages.add(storage);
+                }
+            }
+        }
+
+        // the data is collected one app at a time, but the requests (which can each take several seconds with
+        // retries) are sent in parallel, with at most MAX_PARALLEL_TELEMETRY_REQUESTS in flight.
+        Map<AppIdentifier, Long> timeTakenPerApp = new ConcurrentHashMap<>();
+        List<Future<?>> requests = new ArrayList<>();
+        for (AppIdentifier app : apps) {
+            long appStartTime = System.currentTimeMillis();
+            JsonObject telemetryData;
+            try {
+                telemetryData = getTelemetryData(app, storagesForApps.get(app));
+            } catch (Exception e) {
+                handleExceptionForApp(app, e);
+                continue;
+            } finally {
+                timeTakenPerApp.put(app, System.currentTimeMillis() - appStartTime);
+            }
+
+            if (telemetryData == null) {
+                continue;
+            }
+
+            requests.add(sender.submit(() -> {
+                long sendStartTime = System.currentTimeMillis();
+                try {
+                    sendTelemetryData(telemetryData);
+                } catch (Exception e) {
+                    handleExceptionForApp(app, e);
+                } finally {
+                    timeTakenPerApp.merge(app, System.currentTimeMillis() - sendStartTime, Long::sum);
+                }
+            }));
+        }
+
+        // we wait for the requests of this run, but for no longer than the interval or
+        // MAX_WAIT_FOR_TELEMETRY_REQUESTS_IN_MILLIS. Requests still running after that are cancelled.
+        long waitUntil = System.currentTimeMillis() + Math.min(MAX_WAIT_FOR_TELEMETRY_REQUESTS_IN_MILLIS,
+                this.getIntervalTimeSeconds() * 1000L);
+        for (Future<?> request : requests) {
+            try {
+                request.get(Math.max(0, waitUntil - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                request.cancel(true);
+            } catch (InterruptedException e) {
+                // the cronjob is being stopped, so we do not wait for the remaining requests
+                Thread.currentThread().interrupt();
+                for (Future<?> remainingRequest : requests) {
+                    remainingRequest.cancel(true);
+                }
+                break;
+            } catch (ExecutionException ignored) {
+                // errors are handled in the task itself
+            }
+        }
+
+        this.lastRunDurationInMillis = System.currentTimeMillis() - runStartTime;
+        this.lastRunTimeTakenPerAppInMillis = timeTakenPerApp;
+
+        long maxTimeTakenForAnApp = 0;
+        for (long timeTaken : timeTakenPerApp.values()) {
+            maxTimeTakenForAnApp = Math.max(maxTimeTakenForAnApp, timeTaken);
+        }
+        Logging.info(main, TenantIdentifier.BASE_TENANT,
+                "Telemetry run for " + apps.size() + " apps took " + this.lastRunDurationInMillis + "ms (slowest app: "
+                        + maxTimeTakenForAnApp + "ms)", false);
+    }
+
+    // returns null if telemetry should not be sent for this app
+    private JsonObject getTelemetryData(AppIdentifier app, List<Storage> storagesForApp) throws Exception {
         if (StorageLayer.isInMemDb(main) ||
                 Config.getConfig(app.getAsPublicTenantIdentifier(), main).isTelemetryDisabled()) {
             // we do not send any info in this case since it's not under development / production env or the user
             // has
             // disabled Telemetry
-            return;
+            return null;
         }
 
         ProcessState.getInstance(main).addState(ProcessState.PROCESS_STATE.SENDING_TELEMETRY, null);
@@ -99,11 +214,11 @@ public class Telemetry extends CronTask {
         json.addProperty("appId", app.getAppId());
         json.addProperty("connectionUriDomain", app.getConnectionUriDomain());
 
+        Storage publicTenantStorage = StorageLayer.getStorage(app.getAsPublicTenantIdentifier(), main);
+
         { // website and API domains
-            String websiteDomain = Multitenancy.getWebsiteDomain(
-                    StorageLayer.getStorage(app.getAsPublicTenantIdentifier(), main), app);
-            String apiDomain = Multitenancy.getAPIDomain(
-                    StorageLayer.getStorage(app.getAsPublicTenantIdentifier(), main), app);
+            String websiteDomain = Multitenancy.getWebsiteDomain(publicTenantStorage, app);
+            String apiDomain = Multitenancy.getAPIDomain(publicTenantStorage, app);
 
             if (websiteDomain != null) {
                 json.addProperty("websiteDomain", websiteDomain);
@@ -115,7 +230,9 @@ public class Telemetry extends CronTask {
 
         if (StorageLayer.getBaseStorage(main).getType() == STORAGE_TYPE.SQL) {
             { // Users count across all tenants
-                Storage[] storages = StorageLayer.getStoragesForApp(main, app);
+                Storage[] storages = storagesForApp == null
+                        ? StorageLayer.getStoragesForApp(main, app)
+                        : storagesForApp.toArray(new Storage[0]);
 
                 json.addProperty("usersCount",
                         AuthRecipe.getUsersCountAcrossAllTenants(app, storages, null));
@@ -123,8 +240,7 @@ public class Telemetry extends CronTask {
 
             { // Dashboard user emails
                 // Dashboard APIs are app specific and are always stored on the public tenant
-                DashboardUser[] dashboardUsers = Dashboard.getAllDashboardUsers(
-                        app, StorageLayer.getStorage(app.getAsPublicTenantIdentifier(), main), main);
+                DashboardUser[] dashboardUsers = Dashboard.getAllDashboardUsers(app, publicTenantStorage, main);
                 JsonArray dashboardUserEmails = new JsonArray();
                 for (DashboardUser user : dashboardUsers) {
                     dashboardUserEmails.add(new JsonPrimitive(user.email));
@@ -134,17 +250,11 @@ public class Telemetry extends CronTask {
             }
 
             { // MAUs
-                // Active users are always tracked on the public tenant, so we use the public tenant's storage
-                ActiveUsersStorage activeUsersStorage = (ActiveUsersStorage) StorageLayer.getStorage(
-                        app.getAsPublicTenantIdentifier(), main);
+                // this also writes any buffered active user updates of the app before counting
+                int[] maus = ActiveUsers.countUsersActiveSinceForEachDay(main, app, System.currentTimeMillis(), 31);
 
                 JsonArray mauArr = new JsonArray();
-
-                long now = System.currentTimeMillis();
-
-                for (int i = 1; i <= 31; i++) {
-                    long timestamp = now - (i * 24 * 60 * 60 * 1000L);
-                    int mau = activeUsersStorage.countUsersActiveSince(app, timestamp);
+                for (int mau : maus) {
                     mauArr.add(new JsonPrimitive(mau));
                 }
 
@@ -157,6 +267,10 @@ public class Telemetry extends CronTask {
             json.add("maus", new JsonArray());
         }
 
+        return json;
+    }
+
+    private void sendTelemetryData(JsonObject json) throws Exception {
         String url = "https://api.supertokens.io/0/st/telemetry";
 
         // we call the API only if we are not testing the core, of if the request can be mocked (in case a test
@@ -186,6 +300,16 @@ public class Telemetry extends CronTask {
         return telemetryId;
     }
 
+    @TestOnly
+    public long getLastRunDurationInMillis() {
+        return this.lastRunDurationInMillis;
+    }
+
+    @TestOnly
+    public Map<AppIdentifier, Long> getLastRunTimeTakenPerAppInMillis() {
+        return this.lastRunTimeTakenPerAppInMillis;
+    }
+
     @Override
     public int getIntervalTimeSeconds() {
         if (Main.isTesting) {
@@ -23,6 +23,7 @@ import io.supertokens.config.CoreConfig;
 import io.supertokens.emailpassword.exceptions.UnsupportedPasswordHashingFormatException;
 import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
 import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
+import io.supertokens.utils.CryptoPrimitives;
 import org.apache.commons.codec.binary.Base64;
 
 import javax.annotation.Nullable;
@@ -142,9 +143,14 @@ public class PasswordHashingUtils {
             String CIPHER = "AES/CTR/NoPadding";
             Key key = new SecretKeySpec(hashedBytes, 0, 32, "AES");
             IvParameterSpec ivSpec = new IvParameterSpec(new byte[16]);
-            Cipher c = Cipher.getInstance(CIPHER);
-            c.init(Cipher.ENCRYPT_MODE, key, ivSpec);
-            byte[] encryptedPasswordHash = c.doFinal(signerBytes);
+            Cipher c = CryptoPrimitives.cipher(CIPHER);
+            byte[] encryptedPasswordHash;
+            try {
+                c.init(Cipher.ENCRYPT_MODE, key, ivSpec);
+                encryptedPasswordHash = c.doFinal(signerBytes);
+            } finally {
+                CryptoPrimitives.release(c);
+            }
             return Objects.requireNonNull(Base64.encodeBase64String(encryptedPasswordHash))
                     .equals(response.passwordHash);
         } catch (Exception e) {
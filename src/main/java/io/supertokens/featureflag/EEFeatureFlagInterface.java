@@ -52,4 +52,9 @@ public interface EEFeatureFlagInterface {
     Boolean getIsLicenseKeyPresent();
 
     JsonObject getPaidFeatureStats() throws StorageQueryException, TenantOrAppNotFoundException;
+
+    void invalidatePaidFeatureStats();
+
+    @TestOnly
+    void setStatsCacheIntervalsForTest(long dailyCountsRecomputeInterval, long paidFeatureStatsRecomputeInterval);
 }
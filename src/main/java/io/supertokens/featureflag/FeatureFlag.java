@@ -19,6 +19,7 @@ package io.supertokens.featureflag;
 import com.google.gson.JsonObject;
 import io.supertokens.Main;
 import io.supertokens.ResourceDistributor;
+import io.supertokens.config.Config;
 import io.supertokens.featureflag.exceptions.InvalidLicenseKeyException;
 import io.supertokens.featureflag.exceptions.NoLicenseKeyFoundException;
 import io.supertokens.httpRequest.HttpResponseException;
@@ -35,6 +36,7 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -104,11 +106,17 @@ public class FeatureFlag extends ResourceDistributor.SingletonResource {
         return eeFeatureFlag.getPaidFeatureStats();
     }
 
+    public void invalidatePaidFeatureStats() {
+        if (this.eeFeatureFlag == null) {
+            return;
+        }
+        eeFeatureFlag.invalidatePaidFeatureStats();
+    }
+
     @TestOnly
     public static FeatureFlag getInstance(Main main) {
         try {
-            return (FeatureFlag) main.getResourceDistributor()
-                    .getResource(ResourceDistributor.getAppForTesting(), RESOURCE_KEY);
+            return getInstance(main, ResourceDistributor.getAppForTesting().toAppIdentifier());
         } catch (TenantOrAppNotFoundException e) {
             throw new IllegalStateException(e);
         }
@@ -116,7 +124,16 @@ public class FeatureFlag extends ResourceDistributor.SingletonResource {
 
     public static FeatureFlag getInstance(Main main, AppIdentifier appIdentifier) throws TenantOrAppNotFoundException {
         return (FeatureFlag) main.getResourceDistributor()
-                .getResource(appIdentifier, RESOURCE_KEY);
+                .getOrCreateAppResource(appIdentifier, RESOURCE_KEY, app -> new FeatureFlag(main, app));
+    }
+
+    // returns null if lazy_app_resource_loading_enabled is true and the app has not been used recently
+    public static FeatureFlag getInstanceIfLoaded(Main main, AppIdentifier appIdentifier)
+            throws TenantOrAppNotFoundException {
+        if (!Config.getBaseConfig(main).getLazyAppResourceLoadingEnabled()) {
+            return getInstance(main, appIdentifier);
+        }
+        return (FeatureFlag) main.getResourceDistributor().getResourceIfLoaded(appIdentifier, RESOURCE_KEY);
     }
 
     public static void initForBaseTenant(Main main, String eeFolderPath) throws MalformedURLException {
@@ -132,27 +149,48 @@ public class FeatureFlag extends ResourceDistributor.SingletonResource {
                         main.getResourceDistributor()
                                 .getAllResourcesWithResourceKey(RESOURCE_KEY);
                 main.getResourceDistributor().clearAllResourcesWithResourceKey(RESOURCE_KEY);
+                // if lazy_app_resource_loading_enabled is true, new resources are created when they are first used
+                boolean createNewResources = !Config.getBaseConfig(main).getLazyAppResourceLoadingEnabled();
+                List<AppIdentifier> appsToLoad = new ArrayList<>();
+                List<ResourceDistributor.Func<FeatureFlag>> tasks = new ArrayList<>();
                 for (AppIdentifier app : apps) {
-                    try {
-                        ResourceDistributor.SingletonResource resource = existingResources.get(
-                                new ResourceDistributor.KeyClass(
-                                        app,
-                                        RESOURCE_KEY));
-                        if (resource != null && !tenantsThatChanged.contains(app.getAsPublicTenantIdentifier())) {
-                            main.getResourceDistributor()
-                                    .setResource(app,
-                                            RESOURCE_KEY,
-                                            resource);
-                        } else {
-                            main.getResourceDistributor()
-                                    .setResource(
-                                            app,
-                                            RESOURCE_KEY,
-                                            new FeatureFlag(main, app));
+                    ResourceDistributor.SingletonResource resource = existingResources.get(
+                            new ResourceDistributor.KeyClass(
+                                    app,
+                                    RESOURCE_KEY));
+                    if (resource != null && !tenantsThatChanged.contains(app.getAsPublicTenantIdentifier())) {
+                        main.getResourceDistributor()
+                                .setResource(app,
+                                        RESOURCE_KEY,
+                                        resource);
+                        // a tenant of this app was added, removed or changed, so its cached paid feature
+                        // stats are out of date
+                        for (TenantIdentifier tenant : tenantsThatChanged) {
+                            if (tenant.toAppIdentifier().equals(app)) {
+                                ((FeatureFlag) resource).invalidatePaidFeatureStats();
+                                break;
+                            }
                         }
-                    } catch (Exception e) {
-                        Logging.error(main, app.getAsPublicTenantIdentifier(), e.getMessage(), false);
-                        // continue loading other resources
+                    } else if (createNewResources) {
+                        appsToLoad.add(app);
+                        tasks.add(() -> {
+                            try {
+                                return new FeatureFlag(main, app);
+                            } catch (Exception e) {
+                                Logging.error(main, app.getAsPublicTenantIdentifier(), e.getMessage(), false);
+                                // continue loading other resources
+                                return null;
+                            }
+                        });
+                    }
+                }
+
+                // the new resources are created in parallel, since they may each query the db
+                List<FeatureFlag> loaded = main.getResourceDistributor()
+                        .runInParallel(tasks, Config.getBaseConfig(main).getTenantLoadingThreads());
+                for (int i = 0; i < appsToLoad.size(); i++) {
+                    if (loaded.get(i) != null) {
+                        main.getResourceDistributor().setResource(appsToLoad.get(i), RESOURCE_KEY, loaded.get(i));
                     }
                 }
                 return null;
@@ -101,6 +101,9 @@ import io.supertokens.pluginInterface.webauthn.WebAuthNOptions;
 import io.supertokens.pluginInterface.webauthn.WebAuthNStoredCredential;
 import io.supertokens.pluginInterface.webauthn.exceptions.*;
 import io.supertokens.pluginInterface.webauthn.slqStorage.WebAuthNSQLStorage;
+import io.supertokens.storageLayer.ActiveUsersBatchStorage;
+import io.supertokens.storageLayer.OAuthBatchStorage;
+import io.supertokens.storageLayer.SessionBatchStorage;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.TestOnly;
 import org.sqlite.SQLiteException;
@@ -116,7 +119,8 @@ public class Start
         implements SessionSQLStorage, EmailPasswordSQLStorage, EmailVerificationSQLStorage, ThirdPartySQLStorage,
         JWTRecipeSQLStorage, PasswordlessSQLStorage, UserMetadataSQLStorage, UserRolesSQLStorage, UserIdMappingStorage,
         UserIdMappingSQLStorage, MultitenancyStorage, MultitenancySQLStorage, TOTPSQLStorage, ActiveUsersStorage,
-        ActiveUsersSQLStorage, DashboardSQLStorage, AuthRecipeSQLStorage, OAuthStorage, WebAuthNSQLStorage {
+        ActiveUsersSQLStorage, DashboardSQLStorage, AuthRecipeSQLStorage, OAuthStorage, WebAuthNSQLStorage,
+        ActiveUsersBatchStorage, OAuthBatchStorage, SessionBatchStorage {
 
     private static final Object appenderLock = new Object();
     private static final String ACCESS_TOKEN_SIGNING_KEY_NAME = "access_token_signing_key";
@@ -532,6 +536,16 @@ public class Start
         }
     }
 
+    @Override
+    public Map<String, SessionInfo> getSessions(TenantIdentifier tenantIdentifier, List<String> sessionHandles)
+            throws StorageQueryException {
+        try {
+            return SessionQueries.getSessions(this, tenantIdentifier, sessionHandles);
+        } catch (SQLException e) {
+            throw new StorageQueryException(e);
+        }
+    }
+
     @Override
     public int updateSession(TenantIdentifier tenantIdentifier, String sessionHandle, @Nullable JsonObject sessionData,
                              @Nullable JsonObject jwtPayload)
@@ -1333,6 +1347,40 @@ public class Start
         }
     }
 
+    @Override
+    public boolean canUpdateLastActiveToGivenTime() {
+        return true;
+    }
+
+    @Override
+    public void updateLastActiveForUsers(AppIdentifier appIdentifier, Map<String, Long> userIdToLastActiveTime)
+            throws StorageQueryException {
+        try {
+            this.startTransaction(con -> {
+                try {
+                    Connection sqlCon = (Connection) con.getConnection();
+                    ActiveUsersQueries.updateUsersLastActive_Transaction(sqlCon, this, appIdentifier,
+                            userIdToLastActiveTime);
+                } catch (SQLException e) {
+                    throw new StorageTransactionLogicException(e);
+                }
+                return null;
+            });
+        } catch (StorageTransactionLogicException e) {
+            throw new StorageQueryException(e.actualException);
+        }
+    }
+
+    @Override
+    public int[] countUsersActiveSinceForEachDay(AppIdentifier appIdentifier, long now, int numberOfDays)
+            throws StorageQueryException {
+        try {
+            return ActiveUsersQueries.countUsersActiveSinceForEachDay(this, appIdentifier, now, numberOfDays);
+        } catch (SQLException e) {
+            throw new StorageQueryException(e);
+        }
+    }
+
     @Override
     public void deleteUserActive_Transaction(TransactionConnection con, AppIdentifier appIdentifier, String userId)
             throws StorageQueryException {
@@ -3491,6 +3539,18 @@ public class Start
         }
     }
 
+    @Override
+    public int[] countTotalNumberOfOAuthM2MTokensCreatedSinceForEachDay(AppIdentifier appIdentifier, long now,
+                                                                      int numberOfDays)
+            throws StorageQueryException {
+        try {
+            return OAuthQueries.countTotalNumberOfOAuthM2MTokensCreatedSinceForEachDay(this, appIdentifier, now,
+                    numberOfDays);
+        } catch (SQLException e) {
+            throw new StorageQueryException(e);
+        }
+    }
+
     @Override
     public int countTotalNumberOfOAuthM2MTokensAlive(AppIdentifier appIdentifier) throws StorageQueryException {
         try {
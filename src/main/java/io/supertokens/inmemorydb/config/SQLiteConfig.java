@@ -65,6 +65,10 @@ public class SQLiteConfig {
         return "app_id_to_user_id";
     }
 
+    public String getUserSearchTokensTable() {
+        return "user_search_tokens";
+    }
+
     public String getUserLastActiveTable() {
         return "user_last_active";
     }
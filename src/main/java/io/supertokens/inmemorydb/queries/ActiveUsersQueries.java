@@ -2,13 +2,18 @@ package io.supertokens.inmemorydb.queries;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import io.supertokens.inmemorydb.config.Config;
 import io.supertokens.pluginInterface.exceptions.StorageQueryException;
+import io.supertokens.inmemorydb.PreparedStatementValueSetter;
 import io.supertokens.inmemorydb.Start;
 import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
 
 import static io.supertokens.inmemorydb.QueryExecutorTemplate.execute;
+import static io.supertokens.inmemorydb.QueryExecutorTemplate.executeBatch;
 import static io.supertokens.inmemorydb.QueryExecutorTemplate.update;
 
 public class ActiveUsersQueries {
@@ -44,6 +49,35 @@ public class ActiveUsersQueries {
         });
     }
 
+    public static int[] countUsersActiveSinceForEachDay(Start start, AppIdentifier appIdentifier, long now,
+                                                        int numberOfDays)
+            throws SQLException, StorageQueryException {
+        // days_ago is ceil((now - last_active_time) / 1 day), so a user is active since (now - i days) iff
+        // days_ago <= i. This lets us compute the counts for every day offset in one pass over the index.
+        long dayInMillis = 24 * 60 * 60 * 1000L;
+        String QUERY = "SELECT (? - last_active_time + ?) / ? AS days_ago, COUNT(*) AS total FROM "
+                + Config.getConfig(start).getUserLastActiveTable()
+                + " WHERE app_id = ? AND last_active_time >= ? GROUP BY days_ago";
+
+        return execute(start, QUERY, pst -> {
+            pst.setLong(1, now);
+            pst.setLong(2, dayInMillis - 1);
+            pst.setLong(3, dayInMillis);
+            pst.setString(4, appIdentifier.getAppId());
+            pst.setLong(5, now - (numberOfDays * dayInMillis));
+        }, result -> {
+            int[] counts = new int[numberOfDays];
+            while (result.next()) {
+                long daysAgo = result.getLong("days_ago");
+                int total = result.getInt("total");
+                for (int i = (int) Math.max(daysAgo, 1); i <= numberOfDays; i++) {
+                    counts[i - 1] += total;
+                }
+            }
+            return counts;
+        });
+    }
+
     public static int countUsersActiveSinceAndHasMoreThanOneLoginMethod(Start start, AppIdentifier appIdentifier,
                                                                         long sinceTime)
             throws SQLException, StorageQueryException {
@@ -84,6 +118,27 @@ public class ActiveUsersQueries {
         });
     }
 
+    public static void updateUsersLastActive_Transaction(Connection con, Start start, AppIdentifier appIdentifier,
+                                                         Map<String, Long> userIdToLastActiveTime)
+            throws SQLException, StorageQueryException {
+        // the buffered times can be older than what is already stored if another core wrote the same user in
+        // between, so we never move last_active_time backwards.
+        String QUERY = "INSERT INTO " + Config.getConfig(start).getUserLastActiveTable()
+                + "(app_id, user_id, last_active_time) VALUES(?, ?, ?) ON CONFLICT(app_id, user_id) DO UPDATE SET "
+                + "last_active_time = MAX(last_active_time, excluded.last_active_time)";
+
+        List<PreparedStatementValueSetter> setters = new ArrayList<>();
+        for (Map.Entry<String, Long> userIdToTime : userIdToLastActiveTime.entrySet()) {
+            setters.add(pst -> {
+                pst.setString(1, appIdentifier.getAppId());
+                pst.setString(2, userIdToTime.getKey());
+                pst.setLong(3, userIdToTime.getValue());
+            });
+        }
+
+        executeBatch(con, QUERY, setters);
+    }
+
     public static void deleteUserActive_Transaction(Connection con, Start start, AppIdentifier appIdentifier,
                                                     String userId)
             throws StorageQueryException, SQLException {
@@ -203,6 +203,59 @@ public class GeneralQueries {
         // @formatter:on
     }
 
+    static String getQueryToCreateUserSearchTokensTable(Start start) {
+        /*
+         * Each row is a lower cased search token derived from a recipe user's email: the full email and the part
+         * after the '@'. This lets dashboard search match "starts with" and "domain starts with" using an index
+         * range scan instead of a LIKE '%@...%' scan over every user table.
+         * */
+        String searchTokensTable = Config.getConfig(start).getUserSearchTokensTable();
+        // @formatter:off
+        return "CREATE TABLE IF NOT EXISTS " + searchTokensTable + " ("
+                + "app_id VARCHAR(64) NOT NULL DEFAULT 'public',"
+                + "recipe_id VARCHAR(128) NOT NULL,"
+                + "user_id CHAR(36) NOT NULL,"
+                + "token VARCHAR(256) NOT NULL,"
+                + "PRIMARY KEY (app_id, recipe_id, user_id, token)"
+                + ");";
+        // @formatter:on
+    }
+
+    static String getQueryToCreateUserSearchTokensTokenIndex(Start start) {
+        return "CREATE INDEX IF NOT EXISTS user_search_tokens_token_index ON "
+                + Config.getConfig(start).getUserSearchTokensTable() + "(app_id, recipe_id, token);";
+    }
+
+    static List<String> getQueriesToMaintainUserSearchTokens(Start start, String recipeUsersTable,
+                                                             RECIPE_ID recipeId) {
+        // The tokens are kept in sync using triggers on the recipe's app level users table, so that every code
+        // path that creates, updates or deletes a user (including cascading deletes) keeps the index correct.
+        String searchTokensTable = Config.getConfig(start).getUserSearchTokensTable();
+        String recipe = "'" + recipeId.toString() + "'";
+        String insertNewTokens = "INSERT OR IGNORE INTO " + searchTokensTable + " (app_id, recipe_id, user_id, token)"
+                + " SELECT NEW.app_id, " + recipe + ", NEW.user_id, lower(NEW.email) WHERE NEW.email IS NOT NULL"
+                + " UNION SELECT NEW.app_id, " + recipe + ", NEW.user_id,"
+                + " lower(substr(NEW.email, instr(NEW.email, '@') + 1)) WHERE NEW.email IS NOT NULL;";
+        String deleteOldTokens = "DELETE FROM " + searchTokensTable
+                + " WHERE app_id = OLD.app_id AND recipe_id = " + recipe + " AND user_id = OLD.user_id;";
+
+        List<String> queries = new ArrayList<>();
+        // backfill, in case the users table already has rows
+        queries.add("INSERT OR IGNORE INTO " + searchTokensTable + " (app_id, recipe_id, user_id, token)"
+                + " SELECT app_id, " + recipe + ", user_id, lower(email) FROM " + recipeUsersTable
+                + " WHERE email IS NOT NULL"
+                + " UNION SELECT app_id, " + recipe + ", user_id, lower(substr(email, instr(email, '@') + 1)) FROM "
+                + recipeUsersTable + " WHERE email IS NOT NULL");
+        queries.add("CREATE TRIGGER IF NOT EXISTS " + recipeUsersTable + "_search_tokens_insert AFTER INSERT ON "
+                + recipeUsersTable + " BEGIN " + insertNewTokens + " END;");
+        queries.add("CREATE TRIGGER IF NOT EXISTS " + recipeUsersTable + "_search_tokens_update"
+                + " AFTER UPDATE OF user_id, email ON " + recipeUsersTable + " BEGIN " + deleteOldTokens + " "
+                + insertNewTokens + " END;");
+        queries.add("CREATE TRIGGER IF NOT EXISTS " + recipeUsersTable + "_search_tokens_delete AFTER DELETE ON "
+                + recipeUsersTable + " BEGIN " + deleteOldTokens + " END;");
+        return queries;
+    }
+
     public static void createTablesIfNotExists(Start start, Main main) throws SQLException, StorageQueryException {
         if (!doesTableExists(start, Config.getConfig(start).getAppsTable())) {
             getInstance(main).addState(CREATING_NEW_TABLE, null);
@@ -516,6 +569,28 @@ public class GeneralQueries {
             //index
             update(start, WebAuthNQueries.getQueryToCreateWebAuthNCredentialsUserIdIndex(start), NO_OP_SETTER);
         }
+
+        if (!doesTableExists(start, Config.getConfig(start).getUserSearchTokensTable())) {
+            getInstance(main).addState(CREATING_NEW_TABLE, null);
+            update(start, getQueryToCreateUserSearchTokensTable(start), NO_OP_SETTER);
+
+            // index
+            update(start, getQueryToCreateUserSearchTokensTokenIndex(start), NO_OP_SETTER);
+
+            // triggers
+            List<String> maintenanceQueries = new ArrayList<>();
+            maintenanceQueries.addAll(getQueriesToMaintainUserSearchTokens(start,
+                    Config.getConfig(start).getEmailPasswordUsersTable(), RECIPE_ID.EMAIL_PASSWORD));
+            maintenanceQueries.addAll(getQueriesToMaintainUserSearchTokens(start,
+                    Config.getConfig(start).getThirdPartyUsersTable(), RECIPE_ID.THIRD_PARTY));
+            maintenanceQueries.addAll(getQueriesToMaintainUserSearchTokens(start,
+                    Config.getConfig(start).getPasswordlessUsersTable(), RECIPE_ID.PASSWORDLESS));
+            maintenanceQueries.addAll(getQueriesToMaintainUserSearchTokens(start,
+                    Config.getConfig(start).getWebAuthNUsersTable(), RECIPE_ID.WEBAUTHN));
+            for (String query : maintenanceQueries) {
+                update(start, query, NO_OP_SETTER);
+            }
+        }
     }
 
     public static void setKeyValue_Transaction(Start start, Connection con, TenantIdentifier tenantIdentifier,
@@ -694,6 +769,39 @@ public class GeneralQueries {
         }, ResultSet::next);
     }
 
+    private static String getEmailSearchTagCondition(Start start, TenantIdentifier tenantIdentifier,
+                                                     String userIdColumn, RECIPE_ID recipeId, List<String> emails,
+                                                     List<String> queryList) {
+        // matches users whose email, or the domain part of their email, starts with any of the given tags. This is
+        // done as a range scan on the search tokens index: token >= tag AND token < (tag with its last char + 1)
+        StringBuilder condition = new StringBuilder(" " + userIdColumn + " IN (SELECT user_id FROM "
+                + getConfig(start).getUserSearchTokensTable() + " WHERE app_id = ? AND recipe_id = ? AND (");
+        queryList.add(tenantIdentifier.getAppId());
+        queryList.add(recipeId.toString());
+        for (int i = 0; i < emails.size(); i++) {
+            if (i != 0) {
+                condition.append(" OR");
+            }
+            condition.append(" (token >= ? AND token < ?)");
+            String tag = emails.get(i).toLowerCase();
+            queryList.add(tag);
+            queryList.add(getUpperBoundForPrefix(tag));
+        }
+        condition.append(" ))");
+        return condition.toString();
+    }
+
+    private static String getUpperBoundForPrefix(String prefix) {
+        int end = prefix.length();
+        while (end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE) {
+            end--;
+        }
+        if (end == 0) {
+            return String.valueOf(Character.MAX_VALUE);
+        }
+        return prefix.substring(0, end - 1) + (char) (prefix.charAt(end - 1) + 1);
+    }
+
     public static AuthRecipeUserInfo[] getUsers(Start start, TenantIdentifier tenantIdentifier, @NotNull Integer limit,
                                                 @NotNull String timeJoinedOrder,
                                                 @Nullable RECIPE_ID[] includeRecipeIds, @Nullable String userId,
@@ -721,19 +829,11 @@ public class GeneralQueries {
 
                         // attach email tags to queries
                         QUERY = QUERY +
-                                " WHERE (emailpasswordTable.app_id = ? AND emailpasswordTable.tenant_id = ?) AND"
-                                + " ( emailpasswordTable.email LIKE ? OR emailpasswordTable.email LIKE ? ";
+                                " WHERE (emailpasswordTable.app_id = ? AND emailpasswordTable.tenant_id = ?) AND";
                         queryList.add(tenantIdentifier.getAppId());
                         queryList.add(tenantIdentifier.getTenantId());
-                        queryList.add(dashboardSearchTags.emails.get(0) + "%");
-                        queryList.add("%@" + dashboardSearchTags.emails.get(0) + "%");
-                        for (int i = 1; i < dashboardSearchTags.emails.size(); i++) {
-                            QUERY += " OR emailpasswordTable.email LIKE ? OR emailpasswordTable.email LIKE ?";
-                            queryList.add(dashboardSearchTags.emails.get(i) + "%");
-                            queryList.add("%@" + dashboardSearchTags.emails.get(i) + "%");
-                        }
-
-                        QUERY += " )";
+                        QUERY += getEmailSearchTagCondition(start, tenantIdentifier, "emailpasswordTable.user_id",
+                                RECIPE_ID.EMAIL_PASSWORD, dashboardSearchTags.emails, queryList);
 
                         USER_SEARCH_TAG_CONDITION.append("SELECT * FROM ( ").append(QUERY)
                                 .append(" LIMIT 1000) AS emailpasswordResultTable");
@@ -760,20 +860,12 @@ public class GeneralQueries {
 
                             QUERY +=
                                     " WHERE (thirdPartyToTenantTable.app_id = ? AND thirdPartyToTenantTable.tenant_id" +
-                                            " = ?)"
-                                            + " AND ( thirdPartyTable.email LIKE ? OR thirdPartyTable.email LIKE ?";
+                                            " = ?) AND";
                             queryList.add(tenantIdentifier.getAppId());
                             queryList.add(tenantIdentifier.getTenantId());
-                            queryList.add(dashboardSearchTags.emails.get(0) + "%");
-                            queryList.add("%@" + dashboardSearchTags.emails.get(0) + "%");
-
-                            for (int i = 1; i < dashboardSearchTags.emails.size(); i++) {
-                                QUERY += " OR thirdPartyTable.email LIKE ? OR thirdPartyTable.email LIKE ?";
-                                queryList.add(dashboardSearchTags.emails.get(i) + "%");
-                                queryList.add("%@" + dashboardSearchTags.emails.get(i) + "%");
-                            }
-
-                            QUERY += " )";
+                            QUERY += getEmailSearchTagCondition(start, tenantIdentifier,
+                                    "thirdPartyToTenantTable.user_id", RECIPE_ID.THIRD_PARTY,
+                                    dashboardSearchTags.emails, queryList);
 
                         }
 
@@ -825,18 +917,11 @@ public class GeneralQueries {
                         if (dashboardSearchTags.emails != null) {
 
                             QUERY = QUERY + " WHERE (passwordlessTable.app_id = ? AND passwordlessTable.tenant_id = ?)"
-                                    + " AND ( passwordlessTable.email LIKE ? OR passwordlessTable.email LIKE ?";
+                                    + " AND";
                             queryList.add(tenantIdentifier.getAppId());
                             queryList.add(tenantIdentifier.getTenantId());
-                            queryList.add(dashboardSearchTags.emails.get(0) + "%");
-                            queryList.add("%@" + dashboardSearchTags.emails.get(0) + "%");
-                            for (int i = 1; i < dashboardSearchTags.emails.size(); i++) {
-                                QUERY += " OR passwordlessTable.email LIKE ? OR passwordlessTable.email LIKE ?";
-                                queryList.add(dashboardSearchTags.emails.get(i) + "%");
-                                queryList.add("%@" + dashboardSearchTags.emails.get(i) + "%");
-                            }
-
-                            QUERY += " )";
+                            QUERY += getEmailSearchTagCondition(start, tenantIdentifier, "passwordlessTable.user_id",
+                                    RECIPE_ID.PASSWORDLESS, dashboardSearchTags.emails, queryList);
                         }
 
                         // check if phone tag is present
@@ -886,19 +971,11 @@ public class GeneralQueries {
 
                         // attach email tags to queries
                         QUERY = QUERY +
-                                " WHERE (webauthnTable.app_id = ? AND webauthnTable.tenant_id = ?) AND"
-                                + " ( webauthnTable.email LIKE ? OR webauthnTable.email LIKE ? ";
+                                " WHERE (webauthnTable.app_id = ? AND webauthnTable.tenant_id = ?) AND";
                         queryList.add(tenantIdentifier.getAppId());
                         queryList.add(tenantIdentifier.getTenantId());
-                        queryList.add(dashboardSearchTags.emails.get(0) + "%");
-                        queryList.add("%@" + dashboardSearchTags.emails.get(0) + "%");
-                        for (int i = 1; i < dashboardSearchTags.emails.size(); i++) {
-                            QUERY += " OR webauthnTable.email LIKE ? OR webauthnTable.email LIKE ?";
-                            queryList.add(dashboardSearchTags.emails.get(i) + "%");
-                            queryList.add("%@" + dashboardSearchTags.emails.get(i) + "%");
-                        }
-
-                        QUERY += " )";
+                        QUERY += getEmailSearchTagCondition(start, tenantIdentifier, "webauthnTable.user_id",
+                                RECIPE_ID.WEBAUTHN, dashboardSearchTags.emails, queryList);
 
                         // check if we need to append this to an existing search query
                         if (USER_SEARCH_TAG_CONDITION.length() != 0) {
@@ -329,6 +329,36 @@ public class OAuthQueries {
         });
     }
 
+    public static int[] countTotalNumberOfOAuthM2MTokensCreatedSinceForEachDay(Start start,
+                                                                              AppIdentifier appIdentifier,
+                                                                              long now, int numberOfDays)
+            throws SQLException, StorageQueryException {
+        // iat is in seconds. days_ago is ceil((now - iat) / 1 day), so a token was created since (now - i days)
+        // iff days_ago <= i.
+        long nowInSeconds = now / 1000;
+        long dayInSeconds = 24 * 60 * 60L;
+        String QUERY = "SELECT (? - iat + ?) / ? AS days_ago, COUNT(*) AS c FROM "
+                + Config.getConfig(start).getOAuthM2MTokensTable()
+                + " WHERE app_id = ? AND iat >= ? GROUP BY days_ago";
+        return execute(start, QUERY, pst -> {
+            pst.setLong(1, nowInSeconds);
+            pst.setLong(2, dayInSeconds - 1);
+            pst.setLong(3, dayInSeconds);
+            pst.setString(4, appIdentifier.getAppId());
+            pst.setLong(5, nowInSeconds - (numberOfDays * dayInSeconds));
+        }, result -> {
+            int[] counts = new int[numberOfDays];
+            while (result.next()) {
+                long daysAgo = result.getLong("days_ago");
+                int total = result.getInt("c");
+                for (int i = (int) Math.max(daysAgo, 1); i <= numberOfDays; i++) {
+                    counts[i - 1] += total;
+                }
+            }
+            return counts;
+        });
+    }
+
     public static void addOAuthM2MTokenForStats(Start start, AppIdentifier appIdentifier, String clientId, long iat, long exp)
             throws SQLException, StorageQueryException {
         String QUERY = "INSERT INTO " + Config.getConfig(start).getOAuthM2MTokensTable() +
@@ -33,7 +33,9 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static io.supertokens.inmemorydb.QueryExecutorTemplate.execute;
 import static io.supertokens.inmemorydb.QueryExecutorTemplate.update;
@@ -397,6 +399,43 @@ public class SessionQueries {
         });
     }
 
+    public static Map<String, SessionInfo> getSessions(Start start, TenantIdentifier tenantIdentifier,
+                                                       List<String> sessionHandles)
+            throws SQLException, StorageQueryException {
+        Map<String, SessionInfo> sessions = new HashMap<>();
+        if (sessionHandles.isEmpty()) {
+            return sessions;
+        }
+        StringBuilder QUERY = new StringBuilder(
+                "SELECT sess.session_handle, sess.user_id, sess.refresh_token_hash_2, sess.session_data, sess" +
+                        ".expires_at, sess.created_at_time, sess.jwt_user_payload, sess.use_static_key, users" +
+                        ".primary_or_recipe_user_id FROM " + getConfig(start).getSessionInfoTable()
+                        + " AS sess LEFT JOIN " + getConfig(start).getUsersTable() +
+                        " as users ON sess.app_id = users.app_id AND sess.user_id = users.user_id WHERE sess.app_id =" +
+                        " ? AND sess.tenant_id = ? AND sess.session_handle IN (");
+        for (int i = 0; i < sessionHandles.size(); i++) {
+            if (i == sessionHandles.size() - 1) {
+                QUERY.append("?)");
+            } else {
+                QUERY.append("?, ");
+            }
+        }
+
+        return execute(start, QUERY.toString(), pst -> {
+            pst.setString(1, tenantIdentifier.getAppId());
+            pst.setString(2, tenantIdentifier.getTenantId());
+            for (int i = 0; i < sessionHandles.size(); i++) {
+                pst.setString(i + 3, sessionHandles.get(i));
+            }
+        }, result -> {
+            while (result.next()) {
+                sessions.put(result.getString("session_handle"),
+                        SessionInfoRowMapper.getInstance().mapOrThrow(result, true));
+            }
+            return sessions;
+        });
+    }
+
     public static void addAccessTokenSigningKey_Transaction(Start start, Connection con, AppIdentifier appIdentifier,
                                                             long createdAtTime,
                                                             String value) throws SQLException, StorageQueryException {
@@ -39,6 +39,8 @@ import org.jetbrains.annotations.TestOnly;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
 import java.security.spec.InvalidKeySpecException;
@@ -101,11 +103,17 @@ public class JWTSigningFunctions {
 
         JWTSigningKeyInfo keyToUse;
         if (useDynamicKey) {
-            keyToUse = Utils.getJWTSigningKeyInfoFromKeyInfo(
-                    SigningKeys.getInstance(appIdentifier, main).getLatestIssuedDynamicKey());
+            // dynamic keys are created for RS256 and for the access token algorithm, see
+            // AccessTokenSigningKey.getDynamicKeyAlgorithms
+            SigningKeys.KeyInfo dynamicKey = SigningKeys.getInstance(appIdentifier, main)
+                    .getLatestIssuedDynamicKey(supportedAlgorithm);
+            if (dynamicKey == null) {
+                throw new UnsupportedJWTSigningAlgorithmException();
+            }
+            keyToUse = Utils.getJWTSigningKeyInfoFromKeyInfo(dynamicKey);
         } else {
             keyToUse = SigningKeys.getInstance(appIdentifier, main)
-                    .getStaticKeyForAlgorithm(JWTSigningKey.SupportedAlgorithms.RS256);
+                    .getStaticKeyForAlgorithm(supportedAlgorithm);
         }
 
         return createJWTToken(supportedAlgorithm, new HashMap<>(), payload, jwksDomain, expires, issued, keyToUse);
@@ -158,6 +166,15 @@ public class JWTSigningFunctions {
             if (publicKey instanceof RSAPublicKey && privateKey instanceof RSAPrivateKey) {
                 return Algorithm.RSA256((RSAPublicKey) publicKey, (RSAPrivateKey) privateKey);
             }
+        } else if (algorithm.equalsString("es256")) {
+            PublicKey publicKey = Utils.getPublicKeyFromString(((JWTAsymmetricSigningKeyInfo) keyToUse).publicKey,
+                    algorithm);
+            PrivateKey privateKey = Utils.getPrivateKeyFromString(((JWTAsymmetricSigningKeyInfo) keyToUse).privateKey,
+                    algorithm);
+
+            if (publicKey instanceof ECPublicKey && privateKey instanceof ECPrivateKey) {
+                return Algorithm.ECDSA256((ECPublicKey) publicKey, (ECPrivateKey) privateKey);
+            }
         }
 
         throw new UnsupportedJWTSigningAlgorithmException();
@@ -18,6 +18,7 @@ package io.supertokens.multitenancy;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import io.supertokens.ActiveUsersBuffer;
 import io.supertokens.Main;
 import io.supertokens.ResourceDistributor;
 import io.supertokens.authRecipe.AuthRecipe;
@@ -352,6 +353,7 @@ public class Multitenancy extends ResourceDistributor.SingletonResource {
             // but not from the main table.
         }
         boolean didExist = StorageLayer.getMultitenancyStorage(main).deleteAppInfoInBaseStorage(appIdentifier);
+        ActiveUsersBuffer.getInstance(main).discardAll(appIdentifier);
         MultitenancyHelper.getInstance(main).refreshTenantsInCoreBasedOnChangesInCoreConfigOrIfTenantListChanged(true);
         return didExist;
     }
@@ -389,6 +391,7 @@ public class Multitenancy extends ResourceDistributor.SingletonResource {
         }
         boolean didExist = StorageLayer.getMultitenancyStorage(main)
                 .deleteConnectionUriDomainInfoInBaseStorage(connectionUriDomain);
+        ActiveUsersBuffer.getInstance(main).discardAll(new AppIdentifier(connectionUriDomain, null));
         MultitenancyHelper.getInstance(main).refreshTenantsInCoreBasedOnChangesInCoreConfigOrIfTenantListChanged(true);
         return didExist;
     }
@@ -52,6 +52,10 @@ public class MultitenancyHelper extends ResourceDistributor.SingletonResource {
     private Main main;
     private TenantConfig[] tenantConfigs;
 
+    // normalised configs of the tenants, so that a refresh only normalises the configs of tenants that changed
+    private final Config.NormalisedTenantConfigCache normalisedTenantConfigs =
+            new Config.NormalisedTenantConfigCache();
+
     // when the core has `supertokens_saas_load_only_cud` set, the tenantConfigs array will be filtered
     // based on the config value. However, we need to keep all the list of CUDs from the db to be able
     // to check if the CUD is present in the DB or not, while processing the requests.
@@ -124,13 +128,16 @@ public class MultitenancyHelper extends ResourceDistributor.SingletonResource {
                     TenantConfig[] tenantsFromDb = getAllTenantsFromDb();
                     TenantConfig[] filteredTenantsFromDb = this.getFilteredTenantConfigs(tenantsFromDb);
 
-                    Map<ResourceDistributor.KeyClass, JsonObject> normalizedTenantsFromDb =
-                            Config.getNormalisedConfigsForAllTenants(
-                                    filteredTenantsFromDb, Config.getBaseConfigAsJsonObject(main));
-
+                    JsonObject baseConfig = Config.getBaseConfigAsJsonObject(main);
                     Map<ResourceDistributor.KeyClass, JsonObject> normalizedTenantsFromMemory =
-                            Config.getNormalisedConfigsForAllTenants(
-                                    this.tenantConfigs, Config.getBaseConfigAsJsonObject(main));
+                            this.normalisedTenantConfigs.getLastNormalisedConfigs(baseConfig);
+                    if (normalizedTenantsFromMemory == null) {
+                        normalizedTenantsFromMemory = this.normalisedTenantConfigs.getNormalisedConfigsForAllTenants(
+                                this.tenantConfigs, baseConfig);
+                    }
+                    Map<ResourceDistributor.KeyClass, JsonObject> normalizedTenantsFromDb =
+                            this.normalisedTenantConfigs.getNormalisedConfigsForAllTenants(filteredTenantsFromDb,
+                                    baseConfig);
 
                     List<TenantIdentifier> tenantsThatChanged = new ArrayList<>();
 
@@ -204,7 +211,9 @@ public class MultitenancyHelper extends ResourceDistributor.SingletonResource {
     }
 
     public void loadStorageLayer() throws IOException, InvalidConfigException {
+        long startTime = System.currentTimeMillis();
         StorageLayer.loadAllTenantStorage(main, this.tenantConfigs);
+        logLoadingTime("storage layer", startTime);
     }
 
     public void loadFeatureFlag(List<TenantIdentifier> tenantsThatChanged) {
@@ -217,7 +226,9 @@ public class MultitenancyHelper extends ResourceDistributor.SingletonResource {
             apps.add(t.tenantIdentifier.toAppIdentifier());
             appsSet.add(t.tenantIdentifier.toAppIdentifier());
         }
+        long startTime = System.currentTimeMillis();
         FeatureFlag.loadForAllTenants(main, apps, tenantsThatChanged);
+        logLoadingTime("feature flags", startTime);
     }
 
     public void loadSigningKeys(List<TenantIdentifier> tenantsThatChanged)
@@ -231,10 +242,18 @@ public class MultitenancyHelper extends ResourceDistributor.SingletonResource {
             apps.add(t.tenantIdentifier.toAppIdentifier());
             appsSet.add(t.tenantIdentifier.toAppIdentifier());
         }
+        long startTime = System.currentTimeMillis();
         AccessTokenSigningKey.loadForAllTenants(main, apps, tenantsThatChanged);
         RefreshTokenKey.loadForAllTenants(main, apps, tenantsThatChanged);
         JWTSigningKey.loadForAllTenants(main, apps, tenantsThatChanged);
         SigningKeys.loadForAllTenants(main, apps, tenantsThatChanged);
+        logLoadingTime("signing keys", startTime);
+    }
+
+    private void logLoadingTime(String resources, long startTime) {
+        Logging.info(main, TenantIdentifier.BASE_TENANT,
+                "Loaded " + resources + " for " + this.tenantConfigs.length + " tenants in " +
+                        (System.currentTimeMillis() - startTime) + "ms", false);
     }
 
     public void refreshCronjobs() {
@@ -42,6 +42,7 @@ import io.supertokens.pluginInterface.oauth.OAuthStorage;
 import io.supertokens.pluginInterface.oauth.exception.DuplicateOAuthLogoutChallengeException;
 import io.supertokens.pluginInterface.oauth.exception.OAuthClientNotFoundException;
 import io.supertokens.session.jwt.JWT.JWTException;
+import io.supertokens.storageLayer.OAuthBatchStorage;
 import io.supertokens.utils.Utils;
 
 import javax.crypto.BadPaddingException;
@@ -51,7 +52,6 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
 import java.util.*;
@@ -342,8 +342,7 @@ public class OAuth {
             // 3. Take the left-most half of the hash
             // 4. Base64url encode it
             byte[] accessTokenBytes = accessToken.getBytes(StandardCharsets.UTF_8);
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(accessTokenBytes);
+            byte[] hash = Utils.hashSHA256Bytes(accessTokenBytes);
             byte[] halfHash = Arrays.copyOf(hash, hash.length / 2);
             atHash = Base64.getUrlEncoder().withoutPadding().encodeToString(halfHash);
         }
@@ -588,6 +587,14 @@ public class OAuth {
         oauthStorage.addOAuthM2MTokenForStats(appIdentifier, payload.get("client_id").getAsString(), payload.get("iat").getAsLong(), payload.get("exp").getAsLong());
     }
 
+    public static int[] countTotalNumberOfM2MTokensCreatedSinceForEachDay(AppIdentifier appIdentifier,
+                                                                          Storage storage, long now,
+                                                                          int numberOfDays)
+            throws StorageQueryException {
+        return OAuthBatchStorage.from(storage).countTotalNumberOfOAuthM2MTokensCreatedSinceForEachDay(appIdentifier,
+                now, numberOfDays);
+    }
+
     public static String createLogoutRequestAndReturnRedirectUri(Main main, AppIdentifier appIdentifier, Storage storage, String clientId,
             String postLogoutRedirectionUri, String sessionHandle, String state)
             throws StorageQueryException, OAuthClientNotFoundException {
@@ -69,7 +69,7 @@ public class OAuthToken {
         for (JWTSigningKeyInfo keyInfo : keyInfoList) {
             try {
                 jwtInfo = JWT.verifyJWTAndGetPayload(preParseJWTInfo,
-                        ((JWTAsymmetricSigningKeyInfo) keyInfo).publicKey);
+                        ((JWTAsymmetricSigningKeyInfo) keyInfo).publicKey, keyInfo.algorithm);
                 error = null;
                 break;
             } catch (NoSuchAlgorithmException e) {
@@ -150,7 +150,9 @@ public class OAuthToken {
                     .getStaticKeyForAlgorithm(JWTSigningKey.SupportedAlgorithms.RS256);
         }
 
-        token = JWTSigningFunctions.createJWTToken(JWTSigningKey.SupportedAlgorithms.RS256, new HashMap<>(),
+        // dynamic keys can use a different algorithm, depending on access_token_signing_key_algorithm
+        token = JWTSigningFunctions.createJWTToken(JWTSigningKey.SupportedAlgorithms.valueOf(keyToUse.algorithm),
+                new HashMap<>(),
                     payload, null, payload.get("exp").getAsLong(), payload.get("iat").getAsLong(), keyToUse);
         return token;
     }
@@ -0,0 +1,128 @@
+/*
+ *    Copyright (c) 2024, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.session;
+
+import io.supertokens.Main;
+import io.supertokens.ResourceDistributor;
+import io.supertokens.exceptions.AccessTokenPayloadError;
+import io.supertokens.exceptions.TokenTheftDetectedException;
+import io.supertokens.exceptions.UnauthorisedException;
+import io.supertokens.jwt.exceptions.UnsupportedJWTSigningAlgorithmException;
+import io.supertokens.pluginInterface.exceptions.StorageQueryException;
+import io.supertokens.pluginInterface.exceptions.StorageTransactionLogicException;
+import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
+import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
+import io.supertokens.session.info.SessionInformationHolder;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+// Clients often fire several refresh calls in parallel with the same refresh token. Each of them would run its own
+// transaction on the same session row, and all but the first would see a rotated refresh token. Instead, a refresh
+// that is already in flight for the same key is joined, and all callers get the same new tokens (or the same error).
+// Only calls that overlap in time are coalesced, sequential calls still go through the normal refresh logic.
+public class RefreshSessionCoalescer extends ResourceDistributor.SingletonResource {
+
+    private static final String RESOURCE_KEY = "io.supertokens.session.RefreshSessionCoalescer";
+
+    private final Map<Object, CompletableFuture<SessionInformationHolder>> inFlightRefreshes =
+            new ConcurrentHashMap<>();
+
+    private RefreshSessionCoalescer() {
+    }
+
+    public static RefreshSessionCoalescer getInstance(Main main) {
+        try {
+            return (RefreshSessionCoalescer) main.getResourceDistributor()
+                    .getResource(new TenantIdentifier(null, null, null), RESOURCE_KEY);
+        } catch (TenantOrAppNotFoundException ignored) {
+            return (RefreshSessionCoalescer) main.getResourceDistributor()
+                    .setResource(new TenantIdentifier(null, null, null), RESOURCE_KEY, new RefreshSessionCoalescer());
+        }
+    }
+
+    public interface Refresh {
+        SessionInformationHolder refresh()
+                throws StorageTransactionLogicException, UnauthorisedException, StorageQueryException,
+                TokenTheftDetectedException, UnsupportedJWTSigningAlgorithmException, AccessTokenPayloadError,
+                TenantOrAppNotFoundException;
+    }
+
+    /**
+     * Runs refresh, unless a refresh with an equal key is already running, in which case its result is returned.
+     * The key must capture everything that changes the result of refresh (the refresh token and the options
+     * passed along with it).
+     */
+    public SessionInformationHolder refresh(Object key, Refresh refresh)
+            throws StorageTransactionLogicException, UnauthorisedException, StorageQueryException,
+            TokenTheftDetectedException, UnsupportedJWTSigningAlgorithmException, AccessTokenPayloadError,
+            TenantOrAppNotFoundException {
+        CompletableFuture<SessionInformationHolder> ownRefresh = new CompletableFuture<>();
+        CompletableFuture<SessionInformationHolder> inFlightRefresh = inFlightRefreshes.putIfAbsent(key,
+                ownRefresh);
+        if (inFlightRefresh != null) {
+            return waitFor(inFlightRefresh);
+        }
+
+        try {
+            SessionInformationHolder result = refresh.refresh();
+            ownRefresh.complete(result);
+            return result;
+        } catch (Throwable e) {
+            ownRefresh.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightRefreshes.remove(key, ownRefresh);
+        }
+    }
+
+    private static SessionInformationHolder waitFor(CompletableFuture<SessionInformationHolder> inFlightRefresh)
+            throws StorageTransactionLogicException, UnauthorisedException, StorageQueryException,
+            TokenTheftDetectedException, UnsupportedJWTSigningAlgorithmException, AccessTokenPayloadError,
+            TenantOrAppNotFoundException {
+        try {
+            return inFlightRefresh.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StorageQueryException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof StorageTransactionLogicException) {
+                throw (StorageTransactionLogicException) cause;
+            } else if (cause instanceof UnauthorisedException) {
+                throw (UnauthorisedException) cause;
+            } else if (cause instanceof StorageQueryException) {
+                throw (StorageQueryException) cause;
+            } else if (cause instanceof TokenTheftDetectedException) {
+                throw (TokenTheftDetectedException) cause;
+            } else if (cause instanceof UnsupportedJWTSigningAlgorithmException) {
+                throw (UnsupportedJWTSigningAlgorithmException) cause;
+            } else if (cause instanceof AccessTokenPayloadError) {
+                throw (AccessTokenPayloadError) cause;
+            } else if (cause instanceof TenantOrAppNotFoundException) {
+                throw (TenantOrAppNotFoundException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
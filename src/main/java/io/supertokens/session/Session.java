@@ -48,9 +48,11 @@ import io.supertokens.session.accessToken.AccessToken;
 import io.supertokens.session.accessToken.AccessToken.AccessTokenInfo;
 import io.supertokens.session.info.SessionInfo;
 import io.supertokens.session.info.SessionInformationHolder;
+import io.supertokens.session.info.SessionVerificationResult;
 import io.supertokens.session.info.TokenInfo;
 import io.supertokens.session.jwt.JWT;
 import io.supertokens.session.refreshToken.RefreshToken;
+import io.supertokens.storageLayer.SessionBatchStorage;
 import io.supertokens.storageLayer.StorageLayer;
 import io.supertokens.useridmapping.UserIdMapping;
 import io.supertokens.useridmapping.UserIdType;
@@ -361,6 +363,100 @@ public class Session {
             }
         }
 
+        return getSessionForVerifiedAccessToken(main, accessToken, sessionInfoForBlacklisting);
+    }
+
+    /**
+     * Verifies many access tokens of an app at once. The result list has one entry per token, in the same order,
+     * holding either the session or the UnauthorisedException / TryRefreshTokenException / AccessTokenPayloadError /
+     * TenantOrAppNotFoundException that getSession would have thrown for that token. If checkDatabase is true, the
+     * sessions of all valid tokens are fetched with one query per tenant.
+     * Used by:
+     * - /recipe/session/verify/batch POST
+     */
+    public static List<SessionVerificationResult> getSessions(AppIdentifier appIdentifier, Main main,
+                                                              @Nonnull List<String> tokens,
+                                                              @Nonnull List<String> antiCsrfTokens,
+                                                              boolean enableAntiCsrf, boolean doAntiCsrfCheck,
+                                                              boolean checkDatabase)
+            throws StorageQueryException, StorageTransactionLogicException, UnsupportedJWTSigningAlgorithmException,
+            TenantOrAppNotFoundException {
+        SessionVerificationResult[] results = new SessionVerificationResult[tokens.size()];
+        AccessTokenInfo[] accessTokens = new AccessTokenInfo[tokens.size()];
+
+        // the signing keys are read from the same in memory snapshot for every token
+        Map<TenantIdentifier, Set<String>> sessionHandlesToFetch = new HashMap<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            try {
+                AccessTokenInfo accessToken = AccessToken.getInfoFromAccessToken(appIdentifier, main, tokens.get(i),
+                        doAntiCsrfCheck && enableAntiCsrf);
+                String antiCsrfToken = antiCsrfTokens.get(i);
+                if (enableAntiCsrf && doAntiCsrfCheck
+                        && (antiCsrfToken == null || !antiCsrfToken.equals(accessToken.antiCsrfToken))) {
+                    throw new TryRefreshTokenException("anti-csrf check failed");
+                }
+                accessTokens[i] = accessToken;
+                if (checkDatabase) {
+                    sessionHandlesToFetch.computeIfAbsent(accessToken.tenantIdentifier, k -> new HashSet<>())
+                            .add(accessToken.sessionHandle);
+                }
+            } catch (TryRefreshTokenException e) {
+                results[i] = new SessionVerificationResult(null, e);
+            }
+        }
+
+        Map<TenantIdentifier, Map<String, io.supertokens.pluginInterface.session.SessionInfo>> sessionsFromDb =
+                new HashMap<>();
+        // a token can belong to a tenant that has been deleted since, which should only fail that token
+        Map<TenantIdentifier, TenantOrAppNotFoundException> missingTenants = new HashMap<>();
+        for (Map.Entry<TenantIdentifier, Set<String>> entry : sessionHandlesToFetch.entrySet()) {
+            try {
+                SessionBatchStorage sessionStorage = SessionBatchStorage.from(
+                        StorageLayer.getStorage(entry.getKey(), main));
+                sessionsFromDb.put(entry.getKey(),
+                        sessionStorage.getSessions(entry.getKey(), new ArrayList<>(entry.getValue())));
+            } catch (TenantOrAppNotFoundException e) {
+                missingTenants.put(entry.getKey(), e);
+            }
+        }
+
+        for (int i = 0; i < tokens.size(); i++) {
+            AccessTokenInfo accessToken = accessTokens[i];
+            if (accessToken == null) {
+                continue;
+            }
+            try {
+                if (missingTenants.containsKey(accessToken.tenantIdentifier)) {
+                    throw missingTenants.get(accessToken.tenantIdentifier);
+                }
+                io.supertokens.pluginInterface.session.SessionInfo sessionInfoForBlacklisting = null;
+                if (checkDatabase) {
+                    sessionInfoForBlacklisting = sessionsFromDb.get(accessToken.tenantIdentifier)
+                            .get(accessToken.sessionHandle);
+                    if (sessionInfoForBlacklisting == null) {
+                        throw new UnauthorisedException("Either the session has ended or has been blacklisted");
+                    }
+                }
+                results[i] = new SessionVerificationResult(
+                        getSessionForVerifiedAccessToken(main, accessToken, sessionInfoForBlacklisting), null);
+            } catch (UnauthorisedException | TryRefreshTokenException | AccessTokenPayloadError |
+                     TenantOrAppNotFoundException e) {
+                results[i] = new SessionVerificationResult(null, e);
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private static SessionInformationHolder getSessionForVerifiedAccessToken(
+            Main main, AccessTokenInfo accessToken,
+            @Nullable io.supertokens.pluginInterface.session.SessionInfo sessionInfoForBlacklisting)
+            throws StorageQueryException, StorageTransactionLogicException, TryRefreshTokenException,
+            UnauthorisedException, UnsupportedJWTSigningAlgorithmException, AccessTokenPayloadError,
+            TenantOrAppNotFoundException {
+        TenantIdentifier tenantIdentifier = accessToken.tenantIdentifier;
+        Storage storage = StorageLayer.getStorage(accessToken.tenantIdentifier, main);
+
         boolean JWTPayloadNeedsUpdating = sessionInfoForBlacklisting != null
                 && !accessToken.userData.equals(sessionInfoForBlacklisting.userDataInJWT);
         if (accessToken.parentRefreshTokenHash1 == null && !JWTPayloadNeedsUpdating) {
@@ -560,9 +656,11 @@ public class Session {
 
         TenantIdentifier tenantIdentifier = refreshTokenInfo.tenantIdentifier;
         Storage storage = StorageLayer.getStorage(refreshTokenInfo.tenantIdentifier, main);
-        return refreshSessionHelper(
-                tenantIdentifier, storage, main, refreshToken, refreshTokenInfo, enableAntiCsrf, accessTokenVersion,
-                shouldUseStaticKey);
+        // parallel refreshes with the same token (and options) share the result of the first one
+        return RefreshSessionCoalescer.getInstance(main).refresh(
+                Arrays.asList(tenantIdentifier, refreshToken, enableAntiCsrf, accessTokenVersion, shouldUseStaticKey),
+                () -> refreshSessionHelper(tenantIdentifier, storage, main, refreshToken, refreshTokenInfo,
+                        enableAntiCsrf, accessTokenVersion, shouldUseStaticKey));
     }
 
     private static SessionInformationHolder refreshSessionHelper(
@@ -1022,6 +1120,50 @@ public class Session {
         return session;
     }
 
+    /**
+     * Used to retrieve session information for many session handles of an app, with one query per tenant.
+     * Sessions that do not exist or have expired are left out of the result, which keeps the order of
+     * sessionHandles.
+     * Used by:
+     * - /recipe/session/batch POST
+     */
+    public static Map<String, io.supertokens.pluginInterface.session.SessionInfo> getSessionsByHandles(
+            Main main, AppIdentifier appIdentifier, List<String> sessionHandles)
+            throws StorageQueryException {
+        Map<String, List<String>> sessionHandleMap = new HashMap<>();
+        for (String sessionHandle : sessionHandles) {
+            String tenantId = getTenantIdFromSessionHandle(sessionHandle);
+            if (tenantId == null) {
+                tenantId = TenantIdentifier.DEFAULT_TENANT_ID;
+            }
+            sessionHandleMap.computeIfAbsent(tenantId, k -> new ArrayList<>()).add(sessionHandle);
+        }
+
+        Map<String, io.supertokens.pluginInterface.session.SessionInfo> sessionsFromDb = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : sessionHandleMap.entrySet()) {
+            TenantIdentifier tenantIdentifier = new TenantIdentifier(appIdentifier.getConnectionUriDomain(),
+                    appIdentifier.getAppId(), entry.getKey());
+            Storage storage;
+            try {
+                storage = StorageLayer.getStorage(tenantIdentifier, main);
+            } catch (TenantOrAppNotFoundException e) {
+                // the sessions of a tenant that does not exist (anymore) do not exist either
+                continue;
+            }
+            sessionsFromDb.putAll(SessionBatchStorage.from(storage).getSessions(tenantIdentifier, entry.getValue()));
+        }
+
+        long now = System.currentTimeMillis();
+        Map<String, io.supertokens.pluginInterface.session.SessionInfo> result = new LinkedHashMap<>();
+        for (String sessionHandle : sessionHandles) {
+            io.supertokens.pluginInterface.session.SessionInfo session = sessionsFromDb.get(sessionHandle);
+            if (session != null && session.expiry > now) {
+                result.put(sessionHandle, session);
+            }
+        }
+        return result;
+    }
+
     @TestOnly
     public static void updateSession(Main main, String sessionHandle,
                                      @Nullable JsonObject sessionData,
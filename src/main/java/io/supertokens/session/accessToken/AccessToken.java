@@ -85,7 +85,7 @@ public class AccessToken {
             } else {
                 try {
                     jwtInfo = JWT.verifyJWTAndGetPayload(preParseJWTInfo,
-                            ((JWTAsymmetricSigningKeyInfo) keyInfo).publicKey);
+                            ((JWTAsymmetricSigningKeyInfo) keyInfo).publicKey, keyInfo.algorithm);
                 } catch (NoSuchAlgorithmException e) {
                     // This basically should never happen, but it means, that can't verify any tokens, no need to retry
                     throw new TryRefreshTokenException(e);
@@ -101,7 +101,7 @@ public class AccessToken {
             for (JWTSigningKeyInfo keyInfo : keyInfoList) {
                 try {
                     jwtInfo = JWT.verifyJWTAndGetPayload(preParseJWTInfo,
-                            ((JWTAsymmetricSigningKeyInfo) keyInfo).publicKey);
+                            ((JWTAsymmetricSigningKeyInfo) keyInfo).publicKey, keyInfo.algorithm);
                     error = null;
                     break;
                 } catch (NoSuchAlgorithmException e) {
@@ -246,19 +246,27 @@ public class AccessToken {
         JWTSigningKeyInfo keyToUse;
         if (useStaticKey) {
             keyToUse = SigningKeys.getInstance(tenantIdentifier.toAppIdentifier(), main)
-                    .getStaticKeyForAlgorithm(JWTSigningKey.SupportedAlgorithms.RS256);
+                    .getStaticKeyForAlgorithm(Config.getConfig(tenantIdentifier, main)
+                            .getAccessTokenSigningKeyAlgorithm());
         } else {
+            // while switching algorithms, this can still be a key of the previous one, so we sign with the
+            // algorithm of the key
             keyToUse = Utils.getJWTSigningKeyInfoFromKeyInfo(
                     SigningKeys.getInstance(tenantIdentifier.toAppIdentifier(), main).getLatestIssuedDynamicKey());
         }
+        JWTSigningKey.SupportedAlgorithms algorithm = JWTSigningKey.SupportedAlgorithms.valueOf(keyToUse.algorithm);
 
         String token;
         if (version != VERSION.V1 && version != VERSION.V2) {
             HashMap<String, Object> headers = new HashMap<>();
             headers.put("version", getVersionStringFromAccessTokenVersion(version));
-            token = JWTSigningFunctions.createJWTToken(JWTSigningKey.SupportedAlgorithms.RS256, headers,
+            token = JWTSigningFunctions.createJWTToken(algorithm, headers,
                     accessToken.toJSON(), null, expires, now, keyToUse);
         } else {
+            if (algorithm != JWTSigningKey.SupportedAlgorithms.RS256) {
+                // legacy access tokens can only be signed using RSA keys
+                throw new UnsupportedJWTSigningAlgorithmException();
+            }
             signingKey = new Utils.PubPriKey(keyToUse.keyString);
             token = JWT.createAndSignLegacyAccessToken(accessToken.toJSON(), signingKey.privateKey, version);
         }
@@ -0,0 +1,35 @@
+/*
+ *    Copyright (c) 2024, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.session.info;
+
+import javax.annotation.Nullable;
+
+public class SessionVerificationResult {
+    // set if the token was valid
+    @Nullable
+    public final SessionInformationHolder sessionInfo;
+
+    // set if the token was not valid: UnauthorisedException, TryRefreshTokenException, AccessTokenPayloadError or
+    // TenantOrAppNotFoundException (if the tenant of the token does not exist)
+    @Nullable
+    public final Exception error;
+
+    public SessionVerificationResult(@Nullable SessionInformationHolder sessionInfo, @Nullable Exception error) {
+        this.sessionInfo = sessionInfo;
+        this.error = error;
+    }
+}
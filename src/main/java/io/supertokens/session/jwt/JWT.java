@@ -21,19 +21,30 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
 import io.supertokens.session.accessToken.AccessToken;
+import io.supertokens.signingkeys.JWTSigningKey;
 import io.supertokens.utils.Utils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SignatureException;
 import java.security.spec.InvalidKeySpecException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class JWT {
     private static String HEADERv1 = null;
     private static String HEADERv2 = null;
 
+    // There are only a handful of distinct headers in use (one per signing key and access token version), so we keep
+    // the result of parsing them keyed by their raw base64 form.
+    private static final int MAX_CACHED_HEADERS = 1000;
+    private static final Map<String, ParsedHeader> parsedHeaderCache = new ConcurrentHashMap<>();
+
     private static void initHeader() {
         if (HEADERv1 == null) {
             JsonObject header = new JsonObject();
@@ -66,20 +77,59 @@ public class JWT {
 
     public static JWTPreParseInfo preParseJWTInfo(String jwt) throws JWTException {
         initHeader();
-        String[] splittedInput = jwt.split("\\.");
-        if (splittedInput.length != 3) {
+        // We find the two dots by hand instead of using a regex split, and reject anything that cannot be part of a
+        // base64 encoded JWT, so that the token can be verified directly from its ASCII bytes. The bytes are filled in
+        // the same pass, and are then used for every verification attempt and for decoding the payload.
+        int firstDot = -1;
+        int secondDot = -1;
+        byte[] tokenBytes = new byte[jwt.length()];
+        for (int i = 0; i < jwt.length(); i++) {
+            char c = jwt.charAt(i);
+            tokenBytes[i] = (byte) c;
+            if (c == '.') {
+                if (firstDot == -1) {
+                    firstDot = i;
+                } else if (secondDot == -1) {
+                    secondDot = i;
+                } else {
+                    throw new JWTException("Invalid JWT");
+                }
+            } else if (c > 0x7f) {
+                throw new JWTException("Invalid JWT");
+            }
+        }
+        if (secondDot == -1 || secondDot == jwt.length() - 1) {
             throw new JWTException("Invalid JWT");
         }
 
-        if (splittedInput[0].equals(JWT.HEADERv1)) {
-            return new JWTPreParseInfo(splittedInput, AccessToken.VERSION.V1, null);
+        String header = jwt.substring(0, firstDot);
+
+        if (header.equals(JWT.HEADERv1)) {
+            return new JWTPreParseInfo(jwt, tokenBytes, firstDot, secondDot, AccessToken.VERSION.V1, null,
+                    JWTSigningKey.SupportedAlgorithms.RS256);
+        }
+
+        if (header.equals(JWT.HEADERv2)) {
+            return new JWTPreParseInfo(jwt, tokenBytes, firstDot, secondDot, AccessToken.VERSION.V2, null,
+                    JWTSigningKey.SupportedAlgorithms.RS256);
         }
 
-        if (splittedInput[0].equals(JWT.HEADERv2)) {
-            return new JWTPreParseInfo(splittedInput, AccessToken.VERSION.V2, null);
+        ParsedHeader parsedHeader = parsedHeaderCache.get(header);
+        if (parsedHeader == null) {
+            parsedHeader = parseHeader(header);
+            if (parsedHeaderCache.size() >= MAX_CACHED_HEADERS) {
+                // headers only differ by kid and version, so this should only happen if someone sends us lots of
+                // made up headers
+                parsedHeaderCache.clear();
+            }
+            parsedHeaderCache.put(header, parsedHeader);
         }
+        return new JWTPreParseInfo(jwt, tokenBytes, firstDot, secondDot, parsedHeader.version, parsedHeader.kid,
+                parsedHeader.algorithm);
+    }
 
-        JsonObject parsedHeader = new JsonParser().parse(Utils.convertFromBase64(splittedInput[0])).getAsJsonObject();
+    private static ParsedHeader parseHeader(String header) throws JWTException {
+        JsonObject parsedHeader = new JsonParser().parse(Utils.convertFromBase64(header)).getAsJsonObject();
 
         if (parsedHeader.get("typ") == null) {
             throw new JWTException("JWT header missing - typ");
@@ -93,7 +143,8 @@ public class JWT {
             throw new JWTException("JWT header missing - alg");
         }
         JsonPrimitive alg = parsedHeader.get("alg").getAsJsonPrimitive();
-        if (!alg.isString() || !alg.getAsString().equals("RS256")) {
+        if (!alg.isString() || (!alg.getAsString().equals(JWTSigningKey.SupportedAlgorithms.RS256.name())
+                && !alg.getAsString().equals(JWTSigningKey.SupportedAlgorithms.ES256.name()))) {
             throw new JWTException("JWT header mismatch - alg");
         }
 
@@ -110,34 +161,59 @@ public class JWT {
             versionString = version.getAsString();
         }
 
-        JsonPrimitive kid = parsedHeader.get("kid").getAsJsonPrimitive();
         if (parsedHeader.get("kid") == null) {
             throw new JWTException("JWT header missing - kid");
         }
+        JsonPrimitive kid = parsedHeader.get("kid").getAsJsonPrimitive();
         if (!kid.isString()) {
             throw new JWTException("JWT header mismatch - kid");
         }
-        return new JWTPreParseInfo(splittedInput, AccessToken.getVersionFromString(versionString), kid.getAsString());
+        return new ParsedHeader(AccessToken.getVersionFromString(versionString), kid.getAsString(),
+                JWTSigningKey.SupportedAlgorithms.valueOf(alg.getAsString()));
     }
 
     public static JWTInfo verifyJWTAndGetPayload(JWTPreParseInfo jwt, String publicSigningKey)
             throws InvalidKeyException, NoSuchAlgorithmException, JWTException {
+        return verifyJWTAndGetPayload(jwt, publicSigningKey, JWTSigningKey.SupportedAlgorithms.RS256.name());
+    }
+
+    /**
+     * Verifies the JWT with a key of the given algorithm. The algorithm comes from the key and not from the token, so
+     * a token can only be verified by a key of the algorithm it claims to be signed with.
+     */
+    public static JWTInfo verifyJWTAndGetPayload(JWTPreParseInfo jwt, String publicSigningKey,
+                                                 String keyAlgorithm)
+            throws InvalidKeyException, NoSuchAlgorithmException, JWTException {
+        if (!jwt.algorithm.equalsString(keyAlgorithm)) {
+            throw new JWTException("JWT verification failed");
+        }
 
         try {
-            if (!Utils.verifyWithPublicKey(jwt.header + "." + jwt.payload, jwt.signature, publicSigningKey,
-                    jwt.version != AccessToken.VERSION.V1 && jwt.version != AccessToken.VERSION.V2)) {
+            // the signed content (header.payload) and the signature are both just ranges of the token
+            byte[] token = jwt.tokenBytes;
+            int signatureOffset = jwt.secondDot + 1;
+            if (!Utils.verifyWithPublicKey(token, 0, jwt.secondDot, token, signatureOffset,
+                    token.length - signatureOffset, publicSigningKey,
+                    jwt.version != AccessToken.VERSION.V1 && jwt.version != AccessToken.VERSION.V2,
+                    jwt.algorithm)) {
                 throw new JWTException("JWT verification failed");
             }
         } catch (InvalidKeySpecException | SignatureException e) {
             throw new JWTException("JWT verification failed");
         }
-        return new JWTInfo(new JsonParser().parse(Utils.convertFromBase64(jwt.payload)).getAsJsonObject(), jwt.version);
+        return new JWTInfo(parsePayload(jwt), jwt.version);
+    }
+
+    // decodes and parses the payload straight from its range of the token bytes
+    private static JsonObject parsePayload(JWTPreParseInfo jwt) {
+        byte[] payload = Utils.convertFromBase64(jwt.tokenBytes, jwt.firstDot + 1, jwt.secondDot - jwt.firstDot - 1);
+        return JsonParser.parseReader(new InputStreamReader(new ByteArrayInputStream(payload),
+                StandardCharsets.UTF_8)).getAsJsonObject();
     }
 
     public static JWTInfo getPayloadWithoutVerifying(String jwt) throws JWTException {
         JWTPreParseInfo jwtInfo = preParseJWTInfo(jwt);
-        return new JWTInfo(new JsonParser().parse(Utils.convertFromBase64(jwtInfo.payload)).getAsJsonObject(),
-                jwtInfo.version);
+        return new JWTInfo(parsePayload(jwtInfo), jwtInfo.version);
     }
 
     public static class JWTException extends Exception {
@@ -163,6 +239,15 @@ public class JWT {
         @Nullable
         public final String kid;
 
+        @Nonnull
+        public final JWTSigningKey.SupportedAlgorithms algorithm;
+
+        // the bytes of the whole token and the byte offsets of the two dots, so that the signed content can be
+        // verified and the payload decoded in place
+        private final byte[] tokenBytes;
+        private final int firstDot;
+        private final int secondDot;
+
         public JWTPreParseInfo(String[] splittedInput, AccessToken.VERSION version, String kid) throws JWTException {
             if (splittedInput.length != 3) {
                 throw new JWTException("Invalid JWT");
@@ -171,9 +256,41 @@ public class JWT {
             this.header = splittedInput[0];
             this.payload = splittedInput[1];
             this.signature = splittedInput[2];
+            this.tokenBytes = (this.header + "." + this.payload + "." + this.signature).getBytes(
+                    StandardCharsets.UTF_8);
+            this.firstDot = this.header.getBytes(StandardCharsets.UTF_8).length;
+            this.secondDot = this.firstDot + 1 + this.payload.getBytes(StandardCharsets.UTF_8).length;
+
+            this.version = version;
+            this.kid = kid;
+            this.algorithm = JWTSigningKey.SupportedAlgorithms.RS256;
+        }
+
+        // tokens parsed by preParseJWTInfo are pure ASCII, so the character offsets found there are also byte offsets
+        private JWTPreParseInfo(String token, byte[] tokenBytes, int firstDot, int secondDot,
+                                AccessToken.VERSION version, String kid, JWTSigningKey.SupportedAlgorithms algorithm) {
+            this.header = token.substring(0, firstDot);
+            this.payload = token.substring(firstDot + 1, secondDot);
+            this.signature = token.substring(secondDot + 1);
+            this.tokenBytes = tokenBytes;
+            this.firstDot = firstDot;
+            this.secondDot = secondDot;
+
+            this.version = version;
+            this.kid = kid;
+            this.algorithm = algorithm;
+        }
+    }
+
+    private static class ParsedHeader {
+        final AccessToken.VERSION version;
+        final String kid;
+        final JWTSigningKey.SupportedAlgorithms algorithm;
 
+        ParsedHeader(AccessToken.VERSION version, String kid, JWTSigningKey.SupportedAlgorithms algorithm) {
             this.version = version;
             this.kid = kid;
+            this.algorithm = algorithm;
         }
     }
 
@@ -35,14 +35,22 @@ import javax.annotation.Nullable;
 import javax.crypto.BadPaddingException;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.security.spec.InvalidKeySpecException;
+import java.util.Base64;
 import java.util.UUID;
 
 public class RefreshToken {
 
+    private static final byte BINARY_PAYLOAD_VERSION = 1;
+
+    private static final int BINARY_NONCE_LENGTH = 16;
+
     @TestOnly
     public static RefreshTokenInfo getInfoFromRefreshToken(@Nonnull Main main, @Nonnull String token)
             throws UnauthorisedException, StorageQueryException, StorageTransactionLogicException {
@@ -61,6 +69,10 @@ public class RefreshToken {
         try {
             TYPE tokenType = getTypeFromToken(token);
 
+            if (tokenType == TYPE.BINARY) {
+                return getInfoFromBinaryRefreshToken(appIdentifier, token, key);
+            }
+
             // format of token is <encrypted part>.<nonce>.V1
             String[] splittedToken = token.split("\\.");
             if (splittedToken.length != 3) {
@@ -109,18 +121,112 @@ public class RefreshToken {
             IllegalBlockSizeException, BadPaddingException, StorageTransactionLogicException,
             InvalidAlgorithmParameterException, InvalidKeySpecException, TenantOrAppNotFoundException {
         String key = RefreshTokenKey.getInstance(tenantIdentifier.toAppIdentifier(), main).getKey();
-        String nonce = Utils.hashSHA256(UUID.randomUUID().toString());
-        RefreshTokenPayload payload = new RefreshTokenPayload(sessionHandle, userId, parentRefreshTokenHash1, nonce,
-                antiCsrfToken, tenantIdentifier.getTenantId());
-        String payloadSerialised = new Gson().toJson(payload);
-        String encryptedPayload = Utils.encrypt(payloadSerialised, key);
-        String token = encryptedPayload + "." + nonce + "." + TYPE.FREE_OPTIMISED.toString();
+        String token;
+        // binary tokens cannot be read by older core versions, so they are only created if enabled in the config
+        if (Config.getConfig(tenantIdentifier, main).getBinaryRefreshTokensEnabled()) {
+            byte[] nonce = new byte[BINARY_NONCE_LENGTH];
+            new SecureRandom().nextBytes(nonce);
+            byte[] payload = serialiseBinaryPayload(sessionHandle, userId, parentRefreshTokenHash1, nonce,
+                    antiCsrfToken, tenantIdentifier.getTenantId());
+            String encryptedPayload = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(Utils.encrypt(payload, key));
+            token = encryptedPayload + "." + TYPE.BINARY.toString();
+        } else {
+            String nonce = Utils.hashSHA256(UUID.randomUUID().toString());
+            RefreshTokenPayload payload = new RefreshTokenPayload(sessionHandle, userId, parentRefreshTokenHash1,
+                    nonce, antiCsrfToken, tenantIdentifier.getTenantId());
+            String payloadSerialised = new Gson().toJson(payload);
+            String encryptedPayload = Utils.encrypt(payloadSerialised, key);
+            token = encryptedPayload + "." + nonce + "." + TYPE.FREE_OPTIMISED.toString();
+        }
         long now = System.currentTimeMillis();
         return new TokenInfo(token,
                 now + Config.getConfig(tenantIdentifier, main).getRefreshTokenValidityInMillis(),
                 now);
     }
 
+    // The binary payload (before encryption) is laid out as:
+    // - 1 byte: version of the layout (BINARY_PAYLOAD_VERSION)
+    // - 1 byte: flags telling which of the optional fields are present
+    // - BINARY_NONCE_LENGTH bytes: random nonce, so that no two tokens are the same
+    // - the session handle and the user id, followed by the optional parent refresh token hash 1, anti csrf token
+    //   and tenant id (if their flag is set). Each of them is written as a 2 byte length followed by the UTF-8 bytes.
+    private static byte[] serialiseBinaryPayload(@Nonnull String sessionHandle, @Nonnull String userId,
+                                                 @Nullable String parentRefreshTokenHash1, @Nonnull byte[] nonce,
+                                                 @Nullable String antiCsrfToken, @Nullable String tenantId) {
+        if (tenantId != null && tenantId.equals(TenantIdentifier.DEFAULT_TENANT_ID)) {
+            tenantId = null;
+        }
+        byte[][] fields = new byte[][]{
+                sessionHandle.getBytes(StandardCharsets.UTF_8),
+                userId.getBytes(StandardCharsets.UTF_8),
+                parentRefreshTokenHash1 == null ? null : parentRefreshTokenHash1.getBytes(StandardCharsets.UTF_8),
+                antiCsrfToken == null ? null : antiCsrfToken.getBytes(StandardCharsets.UTF_8),
+                tenantId == null ? null : tenantId.getBytes(StandardCharsets.UTF_8)};
+
+        int length = 2 + nonce.length;
+        byte flags = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) {
+                if (fields[i].length > 0xFFFF) {
+                    throw new IllegalArgumentException("Refresh token field is too long");
+                }
+                length += 2 + fields[i].length;
+                if (i >= 2) {
+                    flags |= (byte) (1 << (i - 2));
+                }
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.put(BINARY_PAYLOAD_VERSION);
+        buffer.put(flags);
+        buffer.put(nonce);
+        for (byte[] field : fields) {
+            if (field != null) {
+                buffer.putShort((short) field.length);
+                buffer.put(field);
+            }
+        }
+        return buffer.array();
+    }
+
+    private static RefreshTokenInfo getInfoFromBinaryRefreshToken(AppIdentifier appIdentifier, String token,
+                                                                  String key) throws Exception {
+        // format of token is <encrypted binary payload>.V3
+        int dot = token.indexOf('.');
+        if (dot == -1 || token.indexOf('.', dot + 1) != -1) {
+            throw new InvalidRefreshTokenFormatException("Refresh token does not have exactly one dot");
+        }
+        byte[] payload = Utils.decrypt(Base64.getUrlDecoder().decode(token.substring(0, dot)), key);
+
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        if (buffer.get() != BINARY_PAYLOAD_VERSION) {
+            throw new InvalidRefreshTokenFormatException("version of binary refresh token payload not recognised");
+        }
+        byte flags = buffer.get();
+        buffer.position(buffer.position() + BINARY_NONCE_LENGTH);
+        String sessionHandle = readBinaryField(buffer);
+        String userId = readBinaryField(buffer);
+        String parentRefreshTokenHash1 = (flags & 1) != 0 ? readBinaryField(buffer) : null;
+        String antiCsrfToken = (flags & 2) != 0 ? readBinaryField(buffer) : null;
+        String tenantId = (flags & 4) != 0 ? readBinaryField(buffer) : null;
+        if (buffer.hasRemaining()) {
+            throw new InvalidRefreshTokenFormatException("binary refresh token payload has trailing bytes");
+        }
+
+        return new RefreshTokenInfo(sessionHandle, userId, parentRefreshTokenHash1, null, antiCsrfToken, TYPE.BINARY,
+                new TenantIdentifier(appIdentifier.getConnectionUriDomain(), appIdentifier.getAppId(), tenantId));
+    }
+
+    private static String readBinaryField(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
     private static TYPE getTypeFromToken(String token) throws InvalidRefreshTokenFormatException {
         try {
             // token format can <random_uuid>.V0 || <encrypted part>.<nonce>.V1
@@ -137,7 +243,7 @@ public class RefreshToken {
     }
 
     public enum TYPE {
-        FREE("V0"), PAID("V1"), FREE_OPTIMISED("V2");
+        FREE("V0"), PAID("V1"), FREE_OPTIMISED("V2"), BINARY("V3");
 
         private String version;
 
@@ -18,6 +18,7 @@ package io.supertokens.session.refreshToken;
 
 import io.supertokens.Main;
 import io.supertokens.ResourceDistributor;
+import io.supertokens.config.Config;
 import io.supertokens.exceptions.QuitProgramException;
 import io.supertokens.output.Logging;
 import io.supertokens.pluginInterface.KeyValueInfo;
@@ -37,6 +38,7 @@ import org.jetbrains.annotations.TestOnly;
 
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -62,7 +64,7 @@ public class RefreshTokenKey extends ResourceDistributor.SingletonResource {
     public static RefreshTokenKey getInstance(AppIdentifier appIdentifier, Main main)
             throws TenantOrAppNotFoundException {
         return (RefreshTokenKey) main.getResourceDistributor()
-                .getResource(appIdentifier, RESOURCE_KEY);
+                .getOrCreateAppResource(appIdentifier, RESOURCE_KEY, app -> new RefreshTokenKey(app, main));
     }
 
     @TestOnly
@@ -82,21 +84,36 @@ public class RefreshTokenKey extends ResourceDistributor.SingletonResource {
                         main.getResourceDistributor()
                                 .getAllResourcesWithResourceKey(RESOURCE_KEY);
                 main.getResourceDistributor().clearAllResourcesWithResourceKey(RESOURCE_KEY);
+                // if lazy_app_resource_loading_enabled is true, new resources are created when they are first used
+                boolean createNewResources = !Config.getBaseConfig(main).getLazyAppResourceLoadingEnabled();
+                List<AppIdentifier> appsToLoad = new ArrayList<>();
+                List<ResourceDistributor.Func<RefreshTokenKey>> tasks = new ArrayList<>();
                 for (AppIdentifier app : apps) {
                     ResourceDistributor.SingletonResource resource = existingResources.get(
                             new ResourceDistributor.KeyClass(app, RESOURCE_KEY));
                     if (resource != null && !tenantsThatChanged.contains(app.getAsPublicTenantIdentifier())) {
                         main.getResourceDistributor().setResource(app, RESOURCE_KEY,
                                 resource);
-                    } else {
-                        try {
-                            main.getResourceDistributor()
-                                    .setResource(app, RESOURCE_KEY,
-                                            new RefreshTokenKey(app, main));
-                        } catch (TenantOrAppNotFoundException e) {
-                            Logging.error(main, app.getAsPublicTenantIdentifier(), e.getMessage(), false);
-                            // continue loading other resources
-                        }
+                    } else if (createNewResources) {
+                        appsToLoad.add(app);
+                        tasks.add(() -> {
+                            try {
+                                return new RefreshTokenKey(app, main);
+                            } catch (TenantOrAppNotFoundException e) {
+                                Logging.error(main, app.getAsPublicTenantIdentifier(), e.getMessage(), false);
+                                // continue loading other resources
+                                return null;
+                            }
+                        });
+                    }
+                }
+
+                // the new keys are fetched (or created) from the db in parallel
+                List<RefreshTokenKey> loaded = main.getResourceDistributor()
+                        .runInParallel(tasks, Config.getBaseConfig(main).getTenantLoadingThreads());
+                for (int i = 0; i < appsToLoad.size(); i++) {
+                    if (loaded.get(i) != null) {
+                        main.getResourceDistributor().setResource(appsToLoad.get(i), RESOURCE_KEY, loaded.get(i));
                     }
                 }
                 return null;
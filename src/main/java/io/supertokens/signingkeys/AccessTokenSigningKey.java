@@ -47,7 +47,8 @@ import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 public class AccessTokenSigningKey extends ResourceDistributor.SingletonResource {
-    private static final String ACCESS_TOKEN_SIGNING_ALGO = "RS256";
+    // Legacy keys were always RSA keys
+    private static final String LEGACY_ACCESS_TOKEN_SIGNING_ALGO = "RS256";
     // We keep the signing keys after generating a new one for accessTokenValidity multiplied by this value
     // JWTs are still checked for expiration after signature verification, this doesn't extend the lifetime of the
     // sessions.
@@ -79,7 +80,17 @@ public class AccessTokenSigningKey extends ResourceDistributor.SingletonResource
     public static AccessTokenSigningKey getInstance(AppIdentifier appIdentifier, Main main)
             throws TenantOrAppNotFoundException {
         return (AccessTokenSigningKey) main.getResourceDistributor()
-                .getResource(appIdentifier, RESOURCE_KEY);
+                .getOrCreateAppResource(appIdentifier, RESOURCE_KEY, app -> new AccessTokenSigningKey(app, main));
+    }
+
+    // returns null if lazy_app_resource_loading_enabled is true and the app has not been used recently
+    public static AccessTokenSigningKey getInstanceIfLoaded(AppIdentifier appIdentifier, Main main)
+            throws TenantOrAppNotFoundException {
+        if (!Config.getBaseConfig(main).getLazyAppResourceLoadingEnabled()) {
+            return getInstance(appIdentifier, main);
+        }
+        return (AccessTokenSigningKey) main.getResourceDistributor()
+                .getResourceIfLoaded(appIdentifier, RESOURCE_KEY);
     }
 
     @TestOnly
@@ -99,6 +110,10 @@ public class AccessTokenSigningKey extends ResourceDistributor.SingletonResource
                         main.getResourceDistributor()
                                 .getAllResourcesWithResourceKey(RESOURCE_KEY);
                 main.getResourceDistributor().clearAllResourcesWithResourceKey(RESOURCE_KEY);
+                // if lazy_app_resource_loading_enabled is true, new resources are created when they are first used
+                boolean createNewResources = !Config.getBaseConfig(main).getLazyAppResourceLoadingEnabled();
+                List<AppIdentifier> appsToLoad = new ArrayList<>();
+                List<ResourceDistributor.Func<AccessTokenSigningKey>> tasks = new ArrayList<>();
                 for (AppIdentifier app : apps) {
                     ResourceDistributor.SingletonResource resource = existingResources.get(
                             new ResourceDistributor.KeyClass(
@@ -109,17 +124,26 @@ public class AccessTokenSigningKey extends ResourceDistributor.SingletonResource
                                 .setResource(app,
                                         RESOURCE_KEY,
                                         resource);
-                    } else {
-                        try {
-                            main.getResourceDistributor()
-                                    .setResource(
-                                            app,
-                                            RESOURCE_KEY,
-                                            new AccessTokenSigningKey(app, main));
-                        } catch (Exception e) {
-                            Logging.error(main, app.getAsPublicTenantIdentifier(), e.getMessage(), false);
-                            // continue loading other resources
-                        }
+                    } else if (createNewResources) {
+                        appsToLoad.add(app);
+                        tasks.add(() -> {
+                            try {
+                                return new AccessTokenSigningKey(app, main);
+                            } catch (Exception e) {
+                                Logging.error(main, app.getAsPublicTenantIdentifier(), e.getMessage(), false);
+                                // continue loading other resources
+                                return null;
+                            }
+                        });
+                    }
+                }
+
+                // the new keys are fetched (or created) from the db in parallel
+                List<AccessTokenSigningKey> loaded = main.getResourceDistributor()
+                        .runInParallel(tasks, Config.getBaseConfig(main).getTenantLoadingThreads());
+                for (int i = 0; i < appsToLoad.size(); i++) {
+                    if (loaded.get(i) != null) {
+                        main.getResourceDistributor().setResource(appsToLoad.get(i), RESOURCE_KEY, loaded.get(i));
                     }
                 }
                 return null;
@@ -157,7 +181,7 @@ public class AccessTokenSigningKey extends ResourceDistributor.SingletonResource
                                 sqlJWTRecipeStorage.setJWTSigningKey_Transaction(appIdentifier, con,
                                         new JWTAsymmetricSigningKeyInfo(
                                                 "s-" + Utils.getUUID(), legacyKey.createdAtTime,
-                                                ACCESS_TOKEN_SIGNING_ALGO,
+                                                LEGACY_ACCESS_TOKEN_SIGNING_ALGO,
                                                 legacyKey.value
                                         ));
                             } catch (DuplicateKeyIdException e) {
@@ -192,7 +216,8 @@ public class AccessTokenSigningKey extends ResourceDistributor.SingletonResource
                     try {
                         noSQLJWTRecipeStorage.setJWTSigningKeyInfoIfNoKeyForAlgorithmExists_Transaction(
                                 new JWTAsymmetricSigningKeyInfo(
-                                        "s-" + Utils.getUUID(), legacyKey.createdAtTime, ACCESS_TOKEN_SIGNING_ALGO,
+                                        "s-" + Utils.getUUID(), legacyKey.createdAtTime,
+                                        LEGACY_ACCESS_TOKEN_SIGNING_ALGO,
                                         legacyKey.value
                                 ));
                     } catch (DuplicateKeyIdException e) {
@@ -221,17 +246,35 @@ public class AccessTokenSigningKey extends ResourceDistributor.SingletonResource
 
     public List<SigningKeys.KeyInfo> getOrCreateAndGetSigningKeys()
             throws StorageQueryException, StorageTransactionLogicException, TenantOrAppNotFoundException {
+        return getOrCreateAndGetSigningKeys(0);
+    }
+
+    /**
+     * Same as getOrCreateAndGetSigningKeys(), but generates the next key generateNewKeyLeadTimeMS earlier than
+     * needed. This is used by the PreGenerateAccessTokenSigningKeys cronjob so that the new key is already stored
+     * (and cached in SigningKeys) by the time request threads would otherwise have to create it. The lead time is
+     * capped at half of the time a key can be used for signing, so that we never create a key on every call.
+     */
+    public List<SigningKeys.KeyInfo> getOrCreateAndGetSigningKeys(long generateNewKeyLeadTimeMS)
+            throws StorageQueryException, StorageTransactionLogicException, TenantOrAppNotFoundException {
         Storage storage = StorageLayer.getStorage(this.appIdentifier.getAsPublicTenantIdentifier(), main);
         CoreConfig config = Config.getConfig(appIdentifier.getAsPublicTenantIdentifier(), main);
 
         // Access token signing keys older than this are deleted (ms)
         final long signingKeyLifetime = config.getAccessTokenDynamicSigningKeyUpdateIntervalInMillis()
                 + SIGNING_KEY_VALIDITY_OVERLAP * config.getAccessTokenValidityInMillis();
+        final long leadTime = Math.max(0, Math.min(generateNewKeyLeadTimeMS,
+                (config.getAccessTokenDynamicSigningKeyUpdateIntervalInMillis() - getDynamicSigningKeyOverlapMS())
+                        / 2));
         // Keys created after this timestamp can be used to sign access tokens (ms) after the overlap period
         final long keysCreatedAfterCanSign = System.currentTimeMillis()
-                - config.getAccessTokenDynamicSigningKeyUpdateIntervalInMillis() + getDynamicSigningKeyOverlapMS();
+                - config.getAccessTokenDynamicSigningKeyUpdateIntervalInMillis() + getDynamicSigningKeyOverlapMS()
+                + leadTime;
         // Keys created after this timestamp can be used to verify access token signatures (ms)
         final long keysCreatedAfterCanVerify = System.currentTimeMillis() - signingKeyLifetime;
+        // New keys are created for these algorithms. Keys of other algorithms (e.g.: from before the config was
+        // changed) are still returned so that tokens signed with them can be verified until they expire.
+        final List<JWTSigningKey.SupportedAlgorithms> signingAlgorithms = getDynamicKeyAlgorithms(config);
 
         // Keys we can use for signature verification
         List<SigningKeys.KeyInfo> validKeys = null;
@@ -243,34 +286,40 @@ public class AccessTokenSigningKey extends ResourceDistributor.SingletonResource
                 validKeys = sqlStorage.startTransaction(con -> {
                     List<SigningKeys.KeyInfo> validKeysFromSQL = new ArrayList<>();
 
-                    // We have to generate a new key if we couldn't find one we can use for signing
-                    boolean generateNewKey = true;
+                    // We have to generate a new key for each algorithm we couldn't find a key we can use for
+                    // signing for
+                    List<JWTSigningKey.SupportedAlgorithms> algorithmsToGenerate = new ArrayList<>(
+                            signingAlgorithms);
 
                     KeyValueInfo[] keysFromStorage = sqlStorage.getAccessTokenSigningKeys_Transaction(appIdentifier,
                             con);
 
                     for (KeyValueInfo key : keysFromStorage) {
                         if (keysCreatedAfterCanVerify <= key.createdAtTime) {
+                            SigningKeys.KeyInfo keyInfo = new SigningKeys.KeyInfo("d-" + key.createdAtTime,
+                                    key.value, key.createdAtTime, signingKeyLifetime, getAlgorithmOfKey(key.value));
                             if (keysCreatedAfterCanSign <= key.createdAtTime) {
-                                generateNewKey = false;
+                                algorithmsToGenerate.remove(
+                                        JWTSigningKey.SupportedAlgorithms.valueOf(keyInfo.algorithm));
                             }
-                            validKeysFromSQL.add(
-                                    new SigningKeys.KeyInfo("d-" + key.createdAtTime, key.value, key.createdAtTime,
-                                            signingKeyLifetime, ACCESS_TOKEN_SIGNING_ALGO));
+                            validKeysFromSQL.add(keyInfo);
                         }
                     }
-                    if (generateNewKey) {
+                    long lastCreationTime = 0;
+                    for (JWTSigningKey.SupportedAlgorithms signingAlgorithm : algorithmsToGenerate) {
                         String signingKey;
                         try {
-                            Utils.PubPriKey rsaKeys = Utils.generateNewPubPriKey();
-                            signingKey = rsaKeys.toString();
+                            Utils.PubPriKey newKeyPair = Utils.generateNewPubPriKey(signingAlgorithm);
+                            signingKey = newKeyPair.toString();
                         } catch (NoSuchAlgorithmException e) {
                             throw new StorageTransactionLogicException(e);
                         }
-                        long creationTime = System.currentTimeMillis();
+                        // the key id is derived from the creation time, so keys created together need different ones
+                        long creationTime = Math.max(System.currentTimeMillis(), lastCreationTime + 1);
+                        lastCreationTime = creationTime;
                         SigningKeys.KeyInfo newKey = new SigningKeys.KeyInfo("d-" + creationTime, signingKey,
                                 creationTime, signingKeyLifetime,
-                                ACCESS_TOKEN_SIGNING_ALGO);
+                                signingAlgorithm.name());
                         try {
                             sqlStorage.addAccessTokenSigningKey_Transaction(appIdentifier, con,
                                     new KeyValueInfo(newKey.value, newKey.createdAtTime));
@@ -297,8 +346,9 @@ public class AccessTokenSigningKey extends ResourceDistributor.SingletonResource
                 validKeys = new ArrayList<SigningKeys.KeyInfo>();
                 // lastCreated is used to emulate transactions in the NoSQL calls
                 Long lastCreated = null;
-                // We have to generate a new key if we couldn't find one we can use for signing
-                boolean generateNewKey = true;
+                // We have to generate a new key for each algorithm we couldn't find a key we can use for signing
+                // for
+                List<JWTSigningKey.SupportedAlgorithms> algorithmsToGenerate = new ArrayList<>(signingAlgorithms);
 
                 KeyValueInfo[] keysFromStorage = noSQLStorage.getAccessTokenSigningKeys_Transaction();
 
@@ -307,36 +357,36 @@ public class AccessTokenSigningKey extends ResourceDistributor.SingletonResource
                             : lastCreated;
 
                     if (keysCreatedAfterCanVerify <= key.createdAtTime) {
+                        SigningKeys.KeyInfo keyInfo = new SigningKeys.KeyInfo("d-" + key.createdAtTime, key.value,
+                                key.createdAtTime, signingKeyLifetime, getAlgorithmOfKey(key.value));
                         if (keysCreatedAfterCanSign <= key.createdAtTime) {
-                            generateNewKey = false;
+                            algorithmsToGenerate.remove(JWTSigningKey.SupportedAlgorithms.valueOf(keyInfo.algorithm));
                         }
-                        validKeys.add(
-                                new SigningKeys.KeyInfo("d-" + key.createdAtTime, key.value, key.createdAtTime,
-                                        signingKeyLifetime,
-                                        ACCESS_TOKEN_SIGNING_ALGO));
+                        validKeys.add(keyInfo);
                     }
                 }
 
-                if (generateNewKey) {
+                if (!algorithmsToGenerate.isEmpty()) {
+                    // we add one key at a time, and read the keys again after that, since adding a key changes
+                    // lastCreated
+                    JWTSigningKey.SupportedAlgorithms signingAlgorithm = algorithmsToGenerate.get(0);
                     String signingKey;
                     try {
-                        Utils.PubPriKey rsaKeys = Utils.generateNewPubPriKey();
-                        signingKey = rsaKeys.toString();
+                        Utils.PubPriKey newKeyPair = Utils.generateNewPubPriKey(signingAlgorithm);
+                        signingKey = newKeyPair.toString();
                     } catch (NoSuchAlgorithmException e) {
                         throw new StorageTransactionLogicException(e);
                     }
-                    long creationTime = System.currentTimeMillis();
+                    // the key id is derived from the creation time, so keys created together need different ones
+                    long creationTime = Math.max(System.currentTimeMillis(),
+                            lastCreated == null ? 0 : lastCreated + 1);
                     SigningKeys.KeyInfo newKey = new SigningKeys.KeyInfo("d-" + creationTime, signingKey, creationTime,
                             signingKeyLifetime,
-                            ACCESS_TOKEN_SIGNING_ALGO);
-                    boolean success = noSQLStorage.addAccessTokenSigningKey_Transaction(
+                            signingAlgorithm.name());
+                    // If this fails, someone else already updated this particular field. Either way we read the keys
+                    // again, to add keys for the remaining algorithms or to try again.
+                    noSQLStorage.addAccessTokenSigningKey_Transaction(
                             new KeyValueInfo(newKey.value, newKey.createdAtTime), lastCreated);
-
-                    // If success is false, someone else already updated this particular field. So we must try again.
-                    if (success) {
-                        validKeys.add(newKey);
-                        break;
-                    }
                 } else {
                     break;
                 }
@@ -350,9 +400,31 @@ public class AccessTokenSigningKey extends ResourceDistributor.SingletonResource
         return Collections.unmodifiableList(validKeys);
     }
 
+    // Dynamic keys are stored without their algorithm
+    private static String getAlgorithmOfKey(String keyValue) {
+        return Utils.getAlgorithmOfPublicKey(new Utils.PubPriKey(keyValue).publicKey).name();
+    }
+
+    /**
+     * The algorithms dynamic keys are created for. Access tokens are signed with keys of the configured algorithm,
+     * but we always keep an RS256 key as well, since JWTs created with a dynamic key (/recipe/jwt) have always
+     * been RS256 and SDKs may ask for that explicitly. The first algorithm is the one used for access tokens.
+     */
+    public static List<JWTSigningKey.SupportedAlgorithms> getDynamicKeyAlgorithms(CoreConfig config) {
+        JWTSigningKey.SupportedAlgorithms accessTokenAlgorithm = config.getAccessTokenSigningKeyAlgorithm();
+        if (accessTokenAlgorithm == JWTSigningKey.SupportedAlgorithms.RS256) {
+            return List.of(accessTokenAlgorithm);
+        }
+        return List.of(accessTokenAlgorithm, JWTSigningKey.SupportedAlgorithms.RS256);
+    }
+
     @TestOnly()
     public void setDynamicSigningKeyOverlapMS(int overlap) {
         dynamicSigningKeyOverlapMS = overlap;
+        try {
+            SigningKeys.getInstance(appIdentifier, main).clearKeySetSnapshot();
+        } catch (TenantOrAppNotFoundException ignored) {
+        }
     }
 
     public int getDynamicSigningKeyOverlapMS() throws TenantOrAppNotFoundException {
@@ -18,6 +18,7 @@ package io.supertokens.signingkeys;
 
 import io.supertokens.Main;
 import io.supertokens.ResourceDistributor;
+import io.supertokens.config.Config;
 import io.supertokens.exceptions.QuitProgramException;
 import io.supertokens.jwt.exceptions.UnsupportedJWTSigningAlgorithmException;
 import io.supertokens.output.Logging;
@@ -39,8 +40,11 @@ import io.supertokens.utils.Utils;
 import org.jetbrains.annotations.TestOnly;
 
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class JWTSigningKey extends ResourceDistributor.SingletonResource {
     public static final String RESOURCE_KEY = "io.supertokens.signingKeys.JWTSigningKey";
@@ -49,8 +53,13 @@ public class JWTSigningKey extends ResourceDistributor.SingletonResource {
 
     public static JWTSigningKey getInstance(AppIdentifier appIdentifier, Main main)
             throws TenantOrAppNotFoundException {
-        return (JWTSigningKey) main.getResourceDistributor()
-                .getResource(appIdentifier, RESOURCE_KEY);
+        JWTSigningKey jwtSigningKey = (JWTSigningKey) main.getResourceDistributor()
+                .getOrCreateAppResource(appIdentifier, RESOURCE_KEY, app -> create(app, main));
+        if (jwtSigningKey == null) {
+            // the error was logged when creating it
+            throw new TenantOrAppNotFoundException(appIdentifier);
+        }
+        return jwtSigningKey;
     }
 
     @TestOnly
@@ -70,24 +79,28 @@ public class JWTSigningKey extends ResourceDistributor.SingletonResource {
                         main.getResourceDistributor()
                                 .getAllResourcesWithResourceKey(RESOURCE_KEY);
                 main.getResourceDistributor().clearAllResourcesWithResourceKey(RESOURCE_KEY);
+                // if lazy_app_resource_loading_enabled is true, new resources are created when they are first used
+                boolean createNewResources = !Config.getBaseConfig(main).getLazyAppResourceLoadingEnabled();
+                List<AppIdentifier> appsToLoad = new ArrayList<>();
+                List<ResourceDistributor.Func<JWTSigningKey>> tasks = new ArrayList<>();
                 for (AppIdentifier app : apps) {
                     ResourceDistributor.SingletonResource resource = existingResources.get(
                             new ResourceDistributor.KeyClass(app, RESOURCE_KEY));
                     if (resource != null && !tenantsThatChanged.contains(app.getAsPublicTenantIdentifier())) {
                         main.getResourceDistributor().setResource(app, RESOURCE_KEY,
                                 resource);
-                    } else {
-                        try {
-                            JWTSigningKey jwtSigningKey = new JWTSigningKey(app, main);
-                            main.getResourceDistributor()
-                                    .setResource(app, RESOURCE_KEY, jwtSigningKey);
-
-                            jwtSigningKey.generateKeysForSupportedAlgos(main);
+                    } else if (createNewResources) {
+                        appsToLoad.add(app);
+                        tasks.add(() -> create(app, main));
+                    }
+                }
 
-                        } catch (Exception e) {
-                            Logging.error(main, app.getAsPublicTenantIdentifier(), e.getMessage(), false);
-                            // continue loading other resources
-                        }
+                // the keys of the new resources are created in parallel
+                List<JWTSigningKey> loaded = main.getResourceDistributor()
+                        .runInParallel(tasks, Config.getBaseConfig(main).getTenantLoadingThreads());
+                for (int i = 0; i < appsToLoad.size(); i++) {
+                    if (loaded.get(i) != null) {
+                        main.getResourceDistributor().setResource(appsToLoad.get(i), RESOURCE_KEY, loaded.get(i));
                     }
                 }
                 return null;
@@ -97,13 +110,48 @@ public class JWTSigningKey extends ResourceDistributor.SingletonResource {
         }
     }
 
+    // returns null if it could not be created
+    private static JWTSigningKey create(AppIdentifier app, Main main) {
+        JWTSigningKey jwtSigningKey;
+        try {
+            jwtSigningKey = new JWTSigningKey(app, main);
+        } catch (Exception e) {
+            Logging.error(main, app.getAsPublicTenantIdentifier(), e.getMessage(), false);
+            // continue loading other resources
+            return null;
+        }
+        try {
+            jwtSigningKey.generateKeysForSupportedAlgos(main);
+        } catch (Exception e) {
+            Logging.error(main, app.getAsPublicTenantIdentifier(), e.getMessage(), false);
+            // the keys will be created when they are first requested
+        }
+        return jwtSigningKey;
+    }
+
     public enum SupportedAlgorithms {
-        RS256;
+        RS256, ES256;
 
         public String getAlgorithmType() {
             if (this == SupportedAlgorithms.RS256) {
                 return "rsa";
             }
+            if (this == SupportedAlgorithms.ES256) {
+                return "ec";
+            }
+
+            return "";
+        }
+
+        // The name of the algorithm in java.security.Signature. For ES256 we need the signature in the fixed size
+        // (R || S) format used by JWS, not the DER encoding java uses by default.
+        public String getSignatureAlgorithm() {
+            if (this == SupportedAlgorithms.RS256) {
+                return "SHA256withRSA";
+            }
+            if (this == SupportedAlgorithms.ES256) {
+                return "SHA256withECDSAinP1363Format";
+            }
 
             return "";
         }
@@ -122,10 +170,16 @@ public class JWTSigningKey extends ResourceDistributor.SingletonResource {
 
     private void generateKeysForSupportedAlgos(Main main)
             throws TenantOrAppNotFoundException, UnsupportedJWTSigningAlgorithmException {
-        for (int i = 0; i < SupportedAlgorithms.values().length; i++) {
-            SupportedAlgorithms currentAlgorithm = SupportedAlgorithms.values()[i];
+        // We always create an RS256 key (used by the JWT recipe by default and by older CDI versions), and a key for
+        // the algorithm access tokens are signed with. Keys for other algorithms are created when they are first
+        // requested.
+        Set<SupportedAlgorithms> algorithms = EnumSet.of(SupportedAlgorithms.RS256,
+                Config.getConfig(appIdentifier.getAsPublicTenantIdentifier(), main)
+                        .getAccessTokenSigningKeyAlgorithm());
+        for (SupportedAlgorithms currentAlgorithm : algorithms) {
             try {
-                JWTSigningKey.getInstance(appIdentifier, main).getOrCreateAndGetKeyForAlgorithm(currentAlgorithm);
+                // this is called before this resource is added to the resource distributor
+                this.getOrCreateAndGetKeyForAlgorithm(currentAlgorithm);
             } catch (StorageQueryException | StorageTransactionLogicException e) {
                 // Do nothing, when a call to /recipe/jwt POST is made the core will attempt to create a new key
             }
@@ -287,9 +341,10 @@ public class JWTSigningKey extends ResourceDistributor.SingletonResource {
 
     private JWTSigningKeyInfo generateKeyForAlgorithm(SupportedAlgorithms algorithm)
             throws NoSuchAlgorithmException, UnsupportedJWTSigningAlgorithmException {
-        if (algorithm.getAlgorithmType().equalsIgnoreCase("rsa")) {
+        if (algorithm.getAlgorithmType().equalsIgnoreCase("rsa") || algorithm.getAlgorithmType()
+                .equalsIgnoreCase("ec")) {
             long currentTimeInMillis = System.currentTimeMillis();
-            Utils.PubPriKey newKey = Utils.generateNewPubPriKey();
+            Utils.PubPriKey newKey = Utils.generateNewPubPriKey(algorithm);
             return new JWTAsymmetricSigningKeyInfo("s-" + Utils.getUUID(), currentTimeInMillis, algorithm.name(),
                     newKey.publicKey, newKey.privateKey);
         }
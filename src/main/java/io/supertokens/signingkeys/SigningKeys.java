@@ -16,6 +16,7 @@
 
 package io.supertokens.signingkeys;
 
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import io.supertokens.Main;
 import io.supertokens.ProcessState;
@@ -34,14 +35,19 @@ import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoun
 import io.supertokens.utils.Utils;
 import org.jetbrains.annotations.TestOnly;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPublicKey;
 import java.security.spec.InvalidKeySpecException;
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 import static io.supertokens.utils.Utils.getPublicKeyFromString;
 
@@ -50,14 +56,77 @@ public class SigningKeys extends ResourceDistributor.SingletonResource {
     private final Main main;
     private final AppIdentifier appIdentifier;
 
-    private List<KeyInfo> dynamicKeys;
-    private List<JWTSigningKeyInfo> staticKeys;
+    private volatile List<KeyInfo> dynamicKeys;
+    private volatile List<JWTSigningKeyInfo> staticKeys;
+    // a lock instead of synchronized since the key cache is refreshed from the db on request threads, which would pin
+    // the carrier thread when requests run on virtual threads
+    private final ReentrantLock keyCacheLock = new ReentrantLock();
+
+    // Immutable view of the cached keys that is read on every token verification. It is rebuilt only when the
+    // cached keys are replaced or when a time boundary in it is crossed (a key expires, a new dynamic key is due or
+    // the key that should be used for signing changes), and is always replaced as a whole.
+    private volatile KeySetSnapshot keySetSnapshot;
+
+    private volatile JWKSDocument jwksDocument;
+
+    private static class KeySetSnapshot {
+        // the lists this snapshot was built from, so that we can detect that the cache was replaced
+        final List<KeyInfo> sourceDynamicKeys;
+        final List<JWTSigningKeyInfo> sourceStaticKeys;
+
+        final List<KeyInfo> dynamicKeys;
+        final List<JWTSigningKeyInfo> allKeys;
+        final Map<String, JWTSigningKeyInfo> keysById;
+        final KeyInfo latestIssuedDynamicKey;
+        // the dynamic key to sign with for each algorithm we create dynamic keys for
+        final Map<String, KeyInfo> latestIssuedDynamicKeyByAlgorithm;
+        final long rebuildAtOrAfter;
+
+        KeySetSnapshot(List<KeyInfo> sourceDynamicKeys, List<JWTSigningKeyInfo> sourceStaticKeys,
+                       List<KeyInfo> dynamicKeys, KeyInfo latestIssuedDynamicKey,
+                       Map<String, KeyInfo> latestIssuedDynamicKeyByAlgorithm, long rebuildAtOrAfter) {
+            this.sourceDynamicKeys = sourceDynamicKeys;
+            this.sourceStaticKeys = sourceStaticKeys;
+            this.dynamicKeys = Collections.unmodifiableList(dynamicKeys);
+            this.latestIssuedDynamicKey = latestIssuedDynamicKey;
+            this.latestIssuedDynamicKeyByAlgorithm = latestIssuedDynamicKeyByAlgorithm;
+            this.rebuildAtOrAfter = rebuildAtOrAfter;
+
+            List<JWTSigningKeyInfo> allKeys = new ArrayList<>(dynamicKeys.size() + sourceStaticKeys.size());
+            for (KeyInfo key : dynamicKeys) {
+                allKeys.add(Utils.getJWTSigningKeyInfoFromKeyInfo(key));
+            }
+            allKeys.addAll(sourceStaticKeys);
+            this.allKeys = Collections.unmodifiableList(allKeys);
+
+            Map<String, JWTSigningKeyInfo> keysById = new HashMap<>();
+            for (JWTSigningKeyInfo key : allKeys) {
+                // same as the linear search we had before: the first key with a kid wins
+                keysById.putIfAbsent(key.keyId, key);
+            }
+            this.keysById = keysById;
+        }
+
+        boolean isValidFor(List<KeyInfo> dynamicKeys, List<JWTSigningKeyInfo> staticKeys, long now) {
+            return this.sourceDynamicKeys == dynamicKeys && this.sourceStaticKeys == staticKeys
+                    && now < this.rebuildAtOrAfter;
+        }
+    }
 
 
     public static SigningKeys getInstance(AppIdentifier appIdentifier, Main main)
             throws TenantOrAppNotFoundException {
         return (SigningKeys) main.getResourceDistributor()
-                .getResource(appIdentifier, RESOURCE_KEY);
+                .getOrCreateAppResource(appIdentifier, RESOURCE_KEY, app -> new SigningKeys(app, main));
+    }
+
+    // returns null if lazy_app_resource_loading_enabled is true and the app has not been used recently
+    public static SigningKeys getInstanceIfLoaded(AppIdentifier appIdentifier, Main main)
+            throws TenantOrAppNotFoundException {
+        if (!Config.getBaseConfig(main).getLazyAppResourceLoadingEnabled()) {
+            return getInstance(appIdentifier, main);
+        }
+        return (SigningKeys) main.getResourceDistributor().getResourceIfLoaded(appIdentifier, RESOURCE_KEY);
     }
 
     @TestOnly
@@ -77,13 +146,17 @@ public class SigningKeys extends ResourceDistributor.SingletonResource {
                         main.getResourceDistributor()
                                 .getAllResourcesWithResourceKey(RESOURCE_KEY);
                 main.getResourceDistributor().clearAllResourcesWithResourceKey(RESOURCE_KEY);
+                // if lazy_app_resource_loading_enabled is true, new resources are created when they are first used
+                boolean createNewResources = !Config.getBaseConfig(main).getLazyAppResourceLoadingEnabled();
                 for (AppIdentifier app : apps) {
                     ResourceDistributor.SingletonResource resource = existingResources.get(
                             new ResourceDistributor.KeyClass(app, RESOURCE_KEY));
                     if (resource != null && !tenantsThatChanged.contains(app.getAsPublicTenantIdentifier())) {
                         main.getResourceDistributor().setResource(app, RESOURCE_KEY,
                                 resource);
-                    } else {
+                    } else if (createNewResources) {
+                        // this only creates the object, the keys are fetched when they are first used, so there is
+                        // nothing to do in parallel here
                         try {
                             main.getResourceDistributor()
                                     .setResource(app, RESOURCE_KEY,
@@ -109,48 +182,124 @@ public class SigningKeys extends ResourceDistributor.SingletonResource {
     public JWTSigningKeyInfo getSigningKeyById(String kid)
             throws StorageQueryException, StorageTransactionLogicException, TenantOrAppNotFoundException,
             UnsupportedJWTSigningAlgorithmException {
-        return this.getAllKeys().stream()
-                .filter(jwtSigningKeyInfo -> Objects.equals(jwtSigningKeyInfo.keyId, kid)).findAny()
-                .orElse(null);
+        if (kid == null) {
+            return null;
+        }
+        return getKeySetSnapshot().keysById.get(kid);
     }
 
     public List<JWTSigningKeyInfo> getAllKeys()
             throws StorageQueryException, StorageTransactionLogicException, TenantOrAppNotFoundException,
             UnsupportedJWTSigningAlgorithmException {
-
-        return Stream.concat(
-                getDynamicKeys().stream().map(Utils::getJWTSigningKeyInfoFromKeyInfo),
-                getStaticKeys().stream()
-        ).collect(Collectors.toList());
+        return getKeySetSnapshot().allKeys;
     }
 
     public List<KeyInfo> getDynamicKeys()
             throws StorageQueryException, StorageTransactionLogicException, TenantOrAppNotFoundException,
             UnsupportedJWTSigningAlgorithmException {
+        return getKeySetSnapshot().dynamicKeys;
+    }
+
+    private KeySetSnapshot getKeySetSnapshot()
+            throws StorageQueryException, StorageTransactionLogicException, TenantOrAppNotFoundException,
+            UnsupportedJWTSigningAlgorithmException {
+        KeySetSnapshot snapshot = this.keySetSnapshot;
+        if (snapshot != null && snapshot.isValidFor(this.dynamicKeys, this.staticKeys, System.currentTimeMillis())) {
+            return snapshot;
+        }
+
         CoreConfig config = Config.getConfig(this.appIdentifier.getAsPublicTenantIdentifier(), main);
+        long overlapMS = AccessTokenSigningKey.getInstance(appIdentifier, main).getDynamicSigningKeyOverlapMS();
+        long updateIntervalMS = config.getAccessTokenDynamicSigningKeyUpdateIntervalInMillis();
 
         if (this.dynamicKeys == null) {
             this.dynamicKeys = AccessTokenSigningKey.getInstance(this.appIdentifier, main)
                     .getOrCreateAndGetSigningKeys();
         }
+        List<KeyInfo> sourceDynamicKeys = this.dynamicKeys;
 
+        long now = System.currentTimeMillis();
         // This filters the list down to keys that can be used to verify tokens
-        List<KeyInfo> res = this.dynamicKeys.stream().filter(k -> k.expiryTime >= System.currentTimeMillis())
-                .collect(Collectors.toList());
-
-        // if we don't have any available keys
-        if (res.size() == 0 ||
-                // or if we should generate a key we can use after dynamicSigningKeyOverlapMS
-                System.currentTimeMillis() +
-                        AccessTokenSigningKey.getInstance(appIdentifier, main).getDynamicSigningKeyOverlapMS() >
-                        res.get(0).createdAtTime + config.getAccessTokenDynamicSigningKeyUpdateIntervalInMillis()
-        ) {
-            updateKeyCacheIfNotChanged(
-                    res.stream().map(Utils::getJWTSigningKeyInfoFromKeyInfo).collect(Collectors.toList()));
-            return getDynamicKeys();
+        List<KeyInfo> res = new ArrayList<>(sourceDynamicKeys.size());
+        for (KeyInfo key : sourceDynamicKeys) {
+            if (key.expiryTime >= now) {
+                res.add(key);
+            }
+        }
+
+        List<JWTSigningKey.SupportedAlgorithms> signingAlgorithms = AccessTokenSigningKey.getDynamicKeyAlgorithms(
+                config);
+        // the snapshot has to be rebuilt when any of the keys expires...
+        long rebuildAtOrAfter = Long.MAX_VALUE;
+        for (KeyInfo key : res) {
+            rebuildAtOrAfter = Math.min(rebuildAtOrAfter, key.expiryTime + 1);
         }
 
-        return res;
+        Map<String, KeyInfo> latestIssuedByAlgorithm = new HashMap<>();
+        for (JWTSigningKey.SupportedAlgorithms algorithm : signingAlgorithms) {
+            List<KeyInfo> keysOfAlgorithm = new ArrayList<>(res.size());
+            for (KeyInfo key : res) {
+                if (algorithm.equalsString(key.algorithm)) {
+                    keysOfAlgorithm.add(key);
+                }
+            }
+
+            // if we don't have any available keys
+            if (keysOfAlgorithm.size() == 0 ||
+                    // or if we should generate a key we can use after dynamicSigningKeyOverlapMS
+                    now + overlapMS > keysOfAlgorithm.get(0).createdAtTime + updateIntervalMS
+            ) {
+                updateKeyCacheIfNotChanged(
+                        res.stream().map(Utils::getJWTSigningKeyInfoFromKeyInfo).collect(Collectors.toList()));
+                return getKeySetSnapshot();
+            }
+
+            // ... or when the latest key is due to be replaced (see the check above)...
+            rebuildAtOrAfter = Math.min(rebuildAtOrAfter,
+                    keysOfAlgorithm.get(0).createdAtTime + updateIntervalMS - overlapMS + 1);
+
+            KeyInfo latest = keysOfAlgorithm.get(0);
+            KeyInfo previous = keysOfAlgorithm.size() > 1 ? keysOfAlgorithm.get(1) : null;
+            if (algorithm == signingAlgorithms.get(0)
+                    && (previous == null || previous.createdAtTime + updateIntervalMS <= now)) {
+                // right after the access token algorithm was changed, there is no previous key of the new algorithm.
+                // Access tokens are then signed with the latest key of the old algorithm until the first key of the
+                // new one is older than the overlap, since clients may not have fetched the new key yet.
+                for (KeyInfo key : res) {
+                    if (key.createdAtTime < latest.createdAtTime && !algorithm.equalsString(key.algorithm)) {
+                        previous = key;
+                        break;
+                    }
+                }
+            }
+
+            KeyInfo latestIssued = latest;
+            if (previous != null) {
+                long latestCanSignFrom = latest.createdAtTime + overlapMS;
+                long previousCanSignUntil = previous.createdAtTime + updateIntervalMS;
+                if (latestCanSignFrom > now && now < previousCanSignUntil) {
+                    // the latest isn't old enough and the one before can still be used to sign
+                    latestIssued = previous;
+                    // ... or when the key that we sign with changes
+                    rebuildAtOrAfter = Math.min(rebuildAtOrAfter, Math.min(latestCanSignFrom, previousCanSignUntil));
+                }
+            }
+            latestIssuedByAlgorithm.put(algorithm.name(), latestIssued);
+        }
+
+        List<JWTSigningKeyInfo> sourceStaticKeys = getStaticKeys();
+
+        // access tokens are signed with keys of the first algorithm
+        snapshot = new KeySetSnapshot(sourceDynamicKeys, sourceStaticKeys, res,
+                latestIssuedByAlgorithm.get(signingAlgorithms.get(0).name()),
+                Collections.unmodifiableMap(latestIssuedByAlgorithm), rebuildAtOrAfter);
+        this.keySetSnapshot = snapshot;
+        return snapshot;
+    }
+
+    // The snapshot depends on the overlap, which is only changed by tests
+    void clearKeySetSnapshot() {
+        this.keySetSnapshot = null;
     }
 
     public List<JWTSigningKeyInfo> getStaticKeys()
@@ -182,23 +331,15 @@ public class SigningKeys extends ResourceDistributor.SingletonResource {
     public KeyInfo getLatestIssuedDynamicKey()
             throws StorageQueryException, StorageTransactionLogicException, TenantOrAppNotFoundException,
             UnsupportedJWTSigningAlgorithmException {
-        CoreConfig config = Config.getConfig(appIdentifier.getAsPublicTenantIdentifier(), main);
-        List<KeyInfo> dynamicKeys = getDynamicKeys();
+        return getKeySetSnapshot().latestIssuedDynamicKey;
+    }
 
-        KeyInfo latest = dynamicKeys.get(0);
-        if (dynamicKeys.size() > 1 && // if we have more than 1 available
-                latest.createdAtTime +
-                        AccessTokenSigningKey.getInstance(appIdentifier, main).getDynamicSigningKeyOverlapMS() >
-                        System.currentTimeMillis() &&  // the latest isn't old enough
-                System.currentTimeMillis() < dynamicKeys.get(1).createdAtTime +
-                        config.getAccessTokenDynamicSigningKeyUpdateIntervalInMillis() // the one before can still be
-            // used to
-            // sign
-        ) {
-            return dynamicKeys.get(1);
-        } else {
-            return latest;
-        }
+    // Returns null if we do not create dynamic keys for this algorithm (see
+    // AccessTokenSigningKey.getDynamicKeyAlgorithms)
+    public KeyInfo getLatestIssuedDynamicKey(JWTSigningKey.SupportedAlgorithms algorithm)
+            throws StorageQueryException, StorageTransactionLogicException, TenantOrAppNotFoundException,
+            UnsupportedJWTSigningAlgorithmException {
+        return getKeySetSnapshot().latestIssuedDynamicKeyByAlgorithm.get(algorithm.name());
     }
 
     public long getCacheDurationInSeconds()
@@ -225,39 +366,60 @@ public class SigningKeys extends ResourceDistributor.SingletonResource {
                 .getAccessTokenDynamicSigningKeyUpdateIntervalInMillis();
     }
 
-    // This function is synchronized because we only want a single function to clear (and refresh) the key cache.
+    // This function holds keyCacheLock because we only want a single function to clear (and refresh) the key cache.
     // If multiple threads try to refresh it at the same time, we can avoid multiple trips to the DB by checking if
     // their info is
     // up-to-date, i.e.: if all currently cached keys were known to them.
-    public synchronized void updateKeyCacheIfNotChanged(List<JWTSigningKeyInfo> oldKeyInfo)
+    public void updateKeyCacheIfNotChanged(List<JWTSigningKeyInfo> oldKeyInfo)
             throws StorageQueryException, StorageTransactionLogicException, TenantOrAppNotFoundException,
             UnsupportedJWTSigningAlgorithmException {
-        // we cannot use read write locks for keyInfo because in getKey, we would
-        // have to upgrade from the readLock to a
-        // writeLock - which is not possible:
-        // https://docs.oracle.com/javase/7/docs/api/java/util/concurrent/locks/ReentrantReadWriteLock.html
-
-        if (this.dynamicKeys == null ||
-                // First we disregard expired keys - it doesn't matter if they were known or not
-                this.dynamicKeys.stream().filter(k -> k.expiryTime >= System.currentTimeMillis())
-                        // then check if all keys currently in the cache exists in the parameter
-                        .allMatch(storedKey -> oldKeyInfo.stream()
-                                .anyMatch(oldKey -> Objects.equals(oldKey.keyId, storedKey.id)))) {
-            // key has not changed since we previously tried to use it... So we update it from the db, creating a new
-            // key if necessary
-            ProcessState.getInstance(this.main)
-                    .addState(ProcessState.PROCESS_STATE.UPDATING_ACCESS_TOKEN_SIGNING_KEYS, null);
-            this.dynamicKeys = AccessTokenSigningKey.getInstance(appIdentifier, main).getOrCreateAndGetSigningKeys();
+        keyCacheLock.lock();
+        try {
+            // we cannot use read write locks for keyInfo because in getKey, we would
+            // have to upgrade from the readLock to a
+            // writeLock - which is not possible:
+            // https://docs.oracle.com/javase/7/docs/api/java/util/concurrent/locks/ReentrantReadWriteLock.html
+
+            if (this.dynamicKeys == null ||
+                    // First we disregard expired keys - it doesn't matter if they were known or not
+                    this.dynamicKeys.stream().filter(k -> k.expiryTime >= System.currentTimeMillis())
+                            // then check if all keys currently in the cache exists in the parameter
+                            .allMatch(storedKey -> oldKeyInfo.stream()
+                                    .anyMatch(oldKey -> Objects.equals(oldKey.keyId, storedKey.id)))) {
+                // key has not changed since we previously tried to use it... So we update it from the db, creating a
+                // new key if necessary
+                ProcessState.getInstance(this.main)
+                        .addState(ProcessState.PROCESS_STATE.UPDATING_ACCESS_TOKEN_SIGNING_KEYS, null);
+                this.dynamicKeys = AccessTokenSigningKey.getInstance(appIdentifier, main)
+                        .getOrCreateAndGetSigningKeys();
+            }
+
+            if (this.staticKeys == null ||
+                    // we want to refresh if all keys we are storing were known before
+                    this.staticKeys.stream().allMatch(storedKey -> oldKeyInfo.stream()
+                            .anyMatch(oldKey -> Objects.equals(oldKey.keyId, storedKey.keyId)))) {
+                // key has not changed since we previously tried to use it... So we update it from the db
+                ProcessState.getInstance(this.main)
+                        .addState(ProcessState.PROCESS_STATE.UPDATING_ACCESS_TOKEN_SIGNING_KEYS, null);
+                this.staticKeys = JWTSigningKey.getInstance(appIdentifier, main).getAllSigningKeys();
+            }
+        } finally {
+            keyCacheLock.unlock();
         }
+    }
 
-        if (this.staticKeys == null ||
-                // we want to refresh if all keys we are storing were known before
-                this.staticKeys.stream().allMatch(storedKey -> oldKeyInfo.stream()
-                        .anyMatch(oldKey -> Objects.equals(oldKey.keyId, storedKey.keyId)))) {
-            // key has not changed since we previously tried to use it... So we update it from the db
-            ProcessState.getInstance(this.main)
-                    .addState(ProcessState.PROCESS_STATE.UPDATING_ACCESS_TOKEN_SIGNING_KEYS, null);
-            this.staticKeys = JWTSigningKey.getInstance(appIdentifier, main).getAllSigningKeys();
+    // Called by the PreGenerateAccessTokenSigningKeys cronjob. This creates the next dynamic key (if it is due within
+    // leadTimeMS) and replaces the cached keys, so that getDynamicKeys does not have to go to the db (or generate a
+    // key) on a request thread when the current key is about to stop being used for signing.
+    public void preGenerateNextDynamicKey(long leadTimeMS)
+            throws StorageQueryException, StorageTransactionLogicException, TenantOrAppNotFoundException {
+        List<KeyInfo> keys = AccessTokenSigningKey.getInstance(appIdentifier, main)
+                .getOrCreateAndGetSigningKeys(leadTimeMS);
+        keyCacheLock.lock();
+        try {
+            this.dynamicKeys = keys;
+        } finally {
+            keyCacheLock.unlock();
         }
     }
 
@@ -274,17 +436,44 @@ public class SigningKeys extends ResourceDistributor.SingletonResource {
     public List<JsonObject> getJWKS() throws StorageQueryException, StorageTransactionLogicException,
             NoSuchAlgorithmException, InvalidKeySpecException, UnsupportedJWTSigningAlgorithmException,
             TenantOrAppNotFoundException {
-        List<JsonObject> jwks = new ArrayList<>();
-
         // Retrieve all keys in storage
+        return getJWKS(this.getAllKeys());
+    }
+
+    /**
+     * Returns the serialised JWKS response ({"keys": [...]}) along with its gzipped form and an ETag. The document
+     * is cached and only rebuilt when the set of keys (by kid) changes.
+     */
+    public JWKSDocument getJWKSDocument() throws StorageQueryException, StorageTransactionLogicException,
+            NoSuchAlgorithmException, InvalidKeySpecException, UnsupportedJWTSigningAlgorithmException,
+            TenantOrAppNotFoundException {
         List<JWTSigningKeyInfo> keys = this.getAllKeys();
+        JWKSDocument document = this.jwksDocument;
+        if (document != null && document.isForKeys(keys)) {
+            return document;
+        }
+
+        JsonArray jwksJsonArray = new JsonArray();
+        for (JsonObject jwk : getJWKS(keys)) {
+            jwksJsonArray.add(jwk);
+        }
+        JsonObject reply = new JsonObject();
+        reply.add("keys", jwksJsonArray);
+
+        document = new JWKSDocument(keys, reply.toString());
+        this.jwksDocument = document;
+        return document;
+    }
+
+    private List<JsonObject> getJWKS(List<JWTSigningKeyInfo> keys)
+            throws NoSuchAlgorithmException, InvalidKeySpecException {
+        List<JsonObject> jwks = new ArrayList<>();
+
         for (JWTSigningKeyInfo currentKeyInfo : keys) {
             // We only use asymmetric keys
             if (currentKeyInfo instanceof JWTAsymmetricSigningKeyInfo) {
                 JWTSigningKey.SupportedAlgorithms algorithm = JWTSigningKey.SupportedAlgorithms
                         .valueOf(currentKeyInfo.algorithm);
-                // TODO: In the future with more asymmetric algorithms [ES256 for example] we will need a provider
-                // system for the public key + JWK - Nemi
                 PublicKey publicKey = getPublicKeyFromString(((JWTAsymmetricSigningKeyInfo) currentKeyInfo).publicKey,
                         algorithm);
 
@@ -302,6 +491,23 @@ public class SigningKeys extends ResourceDistributor.SingletonResource {
                     jwk.addProperty("use", "sig"); // We generate JWKs that are meant to be used for signature
                     // verification
 
+                    jwks.add(jwk);
+                } else if (publicKey instanceof ECPublicKey) {
+                    JsonObject jwk = new JsonObject();
+
+                    // ES256 keys are always on P-256, so both coordinates are 32 bytes
+                    jwk.addProperty("kty", algorithm.getAlgorithmType().toUpperCase());
+                    jwk.addProperty("kid", currentKeyInfo.keyId);
+                    jwk.addProperty("crv", "P-256");
+                    jwk.addProperty("x", Base64.getUrlEncoder().withoutPadding()
+                            .encodeToString(toFixedLengthBytesUnsigned(((ECPublicKey) publicKey).getW().getAffineX(),
+                                    32)));
+                    jwk.addProperty("y", Base64.getUrlEncoder().withoutPadding()
+                            .encodeToString(toFixedLengthBytesUnsigned(((ECPublicKey) publicKey).getW().getAffineY(),
+                                    32)));
+                    jwk.addProperty("alg", currentKeyInfo.algorithm.toUpperCase());
+                    jwk.addProperty("use", "sig");
+
                     jwks.add(jwk);
                 } else {
                     // we don't do anything here because there could be other keys in the array
@@ -313,6 +519,48 @@ public class SigningKeys extends ResourceDistributor.SingletonResource {
         return jwks;
     }
 
+    public static class JWKSDocument {
+        private final String[] keyIds;
+        public final byte[] json;
+        public final byte[] gzippedJson;
+        // strong ETags, since the same key set always gives the same bytes. The gzipped bytes are a different
+        // representation, so they get their own ETag.
+        public final String etag;
+        public final String gzippedEtag;
+
+        JWKSDocument(List<JWTSigningKeyInfo> keys, String json) throws NoSuchAlgorithmException {
+            this.keyIds = new String[keys.size()];
+            for (int i = 0; i < keys.size(); i++) {
+                this.keyIds[i] = keys.get(i).keyId;
+            }
+            this.json = json.getBytes(StandardCharsets.UTF_8);
+            String hash = Utils.hashSHA256(json);
+            this.etag = "\"" + hash + "\"";
+            this.gzippedEtag = "\"" + hash + "-gzip\"";
+
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(gzipped)) {
+                gzipOutputStream.write(this.json);
+            } catch (IOException e) {
+                // writing to a ByteArrayOutputStream does not throw
+                throw new IllegalStateException(e);
+            }
+            this.gzippedJson = gzipped.toByteArray();
+        }
+
+        boolean isForKeys(List<JWTSigningKeyInfo> keys) {
+            if (keys.size() != this.keyIds.length) {
+                return false;
+            }
+            for (int i = 0; i < this.keyIds.length; i++) {
+                if (!Objects.equals(this.keyIds[i], keys.get(i).keyId)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     public static class KeyInfo {
         public String id;
         public String value;
@@ -399,4 +647,15 @@ public class SigningKeys extends ResourceDistributor.SingletonResource {
         System.arraycopy(bigBytes, startSrc, resizedBytes, startDst, len);
         return resizedBytes;
     }
+
+    // EC coordinates in JWKs have to be left padded to the size of the curve (RFC 7518, section 6.2.1.2)
+    private static byte[] toFixedLengthBytesUnsigned(final BigInteger bigInt, int length) {
+        byte[] bytes = toBytesUnsigned(bigInt);
+        if (bytes.length >= length) {
+            return bytes;
+        }
+        byte[] padded = new byte[length];
+        System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+        return padded;
+    }
 }
@@ -0,0 +1,56 @@
+/*
+ *    Copyright (c) 2026, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.storageLayer;
+
+import io.supertokens.pluginInterface.Storage;
+import io.supertokens.pluginInterface.StorageUtils;
+import io.supertokens.pluginInterface.exceptions.StorageQueryException;
+import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
+import io.supertokens.pluginInterface.oauth.OAuthStorage;
+
+/**
+ * Batch versions of the {@link OAuthStorage} queries. The default implementations run one query per item;
+ * storages that can do better override them. Use {@link #from(Storage)} to get an instance for any storage.
+ */
+public interface OAuthBatchStorage {
+
+    int countTotalNumberOfOAuthM2MTokensCreatedSince(AppIdentifier appIdentifier, long since)
+            throws StorageQueryException;
+
+    /**
+     * Returns the number of M2M tokens created in the last 1, 2, ..., numberOfDays days (in that order), relative
+     * to now.
+     */
+    default int[] countTotalNumberOfOAuthM2MTokensCreatedSinceForEachDay(AppIdentifier appIdentifier, long now,
+                                                                       int numberOfDays)
+            throws StorageQueryException {
+        int[] counts = new int[numberOfDays];
+        for (int i = 1; i <= numberOfDays; i++) {
+            long timestamp = now - (i * 24 * 60 * 60 * 1000L);
+            counts[i - 1] = countTotalNumberOfOAuthM2MTokensCreatedSince(appIdentifier, timestamp);
+        }
+        return counts;
+    }
+
+    static OAuthBatchStorage from(Storage storage) {
+        if (storage instanceof OAuthBatchStorage) {
+            return (OAuthBatchStorage) storage;
+        }
+        OAuthStorage oauthStorage = StorageUtils.getOAuthStorage(storage);
+        return oauthStorage::countTotalNumberOfOAuthM2MTokensCreatedSince;
+    }
+}
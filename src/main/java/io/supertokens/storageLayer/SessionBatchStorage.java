@@ -0,0 +1,60 @@
+/*
+ *    Copyright (c) 2026, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.storageLayer;
+
+import io.supertokens.pluginInterface.Storage;
+import io.supertokens.pluginInterface.StorageUtils;
+import io.supertokens.pluginInterface.exceptions.StorageQueryException;
+import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
+import io.supertokens.pluginInterface.session.SessionInfo;
+import io.supertokens.pluginInterface.session.SessionStorage;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batch versions of the {@link SessionStorage} queries. The default implementations run one query per item;
+ * storages that can do better override them. Use {@link #from(Storage)} to get an instance for any storage.
+ */
+public interface SessionBatchStorage {
+
+    SessionInfo getSession(TenantIdentifier tenantIdentifier, String sessionHandle) throws StorageQueryException;
+
+    /**
+     * Returns the sessions that exist, keyed by session handle.
+     */
+    default Map<String, SessionInfo> getSessions(TenantIdentifier tenantIdentifier, List<String> sessionHandles)
+            throws StorageQueryException {
+        Map<String, SessionInfo> sessions = new HashMap<>();
+        for (String sessionHandle : sessionHandles) {
+            SessionInfo session = getSession(tenantIdentifier, sessionHandle);
+            if (session != null) {
+                sessions.put(sessionHandle, session);
+            }
+        }
+        return sessions;
+    }
+
+    static SessionBatchStorage from(Storage storage) {
+        if (storage instanceof SessionBatchStorage) {
+            return (SessionBatchStorage) storage;
+        }
+        SessionStorage sessionStorage = StorageUtils.getSessionStorage(storage);
+        return sessionStorage::getSession;
+    }
+}
@@ -221,13 +221,38 @@ public class StorageLayer extends ResourceDistributor.SingletonResource {
                 tenants,
                 Config.getBaseConfigAsJsonObject(main));
 
+        int maxThreads = Config.getBaseConfig(main).getTenantLoadingThreads();
+        long startTime = System.currentTimeMillis();
+
         Map<ResourceDistributor.KeyClass, Storage> resourceKeyToStorageMap = new HashMap<>();
         {
-            Map<String, Storage> idToStorageMap = new HashMap<>();
-            for (ResourceDistributor.KeyClass key : normalisedConfigs.keySet()) {
+            List<ResourceDistributor.KeyClass> keys = new ArrayList<>(normalisedConfigs.keySet());
+            List<ResourceDistributor.Func<Storage>> tasks = new ArrayList<>(keys.size());
+            for (ResourceDistributor.KeyClass key : keys) {
                 // setting doNotLog to true so that plugin loading is not logged here
-                Storage storage = StorageLayer.getNewStorageInstance(main, normalisedConfigs.get(key),
-                        key.getTenantIdentifier(), true);
+                tasks.add(() -> {
+                    try {
+                        return StorageLayer.getNewStorageInstance(main, normalisedConfigs.get(key),
+                                key.getTenantIdentifier(), true);
+                    } catch (InvalidConfigException e) {
+                        throw new ResourceDistributor.FuncException(e);
+                    }
+                });
+            }
+            List<Storage> storages;
+            try {
+                storages = main.getResourceDistributor().runInParallel(tasks, maxThreads);
+            } catch (ResourceDistributor.FuncException e) {
+                if (e.getCause() instanceof InvalidConfigException) {
+                    throw (InvalidConfigException) e.getCause();
+                }
+                throw new RuntimeException(e);
+            }
+
+            Map<String, Storage> idToStorageMap = new HashMap<>();
+            for (int i = 0; i < keys.size(); i++) {
+                ResourceDistributor.KeyClass key = keys.get(i);
+                Storage storage = storages.get(i);
                 String userPoolId = storage.getUserPoolId();
                 String connectionPoolId = storage.getConnectionPoolId();
                 String uniqueId = userPoolId + "~" + connectionPoolId;
@@ -242,6 +267,9 @@ public class StorageLayer extends ResourceDistributor.SingletonResource {
             }
         }
 
+        Logging.info(main, TenantIdentifier.BASE_TENANT, "Created storages for " + resourceKeyToStorageMap.size() +
+                " tenants in " + (System.currentTimeMillis() - startTime) + "ms", false);
+
         // at this point, we have made sure that all the configs are fine and that the storage
         // objects are shared across tenants based on the config of each tenant.
 
@@ -313,23 +341,42 @@ public class StorageLayer extends ResourceDistributor.SingletonResource {
                             .add(key.getTenantIdentifier());
                 }
 
-                for (ResourceDistributor.KeyClass key : resources.keySet()) {
-                    ResourceDistributor.SingletonResource resource = resources.get(key);
+                // we initialise each storage once. Storages that use the same database (but a different connection
+                // pool) are initialised one after the other, since they would otherwise create the same tables at the
+                // same time.
+                Map<String, List<Storage>> userPoolIdToStoragesMap = new HashMap<>();
+                for (Storage storage : storageToTenantIdentifiersMap.keySet()) {
+                    userPoolIdToStoragesMap.computeIfAbsent(storage.getUserPoolId(), k -> new ArrayList<>())
+                            .add(storage);
+                }
 
-                    try {
-                        ((StorageLayer) resource).storage.initStorage(false,
-                                new ArrayList<>(storageToTenantIdentifiersMap.get(((StorageLayer) resource).storage)));
-                        ((StorageLayer) resource).storage.initFileLogging(
-                                Config.getBaseConfig(main).getInfoLogPath(main),
-                                Config.getBaseConfig(main).getErrorLogPath(main));
-                    } catch (DbInitException e) {
-
-                        Logging.error(main, TenantIdentifier.BASE_TENANT, e.getMessage(), false, e);
-                        // we ignore any exceptions from db here cause it's not the base tenant's db that
-                        // would throw and only tenants belonging to a specific tenant / app. In this case,
-                        // we still want other tenants to continue to work
-                    }
+                String infoLogPath = Config.getBaseConfig(main).getInfoLogPath(main);
+                String errorLogPath = Config.getBaseConfig(main).getErrorLogPath(main);
+                long initStartTime = System.currentTimeMillis();
+
+                List<ResourceDistributor.Func<Void>> tasks = new ArrayList<>();
+                for (List<Storage> storagesOfUserPool : userPoolIdToStoragesMap.values()) {
+                    tasks.add(() -> {
+                        for (Storage storage : storagesOfUserPool) {
+                            try {
+                                storage.initStorage(false, new ArrayList<>(storageToTenantIdentifiersMap.get(storage)));
+                                storage.initFileLogging(infoLogPath, errorLogPath);
+                            } catch (DbInitException e) {
+
+                                Logging.error(main, TenantIdentifier.BASE_TENANT, e.getMessage(), false, e);
+                                // we ignore any exceptions from db here cause it's not the base tenant's db that
+                                // would throw and only tenants belonging to a specific tenant / app. In this case,
+                                // we still want other tenants to continue to work
+                            }
+                        }
+                        return null;
+                    });
                 }
+                main.getResourceDistributor().runInParallel(tasks, maxThreads);
+
+                Logging.info(main, TenantIdentifier.BASE_TENANT, "Initialised " +
+                        storageToTenantIdentifiersMap.size() + " storages in " +
+                        (System.currentTimeMillis() - initStartTime) + "ms", false);
 
                 return null;
             });
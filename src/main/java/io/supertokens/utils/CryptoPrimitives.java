@@ -0,0 +1,127 @@
+/*
+ *    Copyright (c) 2024, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.utils;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.SecretKeyFactory;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Signature;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Getting a crypto engine through getInstance looks up the provider and allocates a new engine on every call, which
+// adds up since hashing, signing and encryption happen several times for each session operation. The engines are
+// not thread safe, so they are kept in a small pool per algorithm: a caller takes one, and gives it back with
+// release once it is done with it. A pool is used instead of one engine per thread since requests run on virtual
+// threads, which are not reused across requests.
+//
+// At most MAX_IDLE_ENGINES_PER_ALGORITHM engines are kept per algorithm. The work done with them is CPU bound, so
+// more than that are rarely in use at once, and the extra ones are left to the garbage collector when released.
+//
+// Callers must release an engine in a finally block, must not use it after releasing it, and must initialise (or,
+// for MessageDigest, use) it as if it were new.
+public final class CryptoPrimitives {
+
+    private static final int MAX_IDLE_ENGINES_PER_ALGORITHM = Runtime.getRuntime().availableProcessors() * 2;
+
+    private static final Map<String, BlockingQueue<Object>> IDLE_ENGINES = new ConcurrentHashMap<>();
+
+    private CryptoPrimitives() {
+    }
+
+    private static Object take(String key) {
+        BlockingQueue<Object> idle = IDLE_ENGINES.get(key);
+        return idle == null ? null : idle.poll();
+    }
+
+    private static void release(String key, Object engine) {
+        if (engine == null) {
+            return;
+        }
+        IDLE_ENGINES.computeIfAbsent(key, k -> new ArrayBlockingQueue<>(MAX_IDLE_ENGINES_PER_ALGORITHM))
+                .offer(engine);
+    }
+
+    public static MessageDigest messageDigest(String algorithm) throws NoSuchAlgorithmException {
+        MessageDigest digest = (MessageDigest) take("MessageDigest/" + algorithm);
+        if (digest == null) {
+            return MessageDigest.getInstance(algorithm);
+        }
+        digest.reset();
+        return digest;
+    }
+
+    public static void release(MessageDigest digest) {
+        release("MessageDigest/" + digest.getAlgorithm(), digest);
+    }
+
+    // the returned Mac must be initialised with a key before use, which also resets it
+    public static Mac mac(String algorithm) throws NoSuchAlgorithmException {
+        Mac mac = (Mac) take("Mac/" + algorithm);
+        return mac == null ? Mac.getInstance(algorithm) : mac;
+    }
+
+    public static void release(Mac mac) {
+        release("Mac/" + mac.getAlgorithm(), mac);
+    }
+
+    // the returned Cipher must be initialised before use. For AES/GCM, callers must never use the same key and iv
+    // twice, which Cipher.init enforces for encryption.
+    public static Cipher cipher(String transformation) throws NoSuchAlgorithmException, NoSuchPaddingException {
+        Cipher cipher = (Cipher) take("Cipher/" + transformation);
+        return cipher == null ? Cipher.getInstance(transformation) : cipher;
+    }
+
+    public static void release(Cipher cipher) {
+        // getAlgorithm returns the transformation that the cipher was created with
+        release("Cipher/" + cipher.getAlgorithm(), cipher);
+    }
+
+    // the returned Signature must be initialised with initSign or initVerify before use, which also resets it
+    public static Signature signature(String algorithm) throws NoSuchAlgorithmException {
+        Signature signature = (Signature) take("Signature/" + algorithm);
+        return signature == null ? Signature.getInstance(algorithm) : signature;
+    }
+
+    public static void release(Signature signature) {
+        release("Signature/" + signature.getAlgorithm(), signature);
+    }
+
+    public static KeyFactory keyFactory(String algorithm) throws NoSuchAlgorithmException {
+        KeyFactory keyFactory = (KeyFactory) take("KeyFactory/" + algorithm);
+        return keyFactory == null ? KeyFactory.getInstance(algorithm) : keyFactory;
+    }
+
+    public static void release(KeyFactory keyFactory) {
+        release("KeyFactory/" + keyFactory.getAlgorithm(), keyFactory);
+    }
+
+    public static SecretKeyFactory secretKeyFactory(String algorithm) throws NoSuchAlgorithmException {
+        SecretKeyFactory secretKeyFactory = (SecretKeyFactory) take("SecretKeyFactory/" + algorithm);
+        return secretKeyFactory == null ? SecretKeyFactory.getInstance(algorithm) : secretKeyFactory;
+    }
+
+    public static void release(SecretKeyFactory secretKeyFactory) {
+        release("SecretKeyFactory/" + secretKeyFactory.getAlgorithm(), secretKeyFactory);
+    }
+}
@@ -50,6 +50,7 @@ import java.net.URL;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.*;
+import java.security.spec.ECGenParameterSpec;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.KeySpec;
 import java.security.spec.PKCS8EncodedKeySpec;
@@ -128,6 +129,16 @@ public class Utils {
                 StandardCharsets.UTF_8);
     }
 
+    // Same as above, but decodes a range of ASCII bytes and returns the decoded bytes, without building strings
+    public static byte[] convertFromBase64(byte[] input, int offset, int length) {
+        byte[] standardBase64 = new byte[length];
+        for (int i = 0; i < length; i++) {
+            byte b = input[offset + i];
+            standardBase64[i] = b == '-' ? (byte) '+' : b == '_' ? (byte) '/' : b;
+        }
+        return Base64.getDecoder().decode(standardBase64);
+    }
+
     public static String throwableStacktraceToString(Throwable e) {
         if (e == null) {
             return "";
@@ -140,13 +151,21 @@ public class Utils {
     }
 
     public static String hashSHA256(String base) throws NoSuchAlgorithmException {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        byte[] hash = digest.digest(stringToBytes(base));
-        return bytesToString(hash);
+        MessageDigest digest = CryptoPrimitives.messageDigest("SHA-256");
+        try {
+            return bytesToString(digest.digest(stringToBytes(base)));
+        } finally {
+            CryptoPrimitives.release(digest);
+        }
     }
 
     public static byte[] hashSHA256Bytes(byte[] base) throws NoSuchAlgorithmException {
-        return MessageDigest.getInstance("SHA-256").digest(base);
+        MessageDigest digest = CryptoPrimitives.messageDigest("SHA-256");
+        try {
+            return digest.digest(base);
+        } finally {
+            CryptoPrimitives.release(digest);
+        }
     }
 
     public static String hashSHA256Base64UrlSafe(byte[] base) throws NoSuchAlgorithmException {
@@ -160,9 +179,13 @@ public class Utils {
     }
 
     public static byte[] hmacSHA256(byte[] key, String data) throws InvalidKeyException, NoSuchAlgorithmException {
-        Mac mac = Mac.getInstance("HmacSHA256");
-        mac.init(new SecretKeySpec(key, "HmacSHA256"));
-        return mac.doFinal(stringToBytes(data));
+        Mac mac = CryptoPrimitives.mac("HmacSHA256");
+        try {
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(stringToBytes(data));
+        } finally {
+            CryptoPrimitives.release(mac);
+        }
     }
 
     public static String generateNewSigningKey() throws NoSuchAlgorithmException, InvalidKeySpecException {
@@ -204,6 +227,20 @@ public class Utils {
     public static String encrypt(String plaintext, String masterKey)
             throws NoSuchAlgorithmException, InvalidKeySpecException, NoSuchPaddingException, InvalidKeyException,
             InvalidAlgorithmParameterException, IllegalBlockSizeException, BadPaddingException {
+        Encoder encoder = Base64.getEncoder();
+        return encoder.encodeToString(encrypt(stringToBytes(plaintext), masterKey));
+    }
+
+    /**
+     * Encrypts bytes with a key derived from the given key
+     *
+     * @param plaintext - data to encrypt
+     * @param masterKey - key used to encrypt
+     * @return the nonce followed by the encrypted data
+     */
+    public static byte[] encrypt(byte[] plaintext, String masterKey)
+            throws NoSuchAlgorithmException, InvalidKeySpecException, NoSuchPaddingException, InvalidKeyException,
+            InvalidAlgorithmParameterException, IllegalBlockSizeException, BadPaddingException {
 
         // Prepare the nonce
         SecureRandom secureRandom = new SecureRandom();
@@ -216,22 +253,26 @@ public class Utils {
         byte[] key = pbkdf2(masterKey.toCharArray(), iv, 100, 32 * 8);
         SecretKey secretKey = new SecretKeySpec(key, "AES");
 
-        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
-        GCMParameterSpec parameterSpec = new GCMParameterSpec(128, iv);
-
-        // Encryption mode on!
-        cipher.init(Cipher.ENCRYPT_MODE, secretKey, parameterSpec);
-
-        // Encrypt the data
-        byte[] encryptedData = cipher.doFinal(stringToBytes(plaintext));
-
-        // Concatenate everything and return the final data
-        ByteBuffer byteBuffer = ByteBuffer.allocate(iv.length + encryptedData.length);
-        byteBuffer.put(iv);
-        byteBuffer.put(encryptedData);
-
-        Encoder encoder = Base64.getEncoder();
-        return encoder.encodeToString(byteBuffer.array());
+        Cipher cipher = CryptoPrimitives.cipher("AES/GCM/NoPadding");
+        try {
+            GCMParameterSpec parameterSpec = new GCMParameterSpec(128, iv);
+
+            // Encryption mode on!
+            cipher.init(Cipher.ENCRYPT_MODE, secretKey, parameterSpec);
+
+            // Encrypt the data directly after the nonce
+            byte[] result = new byte[iv.length + cipher.getOutputSize(plaintext.length)];
+            System.arraycopy(iv, 0, result, 0, iv.length);
+            try {
+                cipher.doFinal(plaintext, 0, plaintext.length, result, iv.length);
+            } catch (ShortBufferException e) {
+                // cannot happen since the output is sized with getOutputSize
+                throw new IllegalStateException(e);
+            }
+            return result;
+        } finally {
+            CryptoPrimitives.release(cipher);
+        }
     }
 
     /**
@@ -244,37 +285,52 @@ public class Utils {
     public static String decrypt(String encdata, String masterkey)
             throws NoSuchAlgorithmException, InvalidKeySpecException, NoSuchPaddingException, InvalidKeyException,
             InvalidAlgorithmParameterException, IllegalBlockSizeException, BadPaddingException {
-
-        // Wrap the data into a byte buffer to ease the reading process
         Decoder decoder = Base64.getDecoder();
-        ByteBuffer byteBuffer = ByteBuffer.wrap(decoder.decode(encdata));
+        return new String(decrypt(decoder.decode(encdata), masterkey));
+    }
 
-        byte[] iv = new byte[12];
-        byteBuffer.get(iv);
+    /**
+     * Decrypts bytes by given key
+     *
+     * @param encdata   - the nonce followed by the encrypted data, as returned by encrypt
+     * @param masterkey - key used to decrypt
+     * @return decrypted (original) bytes
+     */
+    public static byte[] decrypt(byte[] encdata, String masterkey)
+            throws NoSuchAlgorithmException, InvalidKeySpecException, NoSuchPaddingException, InvalidKeyException,
+            InvalidAlgorithmParameterException, IllegalBlockSizeException, BadPaddingException {
+        if (encdata.length < 12) {
+            throw new IllegalBlockSizeException("Encrypted data is too short");
+        }
+        byte[] iv = Arrays.copyOfRange(encdata, 0, 12);
 
         // Prepare your key/password
         SecretKey secretKey = new SecretKeySpec(Utils.pbkdf2(masterkey.toCharArray(), iv, 100, 32 * 8), "AES");
 
-        // get the rest of encrypted data
-        byte[] cipherBytes = new byte[byteBuffer.remaining()];
-        byteBuffer.get(cipherBytes);
-
-        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
-        GCMParameterSpec parameterSpec = new GCMParameterSpec(128, iv);
+        Cipher cipher = CryptoPrimitives.cipher("AES/GCM/NoPadding");
+        try {
+            GCMParameterSpec parameterSpec = new GCMParameterSpec(128, iv);
 
-        // Encryption mode on!
-        cipher.init(Cipher.DECRYPT_MODE, secretKey, parameterSpec);
+            // Decryption mode on!
+            cipher.init(Cipher.DECRYPT_MODE, secretKey, parameterSpec);
 
-        // Encrypt the data
-        return new String(cipher.doFinal(cipherBytes));
+            // decrypt the rest of the data
+            return cipher.doFinal(encdata, iv.length, encdata.length - iv.length);
+        } finally {
+            CryptoPrimitives.release(cipher);
+        }
     }
 
     public static byte[] pbkdf2(char[] text, byte[] salt, int iterationCount, int keyLength)
             throws NoSuchAlgorithmException, InvalidKeySpecException {
 
         KeySpec spec = new PBEKeySpec(text, salt, iterationCount, keyLength);
-        SecretKeyFactory f = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA512");
-        return f.generateSecret(spec).getEncoded();
+        SecretKeyFactory f = CryptoPrimitives.secretKeyFactory("PBKDF2WithHmacSHA512");
+        try {
+            return f.generateSecret(spec).getEncoded();
+        } finally {
+            CryptoPrimitives.release(f);
+        }
     }
 
     public static PubPriKey generateNewPubPriKey() throws NoSuchAlgorithmException {
@@ -290,32 +346,120 @@ public class Utils {
         return new PubPriKey(pubStr, priStr);
     }
 
+    public static PubPriKey generateNewPubPriKey(JWTSigningKey.SupportedAlgorithms algorithm)
+            throws NoSuchAlgorithmException {
+        if (algorithm != JWTSigningKey.SupportedAlgorithms.ES256) {
+            return generateNewPubPriKey();
+        }
+        KeyPairGenerator kpg = KeyPairGenerator.getInstance("EC");
+        try {
+            kpg.initialize(new ECGenParameterSpec("secp256r1"));
+        } catch (InvalidAlgorithmParameterException e) {
+            throw new NoSuchAlgorithmException(e);
+        }
+        KeyPair kp = kpg.generateKeyPair();
+
+        Base64.Encoder encoder = Base64.getEncoder();
+        String pubStr = encoder.encodeToString(kp.getPublic().getEncoded());
+        String priStr = encoder.encodeToString(kp.getPrivate().getEncoded());
+        return new PubPriKey(pubStr, priStr);
+    }
+
+    // DER encoding of the id-ecPublicKey OID (1.2.840.10045.2.1)
+    private static final byte[] EC_PUBLIC_KEY_OID = {0x06, 0x07, 0x2A, (byte) 0x86, 0x48, (byte) 0xCE, 0x3D, 0x02,
+            0x01};
+
+    // Keys are stored as base64 encoded X.509 (public) and PKCS#8 (private) keys without their algorithm, so for
+    // dynamic access token signing keys we read it from the algorithm identifier at the start of the encoded
+    // public key. Only EC keys use the id-ecPublicKey OID, everything else is an RSA key.
+    public static JWTSigningKey.SupportedAlgorithms getAlgorithmOfPublicKey(String publicKey) {
+        byte[] encoded = Base64.getDecoder().decode(publicKey);
+        // SubjectPublicKeyInfo starts with two SEQUENCE headers (at most 4 + 2 bytes for the key sizes we create),
+        // followed by the algorithm OID
+        int searchUntil = Math.min(encoded.length, 8 + EC_PUBLIC_KEY_OID.length);
+        for (int i = 0; i + EC_PUBLIC_KEY_OID.length <= searchUntil; i++) {
+            if (Arrays.equals(encoded, i, i + EC_PUBLIC_KEY_OID.length, EC_PUBLIC_KEY_OID, 0,
+                    EC_PUBLIC_KEY_OID.length)) {
+                return JWTSigningKey.SupportedAlgorithms.ES256;
+            }
+        }
+        return JWTSigningKey.SupportedAlgorithms.RS256;
+    }
+
     public static String signWithPrivateKey(String content, String privateKey, boolean urlEncode)
             throws NoSuchAlgorithmException, InvalidKeySpecException, InvalidKeyException, SignatureException {
-        Signature sign = Signature.getInstance("SHA256withRSA");
         Base64.Decoder decoder = Base64.getDecoder();
         PKCS8EncodedKeySpec ks = new PKCS8EncodedKeySpec(decoder.decode(privateKey));
-        KeyFactory kf = KeyFactory.getInstance("RSA");
-        PrivateKey pvt = kf.generatePrivate(ks);
+        PrivateKey pvt;
+        KeyFactory kf = CryptoPrimitives.keyFactory("RSA");
+        try {
+            pvt = kf.generatePrivate(ks);
+        } finally {
+            CryptoPrimitives.release(kf);
+        }
 
-        sign.initSign(pvt);
-        sign.update(stringToBytes(content));
-        Base64.Encoder encoder = urlEncode ? Base64.getUrlEncoder() : Base64.getEncoder();
-        return encoder.encodeToString(sign.sign());
+        Signature sign = CryptoPrimitives.signature("SHA256withRSA");
+        try {
+            sign.initSign(pvt);
+            sign.update(stringToBytes(content));
+            Base64.Encoder encoder = urlEncode ? Base64.getUrlEncoder() : Base64.getEncoder();
+            return encoder.encodeToString(sign.sign());
+        } finally {
+            CryptoPrimitives.release(sign);
+        }
     }
 
     public static boolean verifyWithPublicKey(String content, String signature, String publicKey, boolean urlEncoded)
             throws NoSuchAlgorithmException, InvalidKeySpecException, InvalidKeyException, SignatureException {
-        Signature sign = Signature.getInstance("SHA256withRSA");
         Base64.Decoder keyDecoder = Base64.getDecoder();
         X509EncodedKeySpec ks = new X509EncodedKeySpec(keyDecoder.decode(publicKey));
-        KeyFactory kf = KeyFactory.getInstance("RSA");
-        PublicKey pub = kf.generatePublic(ks);
+        PublicKey pub;
+        KeyFactory kf = CryptoPrimitives.keyFactory("RSA");
+        try {
+            pub = kf.generatePublic(ks);
+        } finally {
+            CryptoPrimitives.release(kf);
+        }
+
+        Base64.Decoder decoder = urlEncoded ? Base64.getUrlDecoder() : Base64.getDecoder();
+        Signature sign = CryptoPrimitives.signature("SHA256withRSA");
+        try {
+            sign.initVerify(pub);
+            sign.update(stringToBytes(content));
+            return sign.verify(decoder.decode(signature));
+        } finally {
+            CryptoPrimitives.release(sign);
+        }
+    }
+
+    // Same as above, but reads the content and the encoded signature from the given byte ranges, so that callers
+    // holding the whole JWT as bytes do not need to build intermediate strings.
+    public static boolean verifyWithPublicKey(byte[] content, int contentOffset, int contentLength,
+                                              byte[] signature, int signatureOffset, int signatureLength,
+                                              String publicKey, boolean urlEncoded)
+            throws NoSuchAlgorithmException, InvalidKeySpecException, InvalidKeyException, SignatureException {
+        return verifyWithPublicKey(content, contentOffset, contentLength, signature, signatureOffset,
+                signatureLength, publicKey, urlEncoded, JWTSigningKey.SupportedAlgorithms.RS256);
+    }
+
+    public static boolean verifyWithPublicKey(byte[] content, int contentOffset, int contentLength,
+                                              byte[] signature, int signatureOffset, int signatureLength,
+                                              String publicKey, boolean urlEncoded,
+                                              JWTSigningKey.SupportedAlgorithms algorithm)
+            throws NoSuchAlgorithmException, InvalidKeySpecException, InvalidKeyException, SignatureException {
+        PublicKey pub = getPublicKeyFromString(publicKey, algorithm);
 
         Base64.Decoder decoder = urlEncoded ? Base64.getUrlDecoder() : Base64.getDecoder();
-        sign.initVerify(pub);
-        sign.update(stringToBytes(content));
-        return sign.verify(decoder.decode(signature));
+        ByteBuffer decodedSignature = decoder.decode(ByteBuffer.wrap(signature, signatureOffset, signatureLength));
+        Signature sign = CryptoPrimitives.signature(algorithm.getSignatureAlgorithm());
+        try {
+            sign.initVerify(pub);
+            sign.update(content, contentOffset, contentLength);
+            return sign.verify(decodedSignature.array(),
+                    decodedSignature.arrayOffset() + decodedSignature.position(), decodedSignature.remaining());
+        } finally {
+            CryptoPrimitives.release(sign);
+        }
     }
 
     public static boolean isFakeEmail(String email) {
@@ -357,16 +501,24 @@ public class Utils {
             throws NoSuchAlgorithmException, InvalidKeySpecException {
         byte[] decodedKeyBytes = Base64.getDecoder().decode(keyCert);
         X509EncodedKeySpec keySpec = new X509EncodedKeySpec(decodedKeyBytes);
-        KeyFactory kf = KeyFactory.getInstance(algorithm.getAlgorithmType());
-        return kf.generatePublic(keySpec);
+        KeyFactory kf = CryptoPrimitives.keyFactory(algorithm.getAlgorithmType());
+        try {
+            return kf.generatePublic(keySpec);
+        } finally {
+            CryptoPrimitives.release(kf);
+        }
     }
 
     public static PrivateKey getPrivateKeyFromString(String keyCert, JWTSigningKey.SupportedAlgorithms algorithm)
             throws NoSuchAlgorithmException, InvalidKeySpecException {
         byte[] decodedKeyBytes = Base64.getDecoder().decode(keyCert);
         PKCS8EncodedKeySpec keySpec = new PKCS8EncodedKeySpec(decodedKeyBytes);
-        KeyFactory kf = KeyFactory.getInstance(algorithm.getAlgorithmType());
-        return kf.generatePrivate(keySpec);
+        KeyFactory kf = CryptoPrimitives.keyFactory(algorithm.getAlgorithmType());
+        try {
+            return kf.generatePrivate(keySpec);
+        } finally {
+            CryptoPrimitives.release(kf);
+        }
     }
 
     public static JWTSigningKeyInfo getJWTSigningKeyInfoFromKeyInfo(KeyInfo keyInfo) {
@@ -0,0 +1,79 @@
+/*
+ *    Copyright (c) 2024, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.webserver;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import io.supertokens.Main;
+import io.supertokens.ResourceDistributor;
+import io.supertokens.config.APIKeyDigests;
+import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
+import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Counts the requests made with each of an app's API keys, so that a key can be removed from api_keys once nothing
+// is using it anymore. Keys are identified by their key id (see APIKeyDigests), and the counts are since the core
+// started.
+public class APIKeyUsage extends ResourceDistributor.SingletonResource {
+    public static final String RESOURCE_KEY = "io.supertokens.webserver.APIKeyUsage";
+
+    private final Map<String, KeyUsage> usageByKeyId = new ConcurrentHashMap<>();
+
+    private static class KeyUsage {
+        private final AtomicLong requestCount = new AtomicLong(0);
+        private volatile long lastUsedTime = 0;
+    }
+
+    private APIKeyUsage() {
+    }
+
+    public static APIKeyUsage getInstance(Main main, AppIdentifier appIdentifier) throws TenantOrAppNotFoundException {
+        // created once per app, even if several requests of the app need it at the same time
+        return (APIKeyUsage) main.getResourceDistributor()
+                .getOrCreateAppResourceOnFirstUse(appIdentifier, RESOURCE_KEY, app -> new APIKeyUsage());
+    }
+
+    public void recordUsage(String keyId) {
+        KeyUsage usage = usageByKeyId.computeIfAbsent(keyId, k -> new KeyUsage());
+        usage.requestCount.incrementAndGet();
+        usage.lastUsedTime = System.currentTimeMillis();
+    }
+
+    // keys that are configured but have not been used yet are reported with a count of 0. Keys that were used but
+    // are no longer configured are not reported.
+    public JsonObject getStats(APIKeyDigests configuredKeys) {
+        JsonArray keys = new JsonArray();
+        if (configuredKeys != null) {
+            for (String keyId : configuredKeys.getKeyIds()) {
+                KeyUsage usage = usageByKeyId.get(keyId);
+                JsonObject key = new JsonObject();
+                key.addProperty("keyId", keyId);
+                key.addProperty("requestCount", usage == null ? 0 : usage.requestCount.get());
+                if (usage != null) {
+                    key.addProperty("lastUsedTime", usage.lastUsedTime);
+                }
+                keys.add(key);
+            }
+        }
+        JsonObject result = new JsonObject();
+        result.add("keys", keys);
+        return result;
+    }
+}
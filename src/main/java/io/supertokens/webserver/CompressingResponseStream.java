@@ -0,0 +1,117 @@
+/*
+ *    Copyright (c) 2024, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.webserver;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a response body to the servlet output stream. The first threshold bytes are held back, so that small bodies
+ * are sent as is with a content length, and only bodies larger than that are gzipped (if the client accepts it) as
+ * they are written. The body is only completed by finish(). If the stream is closed without that (i.e.: writing the
+ * body failed), whatever was not sent yet is discarded, so that an error response can be sent instead.
+ */
+class CompressingResponseStream extends OutputStream {
+
+    private final HttpServletResponse resp;
+    private final boolean gzip;
+    private final int threshold;
+
+    private ByteArrayOutputStream buffer;
+    private OutputStream out = null;
+    private boolean closed = false;
+
+    CompressingResponseStream(HttpServletResponse resp, boolean gzip, int threshold) {
+        this.resp = resp;
+        this.gzip = gzip;
+        this.threshold = threshold;
+        this.buffer = new ByteArrayOutputStream(Math.min(threshold, 8192));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (out == null) {
+            if (buffer.size() + len <= threshold) {
+                buffer.write(b, off, len);
+                return;
+            }
+            startStreaming();
+        }
+        out.write(b, off, len);
+    }
+
+    private void startStreaming() throws IOException {
+        // nothing has been written to the response yet, so headers can still be set
+        if (gzip) {
+            resp.setHeader("Content-Encoding", "gzip");
+            out = new GZIPOutputStream(resp.getOutputStream(), 8192);
+        } else {
+            out = resp.getOutputStream();
+        }
+        buffer.writeTo(out);
+        buffer = null;
+    }
+
+    @Override
+    public void flush() {
+        // flushing before the end would only make gzip compress worse and send smaller chunks
+    }
+
+    /**
+     * Sends the rest of the body. Must be called once the whole body has been written.
+     */
+    void finish() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (out == null) {
+            resp.setContentLength(buffer.size());
+            buffer.writeTo(resp.getOutputStream());
+            buffer = null;
+        } else if (out instanceof GZIPOutputStream) {
+            ((GZIPOutputStream) out).finish();
+        }
+        // the servlet output stream itself is closed by the container
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // finish was not called, so the body is incomplete
+        buffer = null;
+        if (out != null && !resp.isCommitted()) {
+            // what we streamed so far is still in the container's buffer. This clears it together with the headers
+            // we set, and allows the error response to use getWriter again.
+            resp.reset();
+        }
+        // if the response is already committed, the error response cannot be sent, see
+        // WebserverAPI.sendTextResponse
+    }
+}
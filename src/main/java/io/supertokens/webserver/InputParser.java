@@ -16,35 +16,155 @@
 
 package io.supertokens.webserver;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 
-import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.FilterReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.util.Arrays;
 
 public class InputParser {
+
+    // set by WebserverAPI on each request to the max number of bytes the API accepts in the request body
+    public static final String MAX_REQUEST_BODY_SIZE_ATTRIBUTE = "io.supertokens.webserver.maxRequestBodySizeInBytes";
+
     public static JsonObject parseJsonObjectOrThrowError(HttpServletRequest request)
             throws ServletException, IOException {
-        StringBuilder sb = new StringBuilder();
-        try (BufferedReader reader = request.getReader()) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sb.append(line).append('\n');
-            }
-        }
-        try {
-            return new JsonParser().parse(sb.toString()).getAsJsonObject();
+        // the body is parsed as it is read, instead of reading all of it into a string first
+        Reader reader = getRequestBodyReader(request);
+        try (reader) {
+            return JsonParser.parseReader(reader).getAsJsonObject();
+        } catch (JsonIOException e) {
+            throw getRequestBodyReadException(e);
         } catch (Exception e) {
             throw new ServletException(new WebserverAPI.BadRequestException("Invalid Json Input"));
         }
     }
 
+    public interface ArrayElementConsumer {
+        void accept(int index, JsonElement element) throws ServletException;
+    }
+
+    /**
+     * Same as parseJsonObjectOrThrowError, except that each element of the array in arrayFieldName is given to
+     * consumer as soon as it has been parsed, instead of keeping the whole array in memory. The returned object has
+     * all the other fields of the request body.
+     */
+    public static JsonObject parseJsonObjectStreamingArrayOrThrowError(HttpServletRequest request,
+                                                                       String arrayFieldName,
+                                                                       ArrayElementConsumer consumer)
+            throws ServletException, IOException {
+        JsonObject result = new JsonObject();
+        boolean arrayFound = false;
+        try (JsonReader reader = new JsonReader(getRequestBodyReader(request))) {
+            // same as JsonParser.parseReader
+            reader.setStrictness(Strictness.LENIENT);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (!name.equals(arrayFieldName)) {
+                    result.add(name, JsonParser.parseReader(reader));
+                    continue;
+                }
+                if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                    throw new ServletException(new WebserverAPI.BadRequestException(
+                            "Field name '" + arrayFieldName + "' is invalid in JSON input"));
+                }
+                arrayFound = true;
+                reader.beginArray();
+                for (int index = 0; reader.hasNext(); index++) {
+                    consumer.accept(index, JsonParser.parseReader(reader));
+                }
+                reader.endArray();
+            }
+            reader.endObject();
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new MalformedJsonException("Did not consume the entire document.");
+            }
+        } catch (RequestBodyTooLargeException | JsonIOException e) {
+            throw getRequestBodyReadException(e);
+        } catch (MalformedJsonException | JsonSyntaxException | IllegalStateException | EOFException e) {
+            throw new ServletException(new WebserverAPI.BadRequestException("Invalid Json Input"));
+        }
+        if (!arrayFound) {
+            throw new ServletException(new WebserverAPI.BadRequestException(
+                    "Field name '" + arrayFieldName + "' is invalid in JSON input"));
+        }
+        return result;
+    }
+
+    private static Reader getRequestBodyReader(HttpServletRequest request) throws ServletException, IOException {
+        Object maxSize = request.getAttribute(MAX_REQUEST_BODY_SIZE_ATTRIBUTE);
+        if (!(maxSize instanceof Long)) {
+            return request.getReader();
+        }
+        // reject the request before reading anything if it says how large it is
+        if (request.getContentLengthLong() > (Long) maxSize) {
+            throw new ServletException(new WebserverAPI.BadRequestException("Request body is too large"));
+        }
+        return new SizeLimitedReader(request.getReader(), (Long) maxSize);
+    }
+
+    // throws the IOException that happened while reading the body, or returns the error to send if it was too large
+    private static ServletException getRequestBodyReadException(Exception e) throws IOException {
+        Throwable cause = e instanceof JsonIOException ? e.getCause() : e;
+        if (cause instanceof RequestBodyTooLargeException) {
+            return new ServletException(new WebserverAPI.BadRequestException("Request body is too large"));
+        }
+        if (cause instanceof IOException) {
+            throw (IOException) cause;
+        }
+        return new ServletException(new WebserverAPI.BadRequestException("Invalid Json Input"));
+    }
+
+    private static class RequestBodyTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    // For bodies without a content length. Each character takes at least one byte, so counting characters never
+    // rejects a body that is within the limit.
+    private static class SizeLimitedReader extends FilterReader {
+        private final long maxSize;
+        private long read = 0;
+
+        SizeLimitedReader(Reader in, long maxSize) {
+            super(in);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c != -1) {
+                count(1);
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            int n = super.read(cbuf, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) throws RequestBodyTooLargeException {
+            read += n;
+            if (read > maxSize) {
+                throw new RequestBodyTooLargeException();
+            }
+        }
+    }
+
     public static String getQueryParamOrThrowError(HttpServletRequest request, String fieldName, boolean nullable)
             throws ServletException {
         String value = request.getParameter(fieldName);
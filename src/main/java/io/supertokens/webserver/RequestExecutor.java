@@ -0,0 +1,54 @@
+/*
+ *    Copyright (c) 2024, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.webserver;
+
+import org.apache.catalina.core.StandardThreadExecutor;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// The thread pool that the connector runs requests on (when not using virtual threads). This is the same pool tomcat
+// would create for the connector, except that it can be queried for the connector stats API and counts the requests
+// that were rejected because webserver_max_queued_requests requests were already waiting.
+class RequestExecutor extends StandardThreadExecutor {
+
+    private final AtomicLong rejectedCount = new AtomicLong(0);
+
+    RequestExecutor(int maxThreads, int maxQueueSize) {
+        setName("supertokens-request-executor");
+        setNamePrefix("http-exec-");
+        setMaxThreads(maxThreads);
+        // the core pool size cannot be larger than the max pool size
+        setMinSpareThreads(Math.min(getMinSpareThreads(), maxThreads));
+        setMaxQueueSize(maxQueueSize);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        try {
+            super.execute(command);
+        } catch (RejectedExecutionException e) {
+            // tomcat closes the connection when this is thrown
+            rejectedCount.incrementAndGet();
+            throw e;
+        }
+    }
+
+    long getRejectedCount() {
+        return rejectedCount.get();
+    }
+}
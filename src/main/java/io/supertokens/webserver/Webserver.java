@@ -16,11 +16,13 @@
 
 package io.supertokens.webserver;
 
+import com.google.gson.JsonObject;
 import io.supertokens.Main;
 import io.supertokens.OperatingSystem;
 import io.supertokens.ResourceDistributor;
 import io.supertokens.cliOptions.CLIOptions;
 import io.supertokens.config.Config;
+import io.supertokens.config.CoreConfig;
 import io.supertokens.exceptions.QuitProgramException;
 import io.supertokens.output.Logging;
 import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
@@ -62,9 +64,13 @@ import org.apache.catalina.LifecycleState;
 import org.apache.catalina.connector.Connector;
 import org.apache.catalina.core.StandardContext;
 import org.apache.catalina.startup.Tomcat;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.coyote.http2.Http2Protocol;
 import org.apache.tomcat.util.http.fileupload.FileUtils;
 import org.jetbrains.annotations.TestOnly;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.UUID;
 import java.util.logging.Handler;
@@ -130,10 +136,40 @@ public class Webserver extends ResourceDistributor.SingletonResource {
         tomcat.setBaseDir(tempDirLocation);
 
         // set thread pool size and port
+        CoreConfig config = Config.getBaseConfig(main);
         Connector connector = new Connector();
-        connector.setProperty("maxThreads", Config.getBaseConfig(main).getMaxThreadPoolSize() + "");
-        connector.setPort(Config.getBaseConfig(main).getPort(main));
-        connector.setProperty("address", Config.getBaseConfig(main).getHost(main));
+        RequestExecutor requestExecutor = null;
+        if (config.getWebserverVirtualThreadsEnabled()) {
+            // each request gets its own virtual thread, so maxThreads does not apply. The number of requests that can
+            // be processed at the same time is then limited by maxConnections (and the db connection pool) instead.
+            connector.setProperty("useVirtualThreads", "true");
+        } else {
+            requestExecutor = new RequestExecutor(config.getMaxThreadPoolSize(),
+                    config.getWebserverMaxQueuedRequests() == -1 ? Integer.MAX_VALUE
+                            : config.getWebserverMaxQueuedRequests());
+            // started and stopped along with the connector
+            tomcat.getService().addExecutor(requestExecutor);
+            connector.getProtocolHandler().setExecutor(requestExecutor);
+        }
+        connector.setPort(config.getPort(main));
+        connector.setProperty("address", config.getHost(main));
+
+        // backend SDKs keep connections to the core open, so these decide how many of them the core holds on to and
+        // for how long
+        connector.setProperty("keepAliveTimeout", config.getWebserverKeepAliveTimeout() + "");
+        connector.setProperty("maxKeepAliveRequests", config.getWebserverMaxKeepAliveRequests() + "");
+        connector.setProperty("maxConnections", config.getWebserverMaxConnections() + "");
+        connector.setProperty("acceptCount", config.getWebserverAcceptCount() + "");
+
+        if (config.getWebserverCompressionEnabled()) {
+            // responses that were already gzipped by the API are left as they are
+            connector.setProperty("compression", "on");
+        }
+
+        if (config.getWebserverHttp2Enabled()) {
+            // on a connector without TLS this accepts h2c, both by upgrading from HTTP/1.1 and with prior knowledge
+            connector.addUpgradeProtocol(new Http2Protocol());
+        }
 
         tomcat.setConnector(connector);
 
@@ -163,7 +199,7 @@ public class Webserver extends ResourceDistributor.SingletonResource {
                             + " on this server");
         }
 
-        tomcatReference = new TomcatReference(tomcat, context);
+        tomcatReference = new TomcatReference(tomcat, context, connector, requestExecutor);
 
         setupRoutes();
     }
@@ -183,6 +219,8 @@ public class Webserver extends ResourceDistributor.SingletonResource {
         addAPI(new JWKSPublicAPI(main));
         addAPI(new SessionAPI(main));
         addAPI(new VerifySessionAPI(main));
+        addAPI(new VerifySessionBatchAPI(main));
+        addAPI(new SessionBatchAPI(main));
         addAPI(new RefreshSessionAPI(main));
         addAPI(new SessionUserAPI(main));
         addAPI(new SessionDataAPI(main));
@@ -284,6 +322,8 @@ public class Webserver extends ResourceDistributor.SingletonResource {
         addAPI(new ConsumeResetPasswordAPI(main));
 
         addAPI(new RequestStatsAPI(main));
+        addAPI(new ConnectorStatsAPI(main));
+        addAPI(new APIKeyUsageAPI(main));
         addAPI(new GetTenantCoreConfigForDashboardAPI(main));
 
         addAPI(new BulkImportAPI(main));
@@ -414,6 +454,39 @@ public class Webserver extends ResourceDistributor.SingletonResource {
         }
     }
 
+    public JsonObject getConnectorStats() {
+        TomcatReference tomcatReference = this.tomcatReference;
+        JsonObject stats = new JsonObject();
+        if (tomcatReference == null) {
+            return stats;
+        }
+        ProtocolHandler protocolHandler = tomcatReference.connector.getProtocolHandler();
+
+        if (protocolHandler instanceof AbstractProtocol) {
+            AbstractProtocol<?> protocol = (AbstractProtocol<?>) protocolHandler;
+            JsonObject connections = new JsonObject();
+            connections.addProperty("open", protocol.getConnectionCount());
+            connections.addProperty("max", protocol.getMaxConnections());
+            connections.addProperty("acceptCount", protocol.getAcceptCount());
+            stats.add("connections", connections);
+        }
+
+        RequestExecutor requestExecutor = tomcatReference.requestExecutor;
+        JsonObject threads = new JsonObject();
+        threads.addProperty("virtual", requestExecutor == null);
+        if (requestExecutor != null) {
+            threads.addProperty("busy", requestExecutor.getActiveCount());
+            threads.addProperty("current", requestExecutor.getPoolSize());
+            threads.addProperty("max", requestExecutor.getMaxThreads());
+            // requests that have been read and are waiting for a thread
+            threads.addProperty("queuedRequests", Math.max(requestExecutor.getQueueSize(), 0));
+            threads.addProperty("rejectedRequests", requestExecutor.getRejectedCount());
+        }
+        stats.add("threads", threads);
+
+        return stats;
+    }
+
     @TestOnly
     public TomcatReference getTomcatReference(){
         return tomcatReference;
@@ -422,10 +495,16 @@ public class Webserver extends ResourceDistributor.SingletonResource {
     public static class TomcatReference {
         private Tomcat tomcat;
         private StandardContext context;
+        private Connector connector;
+        @Nullable
+        private RequestExecutor requestExecutor;
 
-        TomcatReference(Tomcat tomcat, StandardContext context) {
+        TomcatReference(Tomcat tomcat, StandardContext context, Connector connector,
+                        @Nullable RequestExecutor requestExecutor) {
             this.tomcat = tomcat;
             this.context = context;
+            this.connector = connector;
+            this.requestExecutor = requestExecutor;
         }
 
         Tomcat getTomcat() {
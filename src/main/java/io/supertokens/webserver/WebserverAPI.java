@@ -16,9 +16,15 @@
 
 package io.supertokens.webserver;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonWriter;
 import io.supertokens.Main;
 import io.supertokens.StorageAndUserIdMapping;
+import io.supertokens.config.APIKeyDigests;
 import io.supertokens.config.Config;
 import io.supertokens.config.CoreConfig;
 import io.supertokens.exceptions.QuitProgramException;
@@ -45,8 +51,14 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.apache.catalina.filters.RemoteAddrFilter;
 
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -81,10 +93,11 @@ public abstract class WebserverAPI extends HttpServlet {
         supportedVersions.add(SemVer.v5_1);
         supportedVersions.add(SemVer.v5_2);
         supportedVersions.add(SemVer.v5_3);
+        supportedVersions.add(SemVer.v5_4);
     }
 
     public static SemVer getLatestCDIVersion() {
-        return SemVer.v5_3;
+        return SemVer.v5_4;
     }
 
     public SemVer getLatestCDIVersionForRequest(HttpServletRequest req)
@@ -115,7 +128,28 @@ public abstract class WebserverAPI extends HttpServlet {
 
     public abstract String getPath();
 
+    // below this, gzip saves too little to be worth the cpu time and the extra round of buffering
+    public static final int GZIP_RESPONSE_THRESHOLD_IN_BYTES = 4 * 1024;
+    // writes nulls and does not escape html characters, same as JsonElement.toString
+    private static final Gson JSON_RESPONSE_GSON = new GsonBuilder().serializeNulls().disableHtmlEscaping()
+            .create();
+    public static final long DEFAULT_MAX_REQUEST_BODY_SIZE_IN_BYTES = 20 * 1024 * 1024;
+
+    // APIs that take larger payloads (like bulk import) override this. The request body is checked against it while
+    // it is being read, so a body that is too large is never kept in memory.
+    protected long getMaxRequestBodySizeInBytes() {
+        return DEFAULT_MAX_REQUEST_BODY_SIZE_IN_BYTES;
+    }
+
     protected void sendTextResponse(int statusCode, String message, HttpServletResponse resp) throws IOException {
+        if (resp.isCommitted()) {
+            // part of a streamed response was already sent, so its status can no longer be changed. Throwing makes
+            // the container abort the response, so that the client does not take the partial body as complete.
+            throw new IllegalStateException(
+                    "Response already committed, could not send: " + statusCode + " " + message);
+        }
+        // removes the start of a response that failed while it was being written
+        resp.resetBuffer();
         resp.setStatus(statusCode);
         resp.setHeader("Content-Type", "text/html; charset=UTF-8");
         resp.getWriter().println(message);
@@ -124,7 +158,133 @@ public abstract class WebserverAPI extends HttpServlet {
     protected void sendJsonResponse(int statusCode, JsonElement json, HttpServletResponse resp) throws IOException {
         resp.setStatus(statusCode);
         resp.setHeader("Content-Type", "application/json; charset=UTF-8");
-        resp.getWriter().println(json.toString());
+        Writer writer = resp.getWriter();
+        // written straight to the response, instead of building the whole body as a string first
+        JSON_RESPONSE_GSON.toJson(json, newJsonWriter(writer));
+        writer.write('\n');
+    }
+
+    /**
+     * Same as sendJsonResponse, but the body is gzipped if the client accepts it and it is larger than
+     * GZIP_RESPONSE_THRESHOLD_IN_BYTES. Meant for APIs that can return large responses.
+     */
+    protected void sendJsonResponse(int statusCode, JsonElement json, HttpServletRequest req,
+                                    HttpServletResponse resp) throws IOException {
+        CompressingResponseStream out = startJsonResponse(statusCode, req, resp);
+        try {
+            JsonWriter writer = newJsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            JSON_RESPONSE_GSON.toJson(json, writer);
+            writer.flush();
+            out.finish();
+        } finally {
+            // discards the response if it could not be written completely
+            out.close();
+        }
+    }
+
+    /**
+     * Sends json with an extra array field whose elements are converted and written one at a time as they are
+     * taken from rows, so that listing APIs do not have to build the full array first.
+     */
+    protected <T> void sendJsonResponseWithArray(int statusCode, JsonObject json, String arrayFieldName,
+                                                 Iterator<T> rows, Function<T, JsonElement> rowToJson,
+                                                 HttpServletRequest req, HttpServletResponse resp)
+            throws IOException {
+        CompressingResponseStream out = startJsonResponse(statusCode, req, resp);
+        try {
+            JsonWriter writer = newJsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.beginObject();
+            for (Map.Entry<String, JsonElement> entry : json.entrySet()) {
+                writer.name(entry.getKey());
+                JSON_RESPONSE_GSON.toJson(entry.getValue(), writer);
+            }
+            writer.name(arrayFieldName).beginArray();
+            while (rows.hasNext()) {
+                JSON_RESPONSE_GSON.toJson(rowToJson.apply(rows.next()), writer);
+            }
+            writer.endArray();
+            writer.endObject();
+            writer.flush();
+            out.finish();
+        } finally {
+            // discards the response if it could not be written completely
+            out.close();
+        }
+    }
+
+    private CompressingResponseStream startJsonResponse(int statusCode, HttpServletRequest req,
+                                                        HttpServletResponse resp) {
+        resp.setStatus(statusCode);
+        resp.setHeader("Content-Type", "application/json; charset=UTF-8");
+        resp.setHeader("Vary", "Accept-Encoding");
+        return new CompressingResponseStream(resp, clientAcceptsGzip(req), GZIP_RESPONSE_THRESHOLD_IN_BYTES);
+    }
+
+    private static JsonWriter newJsonWriter(Writer writer) {
+        JsonWriter jsonWriter = new JsonWriter(writer);
+        // same as JsonElement.toString, which is what responses were written with before
+        jsonWriter.setStrictness(Strictness.LENIENT);
+        return jsonWriter;
+    }
+
+    // gzip is used if it has a q value above 0, or if it is not listed and * has a q value above 0
+    protected static boolean clientAcceptsGzip(HttpServletRequest req) {
+        String acceptEncoding = req.getHeader("Accept-Encoding");
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double anyQuality = null;
+        for (String encoding : acceptEncoding.split(",")) {
+            String[] parts = encoding.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip")) {
+                gzipQuality = getQuality(parts);
+            } else if (name.equals("*")) {
+                anyQuality = getQuality(parts);
+            }
+        }
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return anyQuality != null && anyQuality > 0;
+    }
+
+    // returns the q value of an Accept-Encoding entry, which is 1 if it is missing and 0 if it is invalid
+    private static double getQuality(String[] partsOfEncoding) {
+        for (int i = 1; i < partsOfEncoding.length; i++) {
+            String param = partsOfEncoding[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException ignored) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    // checks the If-None-Match header of a conditional GET against the current ETag of the resource
+    protected static boolean ifNoneMatchMatches(HttpServletRequest req, String etag) {
+        String ifNoneMatch = req.getHeader("If-None-Match");
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*")) {
+                return true;
+            }
+            // If-None-Match uses weak comparison
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
@@ -196,34 +356,40 @@ public abstract class WebserverAPI extends HttpServlet {
     private void assertThatAPIKeyCheckPasses(HttpServletRequest req) throws ServletException {
         try {
             String apiKey = getApiKeyFromRequest(req);
+            TenantIdentifier tenantIdentifier = new TenantIdentifier(getConnectionUriDomain(req), getAppId(req),
+                    getTenantId(req));
+
+            // the configured keys are only stored as digests, so we compare the digest of the api key from the
+            // header with them
+            String apiKeyDigest = null;
 
             // first we try the normal API key
-            String[] keys = Config.getConfig(
-                    new TenantIdentifier(getConnectionUriDomain(req), getAppId(req), getTenantId(req)),
-                    this.main).getAPIKeys();
+            APIKeyDigests keys = Config.getConfig(tenantIdentifier, this.main).getAPIKeyDigests();
             if (keys != null) {
                 if (apiKey == null) {
                     throw new ServletException(new APIKeyUnauthorisedException());
                 }
                 apiKey = apiKey.trim();
-                boolean isAuthorised = false;
-                for (String key : keys) {
-                    isAuthorised = isAuthorised || key.equals(apiKey);
-                }
-                if (isAuthorised) {
+                apiKeyDigest = APIKeyDigests.digest(apiKey);
+                String keyId = keys.getKeyIdIfMatches(apiKeyDigest);
+                if (keyId != null) {
+                    APIKeyUsage.getInstance(main, tenantIdentifier.toAppIdentifier()).recordUsage(keyId);
                     return;
                 }
             }
 
             // if the normal API key did not exist, or did not match the api key from the header, we try the
             // supertokens_saas_secret
-            String superTokensSaaSSecret = Config.getConfig(new TenantIdentifier(null, null, null), this.main)
-                    .getSuperTokensSaaSSecret();
+            APIKeyDigests superTokensSaaSSecret = Config.getConfig(new TenantIdentifier(null, null, null), this.main)
+                    .getSuperTokensSaaSSecretDigest();
             if (superTokensSaaSSecret != null) {
                 if (apiKey == null) {
                     throw new ServletException(new APIKeyUnauthorisedException());
                 }
-                if (apiKey.equals(superTokensSaaSSecret)) {
+                if (apiKeyDigest == null) {
+                    apiKeyDigest = APIKeyDigests.digest(apiKey);
+                }
+                if (superTokensSaaSSecret.getKeyIdIfMatches(apiKeyDigest) != null) {
                     return;
                 }
             }
@@ -487,6 +653,8 @@ public abstract class WebserverAPI extends HttpServlet {
 
             SemVer version = getVersionFromRequest(req);
 
+            req.setAttribute(InputParser.MAX_REQUEST_BODY_SIZE_ATTRIBUTE, getMaxRequestBodySizeInBytes());
+
             // Check for CDI version for multitenancy
             if (version.lesserThan(SemVer.v3_0) &&
                     !tenantIdentifier.getTenantId().equals(TenantIdentifier.DEFAULT_TENANT_ID)) {
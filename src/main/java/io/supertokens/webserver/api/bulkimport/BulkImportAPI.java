@@ -102,16 +102,11 @@ public class BulkImportAPI extends WebserverAPI {
             JsonObject result = new JsonObject();
             result.addProperty("status", "OK");
 
-            JsonArray usersJson = new JsonArray();
-            for (BulkImportUser user : users.users) {
-                usersJson.add(user.toJsonObject());
-            }
-            result.add("users", usersJson);
-
             if (users.nextPaginationToken != null) {
                 result.addProperty("nextPaginationToken", users.nextPaginationToken);
             }
-            super.sendJsonResponse(200, result, resp);
+            super.sendJsonResponseWithArray(200, result, "users", users.users.iterator(), BulkImportUser::toJsonObject,
+                    req, resp);
         } catch (BulkImportUserPaginationToken.InvalidTokenException e) {
             Logging.debug(main, null, Utils.exceptionStacktraceToString(e));
             throw new ServletException(new BadRequestException("invalid pagination token"));
@@ -120,6 +115,12 @@ public class BulkImportAPI extends WebserverAPI {
         }
     }
 
+    @Override
+    protected long getMaxRequestBodySizeInBytes() {
+        // up to BulkImport.MAX_USERS_TO_ADD users, each with several login methods, roles and metadata
+        return 200 * 1024 * 1024;
+    }
+
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
         // API is app specific
@@ -128,24 +129,6 @@ public class BulkImportAPI extends WebserverAPI {
             throw new ServletException(new BadRequestException("This API is not supported in the in-memory database."));
         }
 
-        JsonObject input = InputParser.parseJsonObjectOrThrowError(req);
-        JsonArray users = InputParser.parseArrayOrThrowError(input, "users", false);
-
-        if (users.size() == 0) {
-            JsonObject result = new JsonObject();
-            result.addProperty("status", "OK");
-            super.sendJsonResponse(200, result, resp);
-            return;
-        }
-
-        if (users.size() > BulkImport.MAX_USERS_TO_ADD) {
-            JsonObject errorResponseJson = new JsonObject();
-            String errorMsg = users.size() <= 0 ? "You need to add at least one user."
-                    : "You can only add " + BulkImport.MAX_USERS_TO_ADD + " users at a time.";
-            errorResponseJson.addProperty("error", errorMsg);
-            throw new ServletException(new WebserverAPI.BadRequestException(errorResponseJson.toString()));
-        }
-
         AppIdentifier appIdentifier = null;
         Storage storage = null;
 
@@ -167,10 +150,22 @@ public class BulkImportAPI extends WebserverAPI {
         JsonArray errorsJson = new JsonArray();
         List<BulkImportUser> usersToAdd = new ArrayList<>();
 
+        // users are validated as they are read from the request body, so that only the parsed users are kept in
+        // memory and not the json of all of them as well
         BulkImportUserUtils bulkImportUserUtils = new BulkImportUserUtils(allUserRoles);
-        for (int i = 0; i < users.size(); i++) {
+        AppIdentifier finalAppIdentifier = appIdentifier;
+        int[] numberOfUsers = new int[1];
+        InputParser.parseJsonObjectStreamingArrayOrThrowError(req, "users", (i, userJson) -> {
+            if (i >= BulkImport.MAX_USERS_TO_ADD) {
+                JsonObject errorResponseJson = new JsonObject();
+                errorResponseJson.addProperty("error",
+                        "You can only add " + BulkImport.MAX_USERS_TO_ADD + " users at a time.");
+                throw new ServletException(new WebserverAPI.BadRequestException(errorResponseJson.toString()));
+            }
+            numberOfUsers[0]++;
             try {
-                BulkImportUser user = bulkImportUserUtils.createBulkImportUserFromJSON(main, appIdentifier, users.get(i).getAsJsonObject(), BulkImportUserUtils.IDMode.GENERATE);
+                BulkImportUser user = bulkImportUserUtils.createBulkImportUserFromJSON(main, finalAppIdentifier,
+                        userJson.getAsJsonObject(), BulkImportUserUtils.IDMode.GENERATE);
                 usersToAdd.add(user);
             } catch (io.supertokens.bulkimport.exceptions.InvalidBulkImportDataException e) {
                 JsonObject errorObj = new JsonObject();
@@ -185,6 +180,13 @@ public class BulkImportAPI extends WebserverAPI {
             } catch (StorageQueryException | TenantOrAppNotFoundException e) {
                 throw new ServletException(e);
             }
+        });
+
+        if (numberOfUsers[0] == 0) {
+            JsonObject result = new JsonObject();
+            result.addProperty("status", "OK");
+            super.sendJsonResponse(200, result, resp);
+            return;
         }
 
         if (errorsJson.size() > 0) {
@@ -203,11 +205,7 @@ public class BulkImportAPI extends WebserverAPI {
 
         JsonObject result = new JsonObject();
         result.addProperty("status", "OK");
-        JsonArray responseUsers = new JsonArray();
-        for(BulkImportUser user : usersToAdd){
-            responseUsers.add(user.toResponseJson());
-        }
-        result.add("users", responseUsers);
-        super.sendJsonResponse(200, result, resp);
+        super.sendJsonResponseWithArray(200, result, "users", usersToAdd.iterator(), BulkImportUser::toResponseJson,
+                req, resp);
     }
 }
@@ -16,10 +16,6 @@
 
 package io.supertokens.webserver.api.core;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import io.supertokens.Main;
 import io.supertokens.jwt.exceptions.UnsupportedJWTSigningAlgorithmException;
 import io.supertokens.pluginInterface.exceptions.StorageQueryException;
@@ -34,7 +30,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
-import java.util.List;
 
 public class JWKSPublicAPI extends WebserverAPI {
     public JWKSPublicAPI(Main main) {
@@ -62,12 +57,28 @@ public class JWKSPublicAPI extends WebserverAPI {
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException {
         try {
             SigningKeys signingKeys = SigningKeys.getInstance(this.getAppIdentifier(req), main);
-            List<JsonObject> jwks = signingKeys.getJWKS();
-            JsonObject reply = new JsonObject();
-            JsonArray jwksJsonArray = new JsonParser().parse(new Gson().toJson(jwks)).getAsJsonArray();
-            reply.add("keys", jwksJsonArray);
+            // the document is rebuilt only when the keys change, so most requests just write out cached bytes
+            SigningKeys.JWKSDocument jwks = signingKeys.getJWKSDocument();
+            boolean gzip = clientAcceptsGzip(req);
             resp.setHeader("Cache-Control", "max-age=" + signingKeys.getCacheDurationInSeconds() + ", must-revalidate");
-            super.sendJsonResponse(200, reply, resp);
+            resp.setHeader("ETag", gzip ? jwks.gzippedEtag : jwks.etag);
+            resp.setHeader("Vary", "Accept-Encoding");
+
+            // either ETag means that the client has the current key set, whichever encoding it was sent with
+            if (ifNoneMatchMatches(req, jwks.etag) || ifNoneMatchMatches(req, jwks.gzippedEtag)) {
+                resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+
+            byte[] body = jwks.json;
+            if (gzip) {
+                body = jwks.gzippedJson;
+                resp.setHeader("Content-Encoding", "gzip");
+            }
+            resp.setStatus(200);
+            resp.setHeader("Content-Type", "application/json; charset=UTF-8");
+            resp.setContentLength(body.length);
+            resp.getOutputStream().write(body);
         } catch (StorageQueryException | StorageTransactionLogicException | NoSuchAlgorithmException
                  | InvalidKeySpecException | TenantOrAppNotFoundException | UnsupportedJWTSigningAlgorithmException e) {
             throw new ServletException(e);
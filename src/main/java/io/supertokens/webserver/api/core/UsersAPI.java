@@ -16,8 +16,6 @@
 
 package io.supertokens.webserver.api.core;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import io.supertokens.Main;
 import io.supertokens.authRecipe.AuthRecipe;
@@ -26,7 +24,6 @@ import io.supertokens.authRecipe.UserPaginationToken;
 import io.supertokens.output.Logging;
 import io.supertokens.pluginInterface.RECIPE_ID;
 import io.supertokens.pluginInterface.Storage;
-import io.supertokens.pluginInterface.authRecipe.AuthRecipeUserInfo;
 import io.supertokens.pluginInterface.dashboard.DashboardSearchTags;
 import io.supertokens.pluginInterface.exceptions.StorageQueryException;
 import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
@@ -42,6 +39,7 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.stream.Stream;
 
 public class UsersAPI extends WebserverAPI {
@@ -175,31 +173,25 @@ public class UsersAPI extends WebserverAPI {
             JsonObject result = new JsonObject();
             result.addProperty("status", "OK");
 
-            JsonArray usersJson = new JsonArray();
-            for (AuthRecipeUserInfo user : users.users) {
-                if (getVersionFromRequest(req).lesserThan(SemVer.v4_0)) {
+            if (users.nextPaginationToken != null) {
+                result.addProperty("nextPaginationToken", users.nextPaginationToken);
+            }
+
+            SemVer version = getVersionFromRequest(req);
+            // each user is converted to json only as it is written to the response
+            super.sendJsonResponseWithArray(200, result, "users", Arrays.asList(users.users).iterator(), user -> {
+                if (version.lesserThan(SemVer.v4_0)) {
                     JsonObject jsonObj = new JsonObject();
                     jsonObj.addProperty("recipeId", user.loginMethods[0].recipeId.toString());
                     JsonObject userJson = user.toJsonWithoutAccountLinking();
+                    if (version.lesserThan(SemVer.v3_0)) {
+                        userJson.remove("tenantIds");
+                    }
                     jsonObj.add("user", userJson);
-                    usersJson.add(jsonObj);
-                } else {
-                    usersJson.add(user.toJson(getVersionFromRequest(req).greaterThanOrEqualTo(SemVer.v5_3)));
-                }
-            }
-
-            if (getVersionFromRequest(req).lesserThan(SemVer.v3_0)) {
-                for (JsonElement user : usersJson) {
-                    user.getAsJsonObject().get("user").getAsJsonObject().remove("tenantIds");
+                    return jsonObj;
                 }
-            }
-
-            result.add("users", usersJson);
-
-            if (users.nextPaginationToken != null) {
-                result.addProperty("nextPaginationToken", users.nextPaginationToken);
-            }
-            super.sendJsonResponse(200, result, resp);
+                return user.toJson(version.greaterThanOrEqualTo(SemVer.v5_3));
+            }, req, resp);
         } catch (UserPaginationToken.InvalidTokenException e) {
             Logging.debug(main, tenantIdentifier, Utils.exceptionStacktraceToString(e));
             throw new ServletException(new BadRequestException("invalid pagination token"));
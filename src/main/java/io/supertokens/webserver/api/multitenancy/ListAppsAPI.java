@@ -102,7 +102,7 @@ public class ListAppsAPI extends WebserverAPI {
             result.addProperty("status", "OK");
             result.add("apps", appsArray);
 
-            super.sendJsonResponse(200, result, resp);
+            super.sendJsonResponse(200, result, req, resp);
 
         } catch (TenantOrAppNotFoundException | BadPermissionException e) {
             throw new ServletException(e);
@@ -94,7 +94,7 @@ public class ListAppsV2API extends WebserverAPI {
             result.addProperty("status", "OK");
             result.add("apps", appsArray);
 
-            super.sendJsonResponse(200, result, resp);
+            super.sendJsonResponse(200, result, req, resp);
 
         } catch (TenantOrAppNotFoundException | BadPermissionException e) {
             throw new ServletException(e);
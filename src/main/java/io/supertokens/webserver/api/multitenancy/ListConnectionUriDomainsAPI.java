@@ -120,7 +120,7 @@ public class ListConnectionUriDomainsAPI extends WebserverAPI {
             result.addProperty("status", "OK");
             result.add("connectionUriDomains", cudArray);
 
-            super.sendJsonResponse(200, result, resp);
+            super.sendJsonResponse(200, result, req, resp);
 
         } catch (TenantOrAppNotFoundException | BadPermissionException e) {
             throw new ServletException(e);
@@ -81,7 +81,7 @@ public class ListTenantsAPI extends WebserverAPI {
             result.addProperty("status", "OK");
             result.add("tenants", tenantsArray);
 
-            super.sendJsonResponse(200, result, resp);
+            super.sendJsonResponse(200, result, req, resp);
 
         } catch (TenantOrAppNotFoundException | BadPermissionException e) {
             throw new ServletException(e);
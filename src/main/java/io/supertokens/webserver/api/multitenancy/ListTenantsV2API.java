@@ -73,7 +73,7 @@ public class ListTenantsV2API extends WebserverAPI {
             result.addProperty("status", "OK");
             result.add("tenants", tenantsArray);
 
-            super.sendJsonResponse(200, result, resp);
+            super.sendJsonResponse(200, result, req, resp);
 
         } catch (TenantOrAppNotFoundException | BadPermissionException e) {
             throw new ServletException(e);
@@ -0,0 +1,126 @@
+/*
+ *    Copyright (c) 2024, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.webserver.api.session;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+import io.supertokens.Main;
+import io.supertokens.pluginInterface.RECIPE_ID;
+import io.supertokens.pluginInterface.exceptions.StorageQueryException;
+import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
+import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
+import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
+import io.supertokens.pluginInterface.session.SessionInfo;
+import io.supertokens.session.Session;
+import io.supertokens.utils.SemVer;
+import io.supertokens.utils.Utils;
+import io.supertokens.webserver.InputParser;
+import io.supertokens.webserver.WebserverAPI;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class SessionBatchAPI extends WebserverAPI {
+
+    private static final long serialVersionUID = -4436216407815324791L;
+
+    // Also keeps the IN (...) query used to fetch the sessions well below the bound parameter limit of SQLite
+    public static final int MAX_SESSION_HANDLES_PER_REQUEST = 500;
+
+    public SessionBatchAPI(Main main) {
+        super(main, RECIPE_ID.SESSION.toString());
+    }
+
+    @Override
+    public String getPath() {
+        return "/recipe/session/batch";
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException {
+        // API is app specific but tenant id is derived from each session handle
+        JsonObject input = InputParser.parseJsonObjectOrThrowError(req);
+        JsonArray sessionHandlesJson = InputParser.parseArrayOrThrowError(input, "sessionHandles", false);
+        assert sessionHandlesJson != null;
+
+        if (sessionHandlesJson.size() > MAX_SESSION_HANDLES_PER_REQUEST) {
+            throw new ServletException(new WebserverAPI.BadRequestException(
+                    "Field name 'sessionHandles' cannot contain more than " + MAX_SESSION_HANDLES_PER_REQUEST
+                            + " elements"));
+        }
+
+        List<String> sessionHandles = new ArrayList<>(sessionHandlesJson.size());
+        for (JsonElement sessionHandle : sessionHandlesJson) {
+            if (!sessionHandle.isJsonPrimitive() || !sessionHandle.getAsJsonPrimitive().isString()) {
+                throw new ServletException(
+                        new WebserverAPI.BadRequestException("Field name 'sessionHandles' is invalid in JSON input"));
+            }
+            sessionHandles.add(sessionHandle.getAsString());
+        }
+
+        Map<String, SessionInfo> sessions;
+        try {
+            AppIdentifier appIdentifier = getAppIdentifier(req);
+            sessions = Session.getSessionsByHandles(main, appIdentifier, sessionHandles);
+        } catch (TenantOrAppNotFoundException | StorageQueryException e) {
+            throw new ServletException(e);
+        }
+
+        SemVer version = getVersionFromRequest(req);
+        Gson gson = new Gson();
+
+        // the sessions are written one by one instead of building the whole reply in memory first
+        resp.setStatus(200);
+        resp.setHeader("Content-Type", "application/json; charset=UTF-8");
+        JsonWriter writer = new JsonWriter(resp.getWriter());
+        writer.beginObject();
+        writer.name("status").value("OK");
+        writer.name("sessions").beginArray();
+        for (SessionInfo sessionInfo : sessions.values()) {
+            // same as /recipe/session GET
+            JsonObject sessionJson = gson.toJsonTree(sessionInfo).getAsJsonObject();
+            sessionJson.add("userDataInJWT", Utils.toJsonTreeWithNulls(sessionInfo.userDataInJWT));
+            sessionJson.add("userDataInDatabase", Utils.toJsonTreeWithNulls(sessionInfo.userDataInDatabase));
+            if (version.greaterThanOrEqualTo(SemVer.v3_0)) {
+                String tenantId = Session.getTenantIdFromSessionHandle(sessionInfo.sessionHandle);
+                sessionJson.addProperty("tenantId", tenantId == null ? TenantIdentifier.DEFAULT_TENANT_ID : tenantId);
+            }
+            if (version.lesserThan(SemVer.v4_0)) {
+                sessionJson.remove("recipeUserId");
+            }
+            gson.toJson(sessionJson, writer);
+        }
+        writer.endArray();
+        writer.name("invalidSessionHandles").beginArray();
+        for (String sessionHandle : sessionHandles) {
+            if (!sessions.containsKey(sessionHandle)) {
+                writer.value(sessionHandle);
+            }
+        }
+        writer.endArray();
+        writer.endObject();
+        writer.flush();
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ *    Copyright (c) 2024, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.webserver.api.session;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import io.supertokens.Main;
+import io.supertokens.exceptions.AccessTokenPayloadError;
+import io.supertokens.exceptions.TryRefreshTokenException;
+import io.supertokens.exceptions.UnauthorisedException;
+import io.supertokens.jwt.exceptions.UnsupportedJWTSigningAlgorithmException;
+import io.supertokens.output.Logging;
+import io.supertokens.pluginInterface.RECIPE_ID;
+import io.supertokens.pluginInterface.exceptions.StorageQueryException;
+import io.supertokens.pluginInterface.exceptions.StorageTransactionLogicException;
+import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
+import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
+import io.supertokens.session.Session;
+import io.supertokens.session.info.SessionVerificationResult;
+import io.supertokens.utils.SemVer;
+import io.supertokens.utils.Utils;
+import io.supertokens.webserver.InputParser;
+import io.supertokens.webserver.WebserverAPI;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class VerifySessionBatchAPI extends WebserverAPI {
+
+    private static final long serialVersionUID = 2957493841262937385L;
+
+    // Also keeps the IN (...) query used with checkDatabase well below the bound parameter limit of SQLite
+    public static final int MAX_SESSIONS_PER_REQUEST = 500;
+
+    public VerifySessionBatchAPI(Main main) {
+        super(main, RECIPE_ID.SESSION.toString());
+    }
+
+    @Override
+    public String getPath() {
+        return "/recipe/session/verify/batch";
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException {
+        // API is app specific, but the sessions are fetched based on the tenantId obtained from each accessToken
+        JsonObject input = InputParser.parseJsonObjectOrThrowError(req);
+        JsonArray sessions = InputParser.parseArrayOrThrowError(input, "sessions", false);
+        assert sessions != null;
+        Boolean doAntiCsrfCheck = InputParser.parseBooleanOrThrowError(input, "doAntiCsrfCheck", false);
+        assert doAntiCsrfCheck != null;
+        Boolean enableAntiCsrf = InputParser.parseBooleanOrThrowError(input, "enableAntiCsrf", false);
+        assert enableAntiCsrf != null;
+        Boolean checkDatabase = InputParser.parseBooleanOrThrowError(input, "checkDatabase", false);
+        assert checkDatabase != null;
+
+        if (sessions.size() > MAX_SESSIONS_PER_REQUEST) {
+            throw new ServletException(new WebserverAPI.BadRequestException(
+                    "Field name 'sessions' cannot contain more than " + MAX_SESSIONS_PER_REQUEST + " elements"));
+        }
+
+        List<String> accessTokens = new ArrayList<>(sessions.size());
+        List<String> antiCsrfTokens = new ArrayList<>(sessions.size());
+        for (JsonElement session : sessions) {
+            if (!session.isJsonObject()) {
+                throw new ServletException(
+                        new WebserverAPI.BadRequestException("Field name 'sessions' is invalid in JSON input"));
+            }
+            String accessToken = InputParser.parseStringOrThrowError(session.getAsJsonObject(), "accessToken",
+                    false);
+            assert accessToken != null;
+            accessTokens.add(accessToken);
+            antiCsrfTokens.add(
+                    InputParser.parseStringOrThrowError(session.getAsJsonObject(), "antiCsrfToken", true));
+        }
+
+        AppIdentifier appIdentifier;
+        try {
+            appIdentifier = this.getAppIdentifier(req);
+        } catch (TenantOrAppNotFoundException e) {
+            throw new ServletException(e);
+        }
+
+        try {
+            List<SessionVerificationResult> results = Session.getSessions(appIdentifier, main, accessTokens,
+                    antiCsrfTokens, enableAntiCsrf, doAntiCsrfCheck, checkDatabase);
+
+            JsonArray resultsJson = new JsonArray();
+            for (SessionVerificationResult result : results) {
+                JsonObject resultJson;
+                if (result.sessionInfo != null) {
+                    resultJson = result.sessionInfo.toJsonObject();
+                    resultJson.addProperty("status", "OK");
+                    if (getVersionFromRequest(req).lesserThan(SemVer.v3_0)) {
+                        resultJson.get("session").getAsJsonObject().remove("tenantId");
+                    }
+                    if (getVersionFromRequest(req).lesserThan(SemVer.v4_0)) {
+                        resultJson.get("session").getAsJsonObject().remove("recipeUserId");
+                    }
+                } else {
+                    // one invalid token should not fail the other ones, so errors that would be a 400 for
+                    // /recipe/session/verify get their own status here
+                    Logging.debug(main, appIdentifier.getAsPublicTenantIdentifier(),
+                            Utils.exceptionStacktraceToString(result.error));
+                    resultJson = new JsonObject();
+                    resultJson.addProperty("status", getErrorStatus(result.error));
+                    resultJson.addProperty("message", result.error.getMessage());
+                }
+                resultsJson.add(resultJson);
+            }
+
+            JsonObject reply = new JsonObject();
+            reply.addProperty("status", "OK");
+            reply.add("sessions", resultsJson);
+            super.sendJsonResponse(200, reply, resp);
+        } catch (StorageQueryException | StorageTransactionLogicException | TenantOrAppNotFoundException |
+                 UnsupportedJWTSigningAlgorithmException e) {
+            throw new ServletException(e);
+        }
+    }
+
+    private static String getErrorStatus(Exception error) {
+        if (error instanceof UnauthorisedException) {
+            return "UNAUTHORISED";
+        }
+        if (error instanceof TryRefreshTokenException) {
+            return "TRY_REFRESH_TOKEN";
+        }
+        if (error instanceof AccessTokenPayloadError) {
+            return "INVALID_ACCESS_TOKEN_PAYLOAD_ERROR";
+        }
+        if (error instanceof TenantOrAppNotFoundException) {
+            return "TENANT_NOT_FOUND_ERROR";
+        }
+        throw new IllegalStateException("should never happen", error);
+    }
+}
@@ -22,9 +22,11 @@ import com.google.gson.JsonParser;
 import io.supertokens.Main;
 import io.supertokens.ProcessState;
 import io.supertokens.cliOptions.CLIOptions;
+import io.supertokens.config.APIKeyDigests;
 import io.supertokens.config.Config;
 import io.supertokens.test.httpRequest.HttpRequestForTesting;
 import io.supertokens.test.httpRequest.HttpRequestMocking;
+import io.supertokens.test.httpRequest.HttpResponseException;
 import io.supertokens.utils.SemVer;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -303,6 +305,62 @@ public class APIKeysTest {
         assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
     }
 
+    @Test
+    public void testAPIKeyUsageIsCounted() throws Exception {
+        String[] args = {"../"};
+
+        String apiKey1 = "hg40239oirjgBHD9450=Beew123-1";
+        String apiKey2 = "hg40239oirjgBHD9450=Beew123-2";
+
+        Utils.setValueInConfig("api_keys", apiKey1 + "," + apiKey2); // set api_keys
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        JsonObject request = new JsonObject();
+        request.addProperty("userId", "userId");
+        request.add("userDataInJWT", new JsonObject());
+        request.add("userDataInDatabase", new JsonObject());
+        request.addProperty("enableAntiCsrf", false);
+
+        for (int i = 0; i < 3; i++) {
+            HttpRequestForTesting.sendJsonPOSTRequest(process.getProcess(), "",
+                    "http://localhost:3567/recipe/session", request, 1000, 1000, null, SemVer.v2_21.get(),
+                    apiKey1, "");
+        }
+
+        // a request with an invalid key is not counted
+        try {
+            HttpRequestForTesting.sendJsonPOSTRequest(process.getProcess(), "", "http://localhost:3567/recipe/session",
+                    request, 1000, 1000, null, Utils.getCdiVersionStringLatestForTests(), "abd#%034t0g4in40t40v0j");
+            fail();
+        } catch (HttpResponseException e) {
+            assertEquals(401, e.statusCode);
+        }
+
+        String keyId1 = APIKeyDigests.digest(apiKey1).substring(0, 8);
+        String keyId2 = APIKeyDigests.digest(apiKey2).substring(0, 8);
+
+        // this request is also made with apiKey1
+        JsonObject response = HttpRequestForTesting.sendGETRequest(process.getProcess(), "",
+                "http://localhost:3567/api-keys/usage", null, 1000, 1000, null,
+                Utils.getCdiVersionStringLatestForTests(), apiKey1, "");
+        assertEquals("OK", response.get("status").getAsString());
+
+        Map<String, JsonObject> keys = new HashMap<>();
+        for (JsonElement key : response.getAsJsonArray("keys")) {
+            keys.put(key.getAsJsonObject().get("keyId").getAsString(), key.getAsJsonObject());
+        }
+        assertEquals(2, keys.size());
+        assertEquals(4, keys.get(keyId1).get("requestCount").getAsLong());
+        assertTrue(keys.get(keyId1).get("lastUsedTime").getAsLong() > 0);
+        assertEquals(0, keys.get(keyId2).get("requestCount").getAsLong());
+        assertFalse(keys.get(keyId2).has("lastUsedTime"));
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
     // - set API key like " key1, key2 , key3,key4 " and check that each of the keys work (the spaces are important)
     // * - set API key and check that request with " key ", " key" and "key" work
     @Test
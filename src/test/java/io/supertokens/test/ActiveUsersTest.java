@@ -2,11 +2,17 @@ package io.supertokens.test;
 
 import com.google.gson.JsonObject;
 import io.supertokens.ActiveUsers;
+import io.supertokens.ActiveUsersBuffer;
 import io.supertokens.Main;
 import io.supertokens.ProcessState;
+import io.supertokens.ResourceDistributor;
+import io.supertokens.authRecipe.AuthRecipe;
+import io.supertokens.emailpassword.EmailPassword;
 import io.supertokens.featureflag.EE_FEATURES;
 import io.supertokens.featureflag.FeatureFlagTestContent;
 import io.supertokens.pluginInterface.STORAGE_TYPE;
+import io.supertokens.pluginInterface.authRecipe.AuthRecipeUserInfo;
+import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
 import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
 import io.supertokens.storageLayer.StorageLayer;
 import io.supertokens.test.httpRequest.HttpRequestForTesting;
@@ -73,6 +79,115 @@ public class ActiveUsersTest {
         assert ActiveUsers.countUsersActiveSince(main, now) == 2; // user1 and user2 are counted
     }
 
+    @Test
+    public void countUsersActiveSinceForEachDayMatchesPerDayCountsTest() throws Exception {
+        String[] args = {"../"};
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        Main main = process.getProcess();
+        AppIdentifier appIdentifier = ResourceDistributor.getAppForTesting().toAppIdentifier();
+
+        ActiveUsers.updateLastActive(main, "user1");
+        ActiveUsers.updateLastActive(main, "user2");
+
+        long now = System.currentTimeMillis();
+        int[] counts = ActiveUsers.countUsersActiveSinceForEachDay(main, appIdentifier, now, 31);
+        assert counts.length == 31;
+        for (int i = 1; i <= 31; i++) {
+            long timestamp = now - (i * 24 * 60 * 60 * 1000L);
+            assert counts[i - 1] == ActiveUsers.countUsersActiveSince(main, appIdentifier, timestamp);
+            assert counts[i - 1] == 2;
+        }
+
+        // from 40 days in the future, both users are more than 31 days old
+        counts = ActiveUsers.countUsersActiveSinceForEachDay(main, appIdentifier,
+                now + (40 * 24 * 60 * 60 * 1000L), 31);
+        for (int count : counts) {
+            assert count == 0;
+        }
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void updateLastActiveIsBufferedUntilFlushedTest() throws Exception {
+        String[] args = {"../"};
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        Main main = process.getProcess();
+        AppIdentifier appIdentifier = ResourceDistributor.getAppForTesting().toAppIdentifier();
+        ActiveUsersBuffer buffer = ActiveUsersBuffer.getInstance(main);
+
+        ActiveUsers.updateLastActive(main, "user1");
+        ActiveUsers.updateLastActive(main, "user1");
+        ActiveUsers.updateLastActive(main, "user2");
+
+        // repeated updates of the same user are coalesced
+        assert buffer.getNumberOfPendingUpdates(appIdentifier) == 2;
+
+        // counting writes the pending updates first
+        assert ActiveUsers.countUsersActiveSince(main, 0) == 2;
+        assert buffer.getNumberOfPendingUpdates(appIdentifier) == 0;
+
+        // a discarded update is never written
+        ActiveUsers.updateLastActive(main, "user3");
+        buffer.discard(appIdentifier, "user3");
+        assert ActiveUsers.countUsersActiveSince(main, 0) == 2;
+
+        // the buffer is flushed once it is full
+        for (int i = 0; i < ActiveUsersBuffer.MAX_PENDING_UPDATES_PER_APP; i++) {
+            ActiveUsers.updateLastActive(main, "bulkUser" + i);
+        }
+        assert buffer.getNumberOfPendingUpdates(appIdentifier) == 0;
+        assert ActiveUsers.countUsersActiveSince(main, 0) == 2 + ActiveUsersBuffer.MAX_PENDING_UPDATES_PER_APP;
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void deletingAUserOnlyDropsItsPendingUpdateTest() throws Exception {
+        String[] args = {"../"};
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        Main main = process.getProcess();
+        AppIdentifier appIdentifier = ResourceDistributor.getAppForTesting().toAppIdentifier();
+        ActiveUsersBuffer buffer = ActiveUsersBuffer.getInstance(main);
+
+        AuthRecipeUserInfo user = EmailPassword.signUp(main, "test@example.com", "password123");
+        ActiveUsers.updateLastActive(main, user.getSupertokensUserId());
+        ActiveUsers.updateLastActive(main, "user2");
+        assert buffer.getNumberOfPendingUpdates(appIdentifier) == 2;
+
+        AuthRecipe.deleteUser(main, user.getSupertokensUserId());
+
+        // the update of the other user is still buffered, and the deleted user's row is not recreated
+        assert buffer.getNumberOfPendingUpdates(appIdentifier) == 1;
+        assert ActiveUsers.countUsersActiveSince(main, 0) == 1;
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
     @Test
     public void activeUserCountAPITest() throws Exception {
         String[] args = {"../"};
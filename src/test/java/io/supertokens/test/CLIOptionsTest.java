@@ -34,6 +34,9 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.*;
 
@@ -104,6 +107,24 @@ public class CLIOptionsTest {
 
     }
 
+    @Test
+    public void testExitAfterStartup() throws Exception {
+        String[] args = {"../", "exitAfterStartup=true"};
+
+        TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
+
+        Map<String, Long> phaseTimes = process.getProcess().getStartupPhaseTimesInMillis();
+        assertEquals(List.of("config", "pluginLoad", "storageInit", "tenantLoad", "featureFlags", "signingKeys",
+                "cronjobs", "webserverStart"), new ArrayList<>(phaseTimes.keySet()));
+        for (Long time : phaseTimes.values()) {
+            assertTrue(time >= 0);
+        }
+
+        process.kill();
+    }
+
     @Test
     public void testMultipleInstancesAtTheSameTime() throws Exception {
         String[] args = {"../", "port=3567"};
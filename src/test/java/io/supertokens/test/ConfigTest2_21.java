@@ -16,6 +16,7 @@
 
 package io.supertokens.test;
 
+import com.google.gson.JsonObject;
 import io.supertokens.ProcessState.EventAndException;
 import io.supertokens.ProcessState.PROCESS_STATE;
 import io.supertokens.config.Config;
@@ -109,4 +110,29 @@ public class ConfigTest2_21 {
         EventAndException stopEvent = process.checkOrWaitForEvent(PROCESS_STATE.STOPPED);
         assertNotNull(stopEvent);
     }
+
+    @Test
+    public void testBaseConfigIsReadAgainOnlyWhenTheFileChanges() throws Exception {
+        Utils.setValueInConfig("access_token_validity", "3600");
+
+        String[] args = {"../"};
+
+        TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+
+        JsonObject baseConfig = Config.getBaseConfigAsJsonObject(process.getProcess());
+        assertEquals(3600, baseConfig.get("access_token_validity").getAsInt());
+
+        // changing the returned object does not change what the next caller gets
+        baseConfig.addProperty("access_token_validity", 1);
+        assertEquals(3600,
+                Config.getBaseConfigAsJsonObject(process.getProcess()).get("access_token_validity").getAsInt());
+
+        Utils.setValueInConfig("access_token_validity", "7200000");
+        assertEquals(7200000,
+                Config.getBaseConfigAsJsonObject(process.getProcess()).get("access_token_validity").getAsInt());
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
+    }
 }
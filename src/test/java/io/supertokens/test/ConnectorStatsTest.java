@@ -0,0 +1,192 @@
+/*
+ *    Copyright (c) 2024, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.test;
+
+import com.google.gson.JsonObject;
+import io.supertokens.ProcessState;
+import io.supertokens.test.httpRequest.HttpRequestForTesting;
+import io.supertokens.webserver.Webserver;
+import io.supertokens.webserver.WebserverAPI;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ConnectorStatsTest {
+    @Rule
+    public TestRule watchman = Utils.getOnFailure();
+
+    @Rule
+    public TestRule retryFlaky = Utils.retryFlakyTest();
+
+    @AfterClass
+    public static void afterTesting() {
+        Utils.afterTesting();
+    }
+
+    @Before
+    public void beforeEach() {
+        Utils.reset();
+    }
+
+    private static JsonObject getStats(TestingProcessManager.TestingProcess process) throws Exception {
+        return HttpRequestForTesting.sendGETRequest(process.getProcess(), "",
+                "http://localhost:3567/connector/stats", null, 5000, 5000, null,
+                Utils.getCdiVersionStringLatestForTests(), null);
+    }
+
+    @Test
+    public void testConnectorUsesConfig() throws Exception {
+        Utils.setValueInConfig("max_server_pool_size", "5");
+        Utils.setValueInConfig("webserver_max_connections", "50");
+        Utils.setValueInConfig("webserver_accept_count", "20");
+
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        JsonObject stats = getStats(process);
+        assertEquals("OK", stats.get("status").getAsString());
+
+        JsonObject connections = stats.getAsJsonObject("connections");
+        assertEquals(50, connections.get("max").getAsInt());
+        assertEquals(20, connections.get("acceptCount").getAsInt());
+        assertTrue(connections.get("open").getAsLong() >= 1);
+
+        JsonObject threads = stats.getAsJsonObject("threads");
+        assertFalse(threads.get("virtual").getAsBoolean());
+        assertEquals(5, threads.get("max").getAsInt());
+        // this request is being processed on one of them
+        assertTrue(threads.get("busy").getAsInt() >= 1);
+        assertEquals(0, threads.get("queuedRequests").getAsInt());
+        assertEquals(0, threads.get("rejectedRequests").getAsLong());
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void testRequestsAreRejectedWhenQueueIsFull() throws Exception {
+        Utils.setValueInConfig("max_server_pool_size", "1");
+        Utils.setValueInConfig("webserver_max_queued_requests", "1");
+
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        Webserver.getInstance(process.getProcess()).addAPI(new WebserverAPI(process.getProcess(), "") {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public String getPath() {
+                return "/testforqueue";
+            }
+
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                try {
+                    Thread.sleep(2000);
+                } catch (InterruptedException ignored) {
+                }
+                super.sendTextResponse(200, "success", resp);
+            }
+        });
+
+        // the only thread is busy with the first request and only one request can wait for it, so the third one is
+        // rejected
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    HttpURLConnection con = (HttpURLConnection) new URL(
+                            "http://localhost:3567/testforqueue").openConnection();
+                    con.setReadTimeout(5000);
+                    con.getResponseCode();
+                } catch (IOException ignored) {
+                }
+            });
+            thread.start();
+            threads.add(thread);
+            Thread.sleep(200);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        JsonObject stats = getStats(process);
+        assertEquals(1, stats.getAsJsonObject("threads").get("rejectedRequests").getAsLong());
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void testVirtualThreads() throws Exception {
+        Utils.setValueInConfig("webserver_virtual_threads_enabled", "true");
+
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        JsonObject stats = getStats(process);
+        assertEquals("OK", stats.get("status").getAsString());
+        assertEquals(8192, stats.getAsJsonObject("connections").get("max").getAsInt());
+        JsonObject threads = stats.getAsJsonObject("threads");
+        assertTrue(threads.get("virtual").getAsBoolean());
+        assertFalse(threads.has("busy"));
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void testInvalidConnectorConfig() throws Exception {
+        String[][] invalidConfigs = new String[][]{
+                {"webserver_keep_alive_timeout", "0", "'webserver_keep_alive_timeout' must be > 0"},
+                {"webserver_max_keep_alive_requests", "0", "'webserver_max_keep_alive_requests' must be -1 or >= 1"},
+                {"webserver_max_connections", "-2", "'webserver_max_connections' must be -1 or >= 1"},
+                {"webserver_accept_count", "0", "'webserver_accept_count' must be >= 1"},
+                {"webserver_max_queued_requests", "0", "'webserver_max_queued_requests' must be -1 or >= 1"},
+        };
+
+        String[] args = {"../"};
+        for (String[] invalidConfig : invalidConfigs) {
+            Utils.reset();
+            Utils.setValueInConfig(invalidConfig[0], invalidConfig[1]);
+
+            TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+            ProcessState.EventAndException e = process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.INIT_FAILURE);
+            assertNotNull(e);
+            assertEquals(invalidConfig[2], e.exception.getCause().getMessage());
+
+            process.kill();
+            assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+        }
+    }
+}
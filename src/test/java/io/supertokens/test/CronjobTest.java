@@ -964,7 +964,7 @@ public class CronjobTest {
         {
             List<List<List<TenantIdentifier>>> tenantsInfos = Cronjobs.getInstance(process.getProcess())
                     .getTenantInfos();
-            assertEquals(13, tenantsInfos.size());
+            assertEquals(15, tenantsInfos.size());
             int count = 0;
             for (List<List<TenantIdentifier>> tenantsInfo : tenantsInfos) {
                 if (tenantsInfo != null) {
@@ -976,7 +976,7 @@ public class CronjobTest {
                     count++;
                 }
             }
-            assertEquals(12, count);
+            assertEquals(14, count);
         }
 
         process.kill(false);
@@ -993,7 +993,7 @@ public class CronjobTest {
         {
             List<List<List<TenantIdentifier>>> tenantsInfos = Cronjobs.getInstance(process.getProcess())
                     .getTenantInfos();
-            assertEquals(13, tenantsInfos.size());
+            assertEquals(15, tenantsInfos.size());
             int count = 0;
             for (List<List<TenantIdentifier>> tenantsInfo : tenantsInfos) {
                 if (tenantsInfo != null) {
@@ -1005,7 +1005,7 @@ public class CronjobTest {
                     count++;
                 }
             }
-            assertEquals(12, count);
+            assertEquals(14, count);
         }
 
         process.kill();
@@ -1056,6 +1056,9 @@ public class CronjobTest {
         intervals.put("io.supertokens.cronjobs.cleanupOAuthSessionsAndChallenges.CleanupOAuthSessionsAndChallenges",
                 86400);
         intervals.put("io.supertokens.cronjobs.cleanupWebauthnExpiredData.CleanUpWebauthNExpiredDataCron", 86400);
+        intervals.put("io.supertokens.cronjobs.flushActiveUsers.FlushActiveUsers", 10);
+        intervals.put("io.supertokens.cronjobs.preGenerateAccessTokenSigningKeys.PreGenerateAccessTokenSigningKeys",
+                300);
 
         Map<String, Integer> delays = new HashMap<>();
         delays.put("io.supertokens.ee.cronjobs.EELicenseCheck", 86400);
@@ -1074,9 +1077,11 @@ public class CronjobTest {
         delays.put("io.supertokens.cronjobs.cleanupOAuthSessionsAndChallenges.CleanupOAuthSessionsAndChallenges",
                 0);
         delays.put("io.supertokens.cronjobs.cleanupWebauthnExpiredData.CleanUpWebauthNExpiredDataCron", 0);
+        delays.put("io.supertokens.cronjobs.flushActiveUsers.FlushActiveUsers", 0);
+        delays.put("io.supertokens.cronjobs.preGenerateAccessTokenSigningKeys.PreGenerateAccessTokenSigningKeys", 0);
 
         List<CronTask> allTasks = Cronjobs.getInstance(process.getProcess()).getTasks();
-        assertEquals(13, allTasks.size());
+        assertEquals(15, allTasks.size());
 
         for (CronTask task : allTasks) {
             System.out.println(task.getClass().getName());
@@ -16,11 +16,13 @@
 
 package io.supertokens.test;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import io.supertokens.ProcessState;
 import io.supertokens.pluginInterface.STORAGE_TYPE;
 import io.supertokens.storageLayer.StorageLayer;
 import io.supertokens.webserver.InputParser;
+import io.supertokens.webserver.WebserverAPI;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.Rule;
@@ -28,6 +30,13 @@ import org.junit.Test;
 import org.junit.rules.TestRule;
 
 import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.mockito.Mockito;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -107,4 +116,95 @@ public class InputParserTest {
         process.kill();
         assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
     }
+
+    private static HttpServletRequest mockRequest(String body, Long maxSize, long contentLength) throws Exception {
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.getReader()).thenReturn(new BufferedReader(new StringReader(body)));
+        Mockito.when(request.getAttribute(InputParser.MAX_REQUEST_BODY_SIZE_ATTRIBUTE)).thenReturn(maxSize);
+        Mockito.when(request.getContentLengthLong()).thenReturn(contentLength);
+        return request;
+    }
+
+    private static String getErrorMessage(ThrowingRunnable runnable) throws Exception {
+        try {
+            runnable.run();
+        } catch (ServletException e) {
+            return e.getRootCause().getMessage();
+        }
+        fail();
+        return null;
+    }
+
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
+    @Test
+    public void testParseJsonObjectStreamingArray() throws Exception {
+        String body = "{\"a\": 1, \"users\": [{\"id\": 0}, {\"id\": 1}, {\"id\": 2}], \"b\": {\"c\": true}}";
+
+        List<JsonElement> elements = new ArrayList<>();
+        JsonObject rest = InputParser.parseJsonObjectStreamingArrayOrThrowError(mockRequest(body, null, -1),
+                "users", (index, element) -> {
+                    assertEquals(elements.size(), index);
+                    elements.add(element);
+                });
+
+        assertEquals(3, elements.size());
+        for (int i = 0; i < elements.size(); i++) {
+            assertEquals(i, elements.get(i).getAsJsonObject().get("id").getAsInt());
+        }
+        assertEquals(2, rest.entrySet().size());
+        assertEquals(1, rest.get("a").getAsInt());
+        assertTrue(rest.get("b").getAsJsonObject().get("c").getAsBoolean());
+
+        // errors thrown by the consumer stop the parsing
+        String message = getErrorMessage(() -> InputParser.parseJsonObjectStreamingArrayOrThrowError(
+                mockRequest(body, null, -1), "users", (index, element) -> {
+                    if (index == 1) {
+                        throw new ServletException(new WebserverAPI.BadRequestException("stop"));
+                    }
+                }));
+        assertEquals("stop", message);
+
+        assertEquals("Field name 'users' is invalid in JSON input", getErrorMessage(
+                () -> InputParser.parseJsonObjectStreamingArrayOrThrowError(mockRequest("{\"a\": 1}", null, -1),
+                        "users", (index, element) -> {
+                        })));
+        assertEquals("Field name 'users' is invalid in JSON input", getErrorMessage(
+                () -> InputParser.parseJsonObjectStreamingArrayOrThrowError(
+                        mockRequest("{\"users\": \"abc\"}", null, -1), "users", (index, element) -> {
+                        })));
+        assertEquals("Invalid Json Input", getErrorMessage(
+                () -> InputParser.parseJsonObjectStreamingArrayOrThrowError(
+                        mockRequest("{\"users\": [{}, ", null, -1), "users", (index, element) -> {
+                        })));
+        assertEquals("Invalid Json Input", getErrorMessage(
+                () -> InputParser.parseJsonObjectStreamingArrayOrThrowError(
+                        mockRequest("[]", null, -1), "users", (index, element) -> {
+                        })));
+    }
+
+    @Test
+    public void testRequestBodySizeLimit() throws Exception {
+        String body = "{\"field\": \"" + "a".repeat(100) + "\"}";
+
+        assertEquals("a".repeat(100), InputParser.parseJsonObjectOrThrowError(
+                mockRequest(body, (long) body.length(), body.length())).get("field").getAsString());
+
+        // rejected from the content length before reading the body
+        assertEquals("Request body is too large", getErrorMessage(() -> InputParser.parseJsonObjectOrThrowError(
+                mockRequest(body, (long) body.length() - 1, body.length()))));
+
+        // rejected while reading the body if there is no content length
+        assertEquals("Request body is too large", getErrorMessage(() -> InputParser.parseJsonObjectOrThrowError(
+                mockRequest(body, (long) body.length() - 1, -1))));
+        assertEquals("Request body is too large", getErrorMessage(
+                () -> InputParser.parseJsonObjectStreamingArrayOrThrowError(
+                        mockRequest("{\"users\": [" + body + "]}", 50L, -1), "users", (index, element) -> {
+                        })));
+
+        assertEquals("Invalid Json Input", getErrorMessage(() -> InputParser.parseJsonObjectOrThrowError(
+                mockRequest("{\"field\": ", 100L, -1))));
+    }
 }
@@ -18,6 +18,7 @@ package io.supertokens.test;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import io.supertokens.ProcessState;
 import io.supertokens.httpRequest.HttpRequest;
 import io.supertokens.test.httpRequest.HttpRequestForTesting;
@@ -27,10 +28,15 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TestRule;
 
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.Assert.*;
 
@@ -116,6 +122,70 @@ public class JWKSPublicAPITest {
         assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
     }
 
+    @Test
+    public void testETagAndConditionalGet() throws Exception {
+        String[] args = {"../"};
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        String url = "http://localhost:" + HttpRequestForTesting.corePort + "/.well-known/jwks.json";
+
+        HttpURLConnection con = (HttpURLConnection) new URL(url).openConnection();
+        assertEquals(200, con.getResponseCode());
+        String etag = con.getHeaderField("ETag");
+        assertNotNull(etag);
+        String body;
+        try (InputStream in = con.getInputStream()) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        JsonObject response = new JsonParser().parse(body).getAsJsonObject();
+        assertEquals(2, response.get("keys").getAsJsonArray().size());
+
+        // the same key set gives the same etag
+        con = (HttpURLConnection) new URL(url).openConnection();
+        assertEquals(200, con.getResponseCode());
+        assertEquals(etag, con.getHeaderField("ETag"));
+
+        // conditional GET
+        con = (HttpURLConnection) new URL(url).openConnection();
+        con.setRequestProperty("If-None-Match", etag);
+        assertEquals(304, con.getResponseCode());
+        assertEquals(etag, con.getHeaderField("ETag"));
+        assertNotNull(con.getHeaderField("Cache-Control"));
+
+        con = (HttpURLConnection) new URL(url).openConnection();
+        con.setRequestProperty("If-None-Match", "\"someotheretag\"");
+        assertEquals(200, con.getResponseCode());
+
+        // gzip
+        con = (HttpURLConnection) new URL(url).openConnection();
+        con.setRequestProperty("Accept-Encoding", "gzip");
+        assertEquals(200, con.getResponseCode());
+        assertEquals("gzip", con.getHeaderField("Content-Encoding"));
+        String gzipEtag = con.getHeaderField("ETag");
+        assertEquals(etag.substring(0, etag.length() - 1) + "-gzip\"", gzipEtag);
+        try (InputStream in = new GZIPInputStream(con.getInputStream())) {
+            assertEquals(body, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        // conditional GETs with either etag match, in either encoding
+        for (String ifNoneMatch : new String[]{etag, gzipEtag}) {
+            for (boolean acceptGzip : new boolean[]{true, false}) {
+                con = (HttpURLConnection) new URL(url).openConnection();
+                con.setRequestProperty("If-None-Match", ifNoneMatch);
+                if (acceptGzip) {
+                    con.setRequestProperty("Accept-Encoding", "gzip");
+                }
+                assertEquals(304, con.getResponseCode());
+                assertEquals(acceptGzip ? gzipEtag : etag, con.getHeaderField("ETag"));
+            }
+        }
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
     private static long getMaxAgeValue(String input) {
         String pattern = "max-age=(\\d+)";
         Pattern r = Pattern.compile(pattern);
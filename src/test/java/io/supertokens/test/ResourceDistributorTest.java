@@ -18,6 +18,7 @@ package io.supertokens.test;
 
 import io.supertokens.ProcessState;
 import io.supertokens.ResourceDistributor;
+import io.supertokens.exceptions.QuitProgramException;
 import io.supertokens.featureflag.EE_FEATURES;
 import io.supertokens.featureflag.FeatureFlagTestContent;
 import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
@@ -29,6 +30,11 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TestRule;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import static org.junit.Assert.*;
 
 public class ResourceDistributorTest {
@@ -110,4 +116,166 @@ public class ResourceDistributorTest {
         assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
 
     }
+
+    @Test
+    public void testRunInParallelCanUseResourcesWhileTheLockIsHeld() throws Exception {
+        String[] args = {"../"};
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        ResourceDistributor resourceDistributor = process.getProcess().getResourceDistributor();
+        AppIdentifier a1 = new AppIdentifier(null, "a1");
+        resourceDistributor.setResource(a1, ResourceA.RESOURCE_ID, new ResourceA());
+
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        List<ResourceDistributor.Func<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int taskNumber = i;
+            tasks.add(() -> {
+                threadNames.add(Thread.currentThread().getName());
+                try {
+                    assertTrue(resourceDistributor.getResource(a1, ResourceA.RESOURCE_ID) instanceof ResourceA);
+                    // a missing resource does not refresh the tenants (which needs the lock)
+                    resourceDistributor.getResource(new AppIdentifier(null, "a2"), ResourceA.RESOURCE_ID);
+                    fail();
+                } catch (TenantOrAppNotFoundException ignored) {
+                }
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException ignored) {
+                }
+                return taskNumber;
+            });
+        }
+
+        List<Integer> results = resourceDistributor.withResourceDistributorLock(
+                () -> resourceDistributor.runInParallel(tasks, 4));
+
+        assertEquals(20, results.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, (int) results.get(i));
+        }
+        assertTrue(threadNames.size() > 1 && threadNames.size() <= 4);
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void testRunInParallelThrowsRuntimeExceptionsAsTheyAre() throws Exception {
+        String[] args = {"../"};
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        ResourceDistributor resourceDistributor = process.getProcess().getResourceDistributor();
+        for (int maxThreads : new int[]{1, 4}) {
+            List<ResourceDistributor.Func<Integer>> tasks = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                int taskNumber = i;
+                tasks.add(() -> {
+                    if (taskNumber == 5) {
+                        throw new QuitProgramException("Multiple database plugins found");
+                    }
+                    return taskNumber;
+                });
+            }
+
+            try {
+                resourceDistributor.runInParallel(tasks, maxThreads);
+                fail();
+            } catch (QuitProgramException e) {
+                assertEquals("Multiple database plugins found", e.getMessage());
+            }
+        }
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void testResourceCreatedOnFirstUseIsCreatedOnceWhenUsedInParallel() throws Exception {
+        String[] args = {"../"};
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        ResourceDistributor resourceDistributor = process.getProcess().getResourceDistributor();
+        Set<ResourceDistributor.SingletonResource> instances = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            threads.add(new Thread(() -> {
+                try {
+                    instances.add(resourceDistributor.getOrCreateAppResourceOnFirstUse(
+                            new AppIdentifier(null, null), ResourceA.RESOURCE_ID, app -> {
+                                try {
+                                    Thread.sleep(10);
+                                } catch (InterruptedException ignored) {
+                                }
+                                return new ResourceA();
+                            }));
+                } catch (TenantOrAppNotFoundException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, instances.size());
+        assertSame(instances.iterator().next(),
+                resourceDistributor.getResource(new AppIdentifier(null, null), ResourceA.RESOURCE_ID));
+
+        try {
+            resourceDistributor.getOrCreateAppResourceOnFirstUse(new AppIdentifier(null, "a1"),
+                    ResourceA.RESOURCE_ID, app -> new ResourceA());
+            fail();
+        } catch (TenantOrAppNotFoundException ignored) {
+        }
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void testRunInParallelReusesItsThreads() throws Exception {
+        String[] args = {"../"};
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        ResourceDistributor resourceDistributor = process.getProcess().getResourceDistributor();
+        Set<Thread> threadsOfFirstRun = ConcurrentHashMap.newKeySet();
+        Set<Thread> threadsOfSecondRun = ConcurrentHashMap.newKeySet();
+        for (Set<Thread> threads : List.of(threadsOfFirstRun, threadsOfSecondRun)) {
+            List<ResourceDistributor.Func<Integer>> tasks = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                int taskNumber = i;
+                tasks.add(() -> {
+                    threads.add(Thread.currentThread());
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException ignored) {
+                    }
+                    return taskNumber;
+                });
+            }
+            resourceDistributor.runInParallel(tasks, 4);
+        }
+
+        assertTrue(threadsOfFirstRun.size() > 1 && threadsOfFirstRun.size() <= 4);
+        assertTrue(threadsOfFirstRun.containsAll(threadsOfSecondRun));
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+        for (Thread thread : threadsOfFirstRun) {
+            thread.join(1000);
+            assertFalse(thread.isAlive());
+        }
+    }
 }
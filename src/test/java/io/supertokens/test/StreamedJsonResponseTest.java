@@ -0,0 +1,160 @@
+/*
+ *    Copyright (c) 2025, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.supertokens.ProcessState;
+import io.supertokens.webserver.Webserver;
+import io.supertokens.webserver.WebserverAPI;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class StreamedJsonResponseTest {
+    @Rule
+    public TestRule watchman = Utils.getOnFailure();
+
+    @AfterClass
+    public static void afterTesting() {
+        Utils.afterTesting();
+    }
+
+    @Before
+    public void beforeEach() {
+        Utils.reset();
+    }
+
+    // every row is a little over 100 bytes, and converting row number failAt throws
+    private static void addFailingRowsAPI(TestingProcessManager.TestingProcess process) {
+        Webserver.getInstance(process.getProcess()).addAPI(new WebserverAPI(process.getProcess(), "") {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public boolean checkAPIKey(HttpServletRequest req) {
+                return false;
+            }
+
+            @Override
+            public String getPath() {
+                return "/failing-rows";
+            }
+
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException,
+                    ServletException {
+                int failAt = Integer.parseInt(req.getParameter("failAt"));
+                JsonObject result = new JsonObject();
+                result.addProperty("status", "OK");
+                super.sendJsonResponseWithArray(200, result, "rows", IntStream.range(0, failAt + 1).iterator(),
+                        i -> {
+                            if (i == failAt) {
+                                throw new IllegalStateException("row could not be converted");
+                            }
+                            JsonObject row = new JsonObject();
+                            row.addProperty("value", "x".repeat(100));
+                            return row;
+                        }, req, resp);
+            }
+        });
+    }
+
+    private static HttpURLConnection openConnection(int failAt, boolean acceptGzip) throws Exception {
+        HttpURLConnection con = (HttpURLConnection) new URL(
+                "http://localhost:3567/failing-rows?failAt=" + failAt).openConnection();
+        con.setRequestProperty("cdi-version", WebserverAPI.getLatestCDIVersion().get());
+        if (acceptGzip) {
+            con.setRequestProperty("Accept-Encoding", "gzip");
+        }
+        return con;
+    }
+
+    private static String readErrorBody(HttpURLConnection con) throws Exception {
+        try (InputStream in = con.getErrorStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testFailureWhileWritingAResponseIsSentAsAnError() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        addFailingRowsAPI(process);
+
+        // 5 rows are held back by the response stream, 60 rows are more than GZIP_RESPONSE_THRESHOLD_IN_BYTES but
+        // still in the container's buffer
+        for (int failAt : new int[]{5, 60}) {
+            for (boolean acceptGzip : new boolean[]{false, true}) {
+                HttpURLConnection con = openConnection(failAt, acceptGzip);
+                assertEquals(500, con.getResponseCode());
+                assertNull(con.getHeaderField("Content-Encoding"));
+                assertTrue(con.getHeaderField("Content-Type").startsWith("text/html"));
+                assertEquals("java.lang.IllegalStateException: row could not be converted",
+                        readErrorBody(con).trim());
+            }
+        }
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void testFailureAfterTheResponseWasCommittedAbortsIt() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        addFailingRowsAPI(process);
+
+        // the status has already been sent, but the client must not get a complete body
+        HttpURLConnection con = openConnection(2000, false);
+        assertEquals(200, con.getResponseCode());
+        String body = null;
+        try (InputStream in = con.getInputStream()) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException ignored) {
+            // the connection was closed before the end of the body
+        }
+        if (body != null) {
+            try {
+                JsonParser.parseString(body);
+                fail();
+            } catch (Exception ignored) {
+            }
+        }
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+}
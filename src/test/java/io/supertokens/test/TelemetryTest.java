@@ -42,6 +42,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.*;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
 
 import static org.junit.Assert.*;
 
@@ -114,6 +115,30 @@ public class TelemetryTest extends Mockito {
         assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
     }
 
+    @Test
+    public void testRunTimesAreRecorded() throws Exception {
+        String[] args = {"../"};
+
+        TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+
+        // the first run starts right away
+        Telemetry telemetry = Telemetry.getInstance(process.getProcess());
+        long waitUntil = System.currentTimeMillis() + 10000;
+        while (telemetry.getLastRunDurationInMillis() == -1 && System.currentTimeMillis() < waitUntil) {
+            Thread.sleep(100);
+        }
+
+        assertTrue(telemetry.getLastRunDurationInMillis() >= 0);
+        Map<AppIdentifier, Long> timeTakenPerApp = telemetry.getLastRunTimeTakenPerAppInMillis();
+        assertEquals(1, timeTakenPerApp.size());
+        assertTrue(timeTakenPerApp.get(new AppIdentifier(null, null)) >= 0);
+        assertTrue(timeTakenPerApp.get(new AppIdentifier(null, null)) <= telemetry.getLastRunDurationInMillis());
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
+    }
+
     @Test
     public void testThatTelemetryWorks() throws Exception {
         String[] args = {"../"};
@@ -16,6 +16,8 @@
 
 package io.supertokens.test;
 
+import io.supertokens.utils.CryptoPrimitives;
+import io.supertokens.utils.Utils.PubPriKey;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.Rule;
@@ -23,6 +25,8 @@ import org.junit.Test;
 import org.junit.rules.TestRule;
 
 import java.net.MalformedURLException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 
 import static org.junit.Assert.*;
 
@@ -52,7 +56,7 @@ public class UtilsTest {
 
     @Test
     public void pubPriKeyShouldHandleSemicolonSeparator() {
-        io.supertokens.utils.Utils.PubPriKey parsed = new io.supertokens.utils.Utils.PubPriKey("pub;pri");
+        PubPriKey parsed = new PubPriKey("pub;pri");
 
         assert (parsed.privateKey.equals("pri"));
         assert (parsed.publicKey.equals("pub"));
@@ -60,7 +64,7 @@ public class UtilsTest {
 
     @Test
     public void pubPriKeyShouldHandleBarSeparator() {
-        io.supertokens.utils.Utils.PubPriKey parsed = new io.supertokens.utils.Utils.PubPriKey("pub|pri");
+        PubPriKey parsed = new PubPriKey("pub|pri");
 
         assert (parsed.privateKey.equals("pri"));
         assert (parsed.publicKey.equals("pub"));
@@ -243,4 +247,37 @@ public class UtilsTest {
         String gotResult = io.supertokens.utils.Utils.camelCaseToSnakeCase(original);
         assertEquals(expectedResult, gotResult);
     }
+
+    @Test
+    public void cryptoOperationsGiveTheSameResultsWithReusedEngines() throws Exception {
+        String hash = io.supertokens.utils.Utils.hashSHA256("content");
+        byte[] hmac = io.supertokens.utils.Utils.hmacSHA256(new byte[32], "content");
+        PubPriKey key = io.supertokens.utils.Utils.generateNewPubPriKey();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(hash, io.supertokens.utils.Utils.hashSHA256("content"));
+            assertArrayEquals(hmac, io.supertokens.utils.Utils.hmacSHA256(new byte[32], "content"));
+
+            String encrypted = io.supertokens.utils.Utils.encrypt("content" + i, "masterKey");
+            assertEquals("content" + i, io.supertokens.utils.Utils.decrypt(encrypted, "masterKey"));
+
+            String signature = io.supertokens.utils.Utils.signWithPrivateKey("content" + i, key.privateKey, true);
+            assertTrue(io.supertokens.utils.Utils.verifyWithPublicKey("content" + i, signature, key.publicKey,
+                    true));
+            assertFalse(io.supertokens.utils.Utils.verifyWithPublicKey("other", signature, key.publicKey, true));
+        }
+
+        // a released engine is reused, but an engine is never given to two callers at once
+        MessageDigest first = CryptoPrimitives.messageDigest("SHA-256");
+        MessageDigest second = CryptoPrimitives.messageDigest("SHA-256");
+        assertNotSame(first, second);
+        first.update(new byte[]{1, 2, 3});
+        CryptoPrimitives.release(first);
+        MessageDigest reused = CryptoPrimitives.messageDigest("SHA-256");
+        assertSame(first, reused);
+        // the data given to it before it was released is not part of the next digest
+        assertEquals(hash, io.supertokens.utils.Utils.bytesToString(
+                reused.digest("content".getBytes(StandardCharsets.UTF_8))));
+        CryptoPrimitives.release(reused);
+        CryptoPrimitives.release(second);
+    }
 }
@@ -733,6 +733,58 @@ public class WebserverTest extends Mockito {
 
     }
 
+    @Test
+    public void virtualThreadsAreNotLimitedByServerThreadPoolSize() throws InterruptedException, IOException {
+        Utils.setValueInConfig("max_server_pool_size", "1");
+        Utils.setValueInConfig("webserver_virtual_threads_enabled", "true");
+
+        String[] args = {"../"};
+        TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+
+        boolean[] ranOnVirtualThread = new boolean[]{true};
+        Webserver.getInstance(process.getProcess()).addAPI(new WebserverAPI(process.getProcess(), "") {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public String getPath() {
+                return "/testforthreadpool";
+            }
+
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                if (!Thread.currentThread().isVirtual()) {
+                    ranOnVirtualThread[0] = false;
+                }
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException ignored) {
+                }
+                super.sendTextResponse(200, "success", resp);
+            }
+        });
+
+        // with a thread pool of size 1, one of these would time out (see serverThreadPoolSizeOne)
+        ThreadPoolTester p1 = new ThreadPoolTester(process);
+        Thread t1 = new Thread(p1);
+        t1.start();
+
+        ThreadPoolTester p2 = new ThreadPoolTester(process);
+        Thread t2 = new Thread(p2);
+        t2.start();
+
+        t1.join();
+        t2.join();
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
+
+        assertFalse(p1.timedout);
+        assertFalse(p2.timedout);
+        assertTrue(ranOnVirtualThread[0]);
+    }
+
     @Test
     public void serverThreadPoolSizeTwo() throws InterruptedException, IOException {
         Utils.setValueInConfig("max_server_pool_size", "2");
@@ -0,0 +1,182 @@
+/*
+ *    Copyright (c) 2024, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.test.authRecipe;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.supertokens.ProcessState;
+import io.supertokens.emailpassword.EmailPassword;
+import io.supertokens.pluginInterface.STORAGE_TYPE;
+import io.supertokens.storageLayer.StorageLayer;
+import io.supertokens.test.TestingProcessManager;
+import io.supertokens.test.Utils;
+import io.supertokens.utils.SemVer;
+import io.supertokens.webserver.WebserverAPI;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class GetUsersAPICompressionTest {
+    @Rule
+    public TestRule watchman = Utils.getOnFailure();
+
+    @Rule
+    public TestRule retryFlaky = Utils.retryFlakyTest();
+
+    @AfterClass
+    public static void afterTesting() {
+        Utils.afterTesting();
+    }
+
+    @Before
+    public void beforeEach() {
+        Utils.reset();
+    }
+
+    private static HttpURLConnection openConnection(String url, boolean acceptGzip) throws Exception {
+        return openConnection(url, acceptGzip ? "gzip" : null);
+    }
+
+    private static HttpURLConnection openConnection(String url, String acceptEncoding) throws Exception {
+        HttpURLConnection con = (HttpURLConnection) new URL(url).openConnection();
+        con.setRequestProperty("cdi-version", SemVer.v5_3.get());
+        if (acceptEncoding != null) {
+            con.setRequestProperty("Accept-Encoding", acceptEncoding);
+        }
+        return con;
+    }
+
+    private static String readBody(HttpURLConnection con) throws Exception {
+        try (InputStream in = "gzip".equals(con.getHeaderField("Content-Encoding"))
+                ? new GZIPInputStream(con.getInputStream()) : con.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testLargeResponsesAreCompressedOnlyIfClientAcceptsIt() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        for (int i = 0; i < 50; i++) {
+            EmailPassword.signUp(process.getProcess(), "test" + i + "@example.com", "testPass123");
+        }
+
+        String url = "http://localhost:3567/users?limit=50";
+
+        HttpURLConnection con = openConnection(url, false);
+        assertEquals(200, con.getResponseCode());
+        assertNull(con.getHeaderField("Content-Encoding"));
+        assertEquals("Accept-Encoding", con.getHeaderField("Vary"));
+        String body = readBody(con);
+        assertTrue(body.length() > WebserverAPI.GZIP_RESPONSE_THRESHOLD_IN_BYTES);
+
+        JsonObject response = JsonParser.parseString(body).getAsJsonObject();
+        assertEquals("OK", response.get("status").getAsString());
+        JsonArray users = response.getAsJsonArray("users");
+        assertEquals(50, users.size());
+        assertEquals("test0@example.com", users.get(0).getAsJsonObject().get("emails").getAsJsonArray().get(0)
+                .getAsString());
+
+        con = openConnection(url, true);
+        assertEquals(200, con.getResponseCode());
+        assertEquals("gzip", con.getHeaderField("Content-Encoding"));
+        assertEquals(body, readBody(con));
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void testSmallResponsesAreNotCompressed() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        EmailPassword.signUp(process.getProcess(), "test@example.com", "testPass123");
+        EmailPassword.signUp(process.getProcess(), "test2@example.com", "testPass123");
+
+        HttpURLConnection con = openConnection("http://localhost:3567/users?limit=1", true);
+        assertEquals(200, con.getResponseCode());
+        assertNull(con.getHeaderField("Content-Encoding"));
+        String body = readBody(con);
+        assertEquals(body.getBytes(StandardCharsets.UTF_8).length, con.getContentLength());
+
+        JsonObject response = JsonParser.parseString(body).getAsJsonObject();
+        assertEquals("OK", response.get("status").getAsString());
+        assertEquals(1, response.getAsJsonArray("users").size());
+        assertTrue(response.has("nextPaginationToken"));
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void testAllEntriesOfAcceptEncodingAreChecked() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        for (int i = 0; i < 50; i++) {
+            EmailPassword.signUp(process.getProcess(), "test" + i + "@example.com", "testPass123");
+        }
+
+        String url = "http://localhost:3567/users?limit=50";
+        String[] compressed = {"br, gzip;q=0.5", "*;q=0, gzip", "identity, *;q=0.1", "gzip;q=0.2, *;q=0"};
+        String[] notCompressed = {"gzip;q=0, *", "*;q=0", "identity, gzip;q=0.0", "br", "gzip;q=abc"};
+
+        for (String acceptEncoding : compressed) {
+            HttpURLConnection con = openConnection(url, acceptEncoding);
+            assertEquals(200, con.getResponseCode());
+            assertEquals(acceptEncoding, "gzip", con.getHeaderField("Content-Encoding"));
+            readBody(con);
+        }
+        for (String acceptEncoding : notCompressed) {
+            HttpURLConnection con = openConnection(url, acceptEncoding);
+            assertEquals(200, con.getResponseCode());
+            assertNull(acceptEncoding, con.getHeaderField("Content-Encoding"));
+            readBody(con);
+        }
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+}
@@ -269,6 +269,50 @@ public class GetUsersWithSearchTagsTest {
         assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
     }
 
+    @Test
+    public void testSearchResultsFollowEmailUpdatesAndDeletes() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        String userId1 = EmailPassword.signUp(process.getProcess(), "test@example.com", "testPass123")
+                .getSupertokensUserId();
+        String userId2 = EmailPassword.signUp(process.getProcess(), "user@other.com", "testPass123")
+                .getSupertokensUserId();
+
+        ArrayList<String> emailList = new ArrayList<>();
+        emailList.add("exam");
+        DashboardSearchTags tags = new DashboardSearchTags(emailList, null, null);
+
+        {
+            UserPaginationContainer info = AuthRecipe.getUsers(process.getProcess(), 10, "ASC", null, null, tags);
+            assertEquals(1, info.users.length);
+            assertEquals(userId1, info.users[0].getSupertokensUserId());
+        }
+
+        // after the email update, only the second user's domain matches
+        EmailPassword.updateUsersEmailOrPassword(process.getProcess(), userId1, "test@changed.com", null);
+        EmailPassword.updateUsersEmailOrPassword(process.getProcess(), userId2, "user@example.com", null);
+        {
+            UserPaginationContainer info = AuthRecipe.getUsers(process.getProcess(), 10, "ASC", null, null, tags);
+            assertEquals(1, info.users.length);
+            assertEquals(userId2, info.users[0].getSupertokensUserId());
+        }
+
+        AuthRecipe.deleteUser(process.getProcess(), userId2);
+        {
+            UserPaginationContainer info = AuthRecipe.getUsers(process.getProcess(), 10, "ASC", null, null, tags);
+            assertEquals(0, info.users.length);
+        }
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
+    }
+
     @Test
     public void testThatQueryLimitIsCappedAt1000PerTable() throws Exception {
         String[] args = {"../"};
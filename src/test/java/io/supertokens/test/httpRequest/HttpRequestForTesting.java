@@ -60,11 +60,19 @@ public class HttpRequestForTesting {
         }
     }
 
-    @SuppressWarnings("unchecked")
     public static <T> T sendGETRequest(Main main, String requestID, String url, Map<String, String> params,
                                        int connectionTimeoutMS, int readTimeoutMS, Integer version, String cdiVersion,
                                        String rid)
             throws IOException, io.supertokens.test.httpRequest.HttpResponseException {
+        return sendGETRequest(main, requestID, url, params, connectionTimeoutMS, readTimeoutMS, version, cdiVersion,
+                null, rid);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T sendGETRequest(Main main, String requestID, String url, Map<String, String> params,
+                                       int connectionTimeoutMS, int readTimeoutMS, Integer version, String cdiVersion,
+                                       String apiKey, String rid)
+            throws IOException, io.supertokens.test.httpRequest.HttpResponseException {
 
         if (!disableAddingAppId && !url.contains("appid-") && !url.contains(":3567/config")) {
             String appId = ResourceDistributor.getAppForTesting().getAppId();
@@ -102,6 +110,9 @@ public class HttpRequestForTesting {
             if (cdiVersion != null) {
                 con.setRequestProperty("cdi-version", cdiVersion);
             }
+            if (apiKey != null) {
+                con.setRequestProperty("Authorization", "Bearer " + apiKey);
+            }
             if (rid != null) {
                 con.setRequestProperty("rId", rid);
             }
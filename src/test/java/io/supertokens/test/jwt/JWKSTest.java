@@ -24,7 +24,6 @@ import com.auth0.jwt.interfaces.RSAKeyProvider;
 import com.google.gson.JsonObject;
 import io.supertokens.ProcessState;
 import io.supertokens.jwt.JWTSigningFunctions;
-import io.supertokens.signingkeys.JWTSigningKey;
 import io.supertokens.signingkeys.SigningKeys;
 import io.supertokens.test.TestingProcessManager;
 import io.supertokens.test.Utils;
@@ -62,7 +61,8 @@ public class JWKSTest {
     }
 
     /**
-     * Test that after startup there is one JWK for each supported algorithm type in storage
+     * Test that after startup there is one JWK for RS256 and one for the access token signing algorithm (which is
+     * also RS256 by default) in storage. Keys for other algorithms are only created when they are first used.
      */
     @Test
     public void testThatThereAreTheSameNumberOfJWKSAsSupportedAlgorithmsBeforeJWTCreation() throws Exception {
@@ -72,7 +72,7 @@ public class JWKSTest {
 
         List<JsonObject> keysFromStorage = SigningKeys.getInstance(process.getProcess()).getJWKS();
         // We also get a dynamic key in the JWKs list
-        assert keysFromStorage.size() == JWTSigningKey.SupportedAlgorithms.values().length + 1;
+        assert keysFromStorage.size() == 2;
 
         process.kill();
         assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
@@ -90,7 +90,7 @@ public class JWKSTest {
 
         List<JsonObject> keysFromStorageBeforeJWTCreation = SigningKeys.getInstance(process.getProcess()).getJWKS();
         // We also get a dynamic key in the JWKs list
-        assert keysFromStorageBeforeJWTCreation.size() == JWTSigningKey.SupportedAlgorithms.values().length + 1;
+        assert keysFromStorageBeforeJWTCreation.size() == 2;
         int numberOfKeysBeforeJWTCreation = keysFromStorageBeforeJWTCreation.size();
 
         String algorithm = "RS256";
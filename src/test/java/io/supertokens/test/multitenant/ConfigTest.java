@@ -20,6 +20,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 import io.supertokens.Main;
 import io.supertokens.ProcessState;
+import io.supertokens.ResourceDistributor;
 import io.supertokens.cliOptions.CLIOptions;
 import io.supertokens.config.Config;
 import io.supertokens.config.CoreConfig;
@@ -1141,6 +1142,109 @@ public class ConfigTest {
         }
     }
 
+    @Test
+    public void testNormalisedConfigsOfTenantsInTheSameAppAreMergedPerLayer() {
+        JsonObject baseConfig = new JsonObject();
+        baseConfig.addProperty("email_verification_token_lifetime", 1000);
+        baseConfig.addProperty("password_reset_token_lifetime", 1000);
+        baseConfig.addProperty("access_token_validity", 1000);
+
+        JsonObject cudConfig = new JsonObject();
+        cudConfig.addProperty("access_token_validity", 2000);
+        JsonObject appConfig = new JsonObject();
+        appConfig.addProperty("password_reset_token_lifetime", 3000);
+        JsonObject t1Config = new JsonObject();
+        t1Config.addProperty("email_verification_token_lifetime", 4000);
+
+        TenantIdentifier c1 = new TenantIdentifier("c1", null, null);
+        TenantIdentifier a1 = new TenantIdentifier("c1", "a1", null);
+        TenantIdentifier t1 = new TenantIdentifier("c1", "a1", "t1");
+        TenantIdentifier t2 = new TenantIdentifier("c1", "a1", "t2");
+        TenantConfig[] tenants = new TenantConfig[]{
+                new TenantConfig(new TenantIdentifier(null, null, null), new EmailPasswordConfig(true),
+                        new ThirdPartyConfig(true, null), new PasswordlessConfig(true), null, null,
+                        new JsonObject()),
+                new TenantConfig(c1, new EmailPasswordConfig(true), new ThirdPartyConfig(true, null),
+                        new PasswordlessConfig(true), null, null, cudConfig),
+                new TenantConfig(a1, new EmailPasswordConfig(true), new ThirdPartyConfig(true, null),
+                        new PasswordlessConfig(true), null, null, appConfig),
+                new TenantConfig(t1, new EmailPasswordConfig(true), new ThirdPartyConfig(true, null),
+                        new PasswordlessConfig(true), null, null, t1Config),
+                new TenantConfig(t2, new EmailPasswordConfig(true), new ThirdPartyConfig(true, null),
+                        new PasswordlessConfig(true), null, null, new JsonObject()),
+        };
+
+        java.util.Map<ResourceDistributor.KeyClass, JsonObject> normalisedConfigs =
+                Config.getNormalisedConfigsForAllTenants(tenants, baseConfig);
+
+        JsonObject t1Normalised = normalisedConfigs.get(new ResourceDistributor.KeyClass(t1, Config.RESOURCE_KEY));
+        assertEquals(4000, t1Normalised.get("email_verification_token_lifetime").getAsInt());
+        assertEquals(3000, t1Normalised.get("password_reset_token_lifetime").getAsInt());
+        assertEquals(2000, t1Normalised.get("access_token_validity").getAsInt());
+
+        JsonObject t2Normalised = normalisedConfigs.get(new ResourceDistributor.KeyClass(t2, Config.RESOURCE_KEY));
+        assertEquals(1000, t2Normalised.get("email_verification_token_lifetime").getAsInt());
+        assertEquals(3000, t2Normalised.get("password_reset_token_lifetime").getAsInt());
+        assertEquals(2000, t2Normalised.get("access_token_validity").getAsInt());
+
+        JsonObject a1Normalised = normalisedConfigs.get(new ResourceDistributor.KeyClass(a1, Config.RESOURCE_KEY));
+        assertEquals(a1Normalised, t2Normalised);
+        // tenants that share their app layer still get their own object
+        assertNotSame(a1Normalised, t2Normalised);
+        t2Normalised.addProperty("access_token_validity", 5000);
+        assertEquals(2000, a1Normalised.get("access_token_validity").getAsInt());
+        assertEquals(2000, t1Normalised.get("access_token_validity").getAsInt());
+
+        assertSame(baseConfig, normalisedConfigs.get(
+                new ResourceDistributor.KeyClass(new TenantIdentifier(null, null, null), Config.RESOURCE_KEY)));
+    }
+
+    @Test
+    public void testNormalisedConfigsAreOnlyMergedAgainIfALayerChanged() {
+        JsonObject baseConfig = new JsonObject();
+        baseConfig.addProperty("access_token_validity", 1000);
+
+        TenantIdentifier a1 = new TenantIdentifier(null, "a1", null);
+        TenantIdentifier t1 = new TenantIdentifier(null, "a1", "t1");
+        TenantIdentifier a2 = new TenantIdentifier(null, "a2", null);
+        ResourceDistributor.KeyClass t1Key = new ResourceDistributor.KeyClass(t1, Config.RESOURCE_KEY);
+        ResourceDistributor.KeyClass a2Key = new ResourceDistributor.KeyClass(a2, Config.RESOURCE_KEY);
+
+        JsonObject appConfig = new JsonObject();
+        appConfig.addProperty("access_token_validity", 2000);
+        Config.NormalisedTenantConfigCache cache = new Config.NormalisedTenantConfigCache();
+        java.util.Map<ResourceDistributor.KeyClass, JsonObject> first = cache.getNormalisedConfigsForAllTenants(
+                new TenantConfig[]{createTenantConfig(a1, appConfig), createTenantConfig(t1, new JsonObject()),
+                        createTenantConfig(a2, new JsonObject())}, baseConfig);
+        assertEquals(2000, first.get(t1Key).get("access_token_validity").getAsInt());
+        assertSame(first, cache.getLastNormalisedConfigs(baseConfig));
+
+        // the configs are read from the db again on each refresh, so these are new but equal objects
+        JsonObject changedAppConfig = new JsonObject();
+        changedAppConfig.addProperty("access_token_validity", 3000);
+        java.util.Map<ResourceDistributor.KeyClass, JsonObject> second = cache.getNormalisedConfigsForAllTenants(
+                new TenantConfig[]{createTenantConfig(a1, changedAppConfig),
+                        createTenantConfig(t1, new JsonObject()), createTenantConfig(a2, new JsonObject())},
+                baseConfig.deepCopy());
+        assertEquals(3000, second.get(t1Key).get("access_token_validity").getAsInt());
+        assertSame(first.get(a2Key), second.get(a2Key));
+
+        JsonObject changedBaseConfig = new JsonObject();
+        changedBaseConfig.addProperty("access_token_validity", 4000);
+        assertNull(cache.getLastNormalisedConfigs(changedBaseConfig));
+        java.util.Map<ResourceDistributor.KeyClass, JsonObject> third = cache.getNormalisedConfigsForAllTenants(
+                new TenantConfig[]{createTenantConfig(a1, changedAppConfig),
+                        createTenantConfig(t1, new JsonObject()), createTenantConfig(a2, new JsonObject())},
+                changedBaseConfig);
+        assertEquals(4000, third.get(a2Key).get("access_token_validity").getAsInt());
+        assertEquals(3000, third.get(t1Key).get("access_token_validity").getAsInt());
+    }
+
+    private static TenantConfig createTenantConfig(TenantIdentifier tenantIdentifier, JsonObject coreConfig) {
+        return new TenantConfig(tenantIdentifier, new EmailPasswordConfig(true), new ThirdPartyConfig(true, null),
+                new PasswordlessConfig(true), null, null, coreConfig);
+    }
+
     @Test
     public void testTenantConfigIsNormalisedFromCUD1() throws Exception {
         String[] args = {"../"};
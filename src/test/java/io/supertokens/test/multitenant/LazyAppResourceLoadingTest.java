@@ -0,0 +1,161 @@
+/*
+ *    Copyright (c) 2024, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.test.multitenant;
+
+import com.google.gson.JsonObject;
+import io.supertokens.ProcessState;
+import io.supertokens.featureflag.EE_FEATURES;
+import io.supertokens.featureflag.FeatureFlagTestContent;
+import io.supertokens.multitenancy.Multitenancy;
+import io.supertokens.pluginInterface.STORAGE_TYPE;
+import io.supertokens.pluginInterface.multitenancy.*;
+import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
+import io.supertokens.signingkeys.AccessTokenSigningKey;
+import io.supertokens.signingkeys.SigningKeys;
+import io.supertokens.storageLayer.StorageLayer;
+import io.supertokens.test.TestingProcessManager;
+import io.supertokens.test.Utils;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+public class LazyAppResourceLoadingTest {
+    @Rule
+    public TestRule watchman = Utils.getOnFailure();
+
+    @Rule
+    public TestRule retryFlaky = Utils.retryFlakyTest();
+
+    @AfterClass
+    public static void afterTesting() {
+        Utils.afterTesting();
+    }
+
+    @Before
+    public void beforeEach() {
+        Utils.reset();
+    }
+
+    private static void createApp(TestingProcessManager.TestingProcess process, AppIdentifier app) throws Exception {
+        Multitenancy.addNewOrUpdateAppOrTenant(process.getProcess(), new TenantIdentifier(null, null, null),
+                new TenantConfig(app.getAsPublicTenantIdentifier(), new EmailPasswordConfig(true),
+                        new ThirdPartyConfig(true, null), new PasswordlessConfig(true), null, null,
+                        new JsonObject()));
+    }
+
+    @Test
+    public void testAppResourcesAreCreatedOnFirstUseAndRemovedWhenIdle() throws Exception {
+        Utils.setValueInConfig("lazy_app_resource_loading_enabled", "true");
+
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args, false);
+        FeatureFlagTestContent.getInstance(process.getProcess())
+                .setKeyValue(FeatureFlagTestContent.ENABLED_FEATURES, new EE_FEATURES[]{EE_FEATURES.MULTI_TENANCY});
+        process.startProcess();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        AppIdentifier a1 = new AppIdentifier(null, "a1");
+        createApp(process, a1);
+
+        assertNull(SigningKeys.getInstanceIfLoaded(a1, process.getProcess()));
+        assertNull(AccessTokenSigningKey.getInstanceIfLoaded(a1, process.getProcess()));
+
+        List<String> kids = new ArrayList<>();
+        SigningKeys.getInstance(a1, process.getProcess()).getAllKeys().forEach(key -> kids.add(key.keyId));
+        assertFalse(kids.isEmpty());
+
+        SigningKeys signingKeys = SigningKeys.getInstanceIfLoaded(a1, process.getProcess());
+        assertNotNull(signingKeys);
+        assertNotNull(AccessTokenSigningKey.getInstanceIfLoaded(a1, process.getProcess()));
+
+        // nothing has been used for 0ms
+        assertTrue(process.getProcess().getResourceDistributor().removeIdleAppResources(0) >= 2);
+        assertNull(SigningKeys.getInstanceIfLoaded(a1, process.getProcess()));
+        assertNull(AccessTokenSigningKey.getInstanceIfLoaded(a1, process.getProcess()));
+
+        // the keys are read from the db again
+        SigningKeys recreated = SigningKeys.getInstance(a1, process.getProcess());
+        assertNotSame(signingKeys, recreated);
+        List<String> kidsAfterRecreating = new ArrayList<>();
+        recreated.getAllKeys().forEach(key -> kidsAfterRecreating.add(key.keyId));
+        assertEquals(kids, kidsAfterRecreating);
+
+        try {
+            SigningKeys.getInstance(new AppIdentifier(null, "a2"), process.getProcess());
+            fail();
+        } catch (TenantOrAppNotFoundException ignored) {
+        }
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void testAppResourceIsCreatedOnceWhenUsedInParallel() throws Exception {
+        Utils.setValueInConfig("lazy_app_resource_loading_enabled", "true");
+
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args, false);
+        FeatureFlagTestContent.getInstance(process.getProcess())
+                .setKeyValue(FeatureFlagTestContent.ENABLED_FEATURES, new EE_FEATURES[]{EE_FEATURES.MULTI_TENANCY});
+        process.startProcess();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        AppIdentifier a1 = new AppIdentifier(null, "a1");
+        createApp(process, a1);
+
+        Set<AccessTokenSigningKey> instances = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    instances.add(AccessTokenSigningKey.getInstance(a1, process.getProcess()));
+                } catch (TenantOrAppNotFoundException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, instances.size());
+        assertSame(instances.iterator().next(), AccessTokenSigningKey.getInstanceIfLoaded(a1, process.getProcess()));
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+}
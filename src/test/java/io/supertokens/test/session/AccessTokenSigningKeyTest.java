@@ -212,4 +212,37 @@ public class AccessTokenSigningKeyTest {
         process.kill();
         assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
     }
+
+    @Test
+    public void keySetIsReusedUntilTheKeysChange() throws Exception {
+        Utils.setValueInConfig("access_token_dynamic_signing_key_update_interval", "0.00027"); // 1 seconds
+
+        String[] args = {"../"};
+        TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+
+        EventAndException e = process.checkOrWaitForEvent(PROCESS_STATE.STARTED);
+        assertNotNull(e);
+
+        SigningKeys signingKeysInstance = SigningKeys.getInstance(process.getProcess());
+
+        List<JWTSigningKeyInfo> keys = signingKeysInstance.getAllKeys();
+        // nothing changed, so the same key set is returned
+        assertSame(keys, signingKeysInstance.getAllKeys());
+        for (JWTSigningKeyInfo key : keys) {
+            assertSame(key, signingKeysInstance.getSigningKeyById(key.keyId));
+        }
+        assertNull(signingKeysInstance.getSigningKeyById("unknown-kid"));
+        assertNull(signingKeysInstance.getSigningKeyById(null));
+
+        // after the dynamic key is rotated, we get a new key set that contains the new key
+        Thread.sleep(1500);
+        List<JWTSigningKeyInfo> newKeys = signingKeysInstance.getAllKeys();
+        assertNotSame(keys, newKeys);
+        String latestKid = signingKeysInstance.getDynamicKeys().get(0).id;
+        assertNotNull(signingKeysInstance.getSigningKeyById(latestKid));
+        assertEquals(latestKid, newKeys.get(0).keyId);
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
+    }
 }
@@ -107,6 +107,36 @@ public class JWTTest {
         }
     }
 
+    @Test
+    public void preParseSplitsTokenAndRejectsMalformedTokens() throws Exception {
+        TestInput input = new TestInput("value");
+        io.supertokens.utils.Utils.PubPriKey rsa = io.supertokens.utils.Utils.generateNewPubPriKey();
+        String token = JWT.createAndSignLegacyAccessToken(new Gson().toJsonTree(input), rsa.privateKey,
+                AccessToken.VERSION.V2);
+
+        JWT.JWTPreParseInfo preParseInfo = JWT.preParseJWTInfo(token);
+        String[] splitToken = token.split("\\.");
+        assertEquals(splitToken[0], preParseInfo.header);
+        assertEquals(splitToken[1], preParseInfo.payload);
+        assertEquals(splitToken[2], preParseInfo.signature);
+
+        // the info built from an already split token verifies the same way
+        JWT.JWTPreParseInfo fromSplitToken = new JWT.JWTPreParseInfo(splitToken, AccessToken.VERSION.V2, null);
+        assertEquals(input, new Gson().fromJson(JWT.verifyJWTAndGetPayload(fromSplitToken, rsa.publicKey).payload,
+                TestInput.class));
+
+        String[] invalidTokens = new String[]{token + ".extra", token + ".", splitToken[0] + "." + splitToken[1],
+                splitToken[0] + "." + splitToken[1] + ".", token + "\u00e9"};
+        for (String invalidToken : invalidTokens) {
+            try {
+                JWT.preParseJWTInfo(invalidToken);
+                fail();
+            } catch (JWTException e) {
+                assertEquals("Invalid JWT", e.getMessage());
+            }
+        }
+    }
+
     @Test
     public void signingSuccess()
             throws NoSuchAlgorithmException, InvalidKeySpecException, InvalidKeyException, SignatureException {
@@ -0,0 +1,175 @@
+/*
+ *    Copyright (c) 2024, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.test.session;
+
+import com.google.gson.JsonObject;
+import io.supertokens.ProcessState;
+import io.supertokens.exceptions.UnauthorisedException;
+import io.supertokens.session.RefreshSessionCoalescer;
+import io.supertokens.session.Session;
+import io.supertokens.session.accessToken.AccessToken;
+import io.supertokens.session.info.SessionInformationHolder;
+import io.supertokens.test.TestingProcessManager;
+import io.supertokens.test.Utils;
+import org.junit.*;
+import org.junit.rules.TestRule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.TestCase.*;
+import static org.junit.Assert.assertNotNull;
+
+public class RefreshSessionCoalescerTest {
+    @Rule
+    public TestRule watchman = Utils.getOnFailure();
+
+    @Rule
+    public TestRule retryFlaky = Utils.retryFlakyTest();
+
+    @AfterClass
+    public static void afterTesting() {
+        Utils.afterTesting();
+    }
+
+    @Before
+    public void beforeEach() {
+        Utils.reset();
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    public void concurrentRefreshesWithTheSameKeyShareOneResult() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        SessionInformationHolder session = Session.createNewSession(process.getProcess(), "user", new JsonObject(),
+                new JsonObject());
+        RefreshSessionCoalescer coalescer = RefreshSessionCoalescer.getInstance(process.getProcess());
+        AtomicInteger numberOfRefreshes = new AtomicInteger(0);
+        CountDownLatch firstRefreshStarted = new CountDownLatch(1);
+        CountDownLatch finishFirstRefresh = new CountDownLatch(1);
+
+        ExecutorService es = Executors.newFixedThreadPool(5);
+        List<Future<SessionInformationHolder>> results = new ArrayList<>();
+        results.add(es.submit(() -> coalescer.refresh("key", () -> {
+            numberOfRefreshes.incrementAndGet();
+            firstRefreshStarted.countDown();
+            awaitUninterruptibly(finishFirstRefresh);
+            return session;
+        })));
+        firstRefreshStarted.await();
+        for (int i = 0; i < 4; i++) {
+            results.add(es.submit(() -> coalescer.refresh("key", () -> {
+                numberOfRefreshes.incrementAndGet();
+                return null;
+            })));
+        }
+        // give the other calls time to join the in flight refresh
+        Thread.sleep(500);
+        finishFirstRefresh.countDown();
+
+        for (Future<SessionInformationHolder> result : results) {
+            assertSame(session, result.get());
+        }
+        assertEquals(1, numberOfRefreshes.get());
+
+        // once the refresh is done, the next call runs again
+        assertNull(coalescer.refresh("key", () -> {
+            numberOfRefreshes.incrementAndGet();
+            return null;
+        }));
+        assertEquals(2, numberOfRefreshes.get());
+
+        es.shutdown();
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void concurrentRefreshesWithTheSameKeyShareOneError() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        RefreshSessionCoalescer coalescer = RefreshSessionCoalescer.getInstance(process.getProcess());
+        CountDownLatch firstRefreshStarted = new CountDownLatch(1);
+        CountDownLatch finishFirstRefresh = new CountDownLatch(1);
+
+        ExecutorService es = Executors.newFixedThreadPool(2);
+        Future<SessionInformationHolder> first = es.submit(() -> coalescer.refresh("key", () -> {
+            firstRefreshStarted.countDown();
+            awaitUninterruptibly(finishFirstRefresh);
+            throw new UnauthorisedException("Session missing in db or has expired");
+        }));
+        firstRefreshStarted.await();
+        Future<SessionInformationHolder> second = es.submit(() -> coalescer.refresh("key", () -> null));
+        Thread.sleep(500);
+        finishFirstRefresh.countDown();
+
+        for (Future<SessionInformationHolder> result : Arrays.asList(first, second)) {
+            try {
+                result.get();
+                fail();
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof UnauthorisedException);
+            }
+        }
+
+        es.shutdown();
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void parallelRefreshesOfASessionDoNotDetectTokenTheft() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        SessionInformationHolder session = Session.createNewSession(process.getProcess(), "user", new JsonObject(),
+                new JsonObject());
+        assert session.refreshToken != null;
+        String refreshToken = session.refreshToken.token;
+
+        ExecutorService es = Executors.newFixedThreadPool(10);
+        List<Future<SessionInformationHolder>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(es.submit(() -> Session.refreshSession(process.getProcess(), refreshToken, null, false,
+                    AccessToken.getLatestVersion())));
+        }
+        for (Future<SessionInformationHolder> result : results) {
+            SessionInformationHolder refreshedSession = result.get();
+            assertEquals(session.session.handle, refreshedSession.session.handle);
+        }
+
+        es.shutdown();
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+}
@@ -19,12 +19,15 @@ package io.supertokens.test.session;
 import io.supertokens.ProcessState.PROCESS_STATE;
 import io.supertokens.config.Config;
 import io.supertokens.exceptions.UnauthorisedException;
+import io.supertokens.multitenancy.MultitenancyHelper;
 import io.supertokens.pluginInterface.exceptions.StorageQueryException;
 import io.supertokens.pluginInterface.exceptions.StorageTransactionLogicException;
+import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
 import io.supertokens.session.info.TokenInfo;
 import io.supertokens.session.refreshToken.RefreshToken;
 import io.supertokens.session.refreshToken.RefreshToken.RefreshTokenInfo;
 import io.supertokens.session.refreshToken.RefreshToken.TYPE;
+import io.supertokens.session.refreshToken.RefreshTokenKey;
 import io.supertokens.test.TestingProcessManager;
 import io.supertokens.test.TestingProcessManager.TestingProcess;
 import io.supertokens.test.Utils;
@@ -43,6 +46,7 @@ import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -98,9 +102,11 @@ public class RefreshTokenTest {
         assertEquals("V0", TYPE.FREE.toString());
         assertEquals("V1", TYPE.PAID.toString());
         assertEquals("V2", TYPE.FREE_OPTIMISED.toString());
+        assertEquals("V3", TYPE.BINARY.toString());
         assertSame(TYPE.fromString("V0"), TYPE.FREE);
         assertSame(TYPE.fromString("V1"), TYPE.PAID);
         assertSame(TYPE.fromString("V2"), TYPE.FREE_OPTIMISED);
+        assertSame(TYPE.fromString("V3"), TYPE.BINARY);
         assertNull(TYPE.fromString("random"));
     }
 
@@ -171,4 +177,77 @@ public class RefreshTokenTest {
         fail();
     }
 
+    @Test
+    public void binaryRefreshTokenRoundTripAndLegacyTokensAreStillReadable() throws Exception {
+        Utils.setValueInConfig("binary_refresh_tokens_enabled", "true");
+        String[] args = {"../"};
+        TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+
+        TokenInfo tokenInfo = RefreshToken.createNewRefreshToken(process.getProcess(), "sessionHandle", "userId",
+                null, "antiCsrfToken");
+        assertTrue(tokenInfo.token.endsWith(".V3"));
+        RefreshTokenInfo infoFromToken = RefreshToken.getInfoFromRefreshToken(process.getProcess(), tokenInfo.token);
+        assertSame(TYPE.BINARY, infoFromToken.type);
+        assertEquals("sessionHandle", infoFromToken.sessionHandle);
+        assertEquals("userId", infoFromToken.userId);
+        assertNull(infoFromToken.parentRefreshTokenHash1);
+        assertEquals("antiCsrfToken", infoFromToken.antiCsrfToken);
+        assertEquals("public", infoFromToken.tenantIdentifier.getTenantId());
+
+        // two tokens for the same session are never the same
+        assertNotEquals(tokenInfo.token, RefreshToken.createNewRefreshToken(process.getProcess(), "sessionHandle",
+                "userId", null, "antiCsrfToken").token);
+
+        // tokens created before the binary format was introduced
+        String key = RefreshTokenKey.getInstance(process.getProcess()).getKey();
+        String nonce = io.supertokens.utils.Utils.hashSHA256("nonce");
+        String legacyToken = io.supertokens.utils.Utils.encrypt("{\"sessionHandle\":\"sessionHandle\",\"userId" +
+                "\":\"userId\",\"parentRefreshTokenHash1\":\"parentRefreshTokenHash1\",\"nonce\":\"" + nonce +
+                "\"}", key) + "." + nonce + ".V2";
+        RefreshTokenInfo legacyInfo = RefreshToken.getInfoFromRefreshToken(process.getProcess(), legacyToken);
+        assertSame(TYPE.FREE_OPTIMISED, legacyInfo.type);
+        assertEquals("sessionHandle", legacyInfo.sessionHandle);
+        assertEquals("userId", legacyInfo.userId);
+        assertEquals("parentRefreshTokenHash1", legacyInfo.parentRefreshTokenHash1);
+        assertNull(legacyInfo.antiCsrfToken);
+
+        // a binary token that was tampered with
+        char originalChar = tokenInfo.token.charAt(5);
+        String tamperedToken = tokenInfo.token.substring(0, 5) + (originalChar == 'A' ? 'B' : 'A')
+                + tokenInfo.token.substring(6);
+        try {
+            RefreshToken.getInfoFromRefreshToken(process.getProcess(), tamperedToken);
+            fail();
+        } catch (UnauthorisedException ignored) {
+        }
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void binaryRefreshTokensAreAcceptedWhenNotEnabled() throws Exception {
+        Utils.setValueInConfig("binary_refresh_tokens_enabled", "true");
+        String[] args = {"../"};
+        TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+
+        TokenInfo binaryToken = RefreshToken.createNewRefreshToken(process.getProcess(), "sessionHandle", "userId",
+                null, null);
+        assertTrue(binaryToken.token.endsWith(".V3"));
+
+        // e.g.: the config was changed back, or the token was created by another core that has it enabled
+        Utils.setValueInConfig("binary_refresh_tokens_enabled", "false");
+        MultitenancyHelper.getInstance(process.getProcess()).loadConfig(List.of(TenantIdentifier.BASE_TENANT));
+
+        assertTrue(RefreshToken.createNewRefreshToken(process.getProcess(), "sessionHandle", "userId", null,
+                null).token.endsWith(".V2"));
+        RefreshTokenInfo infoFromToken = RefreshToken.getInfoFromRefreshToken(process.getProcess(), binaryToken.token);
+        assertSame(TYPE.BINARY, infoFromToken.type);
+        assertEquals("sessionHandle", infoFromToken.sessionHandle);
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
+    }
 }
@@ -21,12 +21,25 @@ import com.auth0.jwt.interfaces.DecodedJWT;
 import com.google.gson.JsonObject;
 import io.supertokens.ProcessState;
 import io.supertokens.config.Config;
+import io.supertokens.cronjobs.CronTaskTest;
+import io.supertokens.cronjobs.preGenerateAccessTokenSigningKeys.PreGenerateAccessTokenSigningKeys;
+import io.supertokens.featureflag.EE_FEATURES;
+import io.supertokens.featureflag.FeatureFlagTestContent;
+import io.supertokens.jwt.JWTSigningFunctions;
+import io.supertokens.multitenancy.Multitenancy;
+import io.supertokens.pluginInterface.STORAGE_TYPE;
+import io.supertokens.pluginInterface.multitenancy.EmailPasswordConfig;
+import io.supertokens.pluginInterface.multitenancy.PasswordlessConfig;
+import io.supertokens.pluginInterface.multitenancy.TenantConfig;
+import io.supertokens.pluginInterface.multitenancy.ThirdPartyConfig;
 import io.supertokens.session.Session;
 import io.supertokens.session.accessToken.AccessToken;
 import io.supertokens.session.info.SessionInformationHolder;
 import io.supertokens.session.jwt.JWT;
 import io.supertokens.signingkeys.AccessTokenSigningKey;
+import io.supertokens.signingkeys.JWTSigningKey;
 import io.supertokens.signingkeys.SigningKeys;
+import io.supertokens.storageLayer.StorageLayer;
 import io.supertokens.test.TestingProcessManager;
 import io.supertokens.test.Utils;
 import org.junit.*;
@@ -34,6 +47,7 @@ import org.junit.rules.TestRule;
 
 import java.time.Instant;
 import java.util.Base64;
+import java.util.List;
 
 import static junit.framework.TestCase.*;
 import static org.junit.Assert.assertNotEquals;
@@ -388,4 +402,162 @@ public class SessionTest5 {
         assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
 
     }
+
+    @Test
+    public void checkNextDynamicKeyIsGeneratedInTheBackground() throws Exception {
+        Utils.setValueInConfig("access_token_dynamic_signing_key_update_interval", "0.00081"); // 3 seconds
+
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args, false);
+        CronTaskTest.getInstance(process.getProcess())
+                .setIntervalInSeconds(PreGenerateAccessTokenSigningKeys.RESOURCE_KEY, 1);
+        process.startProcess();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        SigningKeys signingKeysInstance = SigningKeys.getInstance(process.getProcess());
+        assertEquals(1, signingKeysInstance.getDynamicKeys().size());
+
+        // the current key stops being used for signing after about 2.4 seconds (interval - overlap), and the
+        // cronjob creates the next one about a second before that
+        Thread.sleep(2500);
+
+        assertEquals(2, signingKeysInstance.getDynamicKeys().size());
+        // the request path never had to refresh the keys itself
+        assertNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.UPDATING_ACCESS_TOKEN_SIGNING_KEYS, 100));
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void checkOldAlgorithmKeepsSigningDuringOverlapAfterAlgorithmChange() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        FeatureFlagTestContent.getInstance(process.getProcess())
+                .setKeyValue(FeatureFlagTestContent.ENABLED_FEATURES, new EE_FEATURES[]{EE_FEATURES.MULTI_TENANCY});
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        SessionInformationHolder createInfo = Session.createNewSession(process.getProcess(), "userId",
+                new JsonObject(), new JsonObject(), false, AccessToken.getLatestVersion(), false);
+        JWT.JWTPreParseInfo preParseInfoBeforeChange = JWT.preParseJWTInfo(createInfo.accessToken.token);
+        assertEquals("RS256", preParseInfoBeforeChange.algorithm.name());
+
+        JsonObject coreConfig = new JsonObject();
+        coreConfig.addProperty("access_token_signing_key_algorithm", "ES256");
+        Multitenancy.addNewOrUpdateAppOrTenant(process.getProcess(), new TenantConfig(process.getAppForTesting(),
+                new EmailPasswordConfig(true), new ThirdPartyConfig(true, null), new PasswordlessConfig(true),
+                null, null, coreConfig), false);
+        AccessTokenSigningKey.getInstance(process.getProcess()).setDynamicSigningKeyOverlapMS(3000);
+
+        // the ES256 key is created now, but the RS256 key keeps signing access tokens during the overlap
+        SessionInformationHolder createInfoDuringOverlap = Session.createNewSession(process.getProcess(), "userId",
+                new JsonObject(), new JsonObject(), false, AccessToken.getLatestVersion(), false);
+        JWT.JWTPreParseInfo preParseInfoDuringOverlap = JWT.preParseJWTInfo(
+                createInfoDuringOverlap.accessToken.token);
+        assertEquals(preParseInfoBeforeChange.kid, preParseInfoDuringOverlap.kid);
+        assertEquals("RS256", preParseInfoDuringOverlap.algorithm.name());
+        assertNotNull(SigningKeys.getInstance(process.getProcess())
+                .getLatestIssuedDynamicKey(JWTSigningKey.SupportedAlgorithms.ES256));
+
+        Thread.sleep(3500);
+
+        SessionInformationHolder createInfoAfterOverlap = Session.createNewSession(process.getProcess(), "userId",
+                new JsonObject(), new JsonObject(), false, AccessToken.getLatestVersion(), false);
+        JWT.JWTPreParseInfo preParseInfoAfterOverlap = JWT.preParseJWTInfo(createInfoAfterOverlap.accessToken.token);
+        assertNotEquals(preParseInfoBeforeChange.kid, preParseInfoAfterOverlap.kid);
+        assertEquals("ES256", preParseInfoAfterOverlap.algorithm.name());
+
+        // tokens signed with the old key can still be verified
+        SessionInformationHolder getInfo = Session.getSession(process.getProcess(),
+                createInfoDuringOverlap.accessToken.token, createInfoDuringOverlap.antiCsrfToken, false, true, false);
+        assertEquals(createInfoDuringOverlap.session.handle, getInfo.session.handle);
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void checkSessionsWithES256SigningKeys() throws Exception {
+        Utils.setValueInConfig("access_token_signing_key_algorithm", "ES256");
+
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        String userId = "userId";
+        JsonObject userDataInJWT = new JsonObject();
+        userDataInJWT.addProperty("key", "value");
+        JsonObject userDataInDatabase = new JsonObject();
+        userDataInDatabase.addProperty("key", "value");
+
+        for (boolean useStaticKey : new boolean[]{false, true}) {
+            SessionInformationHolder createInfo = Session.createNewSession(process.getProcess(), userId,
+                    userDataInJWT, userDataInDatabase, false, AccessToken.getLatestVersion(), useStaticKey);
+            assertEquals("ES256", JWT.preParseJWTInfo(createInfo.accessToken.token).algorithm.name());
+
+            SessionInformationHolder getInfo = Session.getSession(process.getProcess(),
+                    createInfo.accessToken.token, createInfo.antiCsrfToken, false, true, false);
+            assertEquals(createInfo.session.handle, getInfo.session.handle);
+
+            SessionInformationHolder refreshInfo = Session.refreshSession(process.getProcess(),
+                    createInfo.refreshToken.token, null, false, AccessToken.getLatestVersion());
+            assertEquals("ES256", JWT.preParseJWTInfo(refreshInfo.accessToken.token).algorithm.name());
+        }
+
+        // the RS256 static key, the ES256 static key, the ES256 dynamic key and the RS256 dynamic key
+        List<JsonObject> jwks = SigningKeys.getInstance(process.getProcess()).getJWKS();
+        assertEquals(4, jwks.size());
+        int ecKeys = 0;
+        for (JsonObject jwk : jwks) {
+            if (jwk.get("kty").getAsString().equals("EC")) {
+                ecKeys++;
+                assertEquals("ES256", jwk.get("alg").getAsString());
+                assertEquals("P-256", jwk.get("crv").getAsString());
+                assertEquals(32, Base64.getUrlDecoder().decode(jwk.get("x").getAsString()).length);
+                assertEquals(32, Base64.getUrlDecoder().decode(jwk.get("y").getAsString()).length);
+            }
+        }
+        assertEquals(2, ecKeys);
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void checkRS256JWTsWithDynamicKeysWhenAccessTokensUseES256() throws Exception {
+        Utils.setValueInConfig("access_token_signing_key_algorithm", "ES256");
+
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        JsonObject payload = new JsonObject();
+        payload.addProperty("customClaim", "customValue");
+        String jwt = JWTSigningFunctions.createJWTToken(process.getProcess(), "RS256", payload, null, 1000, true);
+
+        JWT.JWTPreParseInfo preParseInfo = JWT.preParseJWTInfo(jwt);
+        assertEquals("RS256", preParseInfo.algorithm.name());
+        SigningKeys.KeyInfo rs256Key = SigningKeys.getInstance(process.getProcess())
+                .getLatestIssuedDynamicKey(JWTSigningKey.SupportedAlgorithms.RS256);
+        assertEquals(rs256Key.id, preParseInfo.kid);
+        assertTrue(rs256Key.id.startsWith("d-"));
+
+        // access tokens keep using the ES256 dynamic key
+        assertEquals("ES256", SigningKeys.getInstance(process.getProcess()).getLatestIssuedDynamicKey().algorithm);
+        SessionInformationHolder createInfo = Session.createNewSession(process.getProcess(), "userId",
+                new JsonObject(), new JsonObject(), false, AccessToken.getLatestVersion(), false);
+        assertEquals("ES256", JWT.preParseJWTInfo(createInfo.accessToken.token).algorithm.name());
+
+        // the RS256 dynamic key is kept when the keys are read again
+        List<SigningKeys.KeyInfo> dynamicKeys = AccessTokenSigningKey.getInstance(process.getProcess())
+                .getOrCreateAndGetSigningKeys();
+        assertEquals(2, dynamicKeys.size());
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
 }
@@ -0,0 +1,139 @@
+/*
+ *    Copyright (c) 2024, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.test.session.api;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import io.supertokens.ProcessState;
+import io.supertokens.httpRequest.HttpResponseException;
+import io.supertokens.test.TestingProcessManager;
+import io.supertokens.test.Utils;
+import io.supertokens.test.httpRequest.HttpRequestForTesting;
+import io.supertokens.utils.SemVer;
+import org.junit.*;
+import org.junit.rules.TestRule;
+
+import static junit.framework.TestCase.*;
+import static org.junit.Assert.assertNotNull;
+
+public class SessionBatchAPITest {
+    @Rule
+    public TestRule watchman = Utils.getOnFailure();
+
+    @Rule
+    public TestRule retryFlaky = Utils.retryFlakyTest();
+
+    @AfterClass
+    public static void afterTesting() {
+        Utils.afterTesting();
+    }
+
+    @Before
+    public void beforeEach() {
+        Utils.reset();
+    }
+
+    @Test
+    public void testGettingManySessionsAtOnce() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        String[] handles = new String[3];
+        for (int i = 0; i < handles.length; i++) {
+            JsonObject sessionRequest = new JsonObject();
+            sessionRequest.addProperty("userId", "user" + i);
+            JsonObject userDataInDatabase = new JsonObject();
+            userDataInDatabase.addProperty("index", i);
+            sessionRequest.add("userDataInJWT", new JsonObject());
+            sessionRequest.add("userDataInDatabase", userDataInDatabase);
+            sessionRequest.addProperty("enableAntiCsrf", false);
+            JsonObject session = HttpRequestForTesting.sendJsonPOSTRequest(process.getProcess(), "",
+                    "http://localhost:3567/recipe/session", sessionRequest, 1000, 1000, null,
+                    SemVer.v5_4.get(), "session");
+            handles[i] = session.get("session").getAsJsonObject().get("handle").getAsString();
+        }
+
+        JsonObject revokeRequest = new JsonObject();
+        JsonArray handlesToRevoke = new JsonArray();
+        handlesToRevoke.add(handles[1]);
+        revokeRequest.add("sessionHandles", handlesToRevoke);
+        JsonObject revokeResponse = HttpRequestForTesting.sendJsonPOSTRequest(process.getProcess(), "",
+                "http://localhost:3567/recipe/session/remove", revokeRequest, 1000, 1000, null,
+                SemVer.v5_4.get(), "session");
+        assertEquals("OK", revokeResponse.get("status").getAsString());
+
+        JsonArray sessionHandles = new JsonArray();
+        sessionHandles.add(handles[2]);
+        sessionHandles.add(handles[1]);
+        sessionHandles.add("unknown-handle");
+        sessionHandles.add(handles[0]);
+        JsonObject request = new JsonObject();
+        request.add("sessionHandles", sessionHandles);
+        JsonObject response = HttpRequestForTesting.sendJsonPOSTRequest(process.getProcess(), "",
+                "http://localhost:3567/recipe/session/batch", request, 1000, 1000, null,
+                SemVer.v5_4.get(), "session");
+
+        assertEquals("OK", response.get("status").getAsString());
+
+        // sessions are returned in the order they were asked for
+        JsonArray sessions = response.get("sessions").getAsJsonArray();
+        assertEquals(2, sessions.size());
+        JsonObject session = sessions.get(0).getAsJsonObject();
+        assertEquals(handles[2], session.get("sessionHandle").getAsString());
+        assertEquals("user2", session.get("userId").getAsString());
+        assertEquals(2, session.get("userDataInDatabase").getAsJsonObject().get("index").getAsInt());
+        assertEquals("public", session.get("tenantId").getAsString());
+        assertEquals(handles[0], sessions.get(1).getAsJsonObject().get("sessionHandle").getAsString());
+
+        JsonArray invalidSessionHandles = response.get("invalidSessionHandles").getAsJsonArray();
+        assertEquals(2, invalidSessionHandles.size());
+        assertEquals(handles[1], invalidSessionHandles.get(0).getAsString());
+        assertEquals("unknown-handle", invalidSessionHandles.get(1).getAsString());
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void testTooManySessionHandlesInOneRequest() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        JsonArray sessionHandles = new JsonArray();
+        for (int i = 0; i < 501; i++) {
+            sessionHandles.add("handle" + i);
+        }
+        JsonObject request = new JsonObject();
+        request.add("sessionHandles", sessionHandles);
+
+        try {
+            HttpRequestForTesting.sendJsonPOSTRequest(process.getProcess(), "",
+                    "http://localhost:3567/recipe/session/batch", request, 1000, 1000, null,
+                    SemVer.v5_4.get(), "session");
+            fail();
+        } catch (HttpResponseException e) {
+            assertEquals(400, e.statusCode);
+            assertEquals("Http error. Status Code: 400. Message: Field name 'sessionHandles' cannot contain more "
+                    + "than 500 elements", e.getMessage());
+        }
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ *    Copyright (c) 2024, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.test.session.api;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import io.supertokens.ProcessState;
+import io.supertokens.httpRequest.HttpResponseException;
+import io.supertokens.jwt.JWTSigningFunctions;
+import io.supertokens.pluginInterface.StorageUtils;
+import io.supertokens.pluginInterface.jwt.JWTSigningKeyInfo;
+import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
+import io.supertokens.session.accessToken.AccessToken;
+import io.supertokens.session.jwt.JWT;
+import io.supertokens.signingkeys.JWTSigningKey;
+import io.supertokens.signingkeys.SigningKeys;
+import io.supertokens.storageLayer.StorageLayer;
+import io.supertokens.test.TestingProcessManager;
+import io.supertokens.test.Utils;
+import io.supertokens.test.httpRequest.HttpRequestForTesting;
+import io.supertokens.utils.SemVer;
+import org.junit.*;
+import org.junit.rules.TestRule;
+
+import java.util.HashMap;
+
+import static junit.framework.TestCase.*;
+import static org.junit.Assert.assertNotNull;
+
+public class VerifySessionBatchAPITest {
+    @Rule
+    public TestRule watchman = Utils.getOnFailure();
+
+    @Rule
+    public TestRule retryFlaky = Utils.retryFlakyTest();
+
+    @AfterClass
+    public static void afterTesting() {
+        Utils.afterTesting();
+    }
+
+    @Before
+    public void beforeEach() {
+        Utils.reset();
+    }
+
+    private static JsonObject createSession(TestingProcessManager.TestingProcess process, String userId)
+            throws Exception {
+        JsonObject sessionRequest = new JsonObject();
+        sessionRequest.addProperty("userId", userId);
+        sessionRequest.add("userDataInJWT", new JsonObject());
+        sessionRequest.add("userDataInDatabase", new JsonObject());
+        sessionRequest.addProperty("enableAntiCsrf", false);
+
+        return HttpRequestForTesting.sendJsonPOSTRequest(process.getProcess(), "",
+                "http://localhost:3567/recipe/session", sessionRequest, 1000, 1000, null,
+                SemVer.v5_4.get(), "session");
+    }
+
+    @Test
+    public void testVerifyingManySessionsAtOnce() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        JsonObject session1 = createSession(process, "user1");
+        JsonObject session2 = createSession(process, "user2");
+        JsonObject revokedSession = createSession(process, "user3");
+
+        JsonObject revokeRequest = new JsonObject();
+        JsonArray sessionHandles = new JsonArray();
+        sessionHandles.add(revokedSession.get("session").getAsJsonObject().get("handle").getAsString());
+        revokeRequest.add("sessionHandles", sessionHandles);
+        JsonObject revokeResponse = HttpRequestForTesting.sendJsonPOSTRequest(process.getProcess(), "",
+                "http://localhost:3567/recipe/session/remove", revokeRequest, 1000, 1000, null,
+                SemVer.v5_4.get(), "session");
+        assertEquals("OK", revokeResponse.get("status").getAsString());
+
+        JsonArray sessions = new JsonArray();
+        for (JsonObject session : new JsonObject[]{session1, session2, revokedSession}) {
+            JsonObject sessionToVerify = new JsonObject();
+            sessionToVerify.addProperty("accessToken",
+                    session.get("accessToken").getAsJsonObject().get("token").getAsString());
+            sessions.add(sessionToVerify);
+        }
+        JsonObject invalidToken = new JsonObject();
+        invalidToken.addProperty("accessToken", "invalidtoken");
+        sessions.add(invalidToken);
+
+        for (boolean checkDatabase : new boolean[]{true, false}) {
+            JsonObject request = new JsonObject();
+            request.add("sessions", sessions);
+            request.addProperty("doAntiCsrfCheck", false);
+            request.addProperty("enableAntiCsrf", false);
+            request.addProperty("checkDatabase", checkDatabase);
+            JsonObject response = HttpRequestForTesting.sendJsonPOSTRequest(process.getProcess(), "",
+                    "http://localhost:3567/recipe/session/verify/batch", request, 1000, 1000, null,
+                    SemVer.v5_4.get(), "session");
+
+            assertEquals("OK", response.get("status").getAsString());
+            JsonArray results = response.get("sessions").getAsJsonArray();
+            assertEquals(4, results.size());
+
+            assertEquals("OK", results.get(0).getAsJsonObject().get("status").getAsString());
+            assertEquals("user1", results.get(0).getAsJsonObject().get("session").getAsJsonObject()
+                    .get("userId").getAsString());
+            assertEquals("OK", results.get(1).getAsJsonObject().get("status").getAsString());
+            assertEquals("user2", results.get(1).getAsJsonObject().get("session").getAsJsonObject()
+                    .get("userId").getAsString());
+
+            // the revoked session is only detected if we check the database
+            assertEquals(checkDatabase ? "UNAUTHORISED" : "OK",
+                    results.get(2).getAsJsonObject().get("status").getAsString());
+
+            assertEquals("TRY_REFRESH_TOKEN", results.get(3).getAsJsonObject().get("status").getAsString());
+        }
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void testInvalidTokensDoNotFailTheOtherTokens() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        JsonObject validSession = createSession(process, "user1");
+        JsonObject sessionWithInvalidPayload = createSession(process, "user2");
+        String validToken = validSession.get("accessToken").getAsJsonObject().get("token").getAsString();
+
+        // the JWT payload in the db contains a protected field, so the new access token for it cannot be created
+        JsonObject jwtData = new JsonObject();
+        jwtData.addProperty("sub", "otherUser");
+        StorageUtils.getSessionStorage(StorageLayer.getStorage(process.getProcess())).updateSession(
+                new TenantIdentifier(null, null, null),
+                sessionWithInvalidPayload.get("session").getAsJsonObject().get("handle").getAsString(), null,
+                jwtData);
+
+        // a validly signed token of a tenant that does not exist (anymore)
+        JWT.JWTInfo jwtInfo = JWT.getPayloadWithoutVerifying(validToken);
+        JsonObject payload = jwtInfo.payload;
+        payload.addProperty("tId", "deletedtenant");
+        HashMap<String, Object> headers = new HashMap<>();
+        headers.put("version", AccessToken.getVersionStringFromAccessTokenVersion(jwtInfo.version));
+        JWTSigningKeyInfo signingKey = io.supertokens.utils.Utils.getJWTSigningKeyInfoFromKeyInfo(
+                SigningKeys.getInstance(process.getProcess()).getLatestIssuedDynamicKey());
+        String tokenOfMissingTenant = JWTSigningFunctions.createJWTToken(
+                JWTSigningKey.SupportedAlgorithms.valueOf(signingKey.algorithm), headers, payload, null,
+                payload.get("exp").getAsLong() * 1000, payload.get("iat").getAsLong() * 1000, signingKey);
+
+        JsonArray sessions = new JsonArray();
+        for (String token : new String[]{validToken,
+                sessionWithInvalidPayload.get("accessToken").getAsJsonObject().get("token").getAsString(),
+                tokenOfMissingTenant}) {
+            JsonObject sessionToVerify = new JsonObject();
+            sessionToVerify.addProperty("accessToken", token);
+            sessions.add(sessionToVerify);
+        }
+
+        JsonObject request = new JsonObject();
+        request.add("sessions", sessions);
+        request.addProperty("doAntiCsrfCheck", false);
+        request.addProperty("enableAntiCsrf", false);
+        request.addProperty("checkDatabase", true);
+        JsonObject response = HttpRequestForTesting.sendJsonPOSTRequest(process.getProcess(), "",
+                "http://localhost:3567/recipe/session/verify/batch", request, 1000, 1000, null,
+                SemVer.v5_4.get(), "session");
+
+        assertEquals("OK", response.get("status").getAsString());
+        JsonArray results = response.get("sessions").getAsJsonArray();
+        assertEquals(3, results.size());
+
+        assertEquals("OK", results.get(0).getAsJsonObject().get("status").getAsString());
+        assertEquals("user1", results.get(0).getAsJsonObject().get("session").getAsJsonObject()
+                .get("userId").getAsString());
+        assertEquals("INVALID_ACCESS_TOKEN_PAYLOAD_ERROR",
+                results.get(1).getAsJsonObject().get("status").getAsString());
+        assertEquals("TENANT_NOT_FOUND_ERROR", results.get(2).getAsJsonObject().get("status").getAsString());
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void testTooManySessionsInOneRequest() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        JsonArray sessions = new JsonArray();
+        for (int i = 0; i < 501; i++) {
+            JsonObject sessionToVerify = new JsonObject();
+            sessionToVerify.addProperty("accessToken", "token");
+            sessions.add(sessionToVerify);
+        }
+        JsonObject request = new JsonObject();
+        request.add("sessions", sessions);
+        request.addProperty("doAntiCsrfCheck", false);
+        request.addProperty("enableAntiCsrf", false);
+        request.addProperty("checkDatabase", false);
+
+        try {
+            HttpRequestForTesting.sendJsonPOSTRequest(process.getProcess(), "",
+                    "http://localhost:3567/recipe/session/verify/batch", request, 1000, 1000, null,
+                    SemVer.v5_4.get(), "session");
+            fail();
+        } catch (HttpResponseException e) {
+            assertEquals(400, e.statusCode);
+            assertEquals("Http error. Status Code: 400. Message: Field name 'sessions' cannot contain more than 500 "
+                    + "elements", e.getMessage());
+        }
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+}